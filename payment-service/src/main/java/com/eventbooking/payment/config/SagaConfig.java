@@ -2,21 +2,80 @@ package com.eventbooking.payment.config;
 
 import com.eventbooking.common.saga.InMemorySagaEventStore;
 import com.eventbooking.common.saga.SagaEventStore;
+import com.eventbooking.common.saga.SagaSummaryProjection;
+import com.eventbooking.common.saga.SegmentedLogSagaEventStore;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
  * Configuration for Saga pattern components
  */
 @Configuration
 public class SagaConfig {
     
+    @Value("${saga.event-store.completed-retention-minutes:60}")
+    private long completedRetentionMinutes = 60;
+    
+    @Value("${saga.event-store.max-completed-sagas:10000}")
+    private int maxCompletedSagas = 10000;
+    
+    @Value("${saga.event-store.unfinished-retention-minutes:1440}")
+    private long unfinishedRetentionMinutes = 1440;
+    
+    @Value("${saga.event-store.durable.enabled:false}")
+    private boolean durableEnabled;
+    
+    @Value("${saga.event-store.durable.directory:./data/saga-log}")
+    private String directory = "./data/saga-log";
+    
+    @Value("${saga.event-store.durable.segment-bytes:67108864}")
+    private int segmentBytes = 64 * 1024 * 1024;
+    
+    @Value("${saga.event-store.durable.retention-hours:168}")
+    private long retentionHours = 168;
+    
+    @Value("${saga.event-store.durable.sync-writes:true}")
+    private boolean syncWrites = true;
+    
+    @Value("${saga.async.pool-size:32}")
+    private int asyncPoolSize = 32;
+    
     /**
      * Create saga event store bean
-     * In production, this would be replaced with a persistent implementation
+     * Sagas are kept in memory unless the durable segmented log is enabled, in which case
+     * in-flight sagas survive a restart
      */
     @Bean
     public SagaEventStore sagaEventStore() {
-        return new InMemorySagaEventStore();
+        if (durableEnabled) {
+            // Summaries evicted from memory are still rebuilt from the log on read
+            SagaSummaryProjection summaries = new SagaSummaryProjection(
+                    Duration.ofMinutes(completedRetentionMinutes), maxCompletedSagas,
+                    Duration.ofMinutes(unfinishedRetentionMinutes), sagaId -> { });
+            return new SegmentedLogSagaEventStore(Paths.get(directory), segmentBytes,
+                    Duration.ofHours(retentionHours), syncWrites, summaries);
+        }
+        return new InMemorySagaEventStore(Duration.ofMinutes(completedRetentionMinutes), maxCompletedSagas,
+                Duration.ofMinutes(unfinishedRetentionMinutes));
+    }
+    
+    /**
+     * Threads that async sagas run their steps and compensations on
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService sagaExecutor() {
+        AtomicInteger threadCount = new AtomicInteger();
+        return Executors.newFixedThreadPool(asyncPoolSize, runnable -> {
+            Thread thread = new Thread(runnable, "saga-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
     }
 }
@@ -16,6 +16,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/payments")
@@ -73,9 +74,10 @@ public class PaymentController {
     
     /**
      * Purchase tickets using saga pattern for distributed transaction handling
+     * With async sagas enabled the request thread is released while the saga runs
      */
     @PostMapping("/purchase-tickets")
-    public ResponseEntity<ApiResponse<TicketPurchaseResponse>> purchaseTickets(
+    public CompletableFuture<ResponseEntity<ApiResponse<TicketPurchaseResponse>>> purchaseTickets(
             @Valid @RequestBody TicketPurchaseRequest request,
             @RequestHeader("X-User-Id") UUID userId) {
         log.info("Processing ticket purchase for user: {}, event: {}", userId, request.getEventId());
@@ -91,8 +93,14 @@ public class PaymentController {
         context.put("reservationId", request.getReservationId());
         
         // Execute saga
-        boolean success = ticketPurchaseSaga.executePurchase(context);
+        CompletableFuture<Boolean> outcome = ticketPurchaseSaga.isAsyncEnabled()
+                ? ticketPurchaseSaga.executePurchaseAsync(context)
+                : CompletableFuture.completedFuture(ticketPurchaseSaga.executePurchase(context));
         
+        return outcome.thenApply(success -> toPurchaseResponse(context, success));
+    }
+    
+    private ResponseEntity<ApiResponse<TicketPurchaseResponse>> toPurchaseResponse(SagaContext context, boolean success) {
         if (success) {
             TicketPurchaseResponse response = TicketPurchaseResponse.builder()
                     .sagaId(context.getSagaId())
@@ -8,6 +8,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
+import java.util.Set;
 import java.util.UUID;
 
 /**
@@ -85,4 +86,9 @@ public class ConfirmOrderStep implements SagaStep {
     public int getOrder() {
         return 4;
     }
+    
+    @Override
+    public Set<String> getDependencies() {
+        return Set.of("ProcessPayment");
+    }
 }
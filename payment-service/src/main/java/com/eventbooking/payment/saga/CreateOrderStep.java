@@ -13,6 +13,7 @@ import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
 import java.util.Collections;
+import java.util.Set;
 import java.util.UUID;
 
 /**
@@ -110,4 +111,10 @@ public class CreateOrderStep implements SagaStep {
     public int getOrder() {
         return 2;
     }
+    
+    @Override
+    public Set<String> getDependencies() {
+        // Does not need the inventory check; a failed check cancels the order
+        return Collections.emptySet();
+    }
 }
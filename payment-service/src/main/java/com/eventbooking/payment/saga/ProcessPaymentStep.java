@@ -10,6 +10,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
+import java.util.Set;
 import java.util.UUID;
 
 /**
@@ -77,9 +78,11 @@ public class ProcessPaymentStep implements SagaStep {
         
         try {
             UUID orderId = context.get("orderId", UUID.class);
-            String paymentIntentId = context.get("paymentIntentId", String.class);
             
-            if (orderId != null && paymentIntentId != null) {
+            // The payment intent is only recorded once the step completes, so a payment
+            // interrupted by a crash is looked up by its order; orders without a successful
+            // payment are rejected by the refund
+            if (orderId != null) {
                 // Refund the payment
                 paymentService.refundPayment(orderId, "Saga compensation - transaction failed");
                 logger.info("Payment refunded as compensation for order: {} (Saga ID: {})", 
@@ -101,4 +104,9 @@ public class ProcessPaymentStep implements SagaStep {
     public int getOrder() {
         return 3;
     }
+    
+    @Override
+    public Set<String> getDependencies() {
+        return Set.of("ValidateInventory", "CreateOrder");
+    }
 }
@@ -0,0 +1,196 @@
+package com.eventbooking.payment.saga;
+
+import com.eventbooking.common.saga.SagaContext;
+import com.eventbooking.common.saga.SagaEvent;
+import com.eventbooking.common.saga.SagaEventStore;
+import com.eventbooking.payment.dto.OrderDto;
+import com.eventbooking.payment.entity.PaymentStatus;
+import com.eventbooking.payment.service.OrderService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Finishes ticket purchase sagas that a previous run of the service left without a terminal
+ * event, e.g. because it crashed mid-purchase. Each saga is resumed or compensated from its
+ * last recorded step on a small worker pool of its own, so recovery neither blocks startup
+ * nor competes with new purchases for the saga executor.
+ *
+ * A saga only runs forward while its order could still be paid: it started within the resume
+ * window and its order, if created, is still pending and unexpired. Otherwise the reservation
+ * behind it is gone and it is compensated. Sagas that cannot be recovered are recorded as
+ * abandoned, so they are neither retried on the next start nor kept from compaction.
+ *
+ * Only the durable saga log outlives a restart, so recovery is meant to run with it enabled.
+ */
+@Component
+public class SagaRecoveryService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(SagaRecoveryService.class);
+    
+    private final TicketPurchaseSaga ticketPurchaseSaga;
+    private final SagaEventStore eventStore;
+    private final MeterRegistry meterRegistry;
+    private final OrderService orderService;
+    
+    @Value("${saga.recovery.enabled:false}")
+    private boolean enabled;
+    
+    @Value("${saga.recovery.pool-size:4}")
+    private int poolSize = 4;
+    
+    // Matches the order expiry, after which the reserved tickets are released
+    @Value("${saga.recovery.resume-window-minutes:15}")
+    private long resumeWindowMinutes = 15;
+    
+    // Sagas found incomplete before this run started any of its own
+    private volatile List<UUID> interruptedSagaIds = Collections.emptyList();
+    
+    public SagaRecoveryService(TicketPurchaseSaga ticketPurchaseSaga,
+                               SagaEventStore eventStore,
+                               MeterRegistry meterRegistry,
+                               OrderService orderService) {
+        this.ticketPurchaseSaga = ticketPurchaseSaga;
+        this.eventStore = eventStore;
+        this.meterRegistry = meterRegistry;
+        this.orderService = orderService;
+    }
+    
+    /**
+     * Take the incomplete sagas before the service accepts requests, so purchases started by
+     * this run are never mistaken for interrupted ones
+     */
+    @PostConstruct
+    public void findInterruptedSagas() {
+        if (enabled) {
+            interruptedSagaIds = eventStore.getIncompleteSagaIds();
+            logger.info("Found {} interrupted sagas to recover", interruptedSagaIds.size());
+        }
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void recoverOnStartup() {
+        if (enabled) {
+            recover();
+        }
+    }
+    
+    /**
+     * Resume or compensate the interrupted sagas in the background
+     * @return A future completing once every interrupted saga has been handled
+     */
+    public CompletableFuture<Void> recover() {
+        List<UUID> sagaIds = interruptedSagaIds;
+        interruptedSagaIds = Collections.emptyList();
+        if (sagaIds.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(poolSize, sagaIds.size()), runnable -> {
+            Thread thread = new Thread(runnable, "saga-recovery-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        
+        long started = System.nanoTime();
+        CompletableFuture<?>[] recoveries = sagaIds.stream()
+                .map(sagaId -> CompletableFuture.runAsync(() -> recoverSaga(sagaId), pool))
+                .toArray(CompletableFuture[]::new);
+        
+        return CompletableFuture.allOf(recoveries).whenComplete((done, error) -> {
+            pool.shutdown();
+            long elapsed = System.nanoTime() - started;
+            meterRegistry.timer("saga.recovery.run").record(elapsed, TimeUnit.NANOSECONDS);
+            logger.info("Recovered {} interrupted sagas in {}ms ({} sagas/s)", sagaIds.size(),
+                    TimeUnit.NANOSECONDS.toMillis(elapsed),
+                    String.format("%.1f", sagaIds.size() * 1e9 / Math.max(elapsed, 1)));
+        });
+    }
+    
+    private void recoverSaga(UUID sagaId) {
+        long started = System.nanoTime();
+        String outcome;
+        try {
+            outcome = resume(sagaId);
+        } catch (Exception e) {
+            logger.error("Failed to recover saga: {}", sagaId, e);
+            outcome = "failed";
+        }
+        if ("skipped".equals(outcome) || "failed".equals(outcome)) {
+            abandon(sagaId, outcome);
+        }
+        meterRegistry.timer("saga.recovery.sagas", "outcome", outcome)
+                .record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+    }
+    
+    private String resume(UUID sagaId) {
+        List<SagaEvent> events = eventStore.getEvents(sagaId);
+        SagaEvent sagaStarted = events.stream()
+                .filter(event -> "SAGA_STARTED".equals(event.getEventType()))
+                .findFirst()
+                .orElse(null);
+        if (sagaStarted == null || !TicketPurchaseSaga.SAGA_TYPE.equals(sagaStarted.getEventData())) {
+            logger.warn("Skipping recovery of saga that is not a ticket purchase: {}", sagaId);
+            return "skipped";
+        }
+        
+        Map<String, Object> data = new HashMap<>();
+        for (SagaEvent event : events) {
+            if (event.getContextData() != null) {
+                data.putAll(event.getContextData());
+            }
+        }
+        SagaContext context = SagaContext.restore(sagaId, TicketPurchaseSaga.SAGA_TYPE,
+                sagaStarted.getTimestamp(), data);
+        
+        boolean resumeForward = canResumeForward(context);
+        return ticketPurchaseSaga.resumePurchase(context, events, resumeForward) ? "completed" : "compensated";
+    }
+    
+    private boolean canResumeForward(SagaContext context) {
+        Instant now = Instant.now();
+        if (context.getStartTime().plus(Duration.ofMinutes(resumeWindowMinutes)).isBefore(now)) {
+            logger.info("Saga started outside the resume window, compensating: {}", context.getSagaId());
+            return false;
+        }
+        
+        Object orderId = context.get("orderId");
+        if (orderId == null) {
+            return true;
+        }
+        OrderDto order = orderService.getOrderById(UUID.fromString(orderId.toString()));
+        if (order == null || order.getPaymentStatus() != PaymentStatus.PENDING
+                || (order.getExpiresAt() != null && order.getExpiresAt().isBefore(now))) {
+            logger.info("Order {} is no longer pending, compensating saga: {}", orderId, context.getSagaId());
+            return false;
+        }
+        return true;
+    }
+    
+    private void abandon(UUID sagaId, String outcome) {
+        try {
+            eventStore.recordEvent(sagaId, "SAGA_ABANDONED", outcome, Map.of());
+        } catch (Exception e) {
+            logger.error("Failed to record abandoned saga: {}", sagaId, e);
+        }
+    }
+}
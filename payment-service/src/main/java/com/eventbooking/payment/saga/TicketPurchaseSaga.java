@@ -3,10 +3,14 @@ package com.eventbooking.payment.saga;
 import com.eventbooking.common.saga.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 /**
  * Saga orchestrator for ticket purchase flow
@@ -17,23 +21,40 @@ public class TicketPurchaseSaga {
     
     private static final Logger logger = LoggerFactory.getLogger(TicketPurchaseSaga.class);
     
+    public static final String SAGA_TYPE = "TICKET_PURCHASE";
+    
     private final ValidateInventoryStep validateInventoryStep;
     private final CreateOrderStep createOrderStep;
     private final ProcessPaymentStep processPaymentStep;
     private final ConfirmOrderStep confirmOrderStep;
     private final SagaEventStore eventStore;
+    private final AsyncSagaOrchestrator asyncOrchestrator;
+    
+    @Value("${saga.async.enabled:false}")
+    private boolean asyncEnabled;
     
     public TicketPurchaseSaga(
             ValidateInventoryStep validateInventoryStep,
             CreateOrderStep createOrderStep,
             ProcessPaymentStep processPaymentStep,
             ConfirmOrderStep confirmOrderStep,
-            SagaEventStore eventStore) {
+            SagaEventStore eventStore,
+            @Qualifier("sagaExecutor") Executor sagaExecutor) {
         this.validateInventoryStep = validateInventoryStep;
         this.createOrderStep = createOrderStep;
         this.processPaymentStep = processPaymentStep;
         this.confirmOrderStep = confirmOrderStep;
         this.eventStore = eventStore;
+        this.asyncOrchestrator = new AsyncSagaOrchestrator(
+                Arrays.asList(validateInventoryStep, createOrderStep, processPaymentStep, confirmOrderStep),
+                eventStore, sagaExecutor);
+    }
+    
+    /**
+     * Whether purchases should run on the async orchestrator
+     */
+    public boolean isAsyncEnabled() {
+        return asyncEnabled;
     }
     
     /**
@@ -63,10 +84,59 @@ public class TicketPurchaseSaga {
         return success;
     }
     
+    /**
+     * Execute the ticket purchase saga without blocking the caller. The inventory check and
+     * order creation run in parallel; payment waits for both.
+     * @param context The saga context with purchase details
+     * @return A future completing with true if purchase completed successfully, false otherwise
+     */
+    public CompletableFuture<Boolean> executePurchaseAsync(SagaContext context) {
+        logger.info("Starting async ticket purchase saga (Saga ID: {})", context.getSagaId());
+        
+        return asyncOrchestrator.execute(context).thenApply(success -> {
+            if (success) {
+                logger.info("Ticket purchase saga completed successfully (Saga ID: {})", context.getSagaId());
+            } else {
+                logger.error("Ticket purchase saga failed (Saga ID: {})", context.getSagaId());
+            }
+            return success;
+        });
+    }
+    
+    /**
+     * Continue a ticket purchase saga that was interrupted, e.g. by a crash of the service
+     * @param context The saga context, restored from the recorded events
+     * @param history The events recorded for the saga so far
+     * @param resumeForward Whether the purchase may still run its remaining steps
+     * @return true if purchase completed successfully, false if it was compensated
+     * @see SagaOrchestrator#resume(SagaContext, List, boolean)
+     */
+    public boolean resumePurchase(SagaContext context, List<SagaEvent> history, boolean resumeForward) {
+        logger.info("Resuming ticket purchase saga (Saga ID: {})", context.getSagaId());
+        
+        List<SagaStep> steps = Arrays.asList(
+                validateInventoryStep,
+                createOrderStep,
+                processPaymentStep,
+                confirmOrderStep
+        );
+        
+        SagaOrchestrator orchestrator = new SagaOrchestrator(steps, eventStore);
+        boolean success = orchestrator.resume(context, history, resumeForward);
+        
+        if (success) {
+            logger.info("Resumed ticket purchase saga completed successfully (Saga ID: {})", context.getSagaId());
+        } else {
+            logger.warn("Resumed ticket purchase saga was compensated (Saga ID: {})", context.getSagaId());
+        }
+        
+        return success;
+    }
+    
     /**
      * Create a saga context for ticket purchase
      */
     public static SagaContext createPurchaseContext() {
-        return new SagaContext("TICKET_PURCHASE");
+        return new SagaContext(SAGA_TYPE);
     }
 }
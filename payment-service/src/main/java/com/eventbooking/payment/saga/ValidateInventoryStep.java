@@ -6,6 +6,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
+import java.util.Collections;
+import java.util.Set;
 import java.util.UUID;
 
 /**
@@ -63,4 +65,10 @@ public class ValidateInventoryStep implements SagaStep {
     public int getOrder() {
         return 1;
     }
+    
+    @Override
+    public Set<String> getDependencies() {
+        // Only reads the request, so it can run alongside order creation
+        return Collections.emptySet();
+    }
 }
@@ -56,7 +56,8 @@ class TicketPurchaseFlowIntegrationTest {
                 createOrderStep,
                 processPaymentStep,
                 confirmOrderStep,
-                eventStore
+                eventStore,
+                Runnable::run
         );
     }
 
@@ -0,0 +1,179 @@
+package com.eventbooking.payment.saga;
+
+import com.eventbooking.common.saga.InMemorySagaEventStore;
+import com.eventbooking.payment.dto.OrderDto;
+import com.eventbooking.payment.dto.PaymentResponse;
+import com.eventbooking.payment.entity.PaymentStatus;
+import com.eventbooking.payment.service.OrderService;
+import com.eventbooking.payment.service.PaymentService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SagaRecoveryServiceTest {
+    
+    @Mock
+    private OrderService orderService;
+    
+    @Mock
+    private PaymentService paymentService;
+    
+    private InMemorySagaEventStore eventStore;
+    private SimpleMeterRegistry meterRegistry;
+    private SagaRecoveryService recoveryService;
+    
+    private final UUID userId = UUID.randomUUID();
+    private final UUID orderId = UUID.randomUUID();
+    
+    @BeforeEach
+    void setUp() {
+        eventStore = new InMemorySagaEventStore();
+        meterRegistry = new SimpleMeterRegistry();
+        
+        TicketPurchaseSaga saga = new TicketPurchaseSaga(
+                new ValidateInventoryStep(),
+                new CreateOrderStep(orderService),
+                new ProcessPaymentStep(paymentService),
+                new ConfirmOrderStep(orderService),
+                eventStore,
+                Runnable::run
+        );
+        recoveryService = new SagaRecoveryService(saga, eventStore, meterRegistry, orderService);
+        ReflectionTestUtils.setField(recoveryService, "enabled", true);
+    }
+    
+    @Test
+    void testResumesSagaInterruptedBetweenSteps() throws Exception {
+        // Arrange
+        UUID sagaId = startPurchase();
+        recordStep(sagaId, "ValidateInventory", Map.of("inventoryValidated", true));
+        recordStep(sagaId, "CreateOrder", Map.of("orderId", orderId, "totalAmount", new BigDecimal("100.00")));
+        
+        PaymentResponse paymentResponse = new PaymentResponse();
+        paymentResponse.setStatus("succeeded");
+        paymentResponse.setPaymentIntentId("pi_123");
+        when(paymentService.processPayment(any())).thenReturn(paymentResponse);
+        when(orderService.getOrderById(orderId)).thenReturn(order(PaymentStatus.PENDING, Instant.now().plusSeconds(600)));
+        when(orderService.confirmOrder(eq(orderId), eq(userId), eq("pi_123"))).thenReturn(new OrderDto());
+        
+        // Act
+        recoveryService.findInterruptedSagas();
+        recoveryService.recover().get(10, TimeUnit.SECONDS);
+        
+        // Assert
+        assertEquals("COMPLETED", eventStore.getSagaSummary(sagaId).getStatus());
+        assertTrue(eventStore.getIncompleteSagaIds().isEmpty());
+        verify(orderService, never()).createOrder(any(), any());
+        verify(orderService).confirmOrder(orderId, userId, "pi_123");
+        assertEquals(1, meterRegistry.timer("saga.recovery.sagas", "outcome", "completed").count());
+    }
+    
+    @Test
+    void testCompensatesSagaInterruptedDuringPayment() throws Exception {
+        // Arrange
+        UUID sagaId = startPurchase();
+        recordStep(sagaId, "ValidateInventory", Map.of("inventoryValidated", true));
+        recordStep(sagaId, "CreateOrder", Map.of("orderId", orderId, "totalAmount", new BigDecimal("100.00")));
+        eventStore.recordEvent(sagaId, "STEP_STARTED", "ProcessPayment", Map.of());
+        
+        // Act
+        recoveryService.findInterruptedSagas();
+        recoveryService.recover().get(10, TimeUnit.SECONDS);
+        
+        // Assert
+        assertEquals("COMPENSATED", eventStore.getSagaSummary(sagaId).getStatus());
+        verify(paymentService, never()).processPayment(any());
+        verify(paymentService).refundPayment(eq(orderId), anyString());
+        verify(orderService).cancelOrder(orderId, userId);
+        assertEquals(1, meterRegistry.timer("saga.recovery.sagas", "outcome", "compensated").count());
+    }
+    
+    @Test
+    void testCompensatesSagaWhoseOrderExpired() throws Exception {
+        // Arrange
+        UUID sagaId = startPurchase();
+        recordStep(sagaId, "ValidateInventory", Map.of("inventoryValidated", true));
+        recordStep(sagaId, "CreateOrder", Map.of("orderId", orderId, "totalAmount", new BigDecimal("100.00")));
+        when(orderService.getOrderById(orderId)).thenReturn(order(PaymentStatus.PENDING, Instant.now().minusSeconds(60)));
+        
+        // Act
+        recoveryService.findInterruptedSagas();
+        recoveryService.recover().get(10, TimeUnit.SECONDS);
+        
+        // Assert
+        assertEquals("COMPENSATED", eventStore.getSagaSummary(sagaId).getStatus());
+        verify(paymentService, never()).processPayment(any());
+        verify(orderService).cancelOrder(orderId, userId);
+    }
+    
+    @Test
+    void testAbandonsSagaThatIsNotAPurchase() throws Exception {
+        // Arrange
+        UUID sagaId = UUID.randomUUID();
+        eventStore.recordEvent(sagaId, "SAGA_STARTED", "REFUND", Map.of());
+        
+        // Act
+        recoveryService.findInterruptedSagas();
+        recoveryService.recover().get(10, TimeUnit.SECONDS);
+        
+        // Assert
+        assertEquals("ABANDONED", eventStore.getSagaSummary(sagaId).getStatus());
+        assertTrue(eventStore.getIncompleteSagaIds().isEmpty());
+        assertEquals(1, meterRegistry.timer("saga.recovery.sagas", "outcome", "skipped").count());
+    }
+    
+    @Test
+    void testIgnoresFinishedAndLaterSagas() throws Exception {
+        // Arrange
+        UUID finished = startPurchase();
+        eventStore.recordEvent(finished, "SAGA_COMPLETED", TicketPurchaseSaga.SAGA_TYPE, Map.of());
+        
+        recoveryService.findInterruptedSagas();
+        // Started after the scan, as a purchase of this run would be
+        startPurchase();
+        
+        // Act
+        recoveryService.recover().get(10, TimeUnit.SECONDS);
+        
+        // Assert
+        verifyNoInteractions(orderService, paymentService);
+        assertNull(meterRegistry.find("saga.recovery.run").timer());
+    }
+    
+    private OrderDto order(PaymentStatus status, Instant expiresAt) {
+        OrderDto order = new OrderDto();
+        order.setId(orderId);
+        order.setPaymentStatus(status);
+        order.setExpiresAt(expiresAt);
+        return order;
+    }
+    
+    private UUID startPurchase() {
+        UUID sagaId = UUID.randomUUID();
+        eventStore.recordEvent(sagaId, "SAGA_STARTED", TicketPurchaseSaga.SAGA_TYPE,
+                Map.of("userId", userId, "quantity", 2, "paymentMethodId", "pm_123"));
+        return sagaId;
+    }
+    
+    private void recordStep(UUID sagaId, String stepName, Map<String, Object> changes) {
+        eventStore.recordEvent(sagaId, "STEP_STARTED", stepName, Map.of());
+        eventStore.recordEvent(sagaId, "STEP_COMPLETED", stepName, changes);
+    }
+}
@@ -49,7 +49,8 @@ class TicketPurchaseSagaTest {
                 createOrderStep,
                 processPaymentStep,
                 confirmOrderStep,
-                eventStore
+                eventStore,
+                Runnable::run
         );
     }
     
@@ -117,6 +118,49 @@ class TicketPurchaseSagaTest {
         verify(orderService).confirmOrder(eq(orderId), eq(userId), eq("pi_123"));
     }
     
+    @Test
+    void testAsyncPurchaseRunsStepGraph() throws Exception {
+        // Arrange
+        UUID userId = UUID.randomUUID();
+        UUID orderId = UUID.randomUUID();
+        
+        OrderDto orderDto = new OrderDto();
+        orderDto.setId(orderId);
+        orderDto.setOrderNumber("ORD-123456");
+        orderDto.setTotalAmount(new BigDecimal("100.00"));
+        
+        PaymentResponse paymentResponse = new PaymentResponse();
+        paymentResponse.setStatus("succeeded");
+        paymentResponse.setPaymentIntentId("pi_123");
+        
+        when(orderService.createOrder(eq(userId), any(CreateOrderRequest.class)))
+                .thenReturn(orderDto);
+        when(paymentService.processPayment(any()))
+                .thenReturn(paymentResponse);
+        when(orderService.confirmOrder(eq(orderId), eq(userId), eq("pi_123")))
+                .thenReturn(orderDto);
+        
+        SagaContext context = TicketPurchaseSaga.createPurchaseContext();
+        context.put("userId", userId);
+        context.put("eventId", UUID.randomUUID());
+        context.put("ticketTypeId", UUID.randomUUID());
+        context.put("quantity", 2);
+        context.put("unitPrice", new BigDecimal("50.00"));
+        context.put("paymentMethodId", "pm_123");
+        
+        // Act
+        boolean result = saga.executePurchaseAsync(context).get();
+        
+        // Assert
+        assertTrue(result);
+        assertEquals(SagaContext.SagaStatus.COMPLETED, context.getStatus());
+        
+        SagaExecutionSummary summary = eventStore.getSagaSummary(context.getSagaId());
+        assertEquals("COMPLETED", summary.getStatus());
+        assertEquals(4, summary.getCompletedSteps().size());
+        assertEquals("ConfirmOrder", summary.getCompletedSteps().get(3));
+    }
+    
     @Test
     void testFailedPaymentTriggersCompensation() {
         // Arrange
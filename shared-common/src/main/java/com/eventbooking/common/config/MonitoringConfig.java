@@ -184,7 +184,12 @@ public class MonitoringConfig {
         }
 
         public void recordCacheHit(boolean hit) {
+            recordCacheHit("default", hit);
+        }
+
+        public void recordCacheHit(String cache, boolean hit) {
             registry.counter("cache.access.total",
+                "cache", cache,
                 "hit", String.valueOf(hit)).increment();
         }
     }
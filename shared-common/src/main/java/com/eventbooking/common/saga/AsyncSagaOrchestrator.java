@@ -0,0 +1,279 @@
+package com.eventbooking.common.saga;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Orchestrates saga execution as a graph of steps, without blocking the caller
+ *
+ * A step starts once every step it depends on has completed, so independent steps run in
+ * parallel on the executor. After a failure no further steps start; steps already running
+ * finish, and every completed step is then compensated once the completed steps depending on
+ * it have been compensated, which again runs independent compensations in parallel.
+ *
+ * A step or compensation that ends exceptionally outside the step itself, e.g. because the
+ * executor rejected it or the event store failed, counts as failed rather than aborting the
+ * saga, so compensation and the saga's terminal event are never skipped.
+ */
+public class AsyncSagaOrchestrator {
+    
+    private static final Logger logger = LoggerFactory.getLogger(AsyncSagaOrchestrator.class);
+    
+    private final SagaEventStore eventStore;
+    private final Executor executor;
+    
+    // Steps in an order where each comes after its dependencies
+    private final List<SagaStep> steps;
+    private final Map<SagaStep, List<SagaStep>> dependencies = new HashMap<>();
+    private final Map<SagaStep, List<SagaStep>> dependents = new HashMap<>();
+    
+    /**
+     * @param steps The saga steps; see {@link SagaStep#getDependencies()}
+     * @param eventStore Store the saga events are recorded in
+     * @param executor Executor the steps and compensations run on
+     * @throws IllegalArgumentException if a dependency is unknown or the dependencies form a cycle
+     */
+    public AsyncSagaOrchestrator(List<SagaStep> steps, SagaEventStore eventStore, Executor executor) {
+        this.eventStore = eventStore;
+        this.executor = executor;
+        
+        List<SagaStep> byOrder = new ArrayList<>(steps);
+        byOrder.sort(Comparator.comparingInt(SagaStep::getOrder));
+        Map<String, SagaStep> byName = new LinkedHashMap<>();
+        for (SagaStep step : byOrder) {
+            byName.put(step.getStepName(), step);
+            dependents.put(step, new ArrayList<>());
+        }
+        
+        for (SagaStep step : byOrder) {
+            List<SagaStep> required = new ArrayList<>();
+            Set<String> names = step.getDependencies();
+            if (names == null) {
+                byOrder.stream()
+                        .filter(other -> other.getOrder() < step.getOrder())
+                        .forEach(required::add);
+            } else {
+                for (String name : names) {
+                    SagaStep dependency = byName.get(name);
+                    if (dependency == null) {
+                        throw new IllegalArgumentException("Saga step " + step.getStepName()
+                                + " depends on unknown step " + name);
+                    }
+                    required.add(dependency);
+                }
+            }
+            dependencies.put(step, required);
+            required.forEach(dependency -> dependents.get(dependency).add(step));
+        }
+        
+        this.steps = sortByDependencies(byOrder);
+    }
+    
+    /**
+     * Execute the saga with all steps
+     * @param context The saga context
+     * @return A future completing with true if the saga completed successfully, false otherwise
+     */
+    public CompletableFuture<Boolean> execute(SagaContext context) {
+        return CompletableFuture.supplyAsync(() -> start(context), executor)
+                .thenCompose(started -> runSteps(context));
+    }
+    
+    private boolean start(SagaContext context) {
+        logger.info("Starting async saga execution: {} (ID: {})", context.getSagaType(), context.getSagaId());
+        
+        eventStore.recordEvent(context.getSagaId(), "SAGA_STARTED", context.getSagaType(), context.drainChanges());
+        context.setStatus(SagaContext.SagaStatus.IN_PROGRESS);
+        return true;
+    }
+    
+    private CompletableFuture<Boolean> runSteps(SagaContext context) {
+        AtomicBoolean failed = new AtomicBoolean();
+        Set<SagaStep> executedSteps = ConcurrentHashMap.newKeySet();
+        Map<SagaStep, CompletableFuture<Void>> running = new HashMap<>();
+        
+        for (SagaStep step : steps) {
+            CompletableFuture<?>[] required = dependencies.get(step).stream()
+                    .map(running::get)
+                    .toArray(CompletableFuture[]::new);
+            running.put(step, CompletableFuture.allOf(required)
+                    .thenRunAsync(() -> runStep(context, step, failed, executedSteps), executor)
+                    .handle((done, error) -> {
+                        if (error != null) {
+                            logger.error("Saga step ended exceptionally: {} (Saga ID: {})",
+                                    step.getStepName(), context.getSagaId(), error);
+                            failed.set(true);
+                        }
+                        return null;
+                    }));
+        }
+        
+        return CompletableFuture.allOf(running.values().toArray(new CompletableFuture[0]))
+                .thenCompose(done -> {
+                    if (failed.get()) {
+                        return compensate(context, executedSteps).thenApply(compensated -> false);
+                    }
+                    
+                    context.setStatus(SagaContext.SagaStatus.COMPLETED);
+                    Duration duration = Duration.between(context.getStartTime(), Instant.now());
+                    logger.info("Saga completed successfully: {} (ID: {}, Duration: {}ms)",
+                            context.getSagaType(), context.getSagaId(), duration.toMillis());
+                    
+                    eventStore.recordEvent(context.getSagaId(), "SAGA_COMPLETED", context.getSagaType(),
+                            context.drainChanges());
+                    return CompletableFuture.completedFuture(true);
+                });
+    }
+    
+    private void runStep(SagaContext context, SagaStep step, AtomicBoolean failed, Set<SagaStep> executedSteps) {
+        if (failed.get()) {
+            logger.debug("Skipping saga step after failure: {} (Saga ID: {})", step.getStepName(), context.getSagaId());
+            return;
+        }
+        
+        context.setCurrentStep(step.getStepName());
+        logger.info("Executing saga step: {} (Saga ID: {})", step.getStepName(), context.getSagaId());
+        
+        try {
+            eventStore.recordEvent(context.getSagaId(), "STEP_STARTED", step.getStepName(), context.drainChanges());
+            
+            if (step.execute(context)) {
+                executedSteps.add(step);
+                logger.info("Saga step completed successfully: {} (Saga ID: {})",
+                        step.getStepName(), context.getSagaId());
+                
+                eventStore.recordEvent(context.getSagaId(), "STEP_COMPLETED", step.getStepName(),
+                        context.drainChanges());
+            } else {
+                logger.error("Saga step failed: {} (Saga ID: {})", step.getStepName(), context.getSagaId());
+                failed.set(true);
+                
+                eventStore.recordEvent(context.getSagaId(), "STEP_FAILED", step.getStepName(),
+                        context.drainChanges());
+            }
+        } catch (Exception e) {
+            logger.error("Saga execution failed with exception: {} (ID: {})",
+                    context.getSagaType(), context.getSagaId(), e);
+            failed.set(true);
+            context.setErrorMessage(e.getMessage());
+            
+            eventStore.recordEvent(context.getSagaId(), "SAGA_FAILED", context.getSagaType(),
+                    context.drainChanges());
+        }
+    }
+    
+    /**
+     * Compensate all executed steps, each after the executed steps that depend on it
+     * @param context The saga context
+     * @param executedSteps Steps that were successfully executed
+     */
+    private CompletableFuture<Void> compensate(SagaContext context, Set<SagaStep> executedSteps) {
+        logger.warn("Starting compensation for saga: {} (ID: {})",
+                context.getSagaType(), context.getSagaId());
+        
+        context.setStatus(SagaContext.SagaStatus.COMPENSATING);
+        eventStore.recordEvent(context.getSagaId(), "COMPENSATION_STARTED", context.getSagaType(),
+                context.drainChanges());
+        
+        Map<SagaStep, CompletableFuture<Void>> compensations = new HashMap<>();
+        for (int i = steps.size() - 1; i >= 0; i--) {
+            SagaStep step = steps.get(i);
+            if (!executedSteps.contains(step)) {
+                continue;
+            }
+            CompletableFuture<?>[] required = dependents.get(step).stream()
+                    .filter(executedSteps::contains)
+                    .map(compensations::get)
+                    .toArray(CompletableFuture[]::new);
+            compensations.put(step, CompletableFuture.allOf(required)
+                    .thenRunAsync(() -> compensateStep(context, step), executor)
+                    .handle((done, error) -> {
+                        if (error != null) {
+                            // Continue with other compensations even if one fails
+                            logger.error("Compensation ended exceptionally for step: {} (Saga ID: {})",
+                                    step.getStepName(), context.getSagaId(), error);
+                        }
+                        return null;
+                    }));
+        }
+        
+        return CompletableFuture.allOf(compensations.values().toArray(new CompletableFuture[0]))
+                .thenRun(() -> {
+                    context.setStatus(SagaContext.SagaStatus.COMPENSATED);
+                    logger.info("Compensation completed for saga: {} (ID: {})",
+                            context.getSagaType(), context.getSagaId());
+                    
+                    eventStore.recordEvent(context.getSagaId(), "COMPENSATION_COMPLETED", context.getSagaType(),
+                            context.drainChanges());
+                });
+    }
+    
+    private void compensateStep(SagaContext context, SagaStep step) {
+        try {
+            logger.info("Compensating saga step: {} (Saga ID: {})",
+                    step.getStepName(), context.getSagaId());
+            
+            eventStore.recordEvent(context.getSagaId(), "COMPENSATION_STEP_STARTED",
+                    step.getStepName(), context.drainChanges());
+            
+            step.compensate(context);
+            
+            logger.info("Compensation completed for step: {} (Saga ID: {})",
+                    step.getStepName(), context.getSagaId());
+            
+            eventStore.recordEvent(context.getSagaId(), "COMPENSATION_STEP_COMPLETED",
+                    step.getStepName(), context.drainChanges());
+            
+        } catch (Exception e) {
+            logger.error("Compensation failed for step: {} (Saga ID: {})",
+                    step.getStepName(), context.getSagaId(), e);
+            
+            // Continue with other compensations even if one fails
+            eventStore.recordEvent(context.getSagaId(), "COMPENSATION_STEP_FAILED",
+                    step.getStepName(), context.drainChanges());
+        }
+    }
+    
+    private List<SagaStep> sortByDependencies(List<SagaStep> byOrder) {
+        Map<SagaStep, Integer> remaining = new HashMap<>();
+        Deque<SagaStep> ready = new ArrayDeque<>();
+        for (SagaStep step : byOrder) {
+            remaining.put(step, dependencies.get(step).size());
+            if (dependencies.get(step).isEmpty()) {
+                ready.add(step);
+            }
+        }
+        
+        List<SagaStep> sorted = new ArrayList<>(byOrder.size());
+        while (!ready.isEmpty()) {
+            SagaStep step = ready.poll();
+            sorted.add(step);
+            for (SagaStep dependent : dependents.get(step)) {
+                if (remaining.merge(dependent, -1, Integer::sum) == 0) {
+                    ready.add(dependent);
+                }
+            }
+        }
+        
+        if (sorted.size() != byOrder.size()) {
+            throw new IllegalArgumentException("Saga step dependencies form a cycle");
+        }
+        return sorted;
+    }
+}
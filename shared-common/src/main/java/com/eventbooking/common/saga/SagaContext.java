@@ -1,22 +1,28 @@
 package com.eventbooking.common.saga;
 
 import java.time.Instant;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 /**
  * Context object that carries state throughout saga execution
+ * Safe to share between steps running in parallel
  */
 public class SagaContext {
     
     private final UUID sagaId;
     private final String sagaType;
     private final Map<String, Object> data;
+    // Keys put since the changes were last drained
+    private final Set<String> changedKeys = new LinkedHashSet<>();
     private final Instant startTime;
-    private SagaStatus status;
-    private String errorMessage;
-    private String currentStep;
+    private volatile SagaStatus status;
+    private volatile String errorMessage;
+    private volatile String currentStep;
     
     public SagaContext(String sagaType) {
         this.sagaId = UUID.randomUUID();
@@ -26,16 +32,38 @@ public class SagaContext {
         this.status = SagaStatus.STARTED;
     }
     
-    public void put(String key, Object value) {
+    private SagaContext(UUID sagaId, String sagaType, Instant startTime, Map<String, Object> data) {
+        this.sagaId = sagaId;
+        this.sagaType = sagaType;
+        this.data = new HashMap<>(data);
+        this.startTime = startTime;
+        this.status = SagaStatus.IN_PROGRESS;
+    }
+    
+    /**
+     * Rebuild the context of a saga that was already started, e.g. from its recorded events
+     * The restored data counts as recorded, so it is not part of the next changes
+     * @param sagaId The saga identifier
+     * @param sagaType The saga type
+     * @param startTime When the saga was started
+     * @param data The context data as last recorded
+     * @return The restored context
+     */
+    public static SagaContext restore(UUID sagaId, String sagaType, Instant startTime, Map<String, Object> data) {
+        return new SagaContext(sagaId, sagaType, startTime, data);
+    }
+    
+    public synchronized void put(String key, Object value) {
         data.put(key, value);
+        changedKeys.add(key);
     }
     
     @SuppressWarnings("unchecked")
-    public <T> T get(String key) {
+    public synchronized <T> T get(String key) {
         return (T) data.get(key);
     }
     
-    public <T> T get(String key, Class<T> type) {
+    public synchronized <T> T get(String key, Class<T> type) {
         Object value = data.get(key);
         if (value == null) {
             return null;
@@ -43,7 +71,7 @@ public class SagaContext {
         return type.cast(value);
     }
     
-    public boolean containsKey(String key) {
+    public synchronized boolean containsKey(String key) {
         return data.containsKey(key);
     }
     
@@ -55,10 +83,26 @@ public class SagaContext {
         return sagaType;
     }
     
-    public Map<String, Object> getData() {
+    public synchronized Map<String, Object> getData() {
         return new HashMap<>(data);
     }
     
+    /**
+     * Get the entries put since the previous call, for recording with the next saga event
+     * @return The changed entries, or an empty map when nothing changed
+     */
+    public synchronized Map<String, Object> drainChanges() {
+        if (changedKeys.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<String, Object> changes = new HashMap<>();
+        for (String key : changedKeys) {
+            changes.put(key, data.get(key));
+        }
+        changedKeys.clear();
+        return changes;
+    }
+    
     public Instant getStartTime() {
         return startTime;
     }
@@ -29,6 +29,16 @@ public class SagaEvent {
         this.contextData = contextData;
     }
     
+    SagaEvent(UUID eventId, UUID sagaId, String eventType, String eventData, Map<String, Object> contextData,
+              Instant timestamp) {
+        this.eventId = eventId;
+        this.sagaId = sagaId;
+        this.eventType = eventType;
+        this.eventData = eventData;
+        this.contextData = contextData;
+        this.timestamp = timestamp;
+    }
+    
     // Getters and Setters
     public UUID getEventId() {
         return eventId;
@@ -0,0 +1,186 @@
+package com.eventbooking.common.saga;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Compact binary form of a saga event, without its saga id (which the log keeps in the
+ * record header).
+ *
+ * Context values of the types sagas put in their context (strings, numbers, booleans, UUIDs,
+ * instants) are written with a one-byte type tag and their raw bytes; any other value falls
+ * back to JSON and decodes as the matching JSON type.
+ */
+final class SagaEventCodec {
+    
+    private static final byte NULL = 0;
+    private static final byte STRING = 1;
+    private static final byte INTEGER = 2;
+    private static final byte LONG = 3;
+    private static final byte BOOLEAN = 4;
+    private static final byte DOUBLE = 5;
+    private static final byte DECIMAL = 6;
+    private static final byte UUID_VALUE = 7;
+    private static final byte INSTANT = 8;
+    private static final byte JSON = 9;
+    
+    private final ObjectMapper objectMapper;
+    
+    SagaEventCodec(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+    
+    byte[] encode(SagaEvent event) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeLong(event.getEventId().getMostSignificantBits());
+            out.writeLong(event.getEventId().getLeastSignificantBits());
+            out.writeLong(event.getTimestamp().getEpochSecond());
+            out.writeInt(event.getTimestamp().getNano());
+            writeString(out, event.getEventType());
+            writeString(out, event.getEventData());
+            
+            Map<String, Object> contextData = event.getContextData();
+            out.writeInt(contextData == null ? -1 : contextData.size());
+            if (contextData != null) {
+                for (Map.Entry<String, Object> entry : contextData.entrySet()) {
+                    writeString(out, entry.getKey());
+                    writeValue(out, entry.getValue());
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to encode saga event " + event.getEventType(), e);
+        }
+        return bytes.toByteArray();
+    }
+    
+    SagaEvent decode(UUID sagaId, byte[] payload, int offset, int length) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload, offset, length))) {
+            UUID eventId = new UUID(in.readLong(), in.readLong());
+            Instant timestamp = Instant.ofEpochSecond(in.readLong(), in.readInt());
+            String eventType = readString(in);
+            String eventData = readString(in);
+            
+            Map<String, Object> contextData = null;
+            int size = in.readInt();
+            if (size >= 0) {
+                contextData = new HashMap<>(Math.max(4, size * 2));
+                for (int i = 0; i < size; i++) {
+                    contextData.put(readString(in), readValue(in));
+                }
+            }
+            return new SagaEvent(eventId, sagaId, eventType, eventData, contextData, timestamp);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to decode event of saga " + sagaId, e);
+        }
+    }
+    
+    private void writeValue(DataOutputStream out, Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(NULL);
+        } else if (value instanceof String) {
+            out.writeByte(STRING);
+            writeString(out, (String) value);
+        } else if (value instanceof Integer) {
+            out.writeByte(INTEGER);
+            out.writeInt((Integer) value);
+        } else if (value instanceof Long) {
+            out.writeByte(LONG);
+            out.writeLong((Long) value);
+        } else if (value instanceof Boolean) {
+            out.writeByte(BOOLEAN);
+            out.writeBoolean((Boolean) value);
+        } else if (value instanceof Double) {
+            out.writeByte(DOUBLE);
+            out.writeDouble((Double) value);
+        } else if (value instanceof BigDecimal) {
+            BigDecimal decimal = (BigDecimal) value;
+            byte[] unscaled = decimal.unscaledValue().toByteArray();
+            out.writeByte(DECIMAL);
+            out.writeInt(decimal.scale());
+            out.writeInt(unscaled.length);
+            out.write(unscaled);
+        } else if (value instanceof UUID) {
+            UUID uuid = (UUID) value;
+            out.writeByte(UUID_VALUE);
+            out.writeLong(uuid.getMostSignificantBits());
+            out.writeLong(uuid.getLeastSignificantBits());
+        } else if (value instanceof Instant) {
+            Instant instant = (Instant) value;
+            out.writeByte(INSTANT);
+            out.writeLong(instant.getEpochSecond());
+            out.writeInt(instant.getNano());
+        } else {
+            byte[] json = objectMapper.writeValueAsBytes(value);
+            out.writeByte(JSON);
+            out.writeInt(json.length);
+            out.write(json);
+        }
+    }
+    
+    private Object readValue(DataInputStream in) throws IOException {
+        byte tag = in.readByte();
+        switch (tag) {
+            case NULL:
+                return null;
+            case STRING:
+                return readString(in);
+            case INTEGER:
+                return in.readInt();
+            case LONG:
+                return in.readLong();
+            case BOOLEAN:
+                return in.readBoolean();
+            case DOUBLE:
+                return in.readDouble();
+            case DECIMAL:
+                int scale = in.readInt();
+                byte[] unscaled = new byte[in.readInt()];
+                in.readFully(unscaled);
+                return new BigDecimal(new BigInteger(unscaled), scale);
+            case UUID_VALUE:
+                return new UUID(in.readLong(), in.readLong());
+            case INSTANT:
+                return Instant.ofEpochSecond(in.readLong(), in.readInt());
+            case JSON:
+                byte[] json = new byte[in.readInt()];
+                in.readFully(json);
+                return objectMapper.readValue(json, Object.class);
+            default:
+                throw new IOException("Unknown context value tag " + tag);
+        }
+    }
+    
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(utf8.length);
+        out.write(utf8);
+    }
+    
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] utf8 = new byte[length];
+        in.readFully(utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+}
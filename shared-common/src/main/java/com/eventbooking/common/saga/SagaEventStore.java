@@ -1,5 +1,7 @@
 package com.eventbooking.common.saga;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -14,7 +16,7 @@ public interface SagaEventStore {
      * @param sagaId The saga identifier
      * @param eventType The type of event
      * @param eventData Additional event data
-     * @param contextData The saga context data at the time of the event
+     * @param contextData The saga context entries changed since the previous event
      */
     void recordEvent(UUID sagaId, String eventType, String eventData, Map<String, Object> contextData);
     
@@ -31,4 +33,28 @@ public interface SagaEventStore {
      * @return Saga execution summary
      */
     SagaExecutionSummary getSagaSummary(UUID sagaId);
+    
+    /**
+     * Rebuild saga context data by replaying the changes recorded with its events
+     * @param sagaId The saga identifier
+     * @return The context data as of the saga's latest event
+     */
+    default Map<String, Object> getContextData(UUID sagaId) {
+        Map<String, Object> data = new HashMap<>();
+        for (SagaEvent event : getEvents(sagaId)) {
+            if (event.getContextData() != null) {
+                data.putAll(event.getContextData());
+            }
+        }
+        return data;
+    }
+    
+    /**
+     * Get the sagas whose events end without a terminal event, such as sagas interrupted by a
+     * crash. Stores that do not outlive the process may have none to report.
+     * @return Ids of the incomplete sagas
+     */
+    default List<UUID> getIncompleteSagaIds() {
+        return new ArrayList<>();
+    }
 }
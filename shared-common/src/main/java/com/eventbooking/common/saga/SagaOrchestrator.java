@@ -7,10 +7,14 @@ import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Orchestrates saga execution with compensation logic
+ * Each event records only the context entries changed since the previous event; replaying a
+ * saga's events rebuilds its full context
  */
 public class SagaOrchestrator {
     
@@ -34,19 +38,118 @@ public class SagaOrchestrator {
         logger.info("Starting saga execution: {} (ID: {})", context.getSagaType(), context.getSagaId());
         
         // Record saga start
-        eventStore.recordEvent(context.getSagaId(), "SAGA_STARTED", context.getSagaType(), null);
+        eventStore.recordEvent(context.getSagaId(), "SAGA_STARTED", context.getSagaType(), context.drainChanges());
         
-        List<SagaStep> executedSteps = new ArrayList<>();
         context.setStatus(SagaContext.SagaStatus.IN_PROGRESS);
+        return runSteps(context, new ArrayList<>());
+    }
+    
+    /**
+     * Continue a saga that was interrupted, e.g. by a crash, from its recorded events
+     * A saga stopped between steps runs its remaining steps. A saga that had failed or was
+     * stopped while a step was running is compensated, since whether the running step took
+     * effect is unknown; that step is compensated too, on a best-effort basis.
+     * @param context The saga context, restored from the recorded events
+     * @param history The events recorded for the saga so far
+     * @return true if saga completed successfully, false otherwise
+     */
+    public boolean resume(SagaContext context, List<SagaEvent> history) {
+        return resume(context, history, true);
+    }
+    
+    /**
+     * Continue an interrupted saga, compensating it even when it stopped between steps unless
+     * the caller allows it to run forward, e.g. because what it sells has expired meanwhile
+     * @param context The saga context, restored from the recorded events
+     * @param history The events recorded for the saga so far
+     * @param resumeForward Whether a saga stopped between steps may run its remaining steps
+     * @return true if saga completed successfully, false otherwise
+     */
+    public boolean resume(SagaContext context, List<SagaEvent> history, boolean resumeForward) {
+        Set<String> completedSteps = new HashSet<>();
+        Set<String> runningSteps = new HashSet<>();
+        Set<String> compensatedSteps = new HashSet<>();
+        boolean failed = false;
+        
+        for (SagaEvent event : history) {
+            switch (event.getEventType()) {
+                case "STEP_STARTED":
+                    runningSteps.add(event.getEventData());
+                    break;
+                case "STEP_COMPLETED":
+                    runningSteps.remove(event.getEventData());
+                    completedSteps.add(event.getEventData());
+                    break;
+                case "STEP_FAILED":
+                    runningSteps.remove(event.getEventData());
+                    failed = true;
+                    break;
+                case "SAGA_FAILED":
+                case "COMPENSATION_STARTED":
+                    failed = true;
+                    break;
+                case "COMPENSATION_STEP_COMPLETED":
+                case "COMPENSATION_STEP_FAILED":
+                    compensatedSteps.add(event.getEventData());
+                    break;
+                default:
+                    break;
+            }
+        }
         
+        List<SagaStep> executedSteps = new ArrayList<>();
+        for (SagaStep step : steps) {
+            if (completedSteps.contains(step.getStepName())) {
+                executedSteps.add(step);
+            }
+        }
+        
+        if (resumeForward && !failed && runningSteps.isEmpty()) {
+            logger.info("Resuming saga: {} (ID: {}, Completed steps: {})", 
+                    context.getSagaType(), context.getSagaId(), completedSteps.size());
+            
+            // Record saga resumption
+            eventStore.recordEvent(context.getSagaId(), "SAGA_RESUMED", "RESUME", context.drainChanges());
+            
+            context.setStatus(SagaContext.SagaStatus.IN_PROGRESS);
+            return runSteps(context, executedSteps);
+        }
+        
+        logger.warn("Compensating interrupted saga: {} (ID: {}, Running steps: {})", 
+                context.getSagaType(), context.getSagaId(), runningSteps);
+        
+        // Record saga resumption
+        eventStore.recordEvent(context.getSagaId(), "SAGA_RESUMED", "COMPENSATE", context.drainChanges());
+        
+        List<SagaStep> toCompensate = new ArrayList<>();
+        for (SagaStep step : steps) {
+            String name = step.getStepName();
+            if ((completedSteps.contains(name) || runningSteps.contains(name)) && !compensatedSteps.contains(name)) {
+                toCompensate.add(step);
+            }
+        }
+        compensate(context, toCompensate);
+        return false;
+    }
+    
+    /**
+     * Execute the steps not executed yet, in order
+     * @param context The saga context
+     * @param executedSteps Steps that were successfully executed; steps executed here are added
+     * @return true if saga completed successfully, false otherwise
+     */
+    private boolean runSteps(SagaContext context, List<SagaStep> executedSteps) {
         try {
             // Execute each step in order
             for (SagaStep step : steps) {
+                if (executedSteps.contains(step)) {
+                    continue;
+                }
                 context.setCurrentStep(step.getStepName());
                 logger.info("Executing saga step: {} (Saga ID: {})", step.getStepName(), context.getSagaId());
                 
                 // Record step start
-                eventStore.recordEvent(context.getSagaId(), "STEP_STARTED", step.getStepName(), context.getData());
+                eventStore.recordEvent(context.getSagaId(), "STEP_STARTED", step.getStepName(), context.drainChanges());
                 
                 boolean success = step.execute(context);
                 
@@ -56,13 +159,13 @@ public class SagaOrchestrator {
                             step.getStepName(), context.getSagaId());
                     
                     // Record step completion
-                    eventStore.recordEvent(context.getSagaId(), "STEP_COMPLETED", step.getStepName(), context.getData());
+                    eventStore.recordEvent(context.getSagaId(), "STEP_COMPLETED", step.getStepName(), context.drainChanges());
                 } else {
                     logger.error("Saga step failed: {} (Saga ID: {})", step.getStepName(), context.getSagaId());
                     
                     // Record step failure
                     eventStore.recordEvent(context.getSagaId(), "STEP_FAILED", step.getStepName(), 
-                            context.getData());
+                            context.drainChanges());
                     
                     // Compensate all executed steps
                     compensate(context, executedSteps);
@@ -77,7 +180,7 @@ public class SagaOrchestrator {
                     context.getSagaType(), context.getSagaId(), duration.toMillis());
             
             // Record saga completion
-            eventStore.recordEvent(context.getSagaId(), "SAGA_COMPLETED", context.getSagaType(), context.getData());
+            eventStore.recordEvent(context.getSagaId(), "SAGA_COMPLETED", context.getSagaType(), context.drainChanges());
             
             return true;
             
@@ -88,7 +191,7 @@ public class SagaOrchestrator {
             
             // Record saga failure
             eventStore.recordEvent(context.getSagaId(), "SAGA_FAILED", context.getSagaType(), 
-                    context.getData());
+                    context.drainChanges());
             
             // Compensate all executed steps
             compensate(context, executedSteps);
@@ -109,7 +212,7 @@ public class SagaOrchestrator {
         
         // Record compensation start
         eventStore.recordEvent(context.getSagaId(), "COMPENSATION_STARTED", context.getSagaType(), 
-                context.getData());
+                context.drainChanges());
         
         // Compensate in reverse order
         for (int i = executedSteps.size() - 1; i >= 0; i--) {
@@ -121,7 +224,7 @@ public class SagaOrchestrator {
                 
                 // Record compensation step start
                 eventStore.recordEvent(context.getSagaId(), "COMPENSATION_STEP_STARTED", 
-                        step.getStepName(), context.getData());
+                        step.getStepName(), context.drainChanges());
                 
                 step.compensate(context);
                 
@@ -130,7 +233,7 @@ public class SagaOrchestrator {
                 
                 // Record compensation step completion
                 eventStore.recordEvent(context.getSagaId(), "COMPENSATION_STEP_COMPLETED", 
-                        step.getStepName(), context.getData());
+                        step.getStepName(), context.drainChanges());
                 
             } catch (Exception e) {
                 logger.error("Compensation failed for step: {} (Saga ID: {})", 
@@ -138,7 +241,7 @@ public class SagaOrchestrator {
                 
                 // Record compensation failure
                 eventStore.recordEvent(context.getSagaId(), "COMPENSATION_STEP_FAILED", 
-                        step.getStepName(), context.getData());
+                        step.getStepName(), context.drainChanges());
                 
                 // Continue with other compensations even if one fails
             }
@@ -150,6 +253,6 @@ public class SagaOrchestrator {
         
         // Record compensation completion
         eventStore.recordEvent(context.getSagaId(), "COMPENSATION_COMPLETED", context.getSagaType(), 
-                context.getData());
+                context.drainChanges());
     }
 }
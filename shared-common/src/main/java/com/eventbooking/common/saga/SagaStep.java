@@ -1,5 +1,6 @@
 package com.eventbooking.common.saga;
 
+import java.util.Set;
 import java.util.UUID;
 
 /**
@@ -31,4 +32,13 @@ public interface SagaStep {
      * @return step order
      */
     int getOrder();
+    
+    /**
+     * Get the names of the steps that must complete before this one starts when the saga
+     * runs on the async orchestrator
+     * @return step names, or null to depend on every step with a lower order
+     */
+    default Set<String> getDependencies() {
+        return null;
+    }
 }
@@ -0,0 +1,284 @@
+package com.eventbooking.common.saga;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Saga execution summaries kept up to date as events are recorded, so reading one does not
+ * replay the saga's events.
+ *
+ * Finished sagas (completed, compensated or abandoned) are evicted once they have been finished longer
+ * than the retention period, or earlier when more finished sagas are held than the limit,
+ * oldest first. Unfinished sagas that recorded no event for longer than the unfinished
+ * retention are evicted too, so sagas that never finish, e.g. because their process died, do
+ * not pile up. Eviction runs as events are applied, so no background thread is needed.
+ */
+public class SagaSummaryProjection {
+    
+    public static final Duration DEFAULT_RETENTION = Duration.ofHours(1);
+    public static final int DEFAULT_MAX_FINISHED_SAGAS = 10000;
+    public static final Duration DEFAULT_UNFINISHED_RETENTION = Duration.ofHours(24);
+    
+    // Unfinished sagas are found by scanning every summary, so the scan runs at most this often
+    private static final Duration UNFINISHED_SWEEP_INTERVAL = Duration.ofMinutes(1);
+    
+    private final Duration retention;
+    private final int maxFinishedSagas;
+    private final Duration unfinishedRetention;
+    private final long unfinishedSweepMillis;
+    private final Consumer<UUID> evictionListener;
+    
+    private final Map<UUID, Projection> projections = new ConcurrentHashMap<>();
+    
+    // Finished sagas in the order they finished
+    private final Queue<FinishedSaga> finished = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger finishedCount = new AtomicInteger();
+    private final AtomicLong nextUnfinishedSweep = new AtomicLong();
+    
+    public SagaSummaryProjection() {
+        this(DEFAULT_RETENTION, DEFAULT_MAX_FINISHED_SAGAS, sagaId -> { });
+    }
+    
+    /**
+     * @param retention How long a finished saga's summary is kept
+     * @param maxFinishedSagas How many finished sagas are kept at most
+     * @param evictionListener Called with the id of each evicted saga
+     */
+    public SagaSummaryProjection(Duration retention, int maxFinishedSagas, Consumer<UUID> evictionListener) {
+        this(retention, maxFinishedSagas, DEFAULT_UNFINISHED_RETENTION, evictionListener);
+    }
+    
+    /**
+     * @param retention How long a finished saga's summary is kept
+     * @param maxFinishedSagas How many finished sagas are kept at most
+     * @param unfinishedRetention How long an unfinished saga's summary is kept after its last event
+     * @param evictionListener Called with the id of each evicted saga
+     */
+    public SagaSummaryProjection(Duration retention, int maxFinishedSagas, Duration unfinishedRetention,
+                                 Consumer<UUID> evictionListener) {
+        this.retention = retention;
+        this.maxFinishedSagas = maxFinishedSagas;
+        this.unfinishedRetention = unfinishedRetention;
+        this.unfinishedSweepMillis = Math.min(unfinishedRetention.toMillis(), UNFINISHED_SWEEP_INTERVAL.toMillis());
+        this.evictionListener = evictionListener;
+    }
+    
+    /**
+     * Fold an event into its saga's summary, starting a summary for a saga not seen before
+     */
+    public void apply(SagaEvent event) {
+        update(projections.computeIfAbsent(event.getSagaId(), id -> new Projection()), event);
+    }
+    
+    /**
+     * Fold an event into its saga's summary only if the saga is already tracked
+     */
+    public void applyIfTracked(SagaEvent event) {
+        Projection projection = projections.get(event.getSagaId());
+        if (projection != null) {
+            update(projection, event);
+        }
+    }
+    
+    /**
+     * @return A copy of the saga's summary, or null when the saga is not tracked
+     */
+    public SagaExecutionSummary getSummary(UUID sagaId) {
+        Projection projection = projections.get(sagaId);
+        if (projection == null) {
+            return null;
+        }
+        synchronized (projection) {
+            return projection.toSummary(sagaId);
+        }
+    }
+    
+    /**
+     * Get total number of sagas tracked
+     */
+    public int size() {
+        return projections.size();
+    }
+    
+    /**
+     * Drop every summary
+     */
+    public void clear() {
+        projections.clear();
+        finished.clear();
+        finishedCount.set(0);
+    }
+    
+    /**
+     * Evict finished sagas past the retention period or beyond the limit, and unfinished sagas
+     * idle for longer than the unfinished retention
+     */
+    public void evictExpired() {
+        Instant now = Instant.now();
+        Instant cutoff = now.minus(retention);
+        FinishedSaga oldest;
+        while ((oldest = finished.peek()) != null
+                && (oldest.finishedAt.isBefore(cutoff) || finishedCount.get() > maxFinishedSagas)) {
+            if (finished.remove(oldest)) {
+                finishedCount.decrementAndGet();
+                projections.remove(oldest.sagaId);
+                evictionListener.accept(oldest.sagaId);
+            }
+        }
+        
+        long due = nextUnfinishedSweep.get();
+        if (now.toEpochMilli() >= due
+                && nextUnfinishedSweep.compareAndSet(due, now.toEpochMilli() + unfinishedSweepMillis)) {
+            evictIdleUnfinished(now.minus(unfinishedRetention));
+        }
+    }
+    
+    private void evictIdleUnfinished(Instant cutoff) {
+        projections.forEach((sagaId, projection) -> {
+            boolean idle;
+            synchronized (projection) {
+                idle = !projection.isFinished() && projection.endTime.isBefore(cutoff);
+            }
+            if (idle && projections.remove(sagaId, projection)) {
+                evictionListener.accept(sagaId);
+            }
+        });
+    }
+    
+    /**
+     * Build a summary by replaying a saga's events, for sagas the projection does not track
+     * @return The summary, or null when the saga has no events
+     */
+    static SagaExecutionSummary summarize(UUID sagaId, List<SagaEvent> events) {
+        if (events.isEmpty()) {
+            return null;
+        }
+        Projection projection = new Projection();
+        events.forEach(projection::apply);
+        return projection.toSummary(sagaId);
+    }
+    
+    private void update(Projection projection, SagaEvent event) {
+        boolean finishedNow;
+        synchronized (projection) {
+            boolean wasFinished = projection.isFinished();
+            projection.apply(event);
+            finishedNow = !wasFinished && projection.isFinished();
+        }
+        if (finishedNow) {
+            finished.add(new FinishedSaga(event.getSagaId(), event.getTimestamp()));
+            finishedCount.incrementAndGet();
+        }
+        evictExpired();
+    }
+    
+    private static final class Projection {
+        private String sagaType;
+        private Instant startTime;
+        private Instant endTime;
+        private final List<String> completedSteps = new ArrayList<>();
+        private String failedStep;
+        private String errorMessage;
+        private boolean completed;
+        private boolean failed;
+        private boolean compensated;
+        private boolean abandoned;
+        private int totalEvents;
+        
+        private void apply(SagaEvent event) {
+            totalEvents++;
+            Instant timestamp = event.getTimestamp();
+            if (startTime == null || timestamp.isBefore(startTime)) {
+                startTime = timestamp;
+            }
+            if (endTime == null || timestamp.isAfter(endTime)) {
+                endTime = timestamp;
+            }
+            
+            switch (event.getEventType()) {
+                case "SAGA_STARTED":
+                    if (sagaType == null) {
+                        sagaType = event.getEventData();
+                    }
+                    break;
+                case "STEP_COMPLETED":
+                    completedSteps.add(event.getEventData());
+                    break;
+                case "STEP_FAILED":
+                    if (failedStep == null) {
+                        failedStep = event.getEventData();
+                    }
+                    break;
+                case "SAGA_FAILED":
+                    if (!failed && event.getContextData() != null
+                            && event.getContextData().containsKey("errorMessage")) {
+                        errorMessage = (String) event.getContextData().get("errorMessage");
+                    }
+                    failed = true;
+                    break;
+                case "SAGA_COMPLETED":
+                    completed = true;
+                    break;
+                case "COMPENSATION_COMPLETED":
+                    compensated = true;
+                    break;
+                case "SAGA_ABANDONED":
+                    abandoned = true;
+                    break;
+                default:
+                    break;
+            }
+        }
+        
+        private boolean isFinished() {
+            return completed || compensated || abandoned;
+        }
+        
+        private SagaExecutionSummary toSummary(UUID sagaId) {
+            SagaExecutionSummary summary = new SagaExecutionSummary();
+            summary.setSagaId(sagaId);
+            summary.setSagaType(sagaType);
+            summary.setTotalEvents(totalEvents);
+            summary.setStartTime(startTime);
+            summary.setEndTime(endTime);
+            summary.setDurationMs(Duration.between(startTime, endTime).toMillis());
+            summary.setCompletedSteps(new ArrayList<>(completedSteps));
+            summary.setFailedStep(failedStep);
+            summary.setErrorMessage(errorMessage);
+            
+            if (completed) {
+                summary.setStatus("COMPLETED");
+            } else if (compensated) {
+                summary.setStatus("COMPENSATED");
+                summary.setCompensated(true);
+            } else if (abandoned) {
+                summary.setStatus("ABANDONED");
+            } else if (failed) {
+                summary.setStatus("FAILED");
+            } else {
+                summary.setStatus("IN_PROGRESS");
+            }
+            return summary;
+        }
+    }
+    
+    private static final class FinishedSaga {
+        private final UUID sagaId;
+        private final Instant finishedAt;
+        
+        private FinishedSaga(UUID sagaId, Instant finishedAt) {
+            this.sagaId = sagaId;
+            this.finishedAt = finishedAt;
+        }
+    }
+}
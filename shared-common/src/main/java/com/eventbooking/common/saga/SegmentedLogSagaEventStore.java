@@ -0,0 +1,637 @@
+package com.eventbooking.common.saga;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Durable SagaEventStore that appends events to memory-mapped, fixed-size log segments.
+ *
+ * Each record carries the saga id, timestamp and a terminal flag in a fixed header ahead of
+ * the binary-encoded event, so startup rebuilds the in-memory index (saga id to record
+ * positions) from the headers alone, and reads decode only the requested saga's records.
+ *
+ * Appends are memory copies under a short lock. With synchronous writes, callers then wait
+ * for the next flush of the active segment; one caller flushes on behalf of everyone waiting
+ * (group commit), so concurrent sagas share a single msync. A full segment is flushed and
+ * sealed and a new one started. Sealed segments are periodically compacted: records of sagas
+ * that finished longer ago than the retention period are dropped and the segment rewritten,
+ * or deleted once empty. Summaries of sagas recorded since startup are kept in a
+ * projection; others are rebuilt from the saga's records.
+ */
+public class SegmentedLogSagaEventStore implements SagaEventStore, Closeable {
+    
+    private static final Logger logger = LoggerFactory.getLogger(SegmentedLogSagaEventStore.class);
+    
+    // length (4), crc (4), saga id (16), timestamp millis (8), flags (1)
+    static final int HEADER_BYTES = 33;
+    static final int DEFAULT_SEGMENT_BYTES = 64 * 1024 * 1024;
+    static final Duration DEFAULT_RETENTION = Duration.ofDays(7);
+    
+    private static final byte FLAG_TERMINAL = 1;
+    // Payload in SagaEventCodec form; records without it hold the event as JSON
+    private static final byte FLAG_BINARY = 2;
+    private static final Set<String> TERMINAL_EVENTS = Set.of("SAGA_COMPLETED", "COMPENSATION_COMPLETED", "SAGA_ABANDONED");
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String COMPACTION_SUFFIX = ".compact";
+    private static final long FLUSH_INTERVAL_MS = 100;
+    private static final long COMPACTION_INTERVAL_MS = TimeUnit.MINUTES.toMillis(5);
+    
+    private final Path directory;
+    private final int segmentBytes;
+    private final Duration retention;
+    private final boolean syncWrites;
+    private final ObjectMapper objectMapper;
+    private final SagaEventCodec codec;
+    private final SagaSummaryProjection summaries;
+    private final ScheduledExecutorService maintenance;
+    
+    // Guards the segments, the index and the active segment's write position
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final NavigableMap<Integer, Segment> segments = new TreeMap<>();
+    private final Map<UUID, SagaEntry> index = new HashMap<>();
+    private Segment active;
+    
+    // Group commit state: the highest flushed position and whether a flush is running
+    private final Object commitLock = new Object();
+    private long durableMark;
+    private boolean flushing;
+    
+    public SegmentedLogSagaEventStore(Path directory) {
+        this(directory, DEFAULT_SEGMENT_BYTES, DEFAULT_RETENTION, true);
+    }
+    
+    /**
+     * @param directory Directory holding the segment files; created if missing
+     * @param segmentBytes Size of each segment file; a single event must fit in one
+     * @param retention How long events of a finished saga are kept before compaction drops them
+     * @param syncWrites Whether recordEvent waits until the event is flushed to disk
+     */
+    public SegmentedLogSagaEventStore(Path directory, int segmentBytes, Duration retention, boolean syncWrites) {
+        this(directory, segmentBytes, retention, syncWrites, new SagaSummaryProjection());
+    }
+    
+    /**
+     * @param directory Directory holding the segment files; created if missing
+     * @param segmentBytes Size of each segment file; a single event must fit in one
+     * @param retention How long events of a finished saga are kept before compaction drops them
+     * @param syncWrites Whether recordEvent waits until the event is flushed to disk
+     * @param summaries Projection serving summaries of sagas recorded by this process; evicted
+     *                  sagas are summarized from the log instead
+     */
+    public SegmentedLogSagaEventStore(Path directory, int segmentBytes, Duration retention, boolean syncWrites,
+                                      SagaSummaryProjection summaries) {
+        if (segmentBytes <= HEADER_BYTES) {
+            throw new IllegalArgumentException("Segment size must exceed the record header");
+        }
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.retention = retention;
+        this.syncWrites = syncWrites;
+        this.summaries = summaries;
+        this.objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        this.codec = new SagaEventCodec(objectMapper);
+        
+        try {
+            Files.createDirectories(directory);
+            recover();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open saga log in " + directory, e);
+        }
+        
+        this.maintenance = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "saga-log-maintenance");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (!syncWrites) {
+            maintenance.scheduleWithFixedDelay(this::flushQuietly, FLUSH_INTERVAL_MS, FLUSH_INTERVAL_MS,
+                    TimeUnit.MILLISECONDS);
+        }
+        maintenance.scheduleWithFixedDelay(this::compactQuietly, COMPACTION_INTERVAL_MS, COMPACTION_INTERVAL_MS,
+                TimeUnit.MILLISECONDS);
+    }
+    
+    @Override
+    public void recordEvent(UUID sagaId, String eventType, String eventData, Map<String, Object> contextData) {
+        SagaEvent event = new SagaEvent(sagaId, eventType, eventData, contextData);
+        byte[] record = encode(event);
+        if (record.length > segmentBytes) {
+            throw new IllegalArgumentException("Saga event of " + record.length
+                    + " bytes does not fit in a segment of " + segmentBytes + " bytes");
+        }
+        
+        long mark;
+        boolean newSaga;
+        lock.writeLock().lock();
+        try {
+            if (active.capacity() - active.writePosition < record.length) {
+                roll();
+            }
+            int position = active.writePosition;
+            active.buffer.put(position, record);
+            active.writePosition += record.length;
+            
+            newSaga = !index.containsKey(sagaId);
+            indexRecord(sagaId, position(active.sequence, position), event.getTimestamp().toEpochMilli(),
+                    TERMINAL_EVENTS.contains(eventType));
+            mark = position(active.sequence, active.writePosition);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to roll saga log segment", e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        
+        if (syncWrites) {
+            awaitDurable(mark);
+        }
+        
+        // A saga that began before a restart has events the projection never saw; its
+        // summary is rebuilt from the log on read instead
+        if (newSaga) {
+            summaries.apply(event);
+        } else {
+            summaries.applyIfTracked(event);
+        }
+        
+        logger.debug("Recorded saga event: {} for saga: {} (Event ID: {})",
+                eventType, sagaId, event.getEventId());
+    }
+    
+    @Override
+    public List<SagaEvent> getEvents(UUID sagaId) {
+        List<byte[]> payloads = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            SagaEntry entry = index.get(sagaId);
+            if (entry == null) {
+                return new ArrayList<>();
+            }
+            for (int i = 0; i < entry.count; i++) {
+                payloads.add(readPayload(entry.positions[i]));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        
+        // Deserialized outside the lock so readers never hold up appends
+        List<SagaEvent> events = new ArrayList<>(payloads.size());
+        for (byte[] payload : payloads) {
+            events.add(decode(sagaId, payload));
+        }
+        return events;
+    }
+    
+    @Override
+    public SagaExecutionSummary getSagaSummary(UUID sagaId) {
+        SagaExecutionSummary summary = summaries.getSummary(sagaId);
+        if (summary != null) {
+            return summary;
+        }
+        return SagaSummaryProjection.summarize(sagaId, getEvents(sagaId));
+    }
+    
+    /**
+     * Sagas without a terminal record, oldest last event first
+     */
+    @Override
+    public List<UUID> getIncompleteSagaIds() {
+        lock.readLock().lock();
+        try {
+            return index.entrySet().stream()
+                    .filter(entry -> !entry.getValue().terminal)
+                    .sorted(Comparator.comparingLong(entry -> entry.getValue().lastEventMillis))
+                    .map(Map.Entry::getKey)
+                    .collect(Collectors.toList());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Get total number of sagas with events still in the log
+     */
+    public int getSagaCount() {
+        lock.readLock().lock();
+        try {
+            return index.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Drop the records of sagas that finished before the retention period from sealed segments
+     */
+    public synchronized void compact() {
+        long cutoff = System.currentTimeMillis() - retention.toMillis();
+        List<Segment> sealed;
+        lock.readLock().lock();
+        try {
+            sealed = segments.values().stream()
+                    .filter(segment -> segment != active)
+                    .collect(Collectors.toList());
+        } finally {
+            lock.readLock().unlock();
+        }
+        
+        for (Segment segment : sealed) {
+            try {
+                compactSegment(segment, cutoff);
+            } catch (IOException e) {
+                logger.error("Failed to compact saga log segment: {}", segment.path, e);
+            }
+        }
+    }
+    
+    /**
+     * Flush pending writes and stop background maintenance
+     */
+    @Override
+    public void close() {
+        maintenance.shutdownNow();
+        flushQuietly();
+    }
+    
+    private void recover() throws IOException {
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing.sorted().collect(Collectors.toList());
+        }
+        
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            if (name.endsWith(COMPACTION_SUFFIX)) {
+                // Left behind by a compaction that did not finish; the original segment is intact
+                Files.delete(file);
+                continue;
+            }
+            if (!name.endsWith(SEGMENT_SUFFIX)) {
+                continue;
+            }
+            int sequence = Integer.parseInt(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+            int capacity = (int) Math.max(Files.size(file), HEADER_BYTES);
+            Segment segment = Segment.open(file, sequence, capacity);
+            segment.writePosition = scan(segment);
+            segments.put(sequence, segment);
+        }
+        
+        if (segments.isEmpty()) {
+            active = createSegment(1);
+        } else {
+            active = segments.lastEntry().getValue();
+        }
+        
+        logger.info("Opened saga log in {}: {} segments, {} sagas", directory, segments.size(), index.size());
+    }
+    
+    /**
+     * Index every intact record of a segment
+     * @return The position after the last intact record
+     */
+    private int scan(Segment segment) {
+        ByteBuffer buffer = segment.buffer;
+        int position = 0;
+        while (position + HEADER_BYTES <= segment.capacity()) {
+            int length = buffer.getInt(position);
+            if (length == 0) {
+                break;
+            }
+            if (length < 0 || position + HEADER_BYTES + length > segment.capacity()
+                    || buffer.getInt(position + 4) != checksum(buffer, position, length)) {
+                // A record torn by a crash; nothing after it was acknowledged
+                logger.warn("Truncating saga log segment {} at torn record, position {}", segment.path, position);
+                zero(buffer, position, segment.capacity());
+                break;
+            }
+            
+            UUID sagaId = new UUID(buffer.getLong(position + 8), buffer.getLong(position + 16));
+            long timestamp = buffer.getLong(position + 24);
+            boolean terminal = (buffer.get(position + 32) & FLAG_TERMINAL) != 0;
+            indexRecord(sagaId, position(segment.sequence, position), timestamp, terminal);
+            position += HEADER_BYTES + length;
+        }
+        return position;
+    }
+    
+    private byte[] encode(SagaEvent event) {
+        byte[] payload = codec.encode(event);
+        byte flags = FLAG_BINARY;
+        if (TERMINAL_EVENTS.contains(event.getEventType())) {
+            flags |= FLAG_TERMINAL;
+        }
+        
+        ByteBuffer record = ByteBuffer.allocate(HEADER_BYTES + payload.length);
+        record.putInt(payload.length);
+        record.putInt(0);
+        record.putLong(event.getSagaId().getMostSignificantBits());
+        record.putLong(event.getSagaId().getLeastSignificantBits());
+        record.putLong(event.getTimestamp().toEpochMilli());
+        record.put(flags);
+        record.put(payload);
+        record.putInt(4, checksum(record, 0, payload.length));
+        return record.array();
+    }
+    
+    /**
+     * Copy a record's flags byte followed by its payload
+     */
+    private byte[] readPayload(long position) {
+        Segment segment = segments.get(segmentOf(position));
+        int offset = offsetOf(position);
+        byte[] payload = new byte[1 + segment.buffer.getInt(offset)];
+        segment.buffer.get(offset + HEADER_BYTES - 1, payload);
+        return payload;
+    }
+    
+    private SagaEvent decode(UUID sagaId, byte[] payload) {
+        if ((payload[0] & FLAG_BINARY) != 0) {
+            return codec.decode(sagaId, payload, 1, payload.length - 1);
+        }
+        try {
+            return objectMapper.readValue(payload, 1, payload.length - 1, SagaEvent.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to decode event of saga " + sagaId, e);
+        }
+    }
+    
+    private void indexRecord(UUID sagaId, long position, long timestamp, boolean terminal) {
+        SagaEntry entry = index.computeIfAbsent(sagaId, id -> new SagaEntry());
+        entry.add(position);
+        entry.lastEventMillis = Math.max(entry.lastEventMillis, timestamp);
+        entry.terminal |= terminal;
+    }
+    
+    // Caller holds the write lock
+    private void roll() throws IOException {
+        active.buffer.force();
+        Segment next = createSegment(active.sequence + 1);
+        logger.info("Rolled saga log from segment {} to {}", active.sequence, next.sequence);
+        active = next;
+    }
+    
+    private Segment createSegment(int sequence) throws IOException {
+        Segment segment = Segment.open(segmentPath(sequence), sequence, segmentBytes);
+        segments.put(sequence, segment);
+        return segment;
+    }
+    
+    /**
+     * Wait until the log is flushed at least up to the mark. The first waiter flushes for
+     * everyone; writers arriving during a flush wait for the next one.
+     */
+    private void awaitDurable(long mark) {
+        synchronized (commitLock) {
+            while (durableMark < mark && flushing) {
+                try {
+                    commitLock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted waiting for saga log flush", e);
+                }
+            }
+            if (durableMark >= mark) {
+                return;
+            }
+            flushing = true;
+        }
+        
+        long flushed = 0;
+        try {
+            flushed = flush();
+        } finally {
+            synchronized (commitLock) {
+                flushing = false;
+                durableMark = Math.max(durableMark, flushed);
+                commitLock.notifyAll();
+            }
+        }
+    }
+    
+    /**
+     * Force the active segment to disk
+     * @return The mark up to which the log is now durable
+     */
+    private long flush() {
+        Segment segment;
+        long mark;
+        lock.readLock().lock();
+        try {
+            segment = active;
+            mark = position(segment.sequence, segment.writePosition);
+        } finally {
+            lock.readLock().unlock();
+        }
+        segment.buffer.force();
+        return mark;
+    }
+    
+    private void flushQuietly() {
+        try {
+            long flushed = flush();
+            synchronized (commitLock) {
+                durableMark = Math.max(durableMark, flushed);
+            }
+        } catch (Exception e) {
+            logger.error("Failed to flush saga log", e);
+        }
+    }
+    
+    private void compactQuietly() {
+        try {
+            compact();
+        } catch (Exception e) {
+            logger.error("Saga log compaction failed", e);
+        }
+    }
+    
+    private void compactSegment(Segment segment, long cutoff) throws IOException {
+        // Sealed segments only change here, so they can be read without the lock
+        List<Integer> kept = new ArrayList<>();
+        Set<UUID> touched = new HashSet<>();
+        int dropped = 0;
+        lock.readLock().lock();
+        try {
+            for (int position = 0; position < segment.writePosition; ) {
+                int length = segment.buffer.getInt(position);
+                UUID sagaId = new UUID(segment.buffer.getLong(position + 8), segment.buffer.getLong(position + 16));
+                SagaEntry entry = index.get(sagaId);
+                touched.add(sagaId);
+                if (entry != null && entry.terminal && entry.lastEventMillis < cutoff) {
+                    dropped++;
+                } else {
+                    kept.add(position);
+                }
+                position += HEADER_BYTES + length;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (dropped == 0) {
+            return;
+        }
+        
+        // Copy surviving records into a new file, then swap it in
+        Map<Long, Long> moved = new HashMap<>();
+        Path compacted = segment.path.resolveSibling(segment.path.getFileName() + COMPACTION_SUFFIX);
+        int size = 0;
+        if (!kept.isEmpty()) {
+            try (FileChannel channel = FileChannel.open(compacted, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                for (int position : kept) {
+                    int length = HEADER_BYTES + segment.buffer.getInt(position);
+                    ByteBuffer record = segment.buffer.slice(position, length);
+                    moved.put(position(segment.sequence, position), position(segment.sequence, size));
+                    while (record.hasRemaining()) {
+                        channel.write(record);
+                    }
+                    size += length;
+                }
+                channel.force(true);
+            }
+        }
+        
+        lock.writeLock().lock();
+        try {
+            if (kept.isEmpty()) {
+                segments.remove(segment.sequence);
+                Files.delete(segment.path);
+            } else {
+                Files.move(compacted, segment.path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                Segment replacement = Segment.open(segment.path, segment.sequence, size);
+                replacement.writePosition = size;
+                segments.put(segment.sequence, replacement);
+            }
+            for (UUID sagaId : touched) {
+                SagaEntry entry = index.get(sagaId);
+                if (entry != null && entry.remap(segment.sequence, moved) == 0) {
+                    index.remove(sagaId);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        
+        logger.info("Compacted saga log segment {}: dropped {} records, kept {}",
+                segment.sequence, dropped, kept.size());
+    }
+    
+    private Path segmentPath(int sequence) {
+        return directory.resolve(String.format("%010d%s", sequence, SEGMENT_SUFFIX));
+    }
+    
+    private static int checksum(ByteBuffer buffer, int recordStart, int payloadLength) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(recordStart + 8, HEADER_BYTES - 8 + payloadLength));
+        return (int) crc.getValue();
+    }
+    
+    private static void zero(ByteBuffer buffer, int from, int to) {
+        for (int i = from; i < to; i++) {
+            buffer.put(i, (byte) 0);
+        }
+    }
+    
+    // A record position is the segment sequence in the high half and the offset in the low half,
+    // so positions compare in log order
+    private static long position(int segment, int offset) {
+        return ((long) segment << 32) | (offset & 0xFFFFFFFFL);
+    }
+    
+    private static int segmentOf(long position) {
+        return (int) (position >>> 32);
+    }
+    
+    private static int offsetOf(long position) {
+        return (int) position;
+    }
+    
+    private static final class Segment {
+        private final Path path;
+        private final int sequence;
+        private final MappedByteBuffer buffer;
+        private int writePosition;
+        
+        private Segment(Path path, int sequence, MappedByteBuffer buffer) {
+            this.path = path;
+            this.sequence = sequence;
+            this.buffer = buffer;
+        }
+        
+        private static Segment open(Path path, int sequence, int capacity) throws IOException {
+            // The mapping stays valid after the channel is closed
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                return new Segment(path, sequence, channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity));
+            }
+        }
+        
+        private int capacity() {
+            return buffer.capacity();
+        }
+    }
+    
+    private static final class SagaEntry {
+        private long[] positions = new long[8];
+        private int count;
+        private long lastEventMillis;
+        private boolean terminal;
+        
+        private void add(long position) {
+            if (count == positions.length) {
+                positions = Arrays.copyOf(positions, count * 2);
+            }
+            positions[count++] = position;
+        }
+        
+        /**
+         * Point the entry's records in a compacted segment at their new offsets, dropping
+         * those that were not kept
+         * @return The number of records left
+         */
+        private int remap(int segment, Map<Long, Long> moved) {
+            int kept = 0;
+            for (int i = 0; i < count; i++) {
+                long position = positions[i];
+                if (segmentOf(position) != segment) {
+                    positions[kept++] = position;
+                } else if (moved.containsKey(position)) {
+                    positions[kept++] = moved.get(position);
+                }
+            }
+            count = kept;
+            return kept;
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.eventbooking.common.benchmark;
+
+import com.eventbooking.common.saga.InMemorySagaEventStore;
+import com.eventbooking.common.saga.SagaContext;
+import com.eventbooking.common.saga.SagaEvent;
+import com.eventbooking.common.saga.SagaEventStore;
+import com.eventbooking.common.saga.SagaExecutionSummary;
+import com.eventbooking.common.saga.SagaOrchestrator;
+import com.eventbooking.common.saga.SagaStep;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs a four-step ticket purchase saga against the in-memory event store, recording either
+ * the context changes of each event (what the orchestrator does) or a full copy of the context
+ * per event (what it used to do). Compare gc.alloc.rate.norm between the two modes.
+ *
+ * Run from the shared-common module after test-compile:
+ * java -cp target/test-classes:target/classes:$(dependency classpath) \
+ *     com.eventbooking.common.benchmark.SagaOrchestratorBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SagaOrchestratorBenchmark {
+    
+    @Param({"delta", "snapshot"})
+    private String contextEvents;
+    
+    private SnapshotEventStore snapshotStore;
+    private SagaOrchestrator orchestrator;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        SagaEventStore store = new InMemorySagaEventStore();
+        if ("snapshot".equals(contextEvents)) {
+            snapshotStore = new SnapshotEventStore(store);
+            store = snapshotStore;
+        }
+        orchestrator = new SagaOrchestrator(List.of(
+                step("ValidateInventory", 1, Map.of("inventoryValidated", true)),
+                step("CreateOrder", 2, Map.of("orderId", UUID.randomUUID(), "orderNumber", "ORD-1001",
+                        "totalAmount", new BigDecimal("149.97"))),
+                step("ProcessPayment", 3, Map.of("paymentIntentId", "pi_123", "transactionId", "txn_123")),
+                step("ConfirmOrder", 4, Map.of("orderConfirmed", true))), store);
+    }
+    
+    @Benchmark
+    public boolean purchase() {
+        SagaContext context = new SagaContext("TicketPurchaseSaga");
+        context.put("userId", UUID.randomUUID());
+        context.put("eventId", UUID.randomUUID());
+        context.put("ticketTypeId", UUID.randomUUID());
+        context.put("quantity", 3);
+        context.put("unitPrice", new BigDecimal("49.99"));
+        context.put("paymentMethodId", "pm_card_visa");
+        context.put("reservationId", UUID.randomUUID());
+        if (snapshotStore != null) {
+            snapshotStore.current = context;
+        }
+        return orchestrator.execute(context);
+    }
+    
+    private static SagaStep step(String name, int order, Map<String, Object> changes) {
+        return new SagaStep() {
+            @Override
+            public boolean execute(SagaContext context) {
+                changes.forEach(context::put);
+                return true;
+            }
+            
+            @Override
+            public void compensate(SagaContext context) {
+            }
+            
+            @Override
+            public String getStepName() {
+                return name;
+            }
+            
+            @Override
+            public int getOrder() {
+                return order;
+            }
+        };
+    }
+    
+    /**
+     * Records a full copy of the running saga's context with every event, as the orchestrator
+     * did before it recorded only changes
+     */
+    private static final class SnapshotEventStore implements SagaEventStore {
+        private final SagaEventStore delegate;
+        private SagaContext current;
+        
+        private SnapshotEventStore(SagaEventStore delegate) {
+            this.delegate = delegate;
+        }
+        
+        @Override
+        public void recordEvent(UUID sagaId, String eventType, String eventData, Map<String, Object> contextData) {
+            delegate.recordEvent(sagaId, eventType, eventData, current.getData());
+        }
+        
+        @Override
+        public List<SagaEvent> getEvents(UUID sagaId) {
+            return delegate.getEvents(sagaId);
+        }
+        
+        @Override
+        public SagaExecutionSummary getSagaSummary(UUID sagaId) {
+            return delegate.getSagaSummary(sagaId);
+        }
+    }
+    
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(SagaOrchestratorBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,160 @@
+package com.eventbooking.common.saga;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncSagaOrchestratorTest {
+    
+    private ExecutorService executor;
+    private InMemorySagaEventStore eventStore;
+    private List<String> log;
+    
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(4);
+        eventStore = new InMemorySagaEventStore();
+        log = new CopyOnWriteArrayList<>();
+    }
+    
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+    
+    @Test
+    void testIndependentStepsRunInParallel() throws Exception {
+        // Each step waits for the other to start, so they only finish if they overlap
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        Predicate<SagaContext> meet = context -> {
+            bothStarted.countDown();
+            try {
+                return bothStarted.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                return false;
+            }
+        };
+        AsyncSagaOrchestrator orchestrator = new AsyncSagaOrchestrator(List.of(
+                step("ValidateInventory", 1, Set.of(), meet),
+                step("CreateOrder", 2, Set.of(), meet),
+                step("ProcessPayment", 3, Set.of("ValidateInventory", "CreateOrder"), context -> true)),
+                eventStore, executor);
+        SagaContext context = new SagaContext("TicketPurchaseSaga");
+        
+        assertTrue(orchestrator.execute(context).get(10, TimeUnit.SECONDS));
+        
+        assertEquals("execute:ProcessPayment", log.get(2));
+        assertEquals(SagaContext.SagaStatus.COMPLETED, context.getStatus());
+        assertEquals("COMPLETED", eventStore.getSagaSummary(context.getSagaId()).getStatus());
+    }
+    
+    @Test
+    void testFailureCompensatesCompletedStepsInReverseDependencyOrder() throws Exception {
+        AsyncSagaOrchestrator orchestrator = new AsyncSagaOrchestrator(List.of(
+                step("CreateOrder", 1, Set.of(), context -> true),
+                step("ReserveSeats", 2, Set.of("CreateOrder"), context -> true),
+                step("ProcessPayment", 3, Set.of("ReserveSeats"), context -> false),
+                step("ConfirmOrder", 4, Set.of("ProcessPayment"), context -> true)),
+                eventStore, executor);
+        SagaContext context = new SagaContext("TicketPurchaseSaga");
+        
+        assertFalse(orchestrator.execute(context).get(10, TimeUnit.SECONDS));
+        
+        assertEquals(List.of("execute:CreateOrder", "execute:ReserveSeats", "execute:ProcessPayment",
+                "compensate:ReserveSeats", "compensate:CreateOrder"), log);
+        assertEquals(SagaContext.SagaStatus.COMPENSATED, context.getStatus());
+        assertEquals("COMPENSATED", eventStore.getSagaSummary(context.getSagaId()).getStatus());
+    }
+    
+    @Test
+    void testRejectedStepStillCompensatesCompletedSteps() throws Exception {
+        // Saga start and the first two steps are accepted, the third step is rejected
+        AtomicInteger submitted = new AtomicInteger();
+        Executor rejectingThird = task -> {
+            if (submitted.incrementAndGet() == 4) {
+                throw new RejectedExecutionException("saga pool saturated");
+            }
+            executor.execute(task);
+        };
+        AsyncSagaOrchestrator orchestrator = new AsyncSagaOrchestrator(List.of(
+                step("CreateOrder", 1, Set.of(), context -> true),
+                step("ReserveSeats", 2, Set.of("CreateOrder"), context -> true),
+                step("ProcessPayment", 3, Set.of("ReserveSeats"), context -> true),
+                step("ConfirmOrder", 4, Set.of("ProcessPayment"), context -> true)),
+                eventStore, rejectingThird);
+        SagaContext context = new SagaContext("TicketPurchaseSaga");
+        
+        assertFalse(orchestrator.execute(context).get(10, TimeUnit.SECONDS));
+        
+        assertEquals(List.of("execute:CreateOrder", "execute:ReserveSeats",
+                "compensate:ReserveSeats", "compensate:CreateOrder"), log);
+        assertEquals("COMPENSATED", eventStore.getSagaSummary(context.getSagaId()).getStatus());
+    }
+    
+    @Test
+    void testStepsWithoutDependenciesRunInOrder() throws Exception {
+        AsyncSagaOrchestrator orchestrator = new AsyncSagaOrchestrator(List.of(
+                step("Second", 2, null, context -> true),
+                step("First", 1, null, context -> true),
+                step("Third", 3, null, context -> true)),
+                eventStore, executor);
+        
+        assertTrue(orchestrator.execute(new SagaContext("Saga")).get(10, TimeUnit.SECONDS));
+        
+        assertEquals(List.of("execute:First", "execute:Second", "execute:Third"), log);
+    }
+    
+    @Test
+    void testRejectsInvalidDependencies() {
+        assertThrows(IllegalArgumentException.class, () -> new AsyncSagaOrchestrator(List.of(
+                step("CreateOrder", 1, Set.of("Missing"), context -> true)), eventStore, executor));
+        assertThrows(IllegalArgumentException.class, () -> new AsyncSagaOrchestrator(List.of(
+                step("A", 1, Set.of("B"), context -> true),
+                step("B", 2, Set.of("A"), context -> true)), eventStore, executor));
+    }
+    
+    private SagaStep step(String name, int order, Set<String> dependencies, Predicate<SagaContext> action) {
+        return new SagaStep() {
+            @Override
+            public boolean execute(SagaContext context) {
+                boolean success = action.test(context);
+                log.add("execute:" + name);
+                return success;
+            }
+            
+            @Override
+            public void compensate(SagaContext context) {
+                log.add("compensate:" + name);
+            }
+            
+            @Override
+            public String getStepName() {
+                return name;
+            }
+            
+            @Override
+            public int getOrder() {
+                return order;
+            }
+            
+            @Override
+            public Set<String> getDependencies() {
+                return dependencies;
+            }
+        };
+    }
+}
@@ -0,0 +1,172 @@
+package com.eventbooking.common.saga;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SagaOrchestratorTest {
+    
+    @Test
+    void testEventsRecordOnlyChangedContext() {
+        InMemorySagaEventStore store = new InMemorySagaEventStore();
+        UUID userId = UUID.randomUUID();
+        SagaContext context = new SagaContext("TicketPurchaseSaga");
+        context.put("userId", userId);
+        context.put("quantity", 2);
+        
+        SagaOrchestrator orchestrator = new SagaOrchestrator(List.of(
+                step("CreateOrder", 1, "orderId", "order-1"),
+                step("ProcessPayment", 2, "transactionId", "txn-1")), store);
+        
+        assertTrue(orchestrator.execute(context));
+        
+        List<SagaEvent> events = store.getEvents(context.getSagaId());
+        assertEquals(Map.of("userId", userId, "quantity", 2), events.get(0).getContextData());
+        // STEP_STARTED of CreateOrder, then its STEP_COMPLETED with the step's own change
+        assertTrue(events.get(1).getContextData().isEmpty());
+        assertEquals(Map.of("orderId", "order-1"), events.get(2).getContextData());
+        assertEquals(Map.of("transactionId", "txn-1"), events.get(4).getContextData());
+        assertEquals(context.getData(), store.getContextData(context.getSagaId()));
+    }
+    
+    @Test
+    void testReplayAfterCompensationRebuildsContext() {
+        InMemorySagaEventStore store = new InMemorySagaEventStore();
+        SagaContext context = new SagaContext("TicketPurchaseSaga");
+        context.put("quantity", 2);
+        
+        SagaStep failing = new SagaStep() {
+            @Override
+            public boolean execute(SagaContext context) {
+                context.put("paymentStatus", "DECLINED");
+                return false;
+            }
+            
+            @Override
+            public void compensate(SagaContext context) {
+            }
+            
+            @Override
+            public String getStepName() {
+                return "ProcessPayment";
+            }
+            
+            @Override
+            public int getOrder() {
+                return 2;
+            }
+        };
+        SagaOrchestrator orchestrator = new SagaOrchestrator(List.of(
+                step("CreateOrder", 1, "orderId", "order-1"), failing), store);
+        
+        assertFalse(orchestrator.execute(context));
+        
+        Map<String, Object> replayed = store.getContextData(context.getSagaId());
+        assertEquals("order-1", replayed.get("orderId"));
+        assertEquals("DECLINED", replayed.get("paymentStatus"));
+        assertEquals("cancelled", replayed.get("orderId.compensation"));
+        assertEquals(context.getData(), replayed);
+    }
+    
+    @Test
+    void testResumeRunsRemainingSteps() {
+        InMemorySagaEventStore store = new InMemorySagaEventStore();
+        SagaContext context = new SagaContext("TicketPurchaseSaga");
+        context.put("quantity", 2);
+        store.recordEvent(context.getSagaId(), "SAGA_STARTED", "TicketPurchaseSaga", context.drainChanges());
+        store.recordEvent(context.getSagaId(), "STEP_STARTED", "CreateOrder", Map.of());
+        store.recordEvent(context.getSagaId(), "STEP_COMPLETED", "CreateOrder", Map.of("orderId", "order-1"));
+        
+        SagaContext restored = SagaContext.restore(context.getSagaId(), "TicketPurchaseSaga",
+                context.getStartTime(), store.getContextData(context.getSagaId()));
+        SagaOrchestrator orchestrator = new SagaOrchestrator(List.of(
+                step("CreateOrder", 1, "orderId", "order-2"),
+                step("ProcessPayment", 2, "transactionId", "txn-1")), store);
+        
+        assertTrue(orchestrator.resume(restored, store.getEvents(context.getSagaId())));
+        
+        assertEquals("order-1", restored.get("orderId"));
+        assertEquals("txn-1", restored.get("transactionId"));
+        assertEquals(List.of("CreateOrder", "ProcessPayment"),
+                store.getSagaSummary(context.getSagaId()).getCompletedSteps());
+        assertEquals("COMPLETED", store.getSagaSummary(context.getSagaId()).getStatus());
+        assertTrue(store.getIncompleteSagaIds().isEmpty());
+    }
+    
+    @Test
+    void testResumeCompensatesStepInterruptedWhileRunning() {
+        InMemorySagaEventStore store = new InMemorySagaEventStore();
+        UUID sagaId = UUID.randomUUID();
+        store.recordEvent(sagaId, "SAGA_STARTED", "TicketPurchaseSaga", Map.of("quantity", 2));
+        store.recordEvent(sagaId, "STEP_STARTED", "CreateOrder", Map.of());
+        store.recordEvent(sagaId, "STEP_COMPLETED", "CreateOrder", Map.of("orderId", "order-1"));
+        store.recordEvent(sagaId, "STEP_STARTED", "ProcessPayment", Map.of());
+        assertEquals(List.of(sagaId), store.getIncompleteSagaIds());
+        
+        SagaContext restored = SagaContext.restore(sagaId, "TicketPurchaseSaga", Instant.now(),
+                store.getContextData(sagaId));
+        SagaOrchestrator orchestrator = new SagaOrchestrator(List.of(
+                step("CreateOrder", 1, "orderId", "order-2"),
+                step("ProcessPayment", 2, "transactionId", "txn-1"),
+                step("ConfirmOrder", 3, "confirmed", true)), store);
+        
+        assertFalse(orchestrator.resume(restored, store.getEvents(sagaId)));
+        
+        assertEquals(SagaContext.SagaStatus.COMPENSATED, restored.getStatus());
+        assertEquals("cancelled", restored.get("orderId.compensation"));
+        assertEquals("cancelled", restored.get("transactionId.compensation"));
+        assertNull(restored.get("confirmed.compensation"));
+        assertEquals("COMPENSATED", store.getSagaSummary(sagaId).getStatus());
+    }
+    
+    @Test
+    void testResumeCompensatesWhenForwardNotAllowed() {
+        InMemorySagaEventStore store = new InMemorySagaEventStore();
+        UUID sagaId = UUID.randomUUID();
+        store.recordEvent(sagaId, "SAGA_STARTED", "TicketPurchaseSaga", Map.of("quantity", 2));
+        store.recordEvent(sagaId, "STEP_STARTED", "CreateOrder", Map.of());
+        store.recordEvent(sagaId, "STEP_COMPLETED", "CreateOrder", Map.of("orderId", "order-1"));
+        
+        SagaContext restored = SagaContext.restore(sagaId, "TicketPurchaseSaga", Instant.now(),
+                store.getContextData(sagaId));
+        SagaOrchestrator orchestrator = new SagaOrchestrator(List.of(
+                step("CreateOrder", 1, "orderId", "order-2"),
+                step("ProcessPayment", 2, "transactionId", "txn-1")), store);
+        
+        assertFalse(orchestrator.resume(restored, store.getEvents(sagaId), false));
+        
+        assertEquals("cancelled", restored.get("orderId.compensation"));
+        assertNull(restored.get("transactionId"));
+        assertEquals("COMPENSATED", store.getSagaSummary(sagaId).getStatus());
+    }
+    
+    private static SagaStep step(String name, int order, String key, Object value) {
+        return new SagaStep() {
+            @Override
+            public boolean execute(SagaContext context) {
+                context.put(key, value);
+                return true;
+            }
+            
+            @Override
+            public void compensate(SagaContext context) {
+                context.put(key + ".compensation", "cancelled");
+            }
+            
+            @Override
+            public String getStepName() {
+                return name;
+            }
+            
+            @Override
+            public int getOrder() {
+                return order;
+            }
+        };
+    }
+}
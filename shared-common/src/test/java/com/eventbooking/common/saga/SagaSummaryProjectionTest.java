@@ -0,0 +1,140 @@
+package com.eventbooking.common.saga;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SagaSummaryProjectionTest {
+    
+    @Test
+    void testSummaryMatchesReplay() {
+        SagaSummaryProjection projection = new SagaSummaryProjection();
+        UUID sagaId = UUID.randomUUID();
+        List<SagaEvent> events = List.of(
+                new SagaEvent(sagaId, "SAGA_STARTED", "TicketPurchaseSaga", null),
+                new SagaEvent(sagaId, "STEP_COMPLETED", "ReserveTickets", Map.of()),
+                new SagaEvent(sagaId, "STEP_FAILED", "ProcessPayment", Map.of()),
+                new SagaEvent(sagaId, "SAGA_FAILED", "TicketPurchaseSaga", Map.of("errorMessage", "Card declined")),
+                new SagaEvent(sagaId, "COMPENSATION_COMPLETED", "TicketPurchaseSaga", Map.of()));
+        events.forEach(projection::apply);
+        
+        SagaExecutionSummary summary = projection.getSummary(sagaId);
+        SagaExecutionSummary replayed = SagaSummaryProjection.summarize(sagaId, events);
+        
+        assertEquals("COMPENSATED", summary.getStatus());
+        assertTrue(summary.isCompensated());
+        assertEquals("TicketPurchaseSaga", summary.getSagaType());
+        assertEquals(List.of("ReserveTickets"), summary.getCompletedSteps());
+        assertEquals("ProcessPayment", summary.getFailedStep());
+        assertEquals("Card declined", summary.getErrorMessage());
+        assertEquals(5, summary.getTotalEvents());
+        assertEquals(replayed.getStatus(), summary.getStatus());
+        assertEquals(replayed.getStartTime(), summary.getStartTime());
+        assertEquals(replayed.getEndTime(), summary.getEndTime());
+    }
+    
+    @Test
+    void testSummaryIsACopy() {
+        SagaSummaryProjection projection = new SagaSummaryProjection();
+        UUID sagaId = UUID.randomUUID();
+        projection.apply(new SagaEvent(sagaId, "SAGA_STARTED", "TicketPurchaseSaga", null));
+        
+        SagaExecutionSummary before = projection.getSummary(sagaId);
+        projection.apply(new SagaEvent(sagaId, "STEP_COMPLETED", "ReserveTickets", Map.of()));
+        
+        assertEquals("IN_PROGRESS", before.getStatus());
+        assertTrue(before.getCompletedSteps().isEmpty());
+        assertEquals(2, projection.getSummary(sagaId).getTotalEvents());
+    }
+    
+    @Test
+    void testEvictsFinishedSagasBeyondLimit() {
+        List<UUID> evicted = new ArrayList<>();
+        SagaSummaryProjection projection = new SagaSummaryProjection(Duration.ofHours(1), 2, evicted::add);
+        UUID running = UUID.randomUUID();
+        projection.apply(new SagaEvent(running, "SAGA_STARTED", "TicketPurchaseSaga", null));
+        
+        List<UUID> finished = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            UUID sagaId = UUID.randomUUID();
+            finished.add(sagaId);
+            projection.apply(new SagaEvent(sagaId, "SAGA_STARTED", "TicketPurchaseSaga", null));
+            projection.apply(new SagaEvent(sagaId, "SAGA_COMPLETED", "TicketPurchaseSaga", Map.of()));
+        }
+        
+        assertEquals(List.of(finished.get(0)), evicted);
+        assertNull(projection.getSummary(finished.get(0)));
+        assertNotNull(projection.getSummary(finished.get(2)));
+        assertNotNull(projection.getSummary(running));
+        assertEquals(3, projection.size());
+    }
+    
+    @Test
+    void testEvictsFinishedSagasAfterRetention() throws InterruptedException {
+        SagaSummaryProjection projection = new SagaSummaryProjection(Duration.ofMillis(10), 100, sagaId -> { });
+        UUID finished = UUID.randomUUID();
+        UUID running = UUID.randomUUID();
+        projection.apply(new SagaEvent(finished, "SAGA_STARTED", "TicketPurchaseSaga", null));
+        projection.apply(new SagaEvent(finished, "SAGA_COMPLETED", "TicketPurchaseSaga", Map.of()));
+        projection.apply(new SagaEvent(running, "SAGA_STARTED", "TicketPurchaseSaga", null));
+        
+        Thread.sleep(20);
+        projection.evictExpired();
+        
+        assertNull(projection.getSummary(finished));
+        assertNotNull(projection.getSummary(running));
+    }
+    
+    @Test
+    void testInMemoryStoreDropsEventsOfEvictedSagas() {
+        InMemorySagaEventStore store = new InMemorySagaEventStore(Duration.ofHours(1), 1);
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        for (UUID sagaId : List.of(first, second)) {
+            store.recordEvent(sagaId, "SAGA_STARTED", "TicketPurchaseSaga", null);
+            store.recordEvent(sagaId, "SAGA_COMPLETED", "TicketPurchaseSaga", Map.of());
+        }
+        
+        assertTrue(store.getEvents(first).isEmpty());
+        assertNull(store.getSagaSummary(first));
+        assertEquals(2, store.getEvents(second).size());
+        assertEquals(1, store.getSagaCount());
+    }
+    
+    @Test
+    void testInMemoryStoreDropsEventsOfIdleUnfinishedSagas() throws InterruptedException {
+        InMemorySagaEventStore store = new InMemorySagaEventStore(Duration.ofHours(1), 100, Duration.ofMillis(10));
+        UUID stale = UUID.randomUUID();
+        store.recordEvent(stale, "SAGA_STARTED", "TicketPurchaseSaga", null);
+        
+        Thread.sleep(20);
+        UUID fresh = UUID.randomUUID();
+        store.recordEvent(fresh, "SAGA_STARTED", "TicketPurchaseSaga", null);
+        
+        assertTrue(store.getEvents(stale).isEmpty());
+        assertNull(store.getSagaSummary(stale));
+        assertEquals(List.of(fresh), store.getIncompleteSagaIds());
+    }
+    
+    @Test
+    void testAbandonedSagaIsFinished() {
+        InMemorySagaEventStore store = new InMemorySagaEventStore(Duration.ofHours(1), 1);
+        UUID abandoned = UUID.randomUUID();
+        store.recordEvent(abandoned, "SAGA_STARTED", "TicketPurchaseSaga", null);
+        store.recordEvent(abandoned, "SAGA_ABANDONED", "skipped", Map.of());
+        
+        assertEquals("ABANDONED", store.getSagaSummary(abandoned).getStatus());
+        assertTrue(store.getIncompleteSagaIds().isEmpty());
+        
+        UUID next = UUID.randomUUID();
+        store.recordEvent(next, "SAGA_STARTED", "TicketPurchaseSaga", null);
+        store.recordEvent(next, "SAGA_COMPLETED", "TicketPurchaseSaga", Map.of());
+        assertNull(store.getSagaSummary(abandoned));
+    }
+}
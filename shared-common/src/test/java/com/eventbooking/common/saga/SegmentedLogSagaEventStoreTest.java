@@ -0,0 +1,174 @@
+package com.eventbooking.common.saga;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SegmentedLogSagaEventStoreTest {
+    
+    @TempDir
+    Path directory;
+    
+    @Test
+    void testRecordAndReadEvents() {
+        UUID sagaId = UUID.randomUUID();
+        try (SegmentedLogSagaEventStore store = new SegmentedLogSagaEventStore(directory)) {
+            store.recordEvent(sagaId, "SAGA_STARTED", "TicketPurchaseSaga", Map.of("orderId", "o-1"));
+            store.recordEvent(sagaId, "STEP_COMPLETED", "ReserveTickets", Map.of("orderId", "o-1"));
+            store.recordEvent(UUID.randomUUID(), "SAGA_STARTED", "OtherSaga", Map.of());
+            
+            List<SagaEvent> events = store.getEvents(sagaId);
+            
+            assertEquals(List.of("SAGA_STARTED", "STEP_COMPLETED"),
+                    events.stream().map(SagaEvent::getEventType).collect(Collectors.toList()));
+            assertEquals("o-1", events.get(0).getContextData().get("orderId"));
+            assertEquals(sagaId, events.get(1).getSagaId());
+            assertTrue(store.getEvents(UUID.randomUUID()).isEmpty());
+        }
+    }
+    
+    @Test
+    void testContextValuesKeepTheirTypes() {
+        UUID sagaId = UUID.randomUUID();
+        Map<String, Object> contextData = new HashMap<>();
+        contextData.put("orderId", UUID.randomUUID());
+        contextData.put("quantity", 3);
+        contextData.put("attempts", 7L);
+        contextData.put("totalAmount", new BigDecimal("149.97"));
+        contextData.put("confirmed", true);
+        contextData.put("expiresAt", Instant.parse("2026-01-01T10:15:30.123456Z"));
+        contextData.put("reservationId", null);
+        contextData.put("seats", List.of("A1", "A2"));
+        
+        try (SegmentedLogSagaEventStore store = new SegmentedLogSagaEventStore(directory)) {
+            store.recordEvent(sagaId, "STEP_COMPLETED", "CreateOrder", contextData);
+            store.recordEvent(sagaId, "STEP_COMPLETED", "ProcessPayment", Map.of("quantity", 4));
+            
+            List<SagaEvent> events = store.getEvents(sagaId);
+            
+            assertEquals(contextData, events.get(0).getContextData());
+            assertEquals(4, store.getContextData(sagaId).get("quantity"));
+            assertEquals(new BigDecimal("149.97"), store.getContextData(sagaId).get("totalAmount"));
+        }
+    }
+    
+    @Test
+    void testEventsSurviveReopen() {
+        UUID sagaId = UUID.randomUUID();
+        try (SegmentedLogSagaEventStore store = new SegmentedLogSagaEventStore(directory)) {
+            store.recordEvent(sagaId, "SAGA_STARTED", "TicketPurchaseSaga", Map.of());
+            store.recordEvent(sagaId, "SAGA_COMPLETED", "TicketPurchaseSaga", Map.of());
+        }
+        
+        try (SegmentedLogSagaEventStore store = new SegmentedLogSagaEventStore(directory)) {
+            assertEquals(2, store.getEvents(sagaId).size());
+            assertEquals(1, store.getSagaCount());
+            
+            store.recordEvent(UUID.randomUUID(), "SAGA_STARTED", "TicketPurchaseSaga", Map.of());
+            assertEquals(2, store.getSagaCount());
+        }
+    }
+    
+    @Test
+    void testFindsIncompleteSagasAfterReopen() {
+        UUID finished = UUID.randomUUID();
+        UUID interrupted = UUID.randomUUID();
+        try (SegmentedLogSagaEventStore store = new SegmentedLogSagaEventStore(directory)) {
+            store.recordEvent(finished, "SAGA_STARTED", "TicketPurchaseSaga", Map.of());
+            store.recordEvent(interrupted, "SAGA_STARTED", "TicketPurchaseSaga", Map.of());
+            store.recordEvent(interrupted, "STEP_STARTED", "CreateOrder", Map.of());
+            store.recordEvent(finished, "COMPENSATION_COMPLETED", "TicketPurchaseSaga", Map.of());
+        }
+        
+        try (SegmentedLogSagaEventStore store = new SegmentedLogSagaEventStore(directory)) {
+            assertEquals(List.of(interrupted), store.getIncompleteSagaIds());
+        }
+    }
+    
+    @Test
+    void testRollsToNewSegmentWhenFull() throws IOException {
+        UUID sagaId = UUID.randomUUID();
+        try (SegmentedLogSagaEventStore store = new SegmentedLogSagaEventStore(directory, 1024, Duration.ofDays(1), false)) {
+            for (int i = 0; i < 20; i++) {
+                store.recordEvent(sagaId, "STEP_COMPLETED", "Step" + i, Map.of("step", i));
+            }
+            
+            List<SagaEvent> events = store.getEvents(sagaId);
+            assertEquals(20, events.size());
+            assertEquals("Step19", events.get(19).getEventData());
+        }
+        assertTrue(segmentCount() > 1);
+    }
+    
+    @Test
+    void testRejectsEventLargerThanSegment() {
+        try (SegmentedLogSagaEventStore store = new SegmentedLogSagaEventStore(directory, 256, Duration.ofDays(1), true)) {
+            assertThrows(IllegalArgumentException.class, () ->
+                    store.recordEvent(UUID.randomUUID(), "STEP_COMPLETED", "x".repeat(512), Map.of()));
+        }
+    }
+    
+    @Test
+    void testGetSagaSummary() {
+        UUID sagaId = UUID.randomUUID();
+        try (SegmentedLogSagaEventStore store = new SegmentedLogSagaEventStore(directory)) {
+            store.recordEvent(sagaId, "SAGA_STARTED", "TicketPurchaseSaga", Map.of());
+            store.recordEvent(sagaId, "STEP_COMPLETED", "ReserveTickets", Map.of());
+            store.recordEvent(sagaId, "SAGA_COMPLETED", "TicketPurchaseSaga", Map.of());
+            
+            SagaExecutionSummary summary = store.getSagaSummary(sagaId);
+            
+            assertEquals(3, summary.getTotalEvents());
+            assertNull(store.getSagaSummary(UUID.randomUUID()));
+        }
+    }
+    
+    @Test
+    void testCompactionDropsFinishedSagasOnly() throws Exception {
+        UUID finished = UUID.randomUUID();
+        UUID running = UUID.randomUUID();
+        try (SegmentedLogSagaEventStore store = new SegmentedLogSagaEventStore(directory, 1024, Duration.ZERO, false)) {
+            store.recordEvent(finished, "SAGA_STARTED", "TicketPurchaseSaga", Map.of());
+            store.recordEvent(running, "SAGA_STARTED", "TicketPurchaseSaga", Map.of());
+            store.recordEvent(finished, "SAGA_COMPLETED", "TicketPurchaseSaga", Map.of());
+            // Seal the segment holding both sagas
+            for (int i = 0; i < 10; i++) {
+                store.recordEvent(running, "STEP_COMPLETED", "Step" + i, Map.of());
+            }
+            long segmentsBefore = segmentCount();
+            Thread.sleep(5);
+            
+            store.compact();
+            
+            assertTrue(store.getEvents(finished).isEmpty());
+            assertEquals(11, store.getEvents(running).size());
+            assertEquals(1, store.getSagaCount());
+            assertTrue(segmentCount() <= segmentsBefore);
+        }
+        
+        try (SegmentedLogSagaEventStore store = new SegmentedLogSagaEventStore(directory, 1024, Duration.ZERO, false)) {
+            assertEquals(11, store.getEvents(running).size());
+            assertTrue(store.getEvents(finished).isEmpty());
+        }
+    }
+    
+    private long segmentCount() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.toString().endsWith(".log")).count();
+        }
+    }
+}
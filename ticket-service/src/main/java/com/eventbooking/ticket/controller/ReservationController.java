@@ -2,6 +2,7 @@ package com.eventbooking.ticket.controller;
 
 import com.eventbooking.common.dto.ApiResponse;
 import com.eventbooking.ticket.dto.ReservationDto;
+import com.eventbooking.ticket.dto.ReserveCartRequest;
 import com.eventbooking.ticket.dto.ReserveTicketsRequest;
 import com.eventbooking.ticket.service.TicketTypeService;
 import jakarta.validation.Valid;
@@ -34,6 +35,16 @@ public class ReservationController {
             .body(ApiResponse.success("Tickets reserved successfully", reservation));
     }
     
+    @PostMapping("/cart")
+    public ResponseEntity<ApiResponse<List<ReservationDto>>> reserveCart(
+            @Valid @RequestBody ReserveCartRequest request,
+            @RequestHeader("X-User-Id") UUID userId) {
+        
+        List<ReservationDto> reservations = ticketTypeService.reserveCart(request, userId);
+        return ResponseEntity.status(HttpStatus.CREATED)
+            .body(ApiResponse.success("Cart reserved successfully", reservations));
+    }
+    
     @DeleteMapping("/{id}")
     public ResponseEntity<ApiResponse<Void>> cancelReservation(
             @PathVariable UUID id,
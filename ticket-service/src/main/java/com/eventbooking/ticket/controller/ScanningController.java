@@ -0,0 +1,69 @@
+package com.eventbooking.ticket.controller;
+
+import com.eventbooking.common.dto.ApiResponse;
+import com.eventbooking.ticket.dto.CheckInBatchRequest;
+import com.eventbooking.ticket.dto.CheckInResultDto;
+import com.eventbooking.ticket.dto.CheckInSyncDto;
+import com.eventbooking.ticket.dto.ValidationBundleDto;
+import com.eventbooking.ticket.service.GateScanningService;
+import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/scanning")
+public class ScanningController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ScanningController.class);
+
+    private final GateScanningService gateScanningService;
+
+    @Autowired
+    public ScanningController(GateScanningService gateScanningService) {
+        this.gateScanningService = gateScanningService;
+    }
+
+    /**
+     * Offline validation bundle for the scanners of an event; contains the event's QR signing
+     * key, so only the event's organizer may fetch it
+     */
+    @GetMapping("/events/{eventId}/bundle")
+    public ResponseEntity<ApiResponse<ValidationBundleDto>> getValidationBundle(
+            @PathVariable UUID eventId,
+            @RequestHeader("X-User-Id") UUID organizerId) {
+        logger.info("Received request for validation bundle of event: {}", eventId);
+
+        ValidationBundleDto bundle = gateScanningService.exportBundle(eventId, organizerId);
+        return ResponseEntity.ok(ApiResponse.success(bundle));
+    }
+
+    /**
+     * Upload a batch of scans; safe to retry, scans already recorded are not applied twice
+     */
+    @PostMapping("/check-ins")
+    public ResponseEntity<ApiResponse<List<CheckInResultDto>>> checkIn(
+            @Valid @RequestBody CheckInBatchRequest request,
+            @RequestHeader("X-User-Id") UUID organizerId) {
+        List<CheckInResultDto> results = gateScanningService.checkIn(request, organizerId);
+        return ResponseEntity.ok(ApiResponse.success(results));
+    }
+
+    /**
+     * Check-ins recorded since the cursor, for scanners catching up after being offline
+     */
+    @GetMapping("/events/{eventId}/check-ins")
+    public ResponseEntity<ApiResponse<CheckInSyncDto>> syncCheckIns(
+            @PathVariable UUID eventId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "1000") int limit,
+            @RequestHeader("X-User-Id") UUID organizerId) {
+        CheckInSyncDto sync = gateScanningService.syncCheckIns(eventId, cursor, limit, organizerId);
+        return ResponseEntity.ok(ApiResponse.success(sync));
+    }
+}
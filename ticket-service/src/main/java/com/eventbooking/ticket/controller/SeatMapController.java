@@ -0,0 +1,67 @@
+package com.eventbooking.ticket.controller;
+
+import com.eventbooking.common.dto.ApiResponse;
+import com.eventbooking.ticket.dto.CreateSeatSectionRequest;
+import com.eventbooking.ticket.dto.SeatHoldDto;
+import com.eventbooking.ticket.dto.SeatSectionDto;
+import com.eventbooking.ticket.service.SeatMapService;
+import com.eventbooking.ticket.service.SeatMapService.SelectionMode;
+import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/seat-maps")
+public class SeatMapController {
+
+    private static final Logger logger = LoggerFactory.getLogger(SeatMapController.class);
+
+    private final SeatMapService seatMapService;
+
+    @Autowired
+    public SeatMapController(SeatMapService seatMapService) {
+        this.seatMapService = seatMapService;
+    }
+
+    @PostMapping("/sections")
+    public ResponseEntity<ApiResponse<SeatSectionDto>> createSection(
+            @Valid @RequestBody CreateSeatSectionRequest request,
+            @RequestHeader("X-User-Id") UUID organizerId) {
+        logger.info("Received request to create seat section {} for ticket type: {}",
+                   request.getName(), request.getTicketTypeId());
+
+        SeatSectionDto section = seatMapService.createSection(request, organizerId);
+        return ResponseEntity.status(HttpStatus.CREATED)
+            .body(ApiResponse.success("Seat section created successfully", section));
+    }
+
+    /**
+     * Sections of an event with a Base64 bitmap of taken seats, one bit per seat in row order
+     */
+    @GetMapping("/events/{eventId}")
+    public ResponseEntity<ApiResponse<List<SeatSectionDto>>> getSeatMap(@PathVariable UUID eventId) {
+        List<SeatSectionDto> seatMap = seatMapService.getSeatMap(eventId);
+        return ResponseEntity.ok(ApiResponse.success(seatMap));
+    }
+
+    /**
+     * Choose seats for an active reservation; repeating the call returns the same seats
+     */
+    @PostMapping("/reservations/{reservationId}/seats")
+    public ResponseEntity<ApiResponse<SeatHoldDto>> holdSeats(
+            @PathVariable UUID reservationId,
+            @RequestParam(defaultValue = "BEST_AVAILABLE") SelectionMode mode,
+            @RequestHeader("X-User-Id") UUID userId) {
+        logger.info("Received request to seat reservation: {} ({})", reservationId, mode);
+
+        SeatHoldDto hold = seatMapService.holdSeats(reservationId, userId, mode);
+        return ResponseEntity.ok(ApiResponse.success(hold));
+    }
+}
@@ -7,12 +7,16 @@ import com.eventbooking.ticket.service.TicketService;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/tickets")
@@ -46,6 +50,19 @@ public class TicketController {
         return ResponseEntity.ok(ApiResponse.success("Ticket retrieved successfully", ticket));
     }
 
+    /**
+     * PNG image of the ticket's QR code. Rendering happens on the QR pool, not the request thread.
+     */
+    @GetMapping(value = "/{ticketId}/qr", produces = MediaType.IMAGE_PNG_VALUE)
+    public CompletableFuture<ResponseEntity<byte[]>> getTicketQRCode(@PathVariable UUID ticketId) {
+        logger.debug("Received request to get QR code for ticket: {}", ticketId);
+        
+        return ticketService.getTicketQRCodeImage(ticketId)
+                .thenApply(image -> ResponseEntity.ok()
+                        .cacheControl(CacheControl.maxAge(Duration.ofDays(1)).cachePrivate())
+                        .body(image));
+    }
+
     @GetMapping("/number/{ticketNumber}")
     public ResponseEntity<ApiResponse<TicketDto>> getTicketByNumber(@PathVariable String ticketNumber) {
         logger.debug("Received request to get ticket by number: {}", ticketNumber);
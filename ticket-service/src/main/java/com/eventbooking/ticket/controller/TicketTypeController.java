@@ -2,12 +2,15 @@ package com.eventbooking.ticket.controller;
 
 import com.eventbooking.common.dto.ApiResponse;
 import com.eventbooking.ticket.dto.*;
+import com.eventbooking.ticket.service.AvailabilityStreamService;
 import com.eventbooking.ticket.service.TicketTypeService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 import java.util.UUID;
@@ -17,10 +20,13 @@ import java.util.UUID;
 public class TicketTypeController {
     
     private final TicketTypeService ticketTypeService;
+    private final AvailabilityStreamService availabilityStreamService;
     
     @Autowired
-    public TicketTypeController(TicketTypeService ticketTypeService) {
+    public TicketTypeController(TicketTypeService ticketTypeService,
+                                AvailabilityStreamService availabilityStreamService) {
         this.ticketTypeService = ticketTypeService;
+        this.availabilityStreamService = availabilityStreamService;
     }
     
     @PostMapping
@@ -55,6 +61,14 @@ public class TicketTypeController {
         return ResponseEntity.ok(ApiResponse.success(ticketTypes));
     }
     
+    /**
+     * Server-sent "availability" events: every ticket type on sale first, then only changed quantities
+     */
+    @GetMapping(value = "/event/{eventId}/available/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamAvailability(@PathVariable UUID eventId) {
+        return availabilityStreamService.subscribe(eventId);
+    }
+    
     @PutMapping("/{id}")
     public ResponseEntity<ApiResponse<TicketTypeDto>> updateTicketType(
             @PathVariable UUID id,
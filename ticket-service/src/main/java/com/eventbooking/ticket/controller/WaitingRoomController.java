@@ -0,0 +1,65 @@
+package com.eventbooking.ticket.controller;
+
+import com.eventbooking.common.dto.ApiResponse;
+import com.eventbooking.ticket.dto.WaitingRoomStatusDto;
+import com.eventbooking.ticket.service.WaitingRoomService;
+import jakarta.validation.constraints.Min;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/waiting-room")
+@Validated
+public class WaitingRoomController {
+    
+    private final WaitingRoomService waitingRoomService;
+    
+    @Autowired
+    public WaitingRoomController(WaitingRoomService waitingRoomService) {
+        this.waitingRoomService = waitingRoomService;
+    }
+    
+    @PostMapping("/{eventId}/join")
+    public ResponseEntity<ApiResponse<WaitingRoomStatusDto>> join(
+            @PathVariable UUID eventId,
+            @RequestHeader("X-User-Id") UUID userId) {
+        
+        WaitingRoomStatusDto status = waitingRoomService.join(eventId, userId);
+        return ResponseEntity.ok(ApiResponse.success(status));
+    }
+    
+    /**
+     * Polled by clients in the queue; returns the admission token once the user is admitted
+     */
+    @GetMapping("/{eventId}/status")
+    public ResponseEntity<ApiResponse<WaitingRoomStatusDto>> getStatus(
+            @PathVariable UUID eventId,
+            @RequestHeader("X-User-Id") UUID userId) {
+        
+        WaitingRoomStatusDto status = waitingRoomService.getStatus(eventId, userId);
+        return ResponseEntity.ok(ApiResponse.success(status));
+    }
+    
+    @PutMapping("/{eventId}")
+    public ResponseEntity<ApiResponse<Void>> openRoom(
+            @PathVariable UUID eventId,
+            @RequestParam @Min(1) int admitPerSecond,
+            @RequestHeader("X-User-Id") UUID organizerId) {
+        
+        waitingRoomService.openRoom(eventId, admitPerSecond, organizerId);
+        return ResponseEntity.ok(ApiResponse.success("Waiting room opened", null));
+    }
+    
+    @DeleteMapping("/{eventId}")
+    public ResponseEntity<ApiResponse<Void>> closeRoom(
+            @PathVariable UUID eventId,
+            @RequestHeader("X-User-Id") UUID organizerId) {
+        
+        waitingRoomService.closeRoom(eventId, organizerId);
+        return ResponseEntity.ok(ApiResponse.success("Waiting room closed", null));
+    }
+}
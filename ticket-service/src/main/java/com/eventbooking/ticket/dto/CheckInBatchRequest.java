@@ -0,0 +1,46 @@
+package com.eventbooking.ticket.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.*;
+import java.util.List;
+import java.util.UUID;
+
+public class CheckInBatchRequest {
+    
+    @NotNull(message = "Event ID is required")
+    private UUID eventId;
+    
+    @NotBlank(message = "Scanner ID is required")
+    @Size(max = 64, message = "Scanner ID cannot exceed 64 characters")
+    private String scannerId;
+    
+    @NotEmpty(message = "Batch must contain at least one scan")
+    @Size(max = 1000, message = "Batch cannot contain more than 1000 scans")
+    @Valid
+    private List<CheckInScanRequest> scans;
+    
+    // Getters and Setters
+    public UUID getEventId() {
+        return eventId;
+    }
+    
+    public void setEventId(UUID eventId) {
+        this.eventId = eventId;
+    }
+    
+    public String getScannerId() {
+        return scannerId;
+    }
+    
+    public void setScannerId(String scannerId) {
+        this.scannerId = scannerId;
+    }
+    
+    public List<CheckInScanRequest> getScans() {
+        return scans;
+    }
+    
+    public void setScans(List<CheckInScanRequest> scans) {
+        this.scans = scans;
+    }
+}
@@ -0,0 +1,36 @@
+package com.eventbooking.ticket.dto;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public class CheckInDto {
+    
+    private UUID ticketId;
+    private String checkedInBy;
+    private LocalDateTime checkedInAt;
+    
+    // Getters and Setters
+    public UUID getTicketId() {
+        return ticketId;
+    }
+    
+    public void setTicketId(UUID ticketId) {
+        this.ticketId = ticketId;
+    }
+    
+    public String getCheckedInBy() {
+        return checkedInBy;
+    }
+    
+    public void setCheckedInBy(String checkedInBy) {
+        this.checkedInBy = checkedInBy;
+    }
+    
+    public LocalDateTime getCheckedInAt() {
+        return checkedInAt;
+    }
+    
+    public void setCheckedInAt(LocalDateTime checkedInAt) {
+        this.checkedInAt = checkedInAt;
+    }
+}
@@ -0,0 +1,63 @@
+package com.eventbooking.ticket.dto;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public class CheckInResultDto {
+    
+    public enum Outcome {
+        // The scan admits the holder (also returned when the same scan is resubmitted)
+        ADMITTED,
+        // The ticket was already used by an earlier scan, described by checkedInBy/checkedInAt
+        DUPLICATE,
+        // Unsigned or unknown code, a ticket for another event, or a cancelled or refunded ticket
+        INVALID
+    }
+    
+    private UUID scanId;
+    private UUID ticketId;
+    private Outcome outcome;
+    private String checkedInBy;
+    private LocalDateTime checkedInAt;
+    
+    // Getters and Setters
+    public UUID getScanId() {
+        return scanId;
+    }
+    
+    public void setScanId(UUID scanId) {
+        this.scanId = scanId;
+    }
+    
+    public UUID getTicketId() {
+        return ticketId;
+    }
+    
+    public void setTicketId(UUID ticketId) {
+        this.ticketId = ticketId;
+    }
+    
+    public Outcome getOutcome() {
+        return outcome;
+    }
+    
+    public void setOutcome(Outcome outcome) {
+        this.outcome = outcome;
+    }
+    
+    public String getCheckedInBy() {
+        return checkedInBy;
+    }
+    
+    public void setCheckedInBy(String checkedInBy) {
+        this.checkedInBy = checkedInBy;
+    }
+    
+    public LocalDateTime getCheckedInAt() {
+        return checkedInAt;
+    }
+    
+    public void setCheckedInAt(LocalDateTime checkedInAt) {
+        this.checkedInAt = checkedInAt;
+    }
+}
@@ -0,0 +1,48 @@
+package com.eventbooking.ticket.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public class CheckInScanRequest {
+    
+    /**
+     * Generated by the scanner for each scan; resubmitting the same scan is a no-op
+     */
+    @NotNull(message = "Scan ID is required")
+    private UUID scanId;
+    
+    @NotBlank(message = "QR code is required")
+    private String qrCode;
+    
+    /**
+     * Device time of the scan; the earliest scan of a ticket is the one that admits it
+     */
+    private LocalDateTime scannedAt;
+    
+    // Getters and Setters
+    public UUID getScanId() {
+        return scanId;
+    }
+    
+    public void setScanId(UUID scanId) {
+        this.scanId = scanId;
+    }
+    
+    public String getQrCode() {
+        return qrCode;
+    }
+    
+    public void setQrCode(String qrCode) {
+        this.qrCode = qrCode;
+    }
+    
+    public LocalDateTime getScannedAt() {
+        return scannedAt;
+    }
+    
+    public void setScannedAt(LocalDateTime scannedAt) {
+        this.scannedAt = scannedAt;
+    }
+}
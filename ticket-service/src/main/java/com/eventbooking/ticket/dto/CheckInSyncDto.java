@@ -0,0 +1,35 @@
+package com.eventbooking.ticket.dto;
+
+import java.util.List;
+
+public class CheckInSyncDto {
+    
+    private List<CheckInDto> checkIns;
+    private String nextCursor;
+    private boolean hasMore;
+    
+    // Getters and Setters
+    public List<CheckInDto> getCheckIns() {
+        return checkIns;
+    }
+    
+    public void setCheckIns(List<CheckInDto> checkIns) {
+        this.checkIns = checkIns;
+    }
+    
+    public String getNextCursor() {
+        return nextCursor;
+    }
+    
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+    
+    public boolean isHasMore() {
+        return hasMore;
+    }
+    
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+}
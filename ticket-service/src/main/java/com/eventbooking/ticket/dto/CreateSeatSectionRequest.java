@@ -0,0 +1,67 @@
+package com.eventbooking.ticket.dto;
+
+import jakarta.validation.constraints.*;
+import java.util.List;
+import java.util.UUID;
+
+public class CreateSeatSectionRequest {
+    
+    @NotNull(message = "Ticket type ID is required")
+    private UUID ticketTypeId;
+    
+    @NotBlank(message = "Section name is required")
+    @Size(max = 100, message = "Section name must not exceed 100 characters")
+    private String name;
+    
+    // Front row first
+    @NotEmpty(message = "At least one row is required")
+    private List<String> rowLabels;
+    
+    // Seat count of each row, in the same order as the labels
+    @NotEmpty(message = "At least one row is required")
+    private List<Integer> rowLengths;
+    
+    @Min(value = 0, message = "Sort order must be non-negative")
+    private Integer sortOrder = 0;
+    
+    // Getters and Setters
+    public UUID getTicketTypeId() {
+        return ticketTypeId;
+    }
+    
+    public void setTicketTypeId(UUID ticketTypeId) {
+        this.ticketTypeId = ticketTypeId;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public void setName(String name) {
+        this.name = name;
+    }
+    
+    public List<String> getRowLabels() {
+        return rowLabels;
+    }
+    
+    public void setRowLabels(List<String> rowLabels) {
+        this.rowLabels = rowLabels;
+    }
+    
+    public List<Integer> getRowLengths() {
+        return rowLengths;
+    }
+    
+    public void setRowLengths(List<Integer> rowLengths) {
+        this.rowLengths = rowLengths;
+    }
+    
+    public Integer getSortOrder() {
+        return sortOrder;
+    }
+    
+    public void setSortOrder(Integer sortOrder) {
+        this.sortOrder = sortOrder;
+    }
+}
@@ -36,6 +36,11 @@ public class CreateTicketTypeRequest {
     @Size(max = 100, message = "Venue zone must not exceed 100 characters")
     private String venueZone;
     
+    // Number of Redis sub-counters the stock is split across; raise for very large on-sales
+    @Min(value = 1, message = "Inventory shards must be at least 1")
+    @Max(value = 64, message = "Inventory shards must not exceed 64")
+    private Integer inventoryShards = 1;
+    
     // Getters and Setters
     public UUID getEventId() {
         return eventId;
@@ -108,4 +113,12 @@ public class CreateTicketTypeRequest {
     public void setVenueZone(String venueZone) {
         this.venueZone = venueZone;
     }
+    
+    public Integer getInventoryShards() {
+        return inventoryShards;
+    }
+    
+    public void setInventoryShards(Integer inventoryShards) {
+        this.inventoryShards = inventoryShards;
+    }
 }
@@ -0,0 +1,35 @@
+package com.eventbooking.ticket.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.*;
+import java.util.List;
+
+public class ReserveCartRequest {
+    
+    @NotEmpty(message = "Cart must contain at least one item")
+    @Size(max = 20, message = "Cart cannot contain more than 20 items")
+    @Valid
+    private List<ReserveTicketsRequest> items;
+    
+    /**
+     * Token from the waiting room; required only while the event's waiting room is open
+     */
+    private String admissionToken;
+    
+    // Getters and Setters
+    public List<ReserveTicketsRequest> getItems() {
+        return items;
+    }
+    
+    public void setItems(List<ReserveTicketsRequest> items) {
+        this.items = items;
+    }
+    
+    public String getAdmissionToken() {
+        return admissionToken;
+    }
+    
+    public void setAdmissionToken(String admissionToken) {
+        this.admissionToken = admissionToken;
+    }
+}
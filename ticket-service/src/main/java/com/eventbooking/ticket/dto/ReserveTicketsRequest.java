@@ -12,6 +12,11 @@ public class ReserveTicketsRequest {
     @Min(value = 1, message = "Quantity must be at least 1")
     private Integer quantity;
     
+    /**
+     * Token from the waiting room; required only while the event's waiting room is open
+     */
+    private String admissionToken;
+    
     // Getters and Setters
     public UUID getTicketTypeId() {
         return ticketTypeId;
@@ -28,4 +33,12 @@ public class ReserveTicketsRequest {
     public void setQuantity(Integer quantity) {
         this.quantity = quantity;
     }
+    
+    public String getAdmissionToken() {
+        return admissionToken;
+    }
+    
+    public void setAdmissionToken(String admissionToken) {
+        this.admissionToken = admissionToken;
+    }
 }
@@ -0,0 +1,45 @@
+package com.eventbooking.ticket.dto;
+
+import java.util.List;
+import java.util.UUID;
+
+public class SeatHoldDto {
+    
+    private UUID reservationId;
+    private UUID sectionId;
+    private String sectionName;
+    private List<String> seats;
+    
+    // Getters and Setters
+    public UUID getReservationId() {
+        return reservationId;
+    }
+    
+    public void setReservationId(UUID reservationId) {
+        this.reservationId = reservationId;
+    }
+    
+    public UUID getSectionId() {
+        return sectionId;
+    }
+    
+    public void setSectionId(UUID sectionId) {
+        this.sectionId = sectionId;
+    }
+    
+    public String getSectionName() {
+        return sectionName;
+    }
+    
+    public void setSectionName(String sectionName) {
+        this.sectionName = sectionName;
+    }
+    
+    public List<String> getSeats() {
+        return seats;
+    }
+    
+    public void setSeats(List<String> seats) {
+        this.seats = seats;
+    }
+}
@@ -0,0 +1,95 @@
+package com.eventbooking.ticket.dto;
+
+import java.util.List;
+import java.util.UUID;
+
+public class SeatSectionDto {
+    
+    private UUID id;
+    private UUID ticketTypeId;
+    private String venueZone;
+    private String name;
+    private List<String> rowLabels;
+    private List<Integer> rowLengths;
+    private int capacity;
+    private int available;
+    
+    /**
+     * Base64 of the section bitmap: bit n (most significant bit first) is set when the seat at
+     * offset n, counting row by row from the front, is taken. Trailing free seats may be omitted.
+     */
+    private String availability;
+    
+    // Getters and Setters
+    public UUID getId() {
+        return id;
+    }
+    
+    public void setId(UUID id) {
+        this.id = id;
+    }
+    
+    public UUID getTicketTypeId() {
+        return ticketTypeId;
+    }
+    
+    public void setTicketTypeId(UUID ticketTypeId) {
+        this.ticketTypeId = ticketTypeId;
+    }
+    
+    public String getVenueZone() {
+        return venueZone;
+    }
+    
+    public void setVenueZone(String venueZone) {
+        this.venueZone = venueZone;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public void setName(String name) {
+        this.name = name;
+    }
+    
+    public List<String> getRowLabels() {
+        return rowLabels;
+    }
+    
+    public void setRowLabels(List<String> rowLabels) {
+        this.rowLabels = rowLabels;
+    }
+    
+    public List<Integer> getRowLengths() {
+        return rowLengths;
+    }
+    
+    public void setRowLengths(List<Integer> rowLengths) {
+        this.rowLengths = rowLengths;
+    }
+    
+    public int getCapacity() {
+        return capacity;
+    }
+    
+    public void setCapacity(int capacity) {
+        this.capacity = capacity;
+    }
+    
+    public int getAvailable() {
+        return available;
+    }
+    
+    public void setAvailable(int available) {
+        this.available = available;
+    }
+    
+    public String getAvailability() {
+        return availability;
+    }
+    
+    public void setAvailability(String availability) {
+        this.availability = availability;
+    }
+}
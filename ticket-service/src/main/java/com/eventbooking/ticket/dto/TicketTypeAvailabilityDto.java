@@ -0,0 +1,26 @@
+package com.eventbooking.ticket.dto;
+
+import java.util.UUID;
+
+public class TicketTypeAvailabilityDto {
+    
+    private UUID ticketTypeId;
+    private Integer availableQuantity;
+    
+    // Getters and Setters
+    public UUID getTicketTypeId() {
+        return ticketTypeId;
+    }
+    
+    public void setTicketTypeId(UUID ticketTypeId) {
+        this.ticketTypeId = ticketTypeId;
+    }
+    
+    public Integer getAvailableQuantity() {
+        return availableQuantity;
+    }
+    
+    public void setAvailableQuantity(Integer availableQuantity) {
+        this.availableQuantity = availableQuantity;
+    }
+}
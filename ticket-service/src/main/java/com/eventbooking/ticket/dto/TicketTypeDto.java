@@ -18,6 +18,7 @@ public class TicketTypeDto {
     private LocalDateTime saleEndDate;
     private Integer perPersonLimit;
     private String venueZone;
+    private Integer inventoryShards;
     private Boolean isOnSale;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
@@ -119,6 +120,14 @@ public class TicketTypeDto {
         this.venueZone = venueZone;
     }
     
+    public Integer getInventoryShards() {
+        return inventoryShards;
+    }
+    
+    public void setInventoryShards(Integer inventoryShards) {
+        this.inventoryShards = inventoryShards;
+    }
+    
     public Boolean getIsOnSale() {
         return isOnSale;
     }
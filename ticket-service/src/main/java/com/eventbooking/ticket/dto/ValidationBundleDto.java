@@ -0,0 +1,118 @@
+package com.eventbooking.ticket.dto;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Everything a scanner needs to validate an event's tickets offline.
+ *
+ * Ticket ids are 16 byte big-endian UUIDs concatenated in ascending unsigned order and Base64
+ * encoded, so a device can binary search them without parsing. A scanned payload is
+ * {@code payloadPrefix} + base64url(ticket id || event id || first {@code signatureBytes} bytes
+ * of HmacSHA256(signingKey, ticket id || event id)). The signing key is the event's own and
+ * signs nothing for other events.
+ */
+public class ValidationBundleDto {
+    
+    private UUID eventId;
+    private LocalDateTime generatedAt;
+    private String payloadPrefix;
+    private String signatureAlgorithm;
+    private int signatureBytes;
+    private String signingKey;
+    private int ticketCount;
+    private String ticketIds;
+    private int usedTicketCount;
+    private String usedTicketIds;
+    // Pass to the check-in sync to receive everything recorded after this bundle was built
+    private String syncCursor;
+    
+    // Getters and Setters
+    public UUID getEventId() {
+        return eventId;
+    }
+    
+    public void setEventId(UUID eventId) {
+        this.eventId = eventId;
+    }
+    
+    public LocalDateTime getGeneratedAt() {
+        return generatedAt;
+    }
+    
+    public void setGeneratedAt(LocalDateTime generatedAt) {
+        this.generatedAt = generatedAt;
+    }
+    
+    public String getPayloadPrefix() {
+        return payloadPrefix;
+    }
+    
+    public void setPayloadPrefix(String payloadPrefix) {
+        this.payloadPrefix = payloadPrefix;
+    }
+    
+    public String getSignatureAlgorithm() {
+        return signatureAlgorithm;
+    }
+    
+    public void setSignatureAlgorithm(String signatureAlgorithm) {
+        this.signatureAlgorithm = signatureAlgorithm;
+    }
+    
+    public int getSignatureBytes() {
+        return signatureBytes;
+    }
+    
+    public void setSignatureBytes(int signatureBytes) {
+        this.signatureBytes = signatureBytes;
+    }
+    
+    public String getSigningKey() {
+        return signingKey;
+    }
+    
+    public void setSigningKey(String signingKey) {
+        this.signingKey = signingKey;
+    }
+    
+    public int getTicketCount() {
+        return ticketCount;
+    }
+    
+    public void setTicketCount(int ticketCount) {
+        this.ticketCount = ticketCount;
+    }
+    
+    public String getTicketIds() {
+        return ticketIds;
+    }
+    
+    public void setTicketIds(String ticketIds) {
+        this.ticketIds = ticketIds;
+    }
+    
+    public int getUsedTicketCount() {
+        return usedTicketCount;
+    }
+    
+    public void setUsedTicketCount(int usedTicketCount) {
+        this.usedTicketCount = usedTicketCount;
+    }
+    
+    public String getUsedTicketIds() {
+        return usedTicketIds;
+    }
+    
+    public void setUsedTicketIds(String usedTicketIds) {
+        this.usedTicketIds = usedTicketIds;
+    }
+    
+    public String getSyncCursor() {
+        return syncCursor;
+    }
+    
+    public void setSyncCursor(String syncCursor) {
+        this.syncCursor = syncCursor;
+    }
+}
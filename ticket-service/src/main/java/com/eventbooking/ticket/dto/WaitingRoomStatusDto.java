@@ -0,0 +1,70 @@
+package com.eventbooking.ticket.dto;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public class WaitingRoomStatusDto {
+    
+    public enum State {
+        WAITING,
+        ADMITTED,
+        NOT_QUEUED,
+        CLOSED
+    }
+    
+    private UUID eventId;
+    private State state;
+    private Long position;
+    private Long estimatedWaitSeconds;
+    private String admissionToken;
+    private LocalDateTime admissionExpiresAt;
+    
+    // Getters and Setters
+    public UUID getEventId() {
+        return eventId;
+    }
+    
+    public void setEventId(UUID eventId) {
+        this.eventId = eventId;
+    }
+    
+    public State getState() {
+        return state;
+    }
+    
+    public void setState(State state) {
+        this.state = state;
+    }
+    
+    public Long getPosition() {
+        return position;
+    }
+    
+    public void setPosition(Long position) {
+        this.position = position;
+    }
+    
+    public Long getEstimatedWaitSeconds() {
+        return estimatedWaitSeconds;
+    }
+    
+    public void setEstimatedWaitSeconds(Long estimatedWaitSeconds) {
+        this.estimatedWaitSeconds = estimatedWaitSeconds;
+    }
+    
+    public String getAdmissionToken() {
+        return admissionToken;
+    }
+    
+    public void setAdmissionToken(String admissionToken) {
+        this.admissionToken = admissionToken;
+    }
+    
+    public LocalDateTime getAdmissionExpiresAt() {
+        return admissionExpiresAt;
+    }
+    
+    public void setAdmissionExpiresAt(LocalDateTime admissionExpiresAt) {
+        this.admissionExpiresAt = admissionExpiresAt;
+    }
+}
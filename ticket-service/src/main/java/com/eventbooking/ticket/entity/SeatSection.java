@@ -0,0 +1,138 @@
+package com.eventbooking.ticket.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A block of reserved seating sold under one ticket type. Seats are addressed by their offset
+ * in row order (row 0 first, the row nearest the stage); availability lives in a Redis bitmap
+ * with one bit per offset.
+ */
+@Entity
+@Table(name = "seat_sections", indexes = {
+    @Index(name = "idx_seat_section_event_id", columnList = "event_id"),
+    @Index(name = "idx_seat_section_ticket_type_id", columnList = "ticket_type_id")
+})
+public class SeatSection {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    private UUID id;
+    
+    @Column(name = "event_id", nullable = false)
+    private UUID eventId;
+    
+    @Column(name = "ticket_type_id", nullable = false)
+    private UUID ticketTypeId;
+    
+    @Column(name = "venue_zone", length = 100)
+    private String venueZone;
+    
+    @Column(nullable = false, length = 100)
+    private String name;
+    
+    // Comma-separated, front row first
+    @Column(name = "row_labels", nullable = false, columnDefinition = "TEXT")
+    private String rowLabels;
+    
+    // Comma-separated seat count of each row, in the same order as the labels
+    @Column(name = "row_lengths", nullable = false, columnDefinition = "TEXT")
+    private String rowLengths;
+    
+    @Column(nullable = false)
+    private Integer capacity;
+    
+    // Sections are filled in this order when a ticket type spans several
+    @Column(name = "sort_order", nullable = false)
+    private Integer sortOrder = 0;
+    
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+    
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+    
+    // Getters and Setters
+    public UUID getId() {
+        return id;
+    }
+    
+    public void setId(UUID id) {
+        this.id = id;
+    }
+    
+    public UUID getEventId() {
+        return eventId;
+    }
+    
+    public void setEventId(UUID eventId) {
+        this.eventId = eventId;
+    }
+    
+    public UUID getTicketTypeId() {
+        return ticketTypeId;
+    }
+    
+    public void setTicketTypeId(UUID ticketTypeId) {
+        this.ticketTypeId = ticketTypeId;
+    }
+    
+    public String getVenueZone() {
+        return venueZone;
+    }
+    
+    public void setVenueZone(String venueZone) {
+        this.venueZone = venueZone;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public void setName(String name) {
+        this.name = name;
+    }
+    
+    public String getRowLabels() {
+        return rowLabels;
+    }
+    
+    public void setRowLabels(String rowLabels) {
+        this.rowLabels = rowLabels;
+    }
+    
+    public String getRowLengths() {
+        return rowLengths;
+    }
+    
+    public void setRowLengths(String rowLengths) {
+        this.rowLengths = rowLengths;
+    }
+    
+    public Integer getCapacity() {
+        return capacity;
+    }
+    
+    public void setCapacity(Integer capacity) {
+        this.capacity = capacity;
+    }
+    
+    public Integer getSortOrder() {
+        return sortOrder;
+    }
+    
+    public void setSortOrder(Integer sortOrder) {
+        this.sortOrder = sortOrder;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -1,6 +1,8 @@
 package com.eventbooking.ticket.entity;
 
 import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
+
 import java.time.LocalDateTime;
 import java.util.UUID;
 
@@ -10,12 +12,16 @@ import java.util.UUID;
     @Index(name = "idx_ticket_type_id", columnList = "ticket_type_id"),
     @Index(name = "idx_ticket_number", columnList = "ticket_number", unique = true),
     @Index(name = "idx_ticket_qr_code", columnList = "qr_code", unique = true),
-    @Index(name = "idx_ticket_status", columnList = "status")
+    @Index(name = "idx_ticket_status", columnList = "status"),
+    @Index(name = "idx_ticket_check_in_recorded_at", columnList = "check_in_recorded_at, id")
 })
-public class Ticket {
+public class Ticket implements Persistable<UUID> {
     
+    /**
+     * Assigned by the application before the first save so a whole order can be built,
+     * QR-encoded and inserted in one JDBC batch without a round trip per ticket
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
     private UUID id;
     
     @Column(name = "ticket_type_id", nullable = false)
@@ -27,7 +33,10 @@ public class Ticket {
     @Column(name = "ticket_number", nullable = false, unique = true, length = 50)
     private String ticketNumber;
     
-    @Column(name = "qr_code", nullable = false, unique = true)
+    /**
+     * Signed fixed-size payload (see QRCodeServiceImpl); the image itself is never stored
+     */
+    @Column(name = "qr_code", nullable = false, unique = true, length = 64)
     private String qrCode;
     
     @Column(name = "holder_name", length = 255)
@@ -37,28 +46,66 @@ public class Ticket {
     @Column(nullable = false, length = 20)
     private TicketStatus status = TicketStatus.ACTIVE;
     
+    /**
+     * When the accepted gate scan happened, as reported by the scanner (which may have been offline)
+     */
+    @Column(name = "checked_in_at")
+    private LocalDateTime checkedInAt;
+    
+    @Column(name = "checked_in_by", length = 64)
+    private String checkedInBy;
+    
+    // Client-generated id of the accepted scan, so resubmitting it is a no-op
+    @Column(name = "check_in_scan_id")
+    private UUID checkInScanId;
+    
+    /**
+     * Server time the check-in was (last) recorded; the cursor scanners sync from
+     */
+    @Column(name = "check_in_recorded_at")
+    private LocalDateTime checkInRecordedAt;
+    
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
     
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
     
+    // Lets save() persist a ticket with an assigned id directly instead of merging it
+    @Transient
+    private boolean isNew = true;
+    
     @PrePersist
     protected void onCreate() {
+        if (id == null) {
+            id = UUID.randomUUID();
+        }
         createdAt = LocalDateTime.now();
         updatedAt = LocalDateTime.now();
     }
     
+    @PostPersist
+    @PostLoad
+    protected void markNotNew() {
+        isNew = false;
+    }
+    
     @PreUpdate
     protected void onUpdate() {
         updatedAt = LocalDateTime.now();
     }
     
     // Getters and Setters
+    @Override
     public UUID getId() {
         return id;
     }
     
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+    
     public void setId(UUID id) {
         this.id = id;
     }
@@ -111,6 +158,38 @@ public class Ticket {
         this.status = status;
     }
     
+    public LocalDateTime getCheckedInAt() {
+        return checkedInAt;
+    }
+    
+    public void setCheckedInAt(LocalDateTime checkedInAt) {
+        this.checkedInAt = checkedInAt;
+    }
+    
+    public String getCheckedInBy() {
+        return checkedInBy;
+    }
+    
+    public void setCheckedInBy(String checkedInBy) {
+        this.checkedInBy = checkedInBy;
+    }
+    
+    public UUID getCheckInScanId() {
+        return checkInScanId;
+    }
+    
+    public void setCheckInScanId(UUID checkInScanId) {
+        this.checkInScanId = checkInScanId;
+    }
+    
+    public LocalDateTime getCheckInRecordedAt() {
+        return checkInRecordedAt;
+    }
+    
+    public void setCheckInRecordedAt(LocalDateTime checkInRecordedAt) {
+        this.checkInRecordedAt = checkInRecordedAt;
+    }
+    
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -33,6 +33,13 @@ public class TicketReservation {
     @Column(nullable = false, length = 20)
     private ReservationStatus status = ReservationStatus.ACTIVE;
     
+    // Reserved seating only: the section and the seat offsets held for this reservation
+    @Column(name = "seat_section_id")
+    private UUID seatSectionId;
+    
+    @Column(name = "seat_offsets", length = 1000)
+    private String seatOffsets;
+    
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
     
@@ -90,6 +97,22 @@ public class TicketReservation {
         this.status = status;
     }
     
+    public UUID getSeatSectionId() {
+        return seatSectionId;
+    }
+    
+    public void setSeatSectionId(UUID seatSectionId) {
+        this.seatSectionId = seatSectionId;
+    }
+    
+    public String getSeatOffsets() {
+        return seatOffsets;
+    }
+    
+    public void setSeatOffsets(String seatOffsets) {
+        this.seatOffsets = seatOffsets;
+    }
+    
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
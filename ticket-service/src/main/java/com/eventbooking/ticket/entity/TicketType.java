@@ -49,6 +49,9 @@ public class TicketType {
     @Column(name = "venue_zone", length = 100)
     private String venueZone;
     
+    @Column(name = "inventory_shards")
+    private Integer inventoryShards = 1;
+    
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
     
@@ -163,6 +166,14 @@ public class TicketType {
         this.venueZone = venueZone;
     }
     
+    public Integer getInventoryShards() {
+        return inventoryShards;
+    }
+    
+    public void setInventoryShards(Integer inventoryShards) {
+        this.inventoryShards = inventoryShards;
+    }
+    
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -0,0 +1,10 @@
+package com.eventbooking.ticket.exception;
+
+import java.util.UUID;
+
+public class AdmissionRequiredException extends RuntimeException {
+    
+    public AdmissionRequiredException(UUID eventId) {
+        super("A valid waiting room admission token is required for event: " + eventId);
+    }
+}
@@ -9,6 +9,7 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
 import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestControllerAdvice
 public class TicketExceptionHandler {
@@ -58,4 +59,26 @@ public class TicketExceptionHandler {
         ApiResponse<Object> response = ApiResponse.error(ex.getMessage());
         return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
     }
+    
+    @ExceptionHandler(AdmissionRequiredException.class)
+    public ResponseEntity<ApiResponse<Object>> handleAdmissionRequiredException(
+            AdmissionRequiredException ex) {
+        
+        String requestId = UUID.randomUUID().toString();
+        logger.warn("Admission required - RequestId: {}, Error: {}", requestId, ex.getMessage());
+        
+        ApiResponse<Object> response = ApiResponse.error(ex.getMessage());
+        return new ResponseEntity<>(response, HttpStatus.FORBIDDEN);
+    }
+    
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<ApiResponse<Object>> handleRejectedExecutionException(
+            RejectedExecutionException ex) {
+        
+        String requestId = UUID.randomUUID().toString();
+        logger.warn("Worker pool saturated - RequestId: {}, Error: {}", requestId, ex.getMessage());
+        
+        ApiResponse<Object> response = ApiResponse.error("Service busy, please retry shortly");
+        return new ResponseEntity<>(response, HttpStatus.SERVICE_UNAVAILABLE);
+    }
 }
@@ -25,6 +25,7 @@ public class TicketTypeMapper {
         dto.setSaleEndDate(ticketType.getSaleEndDate());
         dto.setPerPersonLimit(ticketType.getPerPersonLimit());
         dto.setVenueZone(ticketType.getVenueZone());
+        dto.setInventoryShards(ticketType.getInventoryShards());
         dto.setIsOnSale(ticketType.isOnSale());
         dto.setCreatedAt(ticketType.getCreatedAt());
         dto.setUpdatedAt(ticketType.getUpdatedAt());
@@ -0,0 +1,16 @@
+package com.eventbooking.ticket.repository;
+
+import com.eventbooking.ticket.entity.SeatSection;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface SeatSectionRepository extends JpaRepository<SeatSection, UUID> {
+    
+    List<SeatSection> findByEventIdOrderBySortOrderAsc(UUID eventId);
+    
+    List<SeatSection> findByTicketTypeIdOrderBySortOrderAsc(UUID ticketTypeId);
+}
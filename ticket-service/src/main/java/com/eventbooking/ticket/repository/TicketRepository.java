@@ -1,9 +1,17 @@
 package com.eventbooking.ticket.repository;
 
 import com.eventbooking.ticket.entity.Ticket;
+import com.eventbooking.ticket.entity.Ticket.TicketStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.LockModeType;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -22,4 +30,41 @@ public interface TicketRepository extends JpaRepository<Ticket, UUID> {
     boolean existsByTicketNumber(String ticketNumber);
     
     boolean existsByQrCode(String qrCode);
+    
+    /**
+     * Next page, in id order after the given id, of tickets whose QR code predates the given payload prefix
+     */
+    @Query("SELECT t FROM Ticket t WHERE t.id > :afterId AND t.qrCode NOT LIKE CONCAT(:prefix, '%') ORDER BY t.id")
+    List<Ticket> findLegacyQrCodePage(
+        @Param("prefix") String prefix,
+        @Param("afterId") UUID afterId,
+        Pageable pageable
+    );
+    
+    /**
+     * Lock a batch of tickets in id order so concurrent check-in batches cannot deadlock
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT t FROM Ticket t WHERE t.id IN :ids ORDER BY t.id")
+    List<Ticket> findAllByIdWithLock(@Param("ids") Collection<UUID> ids);
+    
+    @Query("SELECT t.id FROM Ticket t WHERE t.status = :status AND t.ticketTypeId IN " +
+           "(SELECT tt.id FROM TicketType tt WHERE tt.eventId = :eventId)")
+    List<UUID> findIdsByEventIdAndStatus(@Param("eventId") UUID eventId, @Param("status") TicketStatus status);
+    
+    /**
+     * Next page of an event's check-ins recorded after the (recordedAt, id) cursor and before the given time
+     */
+    @Query("SELECT t FROM Ticket t WHERE t.checkInRecordedAt IS NOT NULL " +
+           "AND (t.checkInRecordedAt > :afterRecordedAt OR (t.checkInRecordedAt = :afterRecordedAt AND t.id > :afterId)) " +
+           "AND t.checkInRecordedAt < :recordedBefore " +
+           "AND t.ticketTypeId IN (SELECT tt.id FROM TicketType tt WHERE tt.eventId = :eventId) " +
+           "ORDER BY t.checkInRecordedAt, t.id")
+    List<Ticket> findCheckInPageAfter(
+        @Param("eventId") UUID eventId,
+        @Param("afterRecordedAt") LocalDateTime afterRecordedAt,
+        @Param("afterId") UUID afterId,
+        @Param("recordedBefore") LocalDateTime recordedBefore,
+        Pageable pageable
+    );
 }
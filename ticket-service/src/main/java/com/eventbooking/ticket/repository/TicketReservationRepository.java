@@ -2,13 +2,21 @@ package com.eventbooking.ticket.repository;
 
 import com.eventbooking.ticket.entity.TicketReservation;
 import com.eventbooking.ticket.entity.TicketReservation.ReservationStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
@@ -18,16 +26,78 @@ public interface TicketReservationRepository extends JpaRepository<TicketReserva
     
     List<TicketReservation> findByTicketTypeIdAndStatus(UUID ticketTypeId, ReservationStatus status);
     
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM TicketReservation r WHERE r.id = :id")
+    Optional<TicketReservation> findByIdWithLock(@Param("id") UUID id);
+    
     @Query("SELECT r FROM TicketReservation r WHERE r.status = :status AND r.reservedUntil < :currentTime")
     List<TicketReservation> findExpiredReservations(
         @Param("status") ReservationStatus status,
         @Param("currentTime") LocalDateTime currentTime
     );
     
+    /**
+     * Lock the given reservations that are still in the status and past their hold,
+     * skipping rows another node is already processing (lock timeout -2 is SKIP LOCKED)
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT r FROM TicketReservation r WHERE r.id IN :ids AND r.status = :status " +
+           "AND r.reservedUntil <= :currentTime")
+    List<TicketReservation> findExpiredByIdsForUpdate(
+        @Param("ids") Collection<UUID> ids,
+        @Param("status") ReservationStatus status,
+        @Param("currentTime") LocalDateTime currentTime
+    );
+    
+    /**
+     * First page of a keyset scan over expired reservations, ordered by (reservedUntil, id)
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT r FROM TicketReservation r WHERE r.status = :status AND r.reservedUntil < :cutoff " +
+           "ORDER BY r.reservedUntil, r.id")
+    List<TicketReservation> findExpiredPage(
+        @Param("status") ReservationStatus status,
+        @Param("cutoff") LocalDateTime cutoff,
+        Pageable pageable
+    );
+    
+    /**
+     * Next page of the keyset scan, starting after the last (reservedUntil, id) seen
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT r FROM TicketReservation r WHERE r.status = :status AND r.reservedUntil < :cutoff " +
+           "AND (r.reservedUntil > :afterReservedUntil OR (r.reservedUntil = :afterReservedUntil AND r.id > :afterId)) " +
+           "ORDER BY r.reservedUntil, r.id")
+    List<TicketReservation> findExpiredPageAfter(
+        @Param("status") ReservationStatus status,
+        @Param("cutoff") LocalDateTime cutoff,
+        @Param("afterReservedUntil") LocalDateTime afterReservedUntil,
+        @Param("afterId") UUID afterId,
+        Pageable pageable
+    );
+    
+    @Modifying
+    @Query("UPDATE TicketReservation r SET r.status = :status WHERE r.id IN :ids")
+    int updateStatus(@Param("ids") Collection<UUID> ids, @Param("status") ReservationStatus status);
+    
     @Query("SELECT COALESCE(SUM(r.quantity), 0) FROM TicketReservation r " +
            "WHERE r.ticketTypeId = :ticketTypeId AND r.status = 'ACTIVE' AND r.reservedUntil > :currentTime")
     Integer sumActiveReservationsByTicketTypeId(
         @Param("ticketTypeId") UUID ticketTypeId,
         @Param("currentTime") LocalDateTime currentTime
     );
+    
+    /**
+     * Tickets held by reservations in the given status, including ACTIVE ones whose hold ran out
+     * but which have not been expired yet - their stock is still out of the Redis counter
+     */
+    @Query("SELECT COALESCE(SUM(r.quantity), 0) FROM TicketReservation r " +
+           "WHERE r.ticketTypeId = :ticketTypeId AND r.status = :status")
+    Integer sumQuantityByTicketTypeIdAndStatus(
+        @Param("ticketTypeId") UUID ticketTypeId,
+        @Param("status") ReservationStatus status
+    );
 }
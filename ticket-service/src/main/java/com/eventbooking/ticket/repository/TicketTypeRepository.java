@@ -3,11 +3,13 @@ package com.eventbooking.ticket.repository;
 import com.eventbooking.ticket.entity.TicketType;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import jakarta.persistence.LockModeType;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -21,8 +23,24 @@ public interface TicketTypeRepository extends JpaRepository<TicketType, UUID> {
     @Query("SELECT t FROM TicketType t WHERE t.id = :id")
     Optional<TicketType> findByIdWithLock(@Param("id") UUID id);
     
+    /**
+     * Lock several ticket types in id order so concurrent carts cannot deadlock
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT t FROM TicketType t WHERE t.id IN :ids ORDER BY t.id")
+    List<TicketType> findAllByIdWithLock(@Param("ids") Collection<UUID> ids);
+    
+    @Modifying
+    @Query("UPDATE TicketType t SET t.quantityReserved = t.quantityReserved + :delta WHERE t.id = :id")
+    int adjustQuantityReserved(@Param("id") UUID id, @Param("delta") int delta);
+    
     @Query("SELECT t FROM TicketType t WHERE t.eventId = :eventId AND " +
            "(t.saleStartDate IS NULL OR t.saleStartDate <= CURRENT_TIMESTAMP) AND " +
            "(t.saleEndDate IS NULL OR t.saleEndDate > CURRENT_TIMESTAMP)")
     List<TicketType> findAvailableTicketTypesByEventId(@Param("eventId") UUID eventId);
+    
+    @Query("SELECT t FROM TicketType t WHERE " +
+           "(t.saleStartDate IS NULL OR t.saleStartDate <= CURRENT_TIMESTAMP) AND " +
+           "(t.saleEndDate IS NULL OR t.saleEndDate > CURRENT_TIMESTAMP)")
+    List<TicketType> findTicketTypesOnSale();
 }
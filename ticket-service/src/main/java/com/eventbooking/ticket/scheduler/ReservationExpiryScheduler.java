@@ -0,0 +1,70 @@
+package com.eventbooking.ticket.scheduler;
+
+import com.eventbooking.ticket.service.ReservationExpiryQueue;
+import com.eventbooking.ticket.service.ReservationExpiryService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.UUID;
+
+@Component
+public class ReservationExpiryScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReservationExpiryScheduler.class);
+
+    private final ReservationExpiryQueue expiryQueue;
+    private final ReservationExpiryService expiryService;
+
+    @Value("${ticket.reservation.expiry-queue.batch-size:500}")
+    private int batchSize = 500;
+
+    @Value("${ticket.reservation.expiry-queue.max-batches-per-poll:20}")
+    private int maxBatchesPerPoll = 20;
+
+    @Autowired
+    public ReservationExpiryScheduler(ReservationExpiryQueue expiryQueue,
+                                      ReservationExpiryService expiryService) {
+        this.expiryQueue = expiryQueue;
+        this.expiryService = expiryService;
+    }
+
+    /**
+     * Expire reservations whose hold has run out, in bounded batches, about once a second
+     */
+    @Scheduled(fixedDelayString = "${ticket.reservation.expiry-queue.poll-interval-ms:1000}")
+    public void expireDueReservations() {
+        if (!expiryQueue.isEnabled()) {
+            return;
+        }
+
+        for (int batch = 0; batch < maxBatchesPerPoll; batch++) {
+            List<UUID> due;
+            try {
+                due = expiryQueue.pollDue(batchSize);
+            } catch (Exception e) {
+                logger.error("Error polling reservation expiry queue", e);
+                return;
+            }
+            if (due.isEmpty()) {
+                return;
+            }
+
+            try {
+                expiryService.expireReservations(due);
+            } catch (Exception e) {
+                logger.error("Error expiring {} reservations, requeueing", due.size(), e);
+                expiryQueue.requeue(due);
+                return;
+            }
+
+            if (due.size() < batchSize) {
+                return;
+            }
+        }
+    }
+}
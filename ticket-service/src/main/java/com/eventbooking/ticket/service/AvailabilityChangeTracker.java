@@ -0,0 +1,58 @@
+package com.eventbooking.ticket.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Ticket types whose inventory counters moved on this node since the last availability
+ * broadcast. Marking is a set insert, so repeated changes to a hot ticket type between two
+ * broadcasts collapse into one entry.
+ */
+@Component
+public class AvailabilityChangeTracker {
+
+    private final Set<UUID> changed = ConcurrentHashMap.newKeySet();
+
+    @Value("${ticket.availability-stream.enabled:false}")
+    private boolean enabled;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void markChanged(UUID ticketTypeId) {
+        if (enabled) {
+            changed.add(ticketTypeId);
+        }
+    }
+
+    public void markChanged(Collection<UUID> ticketTypeIds) {
+        if (enabled) {
+            changed.addAll(ticketTypeIds);
+        }
+    }
+
+    /**
+     * Take every ticket type marked since the previous call
+     */
+    public Set<UUID> drain() {
+        return drain(changed);
+    }
+
+    static Set<UUID> drain(Set<UUID> source) {
+        Set<UUID> drained = new LinkedHashSet<>();
+        Iterator<UUID> iterator = source.iterator();
+        while (iterator.hasNext()) {
+            drained.add(iterator.next());
+            iterator.remove();
+        }
+        return drained;
+    }
+}
@@ -0,0 +1,350 @@
+package com.eventbooking.ticket.service;
+
+import com.eventbooking.ticket.dto.TicketTypeAvailabilityDto;
+import com.eventbooking.ticket.entity.TicketType;
+import com.eventbooking.ticket.exception.TicketTypeNotFoundException;
+import com.eventbooking.ticket.repository.TicketTypeRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Pushes ticket availability to clients over server-sent events instead of having them poll.
+ *
+ * Nodes record which ticket types they changed and publish the batch once per tick. Every node
+ * holds one subscription to that channel; on each tick it re-reads the counters of changed
+ * ticket types that have local listeners, once per ticket type however many clients watch it,
+ * and sends each event's listeners only the quantities that differ from what they were last
+ * sent. Clients therefore see at most one update per tick.
+ *
+ * Messages are queued per listener and written by a separate pool of send threads, so a slow
+ * client never holds up the tick, other clients or the other scheduled jobs. A listener that
+ * falls too far behind is closed; its client reconnects and starts again from a snapshot.
+ */
+@Service
+public class AvailabilityStreamService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AvailabilityStreamService.class);
+
+    static final String CHANGE_CHANNEL = "ticket-availability:changed";
+    static final String EVENT_NAME = "availability";
+
+    private static final String ID_SEPARATOR = ",";
+
+    private final AvailabilityChangeTracker changeTracker;
+    private final InventoryService inventoryService;
+    private final TicketTypeRepository ticketTypeRepository;
+    private final TicketTypeSnapshotCache snapshotCache;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+
+    private final Map<UUID, EventStream> streams = new ConcurrentHashMap<>();
+
+    // Ticket types changed anywhere in the cluster since the last tick
+    private final Set<UUID> pending = ConcurrentHashMap.newKeySet();
+
+    @Value("${ticket.availability-stream.timeout-ms:600000}")
+    private long timeoutMillis = 600000;
+
+    @Value("${ticket.availability-stream.send-threads:4}")
+    private int sendThreads = 4;
+
+    @Value("${ticket.availability-stream.max-queued-messages:32}")
+    private int maxQueuedMessages = 32;
+
+    private ExecutorService sendExecutor;
+
+    public AvailabilityStreamService(AvailabilityChangeTracker changeTracker,
+                                     InventoryService inventoryService,
+                                     TicketTypeRepository ticketTypeRepository,
+                                     TicketTypeSnapshotCache snapshotCache,
+                                     RedisTemplate<String, Object> redisTemplate,
+                                     RedisMessageListenerContainer listenerContainer) {
+        this.changeTracker = changeTracker;
+        this.inventoryService = inventoryService;
+        this.ticketTypeRepository = ticketTypeRepository;
+        this.snapshotCache = snapshotCache;
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+    }
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadCount = new AtomicInteger();
+        sendExecutor = Executors.newFixedThreadPool(sendThreads, runnable -> {
+            Thread thread = new Thread(runnable, "availability-send-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        listenerContainer.addMessageListener(this::onChange, new ChannelTopic(CHANGE_CHANNEL));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (sendExecutor != null) {
+            sendExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * Open a stream for an event. The first message carries every ticket type on sale; later
+     * ones only the ticket types whose quantity changed. When streaming is disabled the stream
+     * completes after the first message and clients keep polling.
+     */
+    public SseEmitter subscribe(UUID eventId) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        if (!changeTracker.isEnabled()) {
+            send(emitter, loadAvailability(eventId));
+            emitter.complete();
+            return emitter;
+        }
+
+        // Registered inside compute so a concurrent unsubscribe cannot drop the stream in between
+        Listener listener = new Listener(eventId, emitter);
+        EventStream stream = streams.compute(eventId, (id, existing) -> {
+            EventStream target = existing != null ? existing : new EventStream();
+            target.listeners.put(emitter, listener);
+            return target;
+        });
+        emitter.onCompletion(() -> unsubscribe(eventId, emitter));
+        emitter.onTimeout(() -> unsubscribe(eventId, emitter));
+        emitter.onError(error -> unsubscribe(eventId, emitter));
+
+        // A change pushed before this snapshot is already included in it; queueing under the
+        // lock keeps the snapshot ahead of later changes, the write itself happens outside it
+        synchronized (stream) {
+            if (!stream.loaded) {
+                stream.lastSent.putAll(loadAvailability(eventId));
+                stream.loaded = true;
+            }
+            listener.enqueue(new LinkedHashMap<>(stream.lastSent));
+        }
+
+        logger.debug("Opened availability stream for event: {}", eventId);
+        return emitter;
+    }
+
+    /**
+     * Publish this node's changes and push the cluster's changes to local listeners
+     */
+    @Scheduled(fixedDelayString = "${ticket.availability-stream.interval-ms:250}")
+    public void broadcast() {
+        if (!changeTracker.isEnabled()) {
+            return;
+        }
+
+        Set<UUID> changed = changeTracker.drain();
+        if (!changed.isEmpty()) {
+            try {
+                redisTemplate.convertAndSend(CHANGE_CHANNEL, changed.stream()
+                    .map(UUID::toString)
+                    .collect(Collectors.joining(ID_SEPARATOR)));
+            } catch (Exception e) {
+                // Listeners catch up on the next change to the same ticket types
+                logger.warn("Failed to publish availability changes for {} ticket types", changed.size(), e);
+            }
+        }
+
+        Set<UUID> received = AvailabilityChangeTracker.drain(pending);
+        if (received.isEmpty() || streams.isEmpty()) {
+            return;
+        }
+
+        Map<UUID, List<UUID>> changedByEvent = new HashMap<>();
+        for (UUID ticketTypeId : received) {
+            UUID eventId = eventOf(ticketTypeId);
+            if (eventId != null && streams.containsKey(eventId)) {
+                changedByEvent.computeIfAbsent(eventId, id -> new ArrayList<>()).add(ticketTypeId);
+            }
+        }
+        changedByEvent.forEach(this::pushChanges);
+    }
+
+    void queueChanges(Collection<UUID> ticketTypeIds) {
+        pending.addAll(ticketTypeIds);
+    }
+
+    private void pushChanges(UUID eventId, List<UUID> ticketTypeIds) {
+        EventStream stream = streams.get(eventId);
+        if (stream == null) {
+            return;
+        }
+
+        Map<UUID, Integer> current = new LinkedHashMap<>();
+        for (UUID ticketTypeId : ticketTypeIds) {
+            try {
+                current.put(ticketTypeId, inventoryService.getAvailableQuantity(ticketTypeId));
+            } catch (Exception e) {
+                logger.warn("Failed to read availability of ticket type: {}", ticketTypeId, e);
+            }
+        }
+
+        synchronized (stream) {
+            Map<UUID, Integer> delta = new LinkedHashMap<>();
+            current.forEach((ticketTypeId, available) -> {
+                if (!Objects.equals(stream.lastSent.put(ticketTypeId, available), available)) {
+                    delta.put(ticketTypeId, available);
+                }
+            });
+            if (delta.isEmpty()) {
+                return;
+            }
+            for (Listener listener : stream.listeners.values()) {
+                listener.enqueue(delta);
+            }
+        }
+    }
+
+    private void unsubscribe(UUID eventId, SseEmitter emitter) {
+        streams.computeIfPresent(eventId, (id, stream) -> {
+            stream.listeners.remove(emitter);
+            return stream.listeners.isEmpty() ? null : stream;
+        });
+    }
+
+    private Map<UUID, Integer> loadAvailability(UUID eventId) {
+        Map<UUID, Integer> availability = new LinkedHashMap<>();
+        for (TicketType ticketType : ticketTypeRepository.findAvailableTicketTypesByEventId(eventId)) {
+            availability.put(ticketType.getId(), inventoryService.getAvailableQuantity(ticketType.getId()));
+        }
+        return availability;
+    }
+
+    private UUID eventOf(UUID ticketTypeId) {
+        try {
+            return snapshotCache.get(ticketTypeId).getEventId();
+        } catch (TicketTypeNotFoundException e) {
+            return null;
+        }
+    }
+
+    private static boolean send(SseEmitter emitter, Map<UUID, Integer> availability) {
+        List<TicketTypeAvailabilityDto> data = new ArrayList<>(availability.size());
+        availability.forEach((ticketTypeId, available) -> {
+            TicketTypeAvailabilityDto dto = new TicketTypeAvailabilityDto();
+            dto.setTicketTypeId(ticketTypeId);
+            dto.setAvailableQuantity(available);
+            data.add(dto);
+        });
+
+        try {
+            emitter.send(SseEmitter.event().name(EVENT_NAME).data(data));
+            return true;
+        } catch (Exception e) {
+            // The client went away; the container completes the emitter
+            logger.debug("Dropped availability stream listener: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    private void onChange(Message message, byte[] pattern) {
+        Object body = redisTemplate.getValueSerializer().deserialize(message.getBody());
+        if (body == null) {
+            return;
+        }
+        List<UUID> ticketTypeIds = new ArrayList<>();
+        for (String id : body.toString().split(ID_SEPARATOR)) {
+            ticketTypeIds.add(UUID.fromString(id));
+        }
+        queueChanges(ticketTypeIds);
+    }
+
+    private static final class EventStream {
+        private final Map<SseEmitter, Listener> listeners = new ConcurrentHashMap<>();
+        private final Map<UUID, Integer> lastSent = new HashMap<>();
+        private boolean loaded;
+    }
+
+    /**
+     * One client's queue of messages, written in order by at most one send thread at a time
+     */
+    private final class Listener {
+        private final UUID eventId;
+        private final SseEmitter emitter;
+        private final Queue<Map<UUID, Integer>> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger queued = new AtomicInteger();
+        private final AtomicBoolean sending = new AtomicBoolean();
+        private volatile boolean closed;
+
+        private Listener(UUID eventId, SseEmitter emitter) {
+            this.eventId = eventId;
+            this.emitter = emitter;
+        }
+
+        private void enqueue(Map<UUID, Integer> message) {
+            if (closed) {
+                return;
+            }
+            if (queued.incrementAndGet() > maxQueuedMessages) {
+                logger.debug("Closing availability stream listener that fell behind for event: {}", eventId);
+                close();
+                emitter.complete();
+                return;
+            }
+            queue.add(message);
+            scheduleSend();
+        }
+
+        private void scheduleSend() {
+            if (!sending.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                sendExecutor.execute(this::sendQueued);
+            } catch (RejectedExecutionException e) {
+                close();
+                emitter.complete();
+            }
+        }
+
+        private void sendQueued() {
+            Map<UUID, Integer> message;
+            while (!closed && (message = queue.poll()) != null) {
+                queued.decrementAndGet();
+                if (!send(emitter, message)) {
+                    close();
+                    return;
+                }
+            }
+            sending.set(false);
+            // A message queued after the last poll but before the flag was cleared
+            if (!closed && !queue.isEmpty()) {
+                scheduleSend();
+            }
+        }
+
+        private void close() {
+            closed = true;
+            queue.clear();
+            unsubscribe(eventId, emitter);
+        }
+    }
+}
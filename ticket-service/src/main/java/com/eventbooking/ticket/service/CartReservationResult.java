@@ -0,0 +1,57 @@
+package com.eventbooking.ticket.service;
+
+import java.util.UUID;
+
+/**
+ * Outcome of an all-or-nothing cart reservation. When it fails, identifies the first
+ * ticket type that could not be covered and either the stock it had or, when the
+ * per-person limit was hit, the tickets the user already held.
+ */
+public class CartReservationResult {
+
+    private static final CartReservationResult RESERVED = new CartReservationResult(true, null, 0, null);
+
+    private final boolean reserved;
+    private final UUID shortTicketTypeId;
+    private final int available;
+    private final Integer alreadyHeld;
+
+    private CartReservationResult(boolean reserved, UUID shortTicketTypeId, int available, Integer alreadyHeld) {
+        this.reserved = reserved;
+        this.shortTicketTypeId = shortTicketTypeId;
+        this.available = available;
+        this.alreadyHeld = alreadyHeld;
+    }
+
+    public static CartReservationResult reserved() {
+        return RESERVED;
+    }
+
+    public static CartReservationResult insufficient(UUID ticketTypeId, int available) {
+        return new CartReservationResult(false, ticketTypeId, available, null);
+    }
+
+    public static CartReservationResult limitExceeded(UUID ticketTypeId, int alreadyHeld) {
+        return new CartReservationResult(false, ticketTypeId, 0, alreadyHeld);
+    }
+
+    public boolean isReserved() {
+        return reserved;
+    }
+
+    public boolean isLimitExceeded() {
+        return alreadyHeld != null;
+    }
+
+    public int getAlreadyHeld() {
+        return alreadyHeld != null ? alreadyHeld : 0;
+    }
+
+    public UUID getShortTicketTypeId() {
+        return shortTicketTypeId;
+    }
+
+    public int getAvailable() {
+        return available;
+    }
+}
@@ -0,0 +1,135 @@
+package com.eventbooking.ticket.service;
+
+import com.eventbooking.ticket.entity.TicketReservation;
+import com.eventbooking.ticket.entity.TicketReservation.ReservationStatus;
+import com.eventbooking.ticket.repository.TicketReservationRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Streams expired reservations in keyset-ordered pages of (reservedUntil, id). Every page is
+ * locked, expired and committed in its own short transaction, so a large backlog after an
+ * outage never turns into one long transaction holding row locks. Pages skip rows locked by
+ * other transactions, so a short page does not mean the backlog is drained; the sweep only
+ * stops at an empty page.
+ */
+@Component
+public class ExpiredReservationSweeper {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExpiredReservationSweeper.class);
+
+    private final TicketReservationRepository reservationRepository;
+    private final ReservationExpiryService expiryService;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Counter expiredCounter;
+    private final Counter batchCounter;
+    private final Timer batchTimer;
+    private final Timer sweepTimer;
+
+    @Value("${ticket.reservation.sweep.batch-size:500}")
+    private int batchSize = 500;
+
+    public ExpiredReservationSweeper(TicketReservationRepository reservationRepository,
+                                     ReservationExpiryService expiryService,
+                                     PlatformTransactionManager transactionManager,
+                                     MeterRegistry meterRegistry) {
+        this.reservationRepository = reservationRepository;
+        this.expiryService = expiryService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.expiredCounter = Counter.builder("ticket.reservations.sweep.expired")
+            .description("Reservations expired by the sweeper")
+            .register(meterRegistry);
+        this.batchCounter = Counter.builder("ticket.reservations.sweep.batches")
+            .register(meterRegistry);
+        this.batchTimer = Timer.builder("ticket.reservations.sweep.batch.duration")
+            .register(meterRegistry);
+        this.sweepTimer = Timer.builder("ticket.reservations.sweep.duration")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Expire every reservation whose hold ran out before the sweep started.
+     * Returns the number of reservations expired.
+     */
+    public int sweep() {
+        long start = System.nanoTime();
+        LocalDateTime cutoff = LocalDateTime.now();
+        PageCursor cursor = null;
+        int total = 0;
+
+        while (true) {
+            PageCursor after = cursor;
+            long batchStart = System.nanoTime();
+
+            BatchOutcome outcome = transactionTemplate.execute(status -> {
+                List<TicketReservation> page = after == null
+                    ? reservationRepository.findExpiredPage(ReservationStatus.ACTIVE, cutoff,
+                        PageRequest.of(0, batchSize))
+                    : reservationRepository.findExpiredPageAfter(ReservationStatus.ACTIVE, cutoff,
+                        after.reservedUntil, after.id, PageRequest.of(0, batchSize));
+                if (page.isEmpty()) {
+                    return null;
+                }
+                TicketReservation last = page.get(page.size() - 1);
+                return new BatchOutcome(new PageCursor(last.getReservedUntil(), last.getId()),
+                    expiryService.expireLocked(page));
+            });
+
+            if (outcome == null) {
+                break;
+            }
+
+            // Stock goes back to Redis only after the batch has committed
+            expiryService.releaseInventory(outcome.result);
+
+            int expired = outcome.result.getExpiredCount();
+            total += expired;
+            expiredCounter.increment(expired);
+            batchCounter.increment();
+            batchTimer.record(Duration.ofNanos(System.nanoTime() - batchStart));
+
+            cursor = outcome.cursor;
+        }
+
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+        sweepTimer.record(elapsed);
+        logger.info("Swept {} expired reservations in {} ms", total, elapsed.toMillis());
+        return total;
+    }
+
+    private static final class PageCursor {
+        private final LocalDateTime reservedUntil;
+        private final UUID id;
+
+        private PageCursor(LocalDateTime reservedUntil, UUID id) {
+            this.reservedUntil = reservedUntil;
+            this.id = id;
+        }
+    }
+
+    private static final class BatchOutcome {
+        private final PageCursor cursor;
+        private final ReservationExpiryResult result;
+
+        private BatchOutcome(PageCursor cursor, ReservationExpiryResult result) {
+            this.cursor = cursor;
+            this.result = result;
+        }
+    }
+}
@@ -0,0 +1,321 @@
+package com.eventbooking.ticket.service;
+
+import com.eventbooking.common.client.EventServiceClient;
+import com.eventbooking.common.exception.UnauthorizedException;
+import com.eventbooking.ticket.dto.CheckInBatchRequest;
+import com.eventbooking.ticket.dto.CheckInDto;
+import com.eventbooking.ticket.dto.CheckInResultDto;
+import com.eventbooking.ticket.dto.CheckInResultDto.Outcome;
+import com.eventbooking.ticket.dto.CheckInScanRequest;
+import com.eventbooking.ticket.dto.CheckInSyncDto;
+import com.eventbooking.ticket.dto.ValidationBundleDto;
+import com.eventbooking.ticket.entity.Ticket;
+import com.eventbooking.ticket.entity.Ticket.TicketStatus;
+import com.eventbooking.ticket.repository.TicketRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Gate scanning for high-volume venues.
+ *
+ * Scanners download a per-event validation bundle (the sorted ids of all valid tickets plus the
+ * event's QR signing key) and validate offline. Scans are uploaded in batches: each batch locks
+ * its tickets once, marks them USED and answers every scan in a single transaction. The earliest
+ * scan of a ticket wins, so two gates that both admitted a ticket while offline agree once they
+ * have synced. Scanners catch up on check-ins made elsewhere through a keyset cursor over the
+ * time each check-in was recorded. Every operation is restricted to the event's organizer.
+ */
+@Service
+public class GateScanningService {
+
+    private static final Logger logger = LoggerFactory.getLogger(GateScanningService.class);
+
+    private static final LocalDateTime CURSOR_START = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final UUID FIRST_ID = new UUID(0L, 0L);
+    private static final int MAX_SYNC_PAGE_SIZE = 5000;
+
+    // Ascending unsigned byte order, i.e. the order of the ids' 16 byte big-endian encoding
+    private static final Comparator<UUID> UNSIGNED_ORDER = (a, b) -> {
+        int high = Long.compareUnsigned(a.getMostSignificantBits(), b.getMostSignificantBits());
+        return high != 0 ? high : Long.compareUnsigned(a.getLeastSignificantBits(), b.getLeastSignificantBits());
+    };
+
+    private final TicketRepository ticketRepository;
+    private final TicketTypeSnapshotCache snapshotCache;
+    private final QRCodeService qrCodeService;
+    private final TicketCache ticketCache;
+    private final MeterRegistry meterRegistry;
+    private final EventServiceClient eventServiceClient;
+
+    /**
+     * Check-ins newer than this are held back from sync until transactions that stamped an
+     * earlier time have had a chance to commit, so a cursor never skips past them
+     */
+    @Value("${ticket.scanning.sync-lag-ms:2000}")
+    private long syncLagMillis = 2000;
+
+    public GateScanningService(TicketRepository ticketRepository,
+                               TicketTypeSnapshotCache snapshotCache,
+                               QRCodeService qrCodeService,
+                               TicketCache ticketCache,
+                               MeterRegistry meterRegistry,
+                               EventServiceClient eventServiceClient) {
+        this.ticketRepository = ticketRepository;
+        this.snapshotCache = snapshotCache;
+        this.qrCodeService = qrCodeService;
+        this.ticketCache = ticketCache;
+        this.meterRegistry = meterRegistry;
+        this.eventServiceClient = eventServiceClient;
+    }
+
+    /**
+     * Build the offline validation bundle of an event
+     * @throws UnauthorizedException if the user is not the event's organizer
+     */
+    @Transactional(readOnly = true)
+    public ValidationBundleDto exportBundle(UUID eventId, UUID organizerId) {
+        // The bundle's key signs valid tickets for the event, so it goes to the organizer only
+        requireOrganizer(eventId, organizerId);
+
+        LocalDateTime now = LocalDateTime.now();
+        // Taken before reading so that check-ins racing the export are synced again, not lost
+        String syncCursor = encodeCursor(now.minus(syncLagMillis, ChronoUnit.MILLIS), FIRST_ID);
+
+        List<UUID> activeIds = ticketRepository.findIdsByEventIdAndStatus(eventId, TicketStatus.ACTIVE);
+        List<UUID> usedIds = ticketRepository.findIdsByEventIdAndStatus(eventId, TicketStatus.USED);
+
+        // Used tickets stay in the valid set; the device reports them as duplicates
+        List<UUID> validIds = new ArrayList<>(activeIds.size() + usedIds.size());
+        validIds.addAll(activeIds);
+        validIds.addAll(usedIds);
+
+        ValidationBundleDto bundle = new ValidationBundleDto();
+        bundle.setEventId(eventId);
+        bundle.setGeneratedAt(now);
+        bundle.setPayloadPrefix(QRCodeServiceImpl.PAYLOAD_PREFIX);
+        bundle.setSignatureAlgorithm(QRCodeServiceImpl.HMAC_ALGORITHM);
+        bundle.setSignatureBytes(QRCodeServiceImpl.SIGNATURE_BYTES);
+        bundle.setSigningKey(Base64.getEncoder().encodeToString(qrCodeService.getEventSigningKey(eventId)));
+        bundle.setTicketCount(validIds.size());
+        bundle.setTicketIds(encodeSortedIds(validIds));
+        bundle.setUsedTicketCount(usedIds.size());
+        bundle.setUsedTicketIds(encodeSortedIds(usedIds));
+        bundle.setSyncCursor(syncCursor);
+
+        logger.info("Exported validation bundle for event: {} with {} tickets ({} used)",
+                eventId, validIds.size(), usedIds.size());
+        return bundle;
+    }
+
+    /**
+     * Record a batch of gate scans. Results come back in the order of the scans in the request.
+     * @throws UnauthorizedException if the user is not the event's organizer
+     */
+    @Transactional
+    public List<CheckInResultDto> checkIn(CheckInBatchRequest request, UUID organizerId) {
+        requireOrganizer(request.getEventId(), organizerId);
+
+        List<CheckInScanRequest> scans = request.getScans();
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+
+        // Signatures are checked before anything is read, so forged codes cost no database work
+        Map<CheckInScanRequest, UUID> ticketIds = new HashMap<>();
+        for (CheckInScanRequest scan : scans) {
+            UUID ticketId = qrCodeService.resolveTicketId(scan.getQrCode());
+            if (ticketId != null) {
+                ticketIds.put(scan, ticketId);
+            }
+        }
+
+        Map<UUID, Ticket> tickets = new HashMap<>();
+        if (!ticketIds.isEmpty()) {
+            for (Ticket ticket : ticketRepository.findAllByIdWithLock(new HashSet<>(ticketIds.values()))) {
+                tickets.put(ticket.getId(), ticket);
+            }
+        }
+
+        // Within the batch, too, the earliest scan of a ticket is the one that admits it
+        List<CheckInScanRequest> byScanTime = new ArrayList<>(scans);
+        byScanTime.sort(Comparator.comparing((CheckInScanRequest scan) -> scannedAt(scan, now)));
+
+        Map<CheckInScanRequest, CheckInResultDto> results = new HashMap<>();
+        Set<Ticket> changed = new HashSet<>();
+        for (CheckInScanRequest scan : byScanTime) {
+            UUID ticketId = ticketIds.get(scan);
+            Ticket ticket = ticketId != null ? tickets.get(ticketId) : null;
+            Outcome outcome;
+            if (ticket == null || !isForEvent(ticket, request.getEventId())) {
+                outcome = Outcome.INVALID;
+            } else {
+                outcome = apply(ticket, scan, request.getScannerId(), now, changed);
+            }
+            results.put(scan, result(scan, ticketId, outcome, ticket));
+            meterRegistry.counter("ticket.scanning.check-ins", "outcome", outcome.name()).increment();
+        }
+
+        if (!changed.isEmpty()) {
+            ticketRepository.saveAll(changed);
+            ticketCache.invalidate(changed);
+        }
+
+        logger.debug("Processed {} scans from scanner: {} for event: {} ({} tickets checked in)",
+                scans.size(), request.getScannerId(), request.getEventId(), changed.size());
+        return scans.stream().map(results::get).collect(Collectors.toList());
+    }
+
+    /**
+     * Check-ins of an event recorded after the cursor, oldest first
+     * @param cursor The syncCursor of a bundle or the nextCursor of a previous page; null starts from scratch
+     * @throws UnauthorizedException if the user is not the event's organizer
+     */
+    @Transactional(readOnly = true)
+    public CheckInSyncDto syncCheckIns(UUID eventId, String cursor, int limit, UUID organizerId) {
+        requireOrganizer(eventId, organizerId);
+
+        int pageSize = Math.max(1, Math.min(limit, MAX_SYNC_PAGE_SIZE));
+        LocalDateTime afterRecordedAt = CURSOR_START;
+        UUID afterId = FIRST_ID;
+        if (cursor != null && !cursor.isBlank()) {
+            try {
+                int separator = cursor.indexOf('_');
+                afterRecordedAt = LocalDateTime.ofEpochSecond(0, 0, ZoneOffset.UTC)
+                        .plus(Long.parseLong(cursor.substring(0, separator)), ChronoUnit.MICROS);
+                afterId = UUID.fromString(cursor.substring(separator + 1));
+            } catch (RuntimeException e) {
+                // Check-ins are idempotent on the device, so an unreadable cursor just means a full resync
+                logger.warn("Ignoring malformed check-in sync cursor for event: {}", eventId);
+                afterRecordedAt = CURSOR_START;
+                afterId = FIRST_ID;
+            }
+        }
+
+        LocalDateTime recordedBefore = LocalDateTime.now().minus(syncLagMillis, ChronoUnit.MILLIS);
+        // One extra row tells whether another page follows
+        List<Ticket> page = ticketRepository.findCheckInPageAfter(eventId, afterRecordedAt, afterId,
+                recordedBefore, PageRequest.of(0, pageSize + 1));
+
+        boolean hasMore = page.size() > pageSize;
+        List<Ticket> checkedIn = hasMore ? page.subList(0, pageSize) : page;
+
+        CheckInSyncDto sync = new CheckInSyncDto();
+        sync.setCheckIns(checkedIn.stream().map(GateScanningService::toCheckInDto).collect(Collectors.toList()));
+        sync.setHasMore(hasMore);
+        if (checkedIn.isEmpty()) {
+            sync.setNextCursor(encodeCursor(afterRecordedAt, afterId));
+        } else {
+            Ticket last = checkedIn.get(checkedIn.size() - 1);
+            sync.setNextCursor(encodeCursor(last.getCheckInRecordedAt(), last.getId()));
+        }
+        return sync;
+    }
+
+    private void requireOrganizer(UUID eventId, UUID organizerId) {
+        if (!eventServiceClient.validateOrganizer(eventId, organizerId)) {
+            throw new UnauthorizedException("User is not the organizer of event: " + eventId);
+        }
+    }
+
+    private Outcome apply(Ticket ticket, CheckInScanRequest scan, String scannerId, LocalDateTime now,
+                          Set<Ticket> changed) {
+        if (ticket.getStatus() == TicketStatus.ACTIVE) {
+            recordCheckIn(ticket, scan, scannerId, now);
+            changed.add(ticket);
+            return Outcome.ADMITTED;
+        }
+        if (ticket.getStatus() != TicketStatus.USED) {
+            return Outcome.INVALID;
+        }
+
+        if (scan.getScanId().equals(ticket.getCheckInScanId())) {
+            // A retried upload of the scan that already admitted the holder
+            return Outcome.ADMITTED;
+        }
+
+        LocalDateTime scannedAt = scannedAt(scan, now);
+        if (ticket.getCheckedInAt() != null && scannedAt.isBefore(ticket.getCheckedInAt())) {
+            // An offline gate admitted the holder first; its scan becomes the check-in of record
+            // and the later one, already stored, is what other gates now see as the duplicate
+            logger.info("Ticket {} was admitted offline by scanner {} before scanner {}",
+                    ticket.getId(), scannerId, ticket.getCheckedInBy());
+            recordCheckIn(ticket, scan, scannerId, now);
+            changed.add(ticket);
+            return Outcome.ADMITTED;
+        }
+
+        logger.warn("Duplicate entry attempt for ticket: {} at scanner: {}", ticket.getId(), scannerId);
+        return Outcome.DUPLICATE;
+    }
+
+    private static void recordCheckIn(Ticket ticket, CheckInScanRequest scan, String scannerId, LocalDateTime now) {
+        ticket.setStatus(TicketStatus.USED);
+        ticket.setCheckedInAt(scannedAt(scan, now));
+        ticket.setCheckedInBy(scannerId);
+        ticket.setCheckInScanId(scan.getScanId());
+        ticket.setCheckInRecordedAt(now);
+    }
+
+    private boolean isForEvent(Ticket ticket, UUID eventId) {
+        return eventId.equals(snapshotCache.get(ticket.getTicketTypeId()).getEventId());
+    }
+
+    private static LocalDateTime scannedAt(CheckInScanRequest scan, LocalDateTime now) {
+        // Devices without a trustworthy clock leave it out; the upload time is the best we have
+        return scan.getScannedAt() != null ? scan.getScannedAt() : now;
+    }
+
+    private static CheckInResultDto result(CheckInScanRequest scan, UUID ticketId, Outcome outcome, Ticket ticket) {
+        CheckInResultDto result = new CheckInResultDto();
+        result.setScanId(scan.getScanId());
+        result.setTicketId(ticketId);
+        result.setOutcome(outcome);
+        if (ticket != null && outcome != Outcome.INVALID) {
+            result.setCheckedInBy(ticket.getCheckedInBy());
+            result.setCheckedInAt(ticket.getCheckedInAt());
+        }
+        return result;
+    }
+
+    private static CheckInDto toCheckInDto(Ticket ticket) {
+        CheckInDto checkIn = new CheckInDto();
+        checkIn.setTicketId(ticket.getId());
+        checkIn.setCheckedInBy(ticket.getCheckedInBy());
+        checkIn.setCheckedInAt(ticket.getCheckedInAt());
+        return checkIn;
+    }
+
+    private static String encodeSortedIds(List<UUID> ids) {
+        List<UUID> sorted = new ArrayList<>(ids);
+        sorted.sort(UNSIGNED_ORDER);
+        ByteBuffer buffer = ByteBuffer.allocate(sorted.size() * 16);
+        for (UUID id : sorted) {
+            buffer.putLong(id.getMostSignificantBits());
+            buffer.putLong(id.getLeastSignificantBits());
+        }
+        return Base64.getEncoder().encodeToString(buffer.array());
+    }
+
+    private static String encodeCursor(LocalDateTime recordedAt, UUID id) {
+        long micros = ChronoUnit.MICROS.between(LocalDateTime.ofEpochSecond(0, 0, ZoneOffset.UTC), recordedAt);
+        return micros + "_" + id;
+    }
+}
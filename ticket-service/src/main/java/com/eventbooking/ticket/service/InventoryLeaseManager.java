@@ -0,0 +1,226 @@
+package com.eventbooking.ticket.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Node-local inventory leases. When enabled, each instance takes blocks of tickets out of the
+ * shared Redis counter and serves reservations from an in-process atomic counter, so most
+ * reservations never leave the JVM.
+ *
+ * Unused capacity goes back to Redis when a lease expires or the node shuts down. Block size
+ * shrinks with the stock left in Redis, and once a block would not cover a request the caller
+ * falls back to reserving directly so the tail of a sale is never stranded in a lease.
+ *
+ * Ticket types with a per-person limit are not leased: the user's allowance lives in Redis, so
+ * such a reservation needs a round trip anyway, and the direct reserve script checks the
+ * allowance and takes the stock in that one trip.
+ */
+@Component
+public class InventoryLeaseManager {
+
+    private static final Logger logger = LoggerFactory.getLogger(InventoryLeaseManager.class);
+
+    private static final int UNKNOWN = -1;
+
+    private final Map<UUID, Lease> leases = new ConcurrentHashMap<>();
+
+    @Value("${ticket.inventory.leasing.enabled:false}")
+    private boolean enabled;
+
+    @Value("${ticket.inventory.leasing.block-size:50}")
+    private int blockSize = 50;
+
+    @Value("${ticket.inventory.leasing.ttl-seconds:5}")
+    private long leaseTtlSeconds = 5;
+
+    // A lease may take at most 1/divisor of the stock still in Redis
+    @Value("${ticket.inventory.leasing.low-stock-divisor:4}")
+    private int lowStockDivisor = 4;
+
+    /**
+     * Where lease blocks come from and go back to
+     */
+    public interface LeaseSource {
+
+        /**
+         * Take up to the given number of tickets from shared stock, or return null when the counter is missing
+         */
+        LeaseGrant take(UUID ticketTypeId, int maxQuantity);
+
+        /**
+         * Return unused leased tickets to shared stock
+         */
+        void giveBack(UUID ticketTypeId, int quantity);
+    }
+
+    /**
+     * Tickets granted to a lease and the shared stock left behind
+     */
+    public static final class LeaseGrant {
+        private final int taken;
+        private final int remaining;
+
+        public LeaseGrant(int taken, int remaining) {
+            this.taken = taken;
+            this.remaining = remaining;
+        }
+
+        public int getTaken() {
+            return taken;
+        }
+
+        public int getRemaining() {
+            return remaining;
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Reserve from the local lease, refilling it from the source when it runs dry.
+     * Returns null when the request should go to shared stock directly instead.
+     */
+    public InventoryReservationResult reserve(UUID ticketTypeId, int quantity, LeaseSource source) {
+        Lease lease = leases.computeIfAbsent(ticketTypeId, id -> new Lease());
+
+        int left = tryTake(lease.available, quantity);
+        if (left >= 0) {
+            return InventoryReservationResult.reserved(left);
+        }
+
+        // Only refills serialize; serving from a filled lease stays lock-free
+        synchronized (lease) {
+            left = tryTake(lease.available, quantity);
+            if (left >= 0) {
+                return InventoryReservationResult.reserved(left);
+            }
+
+            int block = nextBlockSize(lease);
+            if (block <= quantity) {
+                // Stock is low enough that leasing would strand it on this node
+                returnLease(ticketTypeId, lease);
+                return null;
+            }
+
+            LeaseGrant grant = source.take(ticketTypeId, block);
+            if (grant == null) {
+                return null;
+            }
+            lease.source = source;
+            lease.globalRemaining = grant.getRemaining();
+            lease.expiresAt = System.currentTimeMillis() + leaseTtlSeconds * 1000;
+            lease.available.addAndGet(grant.getTaken());
+
+            left = tryTake(lease.available, quantity);
+            if (left >= 0) {
+                logger.debug("Leased {} tickets for ticket type: {}. Shared stock left: {}",
+                            grant.getTaken(), ticketTypeId, grant.getRemaining());
+                return InventoryReservationResult.reserved(left);
+            }
+
+            // Not enough even with a fresh block - let the shared counter decide
+            returnLease(ticketTypeId, lease);
+            return null;
+        }
+    }
+
+    /**
+     * Record the shared stock observed outside of a lease so block sizing follows it
+     */
+    public void recordRemaining(UUID ticketTypeId, int remaining) {
+        Lease lease = leases.get(ticketTypeId);
+        if (lease != null) {
+            lease.globalRemaining = remaining;
+        }
+    }
+
+    /**
+     * Forget the local lease without returning it, used when shared counters are rebuilt or deleted
+     */
+    public void discard(UUID ticketTypeId) {
+        Lease lease = leases.remove(ticketTypeId);
+        if (lease != null) {
+            lease.available.set(0);
+        }
+    }
+
+    /**
+     * Tickets currently held in the local lease
+     */
+    public int getLeasedQuantity(UUID ticketTypeId) {
+        Lease lease = leases.get(ticketTypeId);
+        return lease != null ? lease.available.get() : 0;
+    }
+
+    /**
+     * Return capacity of leases that have outlived their TTL
+     */
+    @Scheduled(fixedDelayString = "${ticket.inventory.leasing.sweep-interval-ms:1000}")
+    public void expireLeases() {
+        long now = System.currentTimeMillis();
+        leases.forEach((ticketTypeId, lease) -> {
+            // Under the refill lock, so a block leased in between keeps its own expiry
+            synchronized (lease) {
+                if (lease.expiresAt > 0 && lease.expiresAt <= now) {
+                    returnLease(ticketTypeId, lease);
+                    lease.expiresAt = 0;
+                }
+            }
+        });
+    }
+
+    @PreDestroy
+    public void returnAllLeases() {
+        leases.forEach(this::returnLease);
+    }
+
+    private void returnLease(UUID ticketTypeId, Lease lease) {
+        int unused = lease.available.getAndSet(0);
+        if (unused > 0 && lease.source != null) {
+            lease.source.giveBack(ticketTypeId, unused);
+            logger.debug("Returned {} leased tickets for ticket type: {}", unused, ticketTypeId);
+        }
+    }
+
+    private int nextBlockSize(Lease lease) {
+        int remaining = lease.globalRemaining;
+        if (remaining == UNKNOWN) {
+            return blockSize;
+        }
+        return Math.min(blockSize, remaining / lowStockDivisor);
+    }
+
+    /**
+     * Decrement the counter if it covers the quantity. Returns what is left, or -1 when it does not.
+     */
+    private static int tryTake(AtomicInteger available, int quantity) {
+        while (true) {
+            int current = available.get();
+            if (current < quantity) {
+                return -1;
+            }
+            if (available.compareAndSet(current, current - quantity)) {
+                return current - quantity;
+            }
+        }
+    }
+
+    private static final class Lease {
+        private final AtomicInteger available = new AtomicInteger();
+        private volatile LeaseSource source;
+        private volatile int globalRemaining = UNKNOWN;
+        private volatile long expiresAt;
+    }
+}
@@ -0,0 +1,211 @@
+package com.eventbooking.ticket.service;
+
+import com.eventbooking.ticket.entity.TicketReservation.ReservationStatus;
+import com.eventbooking.ticket.entity.TicketType;
+import com.eventbooking.ticket.repository.TicketReservationRepository;
+import com.eventbooking.ticket.repository.TicketTypeRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Periodically compares the Redis counters of every ticket type on sale with what the database
+ * says is left: quantity_available - quantity_sold - tickets held by ACTIVE reservations.
+ *
+ * A reservation decrements Redis before its row is committed, so a single mismatch proves
+ * nothing. Drift is only corrected once the same counters have shown the same drift for
+ * several passes, and then with a compare-and-adjust script that writes nothing if a
+ * reservation moved a counter in the meantime. Counters are never overwritten.
+ */
+@Component
+public class InventoryReconciler {
+
+    private static final Logger logger = LoggerFactory.getLogger(InventoryReconciler.class);
+
+    private final TicketTypeRepository ticketTypeRepository;
+    private final TicketReservationRepository reservationRepository;
+    private final InventoryService inventoryService;
+    private final InventoryLeaseManager leaseManager;
+
+    // Drift seen on the previous passes, per ticket type, until it is confirmed or disappears
+    private final Map<UUID, PendingDrift> pendingDrift = new ConcurrentHashMap<>();
+    private final AtomicInteger driftingTypes = new AtomicInteger();
+
+    private final DistributionSummary driftSummary;
+    private final Counter correctedUp;
+    private final Counter correctedDown;
+    private final Counter skippedCounter;
+    private final Counter restoredCounter;
+    private final Timer passTimer;
+
+    @Value("${ticket.inventory.reconciliation.enabled:false}")
+    private boolean enabled;
+
+    @Value("${ticket.inventory.reconciliation.confirmations:2}")
+    private int confirmations = 2;
+
+    public InventoryReconciler(TicketTypeRepository ticketTypeRepository,
+                               TicketReservationRepository reservationRepository,
+                               InventoryService inventoryService,
+                               InventoryLeaseManager leaseManager,
+                               MeterRegistry meterRegistry) {
+        this.ticketTypeRepository = ticketTypeRepository;
+        this.reservationRepository = reservationRepository;
+        this.inventoryService = inventoryService;
+        this.leaseManager = leaseManager;
+        this.driftSummary = DistributionSummary.builder("ticket.inventory.drift")
+            .description("Absolute difference between the Redis counters and the database, per drifting ticket type")
+            .register(meterRegistry);
+        this.correctedUp = Counter.builder("ticket.inventory.reconciliation.corrections")
+            .tag("direction", "up")
+            .register(meterRegistry);
+        this.correctedDown = Counter.builder("ticket.inventory.reconciliation.corrections")
+            .tag("direction", "down")
+            .register(meterRegistry);
+        this.skippedCounter = Counter.builder("ticket.inventory.reconciliation.skipped")
+            .description("Confirmed drift left alone because a counter moved or stock may be leased elsewhere")
+            .register(meterRegistry);
+        this.restoredCounter = Counter.builder("ticket.inventory.reconciliation.restored")
+            .register(meterRegistry);
+        this.passTimer = Timer.builder("ticket.inventory.reconciliation.duration")
+            .register(meterRegistry);
+        Gauge.builder("ticket.inventory.drift.types", driftingTypes, AtomicInteger::get)
+            .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${ticket.inventory.reconciliation.interval-ms:30000}")
+    public void scheduledReconcile() {
+        if (!enabled) {
+            return;
+        }
+        reconcile();
+    }
+
+    /**
+     * Run one reconciliation pass over every ticket type currently on sale.
+     * Returns the number of ticket types whose counters were corrected.
+     */
+    public int reconcile() {
+        long start = System.nanoTime();
+        List<TicketType> onSale = ticketTypeRepository.findTicketTypesOnSale();
+        Set<UUID> seen = new HashSet<>();
+        int corrected = 0;
+        int drifting = 0;
+
+        for (TicketType ticketType : onSale) {
+            seen.add(ticketType.getId());
+            try {
+                Outcome outcome = reconcile(ticketType);
+                if (outcome == Outcome.CORRECTED) {
+                    corrected++;
+                }
+                if (outcome != Outcome.IN_SYNC) {
+                    drifting++;
+                }
+            } catch (Exception e) {
+                logger.error("Failed to reconcile inventory for ticket type: {}", ticketType.getId(), e);
+            }
+        }
+
+        // Ticket types that went off sale are no longer tracked
+        pendingDrift.keySet().retainAll(seen);
+        driftingTypes.set(drifting);
+        passTimer.record(Duration.ofNanos(System.nanoTime() - start));
+
+        if (drifting > 0) {
+            logger.info("Reconciled {} ticket types on sale: {} drifting, {} corrected",
+                       onSale.size(), drifting, corrected);
+        }
+        return corrected;
+    }
+
+    private Outcome reconcile(TicketType ticketType) {
+        UUID ticketTypeId = ticketType.getId();
+
+        // Redis is read before the database so a reservation committing in between
+        // shows up as drift on this pass only
+        InventorySnapshot snapshot = inventoryService.snapshotInventory(ticketTypeId);
+        if (snapshot == null) {
+            pendingDrift.remove(ticketTypeId);
+            inventoryService.syncInventoryFromDatabase(ticketTypeId);
+            restoredCounter.increment();
+            return Outcome.RESTORED;
+        }
+
+        int held = reservationRepository.sumQuantityByTicketTypeIdAndStatus(ticketTypeId, ReservationStatus.ACTIVE);
+        int expected = Math.max(ticketType.getQuantityAvailable() - ticketType.getQuantitySold() - held, 0);
+        int observed = snapshot.getTotal() + leaseManager.getLeasedQuantity(ticketTypeId);
+        int drift = observed - expected;
+
+        if (drift == 0) {
+            pendingDrift.remove(ticketTypeId);
+            return Outcome.IN_SYNC;
+        }
+        driftSummary.record(Math.abs(drift));
+
+        PendingDrift previous = pendingDrift.get(ticketTypeId);
+        int passes = previous != null && previous.matches(snapshot, drift) ? previous.passes + 1 : 1;
+        if (passes < confirmations) {
+            pendingDrift.put(ticketTypeId, new PendingDrift(snapshot, drift, passes));
+            return Outcome.PENDING;
+        }
+        pendingDrift.remove(ticketTypeId);
+
+        if (drift < 0 && leaseManager.isEnabled()) {
+            // Stock missing from Redis may sit in another node's lease; adding it back could oversell
+            logger.warn("Inventory for ticket type: {} is {} below the database, not corrected while leasing is on",
+                       ticketTypeId, -drift);
+            skippedCounter.increment();
+            return Outcome.SKIPPED;
+        }
+
+        if (!inventoryService.compareAndAdjustInventory(ticketTypeId, snapshot, -drift)) {
+            skippedCounter.increment();
+            return Outcome.SKIPPED;
+        }
+
+        (drift < 0 ? correctedUp : correctedDown).increment();
+        logger.warn("Corrected inventory drift of {} for ticket type: {}. Redis: {}, Expected: {}",
+                   drift, ticketTypeId, observed, expected);
+        return Outcome.CORRECTED;
+    }
+
+    private enum Outcome {
+        IN_SYNC, PENDING, CORRECTED, SKIPPED, RESTORED
+    }
+
+    private static final class PendingDrift {
+        private final InventorySnapshot snapshot;
+        private final int drift;
+        private final int passes;
+
+        private PendingDrift(InventorySnapshot snapshot, int drift, int passes) {
+            this.snapshot = snapshot;
+            this.drift = drift;
+            this.passes = passes;
+        }
+
+        /**
+         * Same drift over untouched counters, so no reservation was in flight between the passes
+         */
+        private boolean matches(InventorySnapshot current, int currentDrift) {
+            return drift == currentDrift && snapshot.equals(current);
+        }
+    }
+}
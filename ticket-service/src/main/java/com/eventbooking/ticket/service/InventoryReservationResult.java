@@ -0,0 +1,55 @@
+package com.eventbooking.ticket.service;
+
+/**
+ * Outcome of an inventory reservation attempt, including the stock left after it
+ */
+public class InventoryReservationResult {
+
+    private final boolean reserved;
+    private final int remaining;
+    private final Integer alreadyHeld;
+
+    private InventoryReservationResult(boolean reserved, int remaining, Integer alreadyHeld) {
+        this.reserved = reserved;
+        this.remaining = remaining;
+        this.alreadyHeld = alreadyHeld;
+    }
+
+    public static InventoryReservationResult reserved(int remaining) {
+        return new InventoryReservationResult(true, remaining, null);
+    }
+
+    public static InventoryReservationResult insufficient(int remaining) {
+        return new InventoryReservationResult(false, remaining, null);
+    }
+
+    /**
+     * The user already holds enough tickets that this request would exceed the per-person limit
+     */
+    public static InventoryReservationResult limitExceeded(int alreadyHeld) {
+        return new InventoryReservationResult(false, 0, alreadyHeld);
+    }
+
+    public boolean isReserved() {
+        return reserved;
+    }
+
+    public boolean isLimitExceeded() {
+        return alreadyHeld != null;
+    }
+
+    /**
+     * Tickets the user already held when the per-person limit was hit
+     */
+    public int getAlreadyHeld() {
+        return alreadyHeld != null ? alreadyHeld : 0;
+    }
+
+    /**
+     * Tickets still available after the attempt. For sharded ticket types a successful
+     * reservation reports only the remainder of the shard that served it.
+     */
+    public int getRemaining() {
+        return remaining;
+    }
+}
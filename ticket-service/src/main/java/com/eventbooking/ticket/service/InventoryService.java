@@ -1,5 +1,6 @@
 package com.eventbooking.ticket.service;
 
+import java.util.Map;
 import java.util.UUID;
 
 public interface InventoryService {
@@ -10,25 +11,66 @@ public interface InventoryService {
     Integer getAvailableQuantity(UUID ticketTypeId);
     
     /**
-     * Reserve tickets in Redis cache
+     * Reserve tickets in Redis cache in a single atomic check-and-decrement.
+     * The result carries the remaining quantity whether or not the reservation succeeded.
+     * For sharded ticket types the user id picks the preferred shard; it may be null.
+     * When a per-person limit is given, the tickets the user holds are counted in the same
+     * script and a request that would exceed the limit is rejected.
      */
-    boolean reserveTickets(UUID ticketTypeId, Integer quantity);
+    InventoryReservationResult reserveTickets(UUID ticketTypeId, UUID userId, Integer quantity,
+                                              Integer perPersonLimit);
+    
+    /**
+     * Reserve several ticket types in one atomic operation: either every quantity is
+     * reserved or nothing is. Node-local leases are not used for carts.
+     */
+    CartReservationResult reserveCart(UUID userId, Map<UUID, Integer> quantities,
+                                      Map<UUID, Integer> perPersonLimits);
     
     /**
      * Release reserved tickets back to inventory
      */
     void releaseReservation(UUID ticketTypeId, Integer quantity);
     
+    /**
+     * Release a user's reserved tickets back to inventory and to their per-person allowance
+     */
+    void releaseReservation(UUID ticketTypeId, UUID userId, Integer quantity);
+    
+    /**
+     * Give back per-person allowance for several users of one ticket type in a single call
+     */
+    void releaseUserAllowances(UUID ticketTypeId, Map<UUID, Integer> quantitiesByUser);
+    
     /**
      * Confirm ticket purchase and update sold count
      */
     void confirmPurchase(UUID ticketTypeId, Integer quantity);
     
     /**
-     * Sync inventory from database to Redis
+     * Sync inventory from database to Redis. While the ticket type is on sale existing
+     * counters are left alone and only missing ones are created, since a blind overwrite
+     * would resurrect stock held by in-flight reservations. Missing shards share whatever the
+     * database total leaves after the surviving shards.
      */
     void syncInventoryFromDatabase(UUID ticketTypeId);
     
+    /**
+     * Add (or with a negative delta remove) stock on the live counters without resetting them
+     */
+    void adjustInventory(UUID ticketTypeId, int delta);
+    
+    /**
+     * Read every counter of a ticket type, or null when any of them is missing
+     */
+    InventorySnapshot snapshotInventory(UUID ticketTypeId);
+    
+    /**
+     * Apply a delta to the counters only if they still hold the snapshot's values.
+     * Returns false when a reservation moved them or they disappeared in the meantime.
+     */
+    boolean compareAndAdjustInventory(UUID ticketTypeId, InventorySnapshot observed, int delta);
+    
     /**
      * Clear inventory cache for a ticket type
      */
@@ -6,100 +6,662 @@ import com.eventbooking.ticket.repository.TicketTypeRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 
 @Service
 public class InventoryServiceImpl implements InventoryService {
-    
+
     private static final Logger logger = LoggerFactory.getLogger(InventoryServiceImpl.class);
     private static final String INVENTORY_KEY_PREFIX = "inventory:";
+    private static final String SOLD_KEY_SUFFIX = ":sold";
+    private static final String SHARD_COUNT_KEY_SUFFIX = ":shards";
+    private static final String USER_KEY_SEGMENT = ":user:";
     private static final long CACHE_TTL_HOURS = 24;
-    
+
+    private static final long STATUS_RESERVED = 1;
+    private static final long STATUS_MISSING = -1;
+    private static final long STATUS_LIMIT_EXCEEDED = -2;
+    private static final long NO_LIMIT = -1;
+
+    // Check-and-decrement runs server side so a rejected reserve costs one round trip
+    // and the counter never goes negative
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> RESERVE_SCRIPT = loadScript("scripts/reserve_inventory.lua", List.class);
+    private static final RedisScript<List> TAKE_SCRIPT = loadScript("scripts/take_inventory.lua", List.class);
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> LEASE_SCRIPT = loadScript("scripts/lease_inventory.lua", List.class);
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> CART_SCRIPT = loadScript("scripts/reserve_cart.lua", List.class);
+    private static final RedisScript<Long> RELEASE_SCRIPT = loadScript("scripts/release_inventory.lua", Long.class);
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> CLAIM_ALLOWANCE_SCRIPT =
+        loadScript("scripts/claim_user_allowance.lua", List.class);
+    private static final RedisScript<Long> RELEASE_ALLOWANCES_SCRIPT =
+        loadScript("scripts/release_user_allowances.lua", Long.class);
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> CONFIRM_SCRIPT = loadScript("scripts/confirm_inventory.lua", List.class);
+    private static final RedisScript<Long> RECONCILE_SCRIPT = loadScript("scripts/reconcile_inventory.lua", Long.class);
+    private static final RedisScript<Long> FILL_SCRIPT = loadScript("scripts/fill_inventory.lua", Long.class);
+
     private final RedisTemplate<String, Object> redisTemplate;
     private final TicketTypeRepository ticketTypeRepository;
-    
+    private final InventoryLeaseManager leaseManager;
+    private final AvailabilityChangeTracker changeTracker;
+    private final InventoryLeaseManager.LeaseSource leaseSource = new RedisLeaseSource();
+
+    // Shard layout never changes after a ticket type is created, so it is cached for the process lifetime
+    private final Map<UUID, Integer> shardCounts = new ConcurrentHashMap<>();
+
+    // Keys of different ticket types live in different hash slots on a cluster
+    @Value("${ticket.inventory.redis-cluster:false}")
+    private boolean redisCluster;
+
     @Autowired
     public InventoryServiceImpl(
             RedisTemplate<String, Object> redisTemplate,
-            TicketTypeRepository ticketTypeRepository) {
+            TicketTypeRepository ticketTypeRepository,
+            InventoryLeaseManager leaseManager,
+            AvailabilityChangeTracker changeTracker) {
         this.redisTemplate = redisTemplate;
         this.ticketTypeRepository = ticketTypeRepository;
+        this.leaseManager = leaseManager;
+        this.changeTracker = changeTracker;
     }
-    
+
     @Override
     public Integer getAvailableQuantity(UUID ticketTypeId) {
-        String key = getInventoryKey(ticketTypeId);
-        Object value = redisTemplate.opsForValue().get(key);
-        
-        if (value == null) {
-            // Cache miss - sync from database
-            syncInventoryFromDatabase(ticketTypeId);
-            value = redisTemplate.opsForValue().get(key);
+        Integer available = readAvailable(ticketTypeId);
+
+        if (available == null) {
+            // Cache miss - resolve shard layout or sync from database
+            recoverMissingCounter(ticketTypeId);
+            available = readAvailable(ticketTypeId);
         }
-        
-        return value != null ? (Integer) value : 0;
+
+        return available != null ? available : 0;
     }
-    
+
     @Override
-    public boolean reserveTickets(UUID ticketTypeId, Integer quantity) {
-        String key = getInventoryKey(ticketTypeId);
-        
-        // Use Redis decrement operation for atomic inventory update
-        Long newValue = redisTemplate.opsForValue().decrement(key, quantity);
-        
-        if (newValue == null || newValue < 0) {
-            // Not enough inventory - rollback
-            if (newValue != null) {
-                redisTemplate.opsForValue().increment(key, quantity);
+    public InventoryReservationResult reserveTickets(UUID ticketTypeId, UUID userId, Integer quantity,
+                                                     Integer perPersonLimit) {
+        String userKey = userId != null && perPersonLimit != null ? getUserKey(ticketTypeId, userId) : null;
+
+        if (leaseManager.isEnabled() && userKey == null) {
+            // Served from this node's lease without touching the shared counter when it has capacity
+            InventoryReservationResult leased = leaseManager.reserve(ticketTypeId, quantity, leaseSource);
+            if (leased != null) {
+                return leased;
+            }
+        }
+
+        InventoryReservationResult result = tryReserve(ticketTypeId, userId, userKey, quantity, perPersonLimit);
+
+        // A miss may only mean this node has not learned the shard layout yet, so recover at most twice
+        for (int attempt = 0; result == null && attempt < 2; attempt++) {
+            recoverMissingCounter(ticketTypeId);
+            result = tryReserve(ticketTypeId, userId, userKey, quantity, perPersonLimit);
+        }
+        if (result == null) {
+            result = InventoryReservationResult.insufficient(0);
+        }
+
+        if (result.isLimitExceeded()) {
+            logger.warn("Per-person limit reached for user: {} on ticket type: {}. Requested: {}, Held: {}",
+                       userId, ticketTypeId, quantity, result.getAlreadyHeld());
+            return result;
+        }
+        if (leaseManager.isEnabled()) {
+            leaseManager.recordRemaining(ticketTypeId, result.getRemaining());
+        }
+
+        if (!result.isReserved()) {
+            logger.warn("Insufficient inventory for ticket type: {}. Requested: {}, Available: {}",
+                       ticketTypeId, quantity, result.getRemaining());
+            return result;
+        }
+
+        changeTracker.markChanged(ticketTypeId);
+        logger.info("Reserved {} tickets for ticket type: {}. Remaining: {}",
+                   quantity, ticketTypeId, result.getRemaining());
+        return result;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public CartReservationResult reserveCart(UUID userId, Map<UUID, Integer> quantities,
+                                             Map<UUID, Integer> perPersonLimits) {
+        if (redisCluster && quantities.size() > 1) {
+            return reserveCartPerItem(userId, quantities, perPersonLimits);
+        }
+        List<UUID> ticketTypeIds = new ArrayList<>(quantities.keySet());
+
+        for (int attempt = 0; ; attempt++) {
+            List<String> keys = new ArrayList<>();
+            List<Object> args = new ArrayList<>();
+            for (UUID ticketTypeId : ticketTypeIds) {
+                // Each item is its user key followed by every shard, preferred one first
+                int shards = knownShardCount(ticketTypeId);
+                int preferred = shards == 1 ? 0 : preferredShard(userId, shards);
+                keys.add(getUserKey(ticketTypeId, userId));
+                for (int offset = 0; offset < shards; offset++) {
+                    keys.add(getCounterKey(ticketTypeId, (preferred + offset) % shards));
+                }
+                Integer limit = perPersonLimits.get(ticketTypeId);
+                args.add(shards);
+                args.add(quantities.get(ticketTypeId));
+                args.add(limit != null ? limit.longValue() : NO_LIMIT);
+                args.add(userCounterTtlSeconds());
+            }
+
+            List<Long> result = redisTemplate.execute(CART_SCRIPT, keys, args.toArray());
+            if (result == null) {
+                result = List.of(STATUS_MISSING, 1L);
             }
-            logger.warn("Insufficient inventory for ticket type: {}. Requested: {}, Available: {}", 
-                       ticketTypeId, quantity, newValue != null ? newValue + quantity : 0);
-            return false;
+
+            if (result.get(0) == STATUS_RESERVED) {
+                changeTracker.markChanged(ticketTypeIds);
+                logger.info("Reserved cart of {} ticket types for user: {}", ticketTypeIds.size(), userId);
+                return CartReservationResult.reserved();
+            }
+
+            UUID ticketTypeId = ticketTypeIds.get(result.get(1).intValue() - 1);
+            if (result.get(0) == STATUS_MISSING) {
+                if (attempt < 2) {
+                    recoverMissingCounter(ticketTypeId);
+                    continue;
+                }
+                return CartReservationResult.insufficient(ticketTypeId, 0);
+            }
+            if (result.get(0) == STATUS_LIMIT_EXCEEDED) {
+                logger.warn("Per-person limit reached for user: {} on ticket type: {} in cart. Held: {}",
+                           userId, ticketTypeId, result.get(2));
+                return CartReservationResult.limitExceeded(ticketTypeId, result.get(2).intValue());
+            }
+
+            logger.warn("Insufficient inventory for cart of user: {}. Ticket type: {}, Requested: {}, Available: {}",
+                       userId, ticketTypeId, quantities.get(ticketTypeId), result.get(2));
+            return CartReservationResult.insufficient(ticketTypeId, result.get(2).intValue());
         }
-        
-        logger.info("Reserved {} tickets for ticket type: {}. Remaining: {}", 
-                   quantity, ticketTypeId, newValue);
-        return true;
     }
-    
+
+    /**
+     * Cart reservation on Redis Cluster, where one script cannot touch several ticket types.
+     * Items are reserved one at a time and those already taken are released when a later one
+     * fails, so the cart stays all-or-nothing, although other requests may briefly see the stock
+     * of a cart that ends up rejected.
+     */
+    private CartReservationResult reserveCartPerItem(UUID userId, Map<UUID, Integer> quantities,
+                                                     Map<UUID, Integer> perPersonLimits) {
+        Map<UUID, Integer> reserved = new LinkedHashMap<>();
+        for (Map.Entry<UUID, Integer> item : quantities.entrySet()) {
+            UUID ticketTypeId = item.getKey();
+            InventoryReservationResult result = reserveTickets(ticketTypeId, userId, item.getValue(),
+                perPersonLimits.get(ticketTypeId));
+            if (!result.isReserved()) {
+                reserved.forEach((id, quantity) ->
+                    releaseReservation(id, perPersonLimits.get(id) != null ? userId : null, quantity));
+                return result.isLimitExceeded()
+                    ? CartReservationResult.limitExceeded(ticketTypeId, result.getAlreadyHeld())
+                    : CartReservationResult.insufficient(ticketTypeId, result.getRemaining());
+            }
+            reserved.put(ticketTypeId, item.getValue());
+        }
+        logger.info("Reserved cart of {} ticket types item by item for user: {}", quantities.size(), userId);
+        return CartReservationResult.reserved();
+    }
+
     @Override
     public void releaseReservation(UUID ticketTypeId, Integer quantity) {
-        String key = getInventoryKey(ticketTypeId);
-        redisTemplate.opsForValue().increment(key, quantity);
-        logger.info("Released {} tickets for ticket type: {}", quantity, ticketTypeId);
+        releaseReservation(ticketTypeId, null, quantity);
     }
-    
+
+    @Override
+    public void releaseReservation(UUID ticketTypeId, UUID userId, Integer quantity) {
+        String userKey = userId != null ? getUserKey(ticketTypeId, userId) : null;
+        Long newValue = executeRelease(ticketTypeId, userKey, quantity);
+
+        if ((newValue == null || newValue < 0) && !shardCounts.containsKey(ticketTypeId)) {
+            // The counter may live on shards this node has not learned about yet.
+            // The user's allowance was already given back by the first attempt.
+            if (resolveShardCountFromCache(ticketTypeId) > 1) {
+                newValue = executeRelease(ticketTypeId, null, quantity);
+            }
+        }
+
+        if (newValue == null || newValue < 0) {
+            logger.info("Inventory cache missing for ticket type: {}. Release of {} tickets deferred to next sync",
+                       ticketTypeId, quantity);
+            return;
+        }
+        changeTracker.markChanged(ticketTypeId);
+        logger.info("Released {} tickets for ticket type: {}. Available: {}", quantity, ticketTypeId, newValue);
+    }
+
+    @Override
+    public void releaseUserAllowances(UUID ticketTypeId, Map<UUID, Integer> quantitiesByUser) {
+        if (quantitiesByUser.isEmpty()) {
+            return;
+        }
+
+        List<String> keys = new ArrayList<>(quantitiesByUser.size());
+        List<Object> args = new ArrayList<>(quantitiesByUser.size());
+        quantitiesByUser.forEach((userId, quantity) -> {
+            keys.add(getUserKey(ticketTypeId, userId));
+            args.add(quantity);
+        });
+        redisTemplate.execute(RELEASE_ALLOWANCES_SCRIPT, keys, args.toArray());
+    }
+
     @Override
+    @SuppressWarnings("unchecked")
     public void confirmPurchase(UUID ticketTypeId, Integer quantity) {
-        // Inventory already decremented during reservation
-        // This method can be used for additional tracking or logging
-        logger.info("Confirmed purchase of {} tickets for ticket type: {}", quantity, ticketTypeId);
+        // Inventory already decremented during reservation, only the sold counter moves here
+        List<Long> result = redisTemplate.execute(CONFIRM_SCRIPT,
+            List.of(getCounterKey(ticketTypeId, 0), getSoldKey(ticketTypeId)),
+            quantity, TimeUnit.HOURS.toSeconds(CACHE_TTL_HOURS));
+
+        logger.info("Confirmed purchase of {} tickets for ticket type: {}. Sold: {}",
+                   quantity, ticketTypeId, result != null ? result.get(0) : null);
     }
-    
+
     @Override
     public void syncInventoryFromDatabase(UUID ticketTypeId) {
         TicketType ticketType = ticketTypeRepository.findById(ticketTypeId)
             .orElseThrow(() -> new TicketTypeNotFoundException(ticketTypeId));
-        
+
+        int shards = shardCountOf(ticketType);
+        shardCounts.put(ticketTypeId, shards);
+
         Integer availableQuantity = ticketType.getAvailableQuantity();
-        String key = getInventoryKey(ticketTypeId);
-        
-        redisTemplate.opsForValue().set(key, availableQuantity, CACHE_TTL_HOURS, TimeUnit.HOURS);
-        logger.info("Synced inventory for ticket type: {}. Available: {}", ticketTypeId, availableQuantity);
+        // During a live sale the counters may be ahead of the database, so only fill gaps
+        boolean onSale = ticketType.isOnSale();
+        boolean written;
+
+        if (onSale) {
+            // Missing shards get what the database total leaves after the surviving ones
+            Long created = redisTemplate.execute(FILL_SCRIPT, getCounterKeys(ticketTypeId, shards),
+                availableQuantity, TimeUnit.HOURS.toSeconds(CACHE_TTL_HOURS));
+            written = created != null && created > 0;
+        } else {
+            // Spread stock evenly, giving the remainder to the lowest shards
+            for (int shard = 0; shard < shards; shard++) {
+                int portion = availableQuantity / shards + (shard < availableQuantity % shards ? 1 : 0);
+                redisTemplate.opsForValue().set(getCounterKey(ticketTypeId, shard), portion,
+                    CACHE_TTL_HOURS, TimeUnit.HOURS);
+            }
+            written = true;
+        }
+        redisTemplate.opsForValue().set(getShardCountKey(ticketTypeId), shards, CACHE_TTL_HOURS, TimeUnit.HOURS);
+
+        if (written) {
+            // The database does not know about leased stock, so a lease held here would be counted twice
+            leaseManager.discard(ticketTypeId);
+            changeTracker.markChanged(ticketTypeId);
+        }
+
+        logger.info("Synced inventory for ticket type: {}. Available: {}, Shards: {}, On sale: {}, Written: {}",
+                   ticketTypeId, availableQuantity, shards, onSale, written);
+    }
+
+    @Override
+    public void adjustInventory(UUID ticketTypeId, int delta) {
+        if (delta == 0) {
+            return;
+        }
+        // A missing counter is skipped; the next sync rebuilds it from the already updated row
+        Long newValue = executeRelease(ticketTypeId, null, delta);
+        changeTracker.markChanged(ticketTypeId);
+        logger.info("Adjusted inventory for ticket type: {} by {}. Counter: {}", ticketTypeId, delta, newValue);
+    }
+
+    @Override
+    public InventorySnapshot snapshotInventory(UUID ticketTypeId) {
+        int shards = resolveShardCountFromCache(ticketTypeId);
+        List<Integer> counts = readCounters(ticketTypeId, shards);
+        return counts != null ? new InventorySnapshot(counts) : null;
+    }
+
+    @Override
+    public boolean compareAndAdjustInventory(UUID ticketTypeId, InventorySnapshot observed, int delta) {
+        List<Object> args = new ArrayList<>(observed.getCounters().size() + 2);
+        args.add(delta);
+        args.add(TimeUnit.HOURS.toSeconds(CACHE_TTL_HOURS));
+        args.addAll(observed.getCounters());
+
+        Long result = redisTemplate.execute(RECONCILE_SCRIPT,
+            getCounterKeys(ticketTypeId, observed.getCounters().size()), args.toArray());
+        if (result != null && result == 1) {
+            changeTracker.markChanged(ticketTypeId);
+            return true;
+        }
+        return false;
     }
-    
+
     @Override
     public void clearInventoryCache(UUID ticketTypeId) {
-        String key = getInventoryKey(ticketTypeId);
-        redisTemplate.delete(key);
+        List<String> keys = new ArrayList<>(getCounterKeys(ticketTypeId, knownShardCount(ticketTypeId)));
+        keys.add(getShardCountKey(ticketTypeId));
+        keys.add(getSoldKey(ticketTypeId));
+
+        redisTemplate.delete(keys);
+        shardCounts.remove(ticketTypeId);
+        leaseManager.discard(ticketTypeId);
         logger.info("Cleared inventory cache for ticket type: {}", ticketTypeId);
     }
-    
+
+    /**
+     * Attempt a reservation against the known shard layout.
+     * Returns null when a counter is missing from Redis.
+     */
+    private InventoryReservationResult tryReserve(UUID ticketTypeId, UUID userId, String userKey,
+                                                  Integer quantity, Integer perPersonLimit) {
+        int shards = knownShardCount(ticketTypeId);
+        if (shards == 1) {
+            return toResult(executeReserve(getCounterKey(ticketTypeId, 0), userKey, quantity, perPersonLimit));
+        }
+
+        // Start on the shard the user hashes to so load spreads across sub-counters
+        int preferred = preferredShard(userId, shards);
+        InventoryReservationResult result = toResult(
+            executeReserve(getCounterKey(ticketTypeId, preferred), userKey, quantity, perPersonLimit));
+        if (result == null || result.isReserved() || result.isLimitExceeded()) {
+            return result;
+        }
+
+        // Preferred shard is short - look at all siblings in one MGET before trying them
+        List<Integer> counts = readCounters(ticketTypeId, shards);
+        if (counts == null) {
+            return null;
+        }
+        int total = counts.stream().mapToInt(Integer::intValue).sum();
+        if (total < quantity) {
+            return InventoryReservationResult.insufficient(total);
+        }
+
+        for (int offset = 1; offset < shards; offset++) {
+            int shard = (preferred + offset) % shards;
+            if (counts.get(shard) < quantity) {
+                continue;
+            }
+            result = toResult(executeReserve(getCounterKey(ticketTypeId, shard), userKey, quantity, perPersonLimit));
+            if (result == null || result.isReserved() || result.isLimitExceeded()) {
+                return result;
+            }
+        }
+
+        // No single shard can cover the request - gather it from several
+        if (userKey != null) {
+            InventoryReservationResult claim = claimAllowance(userKey, quantity, perPersonLimit);
+            if (claim != null) {
+                return claim;
+            }
+        }
+        InventoryReservationResult gathered = gatherAcrossShards(ticketTypeId, counts, preferred, quantity);
+        if (!gathered.isReserved() && userKey != null) {
+            giveBackAllowance(userKey, quantity);
+        }
+        return gathered;
+    }
+
+    /**
+     * Count the quantity against the user's allowance. Returns null when claimed,
+     * otherwise the limit-exceeded result.
+     */
+    @SuppressWarnings("unchecked")
+    private InventoryReservationResult claimAllowance(String userKey, Integer quantity, Integer perPersonLimit) {
+        List<Long> result = redisTemplate.execute(CLAIM_ALLOWANCE_SCRIPT, Collections.singletonList(userKey),
+            quantity, perPersonLimit, userCounterTtlSeconds());
+        if (result != null && result.get(0) == 0) {
+            return InventoryReservationResult.limitExceeded(result.get(1).intValue());
+        }
+        return null;
+    }
+
+    private void giveBackAllowance(String userKey, Integer quantity) {
+        redisTemplate.execute(RELEASE_ALLOWANCES_SCRIPT, Collections.singletonList(userKey), quantity);
+    }
+
+    /**
+     * Take the quantity from several shards, starting at the preferred one
+     * @param counts Counter values read just before, used as the remaining stock of shards not visited
+     */
+    @SuppressWarnings("unchecked")
+    private InventoryReservationResult gatherAcrossShards(UUID ticketTypeId, List<Integer> counts, int preferred,
+                                                          int quantity) {
+        int shards = counts.size();
+        int[] taken = new int[shards];
+        int[] left = counts.stream().mapToInt(Integer::intValue).toArray();
+        int needed = quantity;
+
+        for (int offset = 0; offset < shards && needed > 0; offset++) {
+            int shard = (preferred + offset) % shards;
+            List<Long> result = redisTemplate.execute(TAKE_SCRIPT,
+                Collections.singletonList(getCounterKey(ticketTypeId, shard)), needed);
+            if (result != null && result.get(0) >= 0) {
+                taken[shard] = result.get(0).intValue();
+                left[shard] = result.get(1).intValue();
+                needed -= taken[shard];
+            }
+        }
+
+        if (needed == 0) {
+            // Block sizing of leases follows this, so report what the shards actually hold
+            return InventoryReservationResult.reserved(Arrays.stream(left).sum());
+        }
+
+        // Could not gather enough - give back what was taken
+        for (int shard = 0; shard < shards; shard++) {
+            if (taken[shard] > 0) {
+                redisTemplate.execute(RELEASE_SCRIPT,
+                    Collections.singletonList(getCounterKey(ticketTypeId, shard)), taken[shard]);
+            }
+        }
+        return InventoryReservationResult.insufficient(quantity - needed);
+    }
+
+    /**
+     * Called after a counter miss: learn the shard layout from Redis if another node published it,
+     * otherwise rebuild the counters from the database.
+     */
+    private void recoverMissingCounter(UUID ticketTypeId) {
+        Integer previous = shardCounts.get(ticketTypeId);
+        int resolved = resolveShardCountFromCache(ticketTypeId);
+
+        if (previous == null && resolved > 1) {
+            // Layout was unknown locally; retry against the shards before touching the database
+            return;
+        }
+        syncInventoryFromDatabase(ticketTypeId);
+    }
+
+    private int resolveShardCountFromCache(UUID ticketTypeId) {
+        Object value = redisTemplate.opsForValue().get(getShardCountKey(ticketTypeId));
+        if (value == null) {
+            return knownShardCount(ticketTypeId);
+        }
+        int shards = ((Number) value).intValue();
+        shardCounts.put(ticketTypeId, shards);
+        return shards;
+    }
+
+    /**
+     * Sum of all shard counters, or null when any of them is missing
+     */
+    private Integer readAvailable(UUID ticketTypeId) {
+        int shards = knownShardCount(ticketTypeId);
+        if (shards == 1) {
+            Object value = redisTemplate.opsForValue().get(getCounterKey(ticketTypeId, 0));
+            return value != null ? ((Number) value).intValue() : null;
+        }
+
+        List<Integer> counts = readCounters(ticketTypeId, shards);
+        return counts != null ? counts.stream().mapToInt(Integer::intValue).sum() : null;
+    }
+
+    private List<Integer> readCounters(UUID ticketTypeId, int shards) {
+        List<Object> values = redisTemplate.opsForValue().multiGet(getCounterKeys(ticketTypeId, shards));
+        if (values == null) {
+            return null;
+        }
+
+        List<Integer> counts = new ArrayList<>(shards);
+        for (Object value : values) {
+            if (value == null) {
+                return null;
+            }
+            counts.add(((Number) value).intValue());
+        }
+        return counts;
+    }
+
+    private Long executeRelease(UUID ticketTypeId, String userKey, Integer quantity) {
+        int shards = knownShardCount(ticketTypeId);
+        // Any shard can take returned stock; pick one at random to keep them balanced
+        int shard = shards == 1 ? 0 : ThreadLocalRandom.current().nextInt(shards);
+        String counterKey = getCounterKey(ticketTypeId, shard);
+        List<String> keys = userKey != null ? List.of(counterKey, userKey) : Collections.singletonList(counterKey);
+        return redisTemplate.execute(RELEASE_SCRIPT, keys, quantity);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Long> executeReserve(String key, String userKey, Integer quantity, Integer perPersonLimit) {
+        List<Long> result = userKey == null
+            ? redisTemplate.execute(RESERVE_SCRIPT, Collections.singletonList(key), quantity)
+            : redisTemplate.execute(RESERVE_SCRIPT, List.of(key, userKey),
+                quantity, perPersonLimit, userCounterTtlSeconds());
+        return result != null ? result : List.of(STATUS_MISSING, 0L);
+    }
+
+    private InventoryReservationResult toResult(List<Long> result) {
+        if (result.get(0) == STATUS_MISSING) {
+            return null;
+        }
+        if (result.get(0) == STATUS_LIMIT_EXCEEDED) {
+            return InventoryReservationResult.limitExceeded(result.get(1).intValue());
+        }
+        int remaining = result.get(1).intValue();
+        return result.get(0) == STATUS_RESERVED
+            ? InventoryReservationResult.reserved(remaining)
+            : InventoryReservationResult.insufficient(remaining);
+    }
+
+    /**
+     * Shared stock implied by one counter's remainder, scaled up for sharded ticket types
+     */
+    private int estimateTotal(UUID ticketTypeId, int counterRemaining) {
+        return counterRemaining * knownShardCount(ticketTypeId);
+    }
+
+    private int knownShardCount(UUID ticketTypeId) {
+        return shardCounts.getOrDefault(ticketTypeId, 1);
+    }
+
+    private int preferredShard(UUID userId, int shards) {
+        if (userId == null) {
+            return ThreadLocalRandom.current().nextInt(shards);
+        }
+        return Math.floorMod(userId.hashCode(), shards);
+    }
+
+    private static int shardCountOf(TicketType ticketType) {
+        Integer shards = ticketType.getInventoryShards();
+        return shards != null && shards > 1 ? shards : 1;
+    }
+
+    /**
+     * The ticket type id is a hash tag, so every key of a ticket type (counters, sold, shard
+     * layout, user allowances) lands in one Redis Cluster slot and the scripts may combine them
+     */
     private String getInventoryKey(UUID ticketTypeId) {
-        return INVENTORY_KEY_PREFIX + ticketTypeId.toString();
+        return INVENTORY_KEY_PREFIX + "{" + ticketTypeId + "}";
+    }
+
+    /**
+     * Unsharded ticket types keep the single inventory:{id} key; sharded ones use inventory:{id}:{shard}
+     */
+    private String getCounterKey(UUID ticketTypeId, int shard) {
+        if (knownShardCount(ticketTypeId) == 1) {
+            return getInventoryKey(ticketTypeId);
+        }
+        return getInventoryKey(ticketTypeId) + ":" + shard;
+    }
+
+    private List<String> getCounterKeys(UUID ticketTypeId, int shards) {
+        List<String> keys = new ArrayList<>(shards);
+        for (int shard = 0; shard < shards; shard++) {
+            keys.add(getCounterKey(ticketTypeId, shard));
+        }
+        return keys;
+    }
+
+    private String getShardCountKey(UUID ticketTypeId) {
+        return getInventoryKey(ticketTypeId) + SHARD_COUNT_KEY_SUFFIX;
+    }
+
+    private String getSoldKey(UUID ticketTypeId) {
+        return getInventoryKey(ticketTypeId) + SOLD_KEY_SUFFIX;
+    }
+
+    /**
+     * Tickets a user currently holds against the per-person limit of a ticket type
+     */
+    private String getUserKey(UUID ticketTypeId, UUID userId) {
+        return getInventoryKey(ticketTypeId) + USER_KEY_SEGMENT + userId;
+    }
+
+    private static long userCounterTtlSeconds() {
+        return TimeUnit.HOURS.toSeconds(CACHE_TTL_HOURS);
+    }
+
+    /**
+     * Leases blocks from a single counter; on a sharded type each block comes from a random shard
+     */
+    private class RedisLeaseSource implements InventoryLeaseManager.LeaseSource {
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public InventoryLeaseManager.LeaseGrant take(UUID ticketTypeId, int maxQuantity) {
+            int shards = knownShardCount(ticketTypeId);
+            int shard = shards == 1 ? 0 : ThreadLocalRandom.current().nextInt(shards);
+            List<Long> result = redisTemplate.execute(LEASE_SCRIPT,
+                Collections.singletonList(getCounterKey(ticketTypeId, shard)), maxQuantity);
+
+            if (result == null || result.get(0) == STATUS_MISSING) {
+                return null;
+            }
+            if (result.get(0) > 0) {
+                changeTracker.markChanged(ticketTypeId);
+            }
+            return new InventoryLeaseManager.LeaseGrant(result.get(0).intValue(),
+                estimateTotal(ticketTypeId, result.get(1).intValue()));
+        }
+
+        @Override
+        public void giveBack(UUID ticketTypeId, int quantity) {
+            releaseReservation(ticketTypeId, quantity);
+        }
+    }
+
+    private static <T> RedisScript<T> loadScript(String path, Class<T> resultType) {
+        DefaultRedisScript<T> script = new DefaultRedisScript<>();
+        script.setLocation(new ClassPathResource(path));
+        script.setResultType(resultType);
+        return script;
     }
 }
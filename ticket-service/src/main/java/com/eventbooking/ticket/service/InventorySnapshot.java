@@ -0,0 +1,46 @@
+package com.eventbooking.ticket.service;
+
+import java.util.List;
+
+/**
+ * Values of every Redis counter of a ticket type, read in one MGET, shard 0 first.
+ * Handed back to {@link InventoryService#compareAndAdjustInventory} so a correction only
+ * applies if none of the counters moved in between.
+ */
+public class InventorySnapshot {
+
+    private final List<Integer> counters;
+
+    public InventorySnapshot(List<Integer> counters) {
+        this.counters = List.copyOf(counters);
+    }
+
+    public List<Integer> getCounters() {
+        return counters;
+    }
+
+    public int getTotal() {
+        return counters.stream().mapToInt(Integer::intValue).sum();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof InventorySnapshot)) {
+            return false;
+        }
+        return counters.equals(((InventorySnapshot) o).counters);
+    }
+
+    @Override
+    public int hashCode() {
+        return counters.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "InventorySnapshot" + counters;
+    }
+}
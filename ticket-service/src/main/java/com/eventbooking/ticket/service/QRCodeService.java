@@ -1,14 +1,43 @@
 package com.eventbooking.ticket.service;
 
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
 public interface QRCodeService {
     
     /**
-     * Generate a QR code string for a ticket
+     * Build the compact signed content encoded in a ticket's QR code. This is what gets stored
+     * on the ticket and scanned at the gate; the image is rendered from it on demand.
+     * @param ticketId The unique ticket identifier
+     * @param eventId The event the ticket admits to, whose key signs the payload
+     * @return QR code payload
+     */
+    String buildPayload(UUID ticketId, UUID eventId);
+    
+    /**
+     * Verify a scanned payload's signature and extract the ticket it was issued for
+     * @param qrCodeData The scanned QR code data
+     * @return The ticket ID, or null if the payload is malformed or not signed by us
+     */
+    UUID resolveTicketId(String qrCodeData);
+    
+    /**
+     * Render the PNG image for a QR code payload on the rendering pool.
+     * Images are cached, and concurrent requests for the same payload share one render.
+     * The future fails with a RejectedExecutionException when the pool is saturated.
+     * @param payload The payload returned by {@link #buildPayload}
+     * @return Handle completing with the PNG bytes
+     */
+    CompletableFuture<byte[]> renderQRCode(String payload);
+    
+    /**
+     * Generate a QR code string for a ticket, rendering the image on the calling thread
      * @param ticketId The unique ticket identifier
+     * @param eventId The event the ticket admits to
      * @param ticketNumber The ticket number
      * @return Base64 encoded QR code image
      */
-    String generateQRCode(String ticketId, String ticketNumber);
+    String generateQRCode(String ticketId, UUID eventId, String ticketNumber);
     
     /**
      * Validate a QR code
@@ -16,4 +45,12 @@ public interface QRCodeService {
      * @return true if valid, false otherwise
      */
     boolean validateQRCode(String qrCodeData);
+    
+    /**
+     * Key the payload signatures of one event's tickets are made with, for the event's scanners
+     * to validate offline. It cannot sign tickets of any other event.
+     * @param eventId The event identifier
+     * @return Raw HMAC key bytes
+     */
+    byte[] getEventSigningKey(UUID eventId);
 }
@@ -5,53 +5,291 @@ import com.google.zxing.WriterException;
 import com.google.zxing.client.j2se.MatrixToImageWriter;
 import com.google.zxing.common.BitMatrix;
 import com.google.zxing.qrcode.QRCodeWriter;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Arrays;
 import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * QR payloads are "TK2." followed by the base64url encoding of the 16 byte ticket id, the 16
+ * byte event id and a truncated HMAC-SHA256 of both: 63 ASCII characters, fixed size. The HMAC
+ * key is derived per event from the signing secret, so the key handed to an event's offline
+ * scanners can only sign tickets of that event and the secret itself never leaves the service.
+ * Gates verify the signature before touching the database and then look the ticket up by
+ * primary key. Images are never stored; they are rendered from the payload on demand.
+ *
+ * Payloads of the earlier "TK1." format, signed with the secret itself, are still accepted here
+ * until the QR payload backfill has rewritten them; offline scanners cannot check them.
+ */
 @Service
 public class QRCodeServiceImpl implements QRCodeService {
-    
+
     private static final Logger logger = LoggerFactory.getLogger(QRCodeServiceImpl.class);
     private static final int QR_CODE_WIDTH = 300;
     private static final int QR_CODE_HEIGHT = 300;
-    
+    static final String PAYLOAD_PREFIX = "TK2.";
+    static final String LEGACY_PAYLOAD_PREFIX = "TK1.";
+    static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final int ID_BYTES = 16;
+    // 96 bits is far beyond what can be guessed at a gate
+    static final int SIGNATURE_BYTES = 12;
+    private static final int SIGNED_BYTES = 2 * ID_BYTES;
+    private static final int ENCODED_LENGTH = PAYLOAD_PREFIX.length()
+            + (4 * (SIGNED_BYTES + SIGNATURE_BYTES) + 2) / 3;
+    private static final int LEGACY_ENCODED_LENGTH = LEGACY_PAYLOAD_PREFIX.length()
+            + (4 * (ID_BYTES + SIGNATURE_BYTES) + 2) / 3;
+
+    @Value("${ticket.qr.render-threads:0}")
+    private int renderThreads;
+
+    @Value("${ticket.qr.queue-capacity:1000}")
+    private int queueCapacity = 1000;
+
+    @Value("${ticket.qr.cache-size:10000}")
+    private int cacheSize = 10000;
+
+    @Value("${ticket.qr.signing-secret:defaultQrSigningSecret1234567890}")
+    private String signingSecret = "defaultQrSigningSecret1234567890";
+
+    // Keyed with the signing secret; derives the event keys and checks legacy payloads
+    private final ThreadLocal<Mac> mac = ThreadLocal.withInitial(this::newMac);
+    // Re-keyed with an event key for every payload
+    private final ThreadLocal<Mac> eventMac = ThreadLocal.withInitial(QRCodeServiceImpl::newEventMac);
+
+    private ThreadPoolExecutor renderExecutor;
+
+    // Access-ordered LRU of rendered (or in-flight) images keyed by payload
+    private Map<String, CompletableFuture<byte[]>> imageCache;
+
+    @PostConstruct
+    public void init() {
+        // Rendering is CPU bound, so the pool is sized to the cores unless configured
+        int threads = renderThreads > 0 ? renderThreads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCount = new AtomicInteger();
+        renderExecutor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "qr-render-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        renderExecutor.allowCoreThreadTimeOut(true);
+
+        int capacity = cacheSize;
+        imageCache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CompletableFuture<byte[]>> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (renderExecutor != null) {
+            renderExecutor.shutdownNow();
+        }
+    }
+
+    @Override
+    public String buildPayload(UUID ticketId, UUID eventId) {
+        byte[] signed = ByteBuffer.allocate(SIGNED_BYTES)
+                .put(toBytes(ticketId))
+                .put(toBytes(eventId))
+                .array();
+        ByteBuffer payload = ByteBuffer.allocate(SIGNED_BYTES + SIGNATURE_BYTES);
+        payload.put(signed);
+        payload.put(signForEvent(eventId, signed));
+        return PAYLOAD_PREFIX + Base64.getUrlEncoder().withoutPadding().encodeToString(payload.array());
+    }
+
     @Override
-    public String generateQRCode(String ticketId, String ticketNumber) {
+    public UUID resolveTicketId(String qrCodeData) {
+        if (qrCodeData == null) {
+            return null;
+        }
+        if (qrCodeData.length() == ENCODED_LENGTH && qrCodeData.startsWith(PAYLOAD_PREFIX)) {
+            byte[] decoded = decode(qrCodeData, PAYLOAD_PREFIX, SIGNED_BYTES + SIGNATURE_BYTES);
+            if (decoded == null) {
+                return null;
+            }
+            byte[] signed = Arrays.copyOfRange(decoded, 0, SIGNED_BYTES);
+            byte[] signature = Arrays.copyOfRange(decoded, SIGNED_BYTES, decoded.length);
+            UUID eventId = toUuid(signed, ID_BYTES);
+            if (!MessageDigest.isEqual(signForEvent(eventId, signed), signature)) {
+                return null;
+            }
+            return toUuid(signed, 0);
+        }
+        if (qrCodeData.length() == LEGACY_ENCODED_LENGTH && qrCodeData.startsWith(LEGACY_PAYLOAD_PREFIX)) {
+            byte[] decoded = decode(qrCodeData, LEGACY_PAYLOAD_PREFIX, ID_BYTES + SIGNATURE_BYTES);
+            if (decoded == null) {
+                return null;
+            }
+            byte[] idBytes = Arrays.copyOfRange(decoded, 0, ID_BYTES);
+            byte[] signature = Arrays.copyOfRange(decoded, ID_BYTES, decoded.length);
+            byte[] expected = Arrays.copyOf(mac.get().doFinal(idBytes), SIGNATURE_BYTES);
+            if (!MessageDigest.isEqual(expected, signature)) {
+                return null;
+            }
+            return toUuid(idBytes, 0);
+        }
+        return null;
+    }
+
+    @Override
+    public CompletableFuture<byte[]> renderQRCode(String payload) {
+        CompletableFuture<byte[]> image;
+        synchronized (imageCache) {
+            image = imageCache.get(payload);
+            if (image != null) {
+                return image;
+            }
+            image = new CompletableFuture<>();
+            imageCache.put(payload, image);
+        }
+
+        CompletableFuture<byte[]> pending = image;
+        try {
+            renderExecutor.execute(() -> {
+                try {
+                    pending.complete(renderPng(payload));
+                } catch (RuntimeException e) {
+                    evict(payload, pending);
+                    pending.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            evict(payload, pending);
+            pending.completeExceptionally(e);
+        }
+        return pending;
+    }
+
+    @Override
+    public String generateQRCode(String ticketId, UUID eventId, String ticketNumber) {
         try {
             // Create QR code content with ticket information
-            String qrContent = String.format("TICKET:%s:%s", ticketId, ticketNumber);
-            
-            QRCodeWriter qrCodeWriter = new QRCodeWriter();
-            BitMatrix bitMatrix = qrCodeWriter.encode(qrContent, BarcodeFormat.QR_CODE, 
-                    QR_CODE_WIDTH, QR_CODE_HEIGHT);
-            
-            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-            MatrixToImageWriter.writeToStream(bitMatrix, "PNG", outputStream);
-            
-            byte[] qrCodeBytes = outputStream.toByteArray();
-            String base64QRCode = Base64.getEncoder().encodeToString(qrCodeBytes);
-            
+            String qrContent = buildPayload(UUID.fromString(ticketId), eventId);
+            String base64QRCode = Base64.getEncoder().encodeToString(renderPng(qrContent));
+
             logger.info("Generated QR code for ticket: {}", ticketNumber);
             return base64QRCode;
-            
-        } catch (WriterException | IOException e) {
+
+        } catch (RuntimeException e) {
             logger.error("Error generating QR code for ticket: {}", ticketNumber, e);
             throw new RuntimeException("Failed to generate QR code", e);
         }
     }
-    
+
     @Override
     public boolean validateQRCode(String qrCodeData) {
-        if (qrCodeData == null || qrCodeData.isEmpty()) {
-            return false;
+        return resolveTicketId(qrCodeData) != null;
+    }
+
+    @Override
+    public byte[] getEventSigningKey(UUID eventId) {
+        return mac.get().doFinal(toBytes(eventId));
+    }
+
+    private byte[] signForEvent(UUID eventId, byte[] signed) {
+        Mac instance = eventMac.get();
+        try {
+            instance.init(new SecretKeySpec(getEventSigningKey(eventId), HMAC_ALGORITHM));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot initialise QR payload signing", e);
+        }
+        return Arrays.copyOf(instance.doFinal(signed), SIGNATURE_BYTES);
+    }
+
+    private Mac newMac() {
+        try {
+            Mac instance = Mac.getInstance(HMAC_ALGORITHM);
+            instance.init(new SecretKeySpec(signingSecret.getBytes(StandardCharsets.UTF_8), HMAC_ALGORITHM));
+            return instance;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot initialise QR payload signing", e);
+        }
+    }
+
+    private static Mac newEventMac() {
+        try {
+            return Mac.getInstance(HMAC_ALGORITHM);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot initialise QR payload signing", e);
+        }
+    }
+
+    private static byte[] decode(String qrCodeData, String prefix, int length) {
+        byte[] decoded;
+        try {
+            decoded = Base64.getUrlDecoder().decode(qrCodeData.substring(prefix.length()));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        return decoded.length == length ? decoded : null;
+    }
+
+    private static byte[] toBytes(UUID id) {
+        return ByteBuffer.allocate(ID_BYTES)
+                .putLong(id.getMostSignificantBits())
+                .putLong(id.getLeastSignificantBits())
+                .array();
+    }
+
+    private static UUID toUuid(byte[] bytes, int offset) {
+        ByteBuffer id = ByteBuffer.wrap(bytes, offset, ID_BYTES);
+        return new UUID(id.getLong(), id.getLong());
+    }
+
+    private byte[] renderPng(String content) {
+        try {
+            QRCodeWriter qrCodeWriter = new QRCodeWriter();
+            BitMatrix bitMatrix = qrCodeWriter.encode(content, BarcodeFormat.QR_CODE,
+                    QR_CODE_WIDTH, QR_CODE_HEIGHT);
+
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            MatrixToImageWriter.writeToStream(bitMatrix, "PNG", outputStream);
+            return outputStream.toByteArray();
+
+        } catch (WriterException e) {
+            throw new IllegalArgumentException("Cannot encode QR code content", e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Drop a failed render so the next request tries again
+     */
+    private void evict(String payload, CompletableFuture<byte[]> image) {
+        synchronized (imageCache) {
+            imageCache.remove(payload, image);
         }
-        
-        // Basic validation - check if it starts with expected prefix
-        return qrCodeData.startsWith("TICKET:");
     }
 }
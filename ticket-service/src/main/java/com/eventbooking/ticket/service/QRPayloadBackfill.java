@@ -0,0 +1,90 @@
+package com.eventbooking.ticket.service;
+
+import com.eventbooking.ticket.entity.Ticket;
+import com.eventbooking.ticket.repository.TicketRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * One-off rewrite of tickets stored before the current QR payload format: those holding the
+ * Base64 PNG itself in qr_code, and those signed with the global secret instead of their
+ * event's key. Runs in id-ordered pages, one transaction each, so it can be stopped
+ * and restarted at any point and finishes immediately once nothing is left to rewrite.
+ */
+@Component
+public class QRPayloadBackfill {
+
+    private static final Logger logger = LoggerFactory.getLogger(QRPayloadBackfill.class);
+
+    private static final UUID FIRST_ID = new UUID(0L, 0L);
+
+    private final TicketRepository ticketRepository;
+    private final QRCodeService qrCodeService;
+    private final TicketCache ticketCache;
+    private final TicketTypeSnapshotCache snapshotCache;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${ticket.qr.backfill.enabled:false}")
+    private boolean enabled;
+
+    @Value("${ticket.qr.backfill.batch-size:500}")
+    private int batchSize = 500;
+
+    public QRPayloadBackfill(TicketRepository ticketRepository,
+                             QRCodeService qrCodeService,
+                             TicketCache ticketCache,
+                             TicketTypeSnapshotCache snapshotCache,
+                             PlatformTransactionManager transactionManager) {
+        this.ticketRepository = ticketRepository;
+        this.qrCodeService = qrCodeService;
+        this.ticketCache = ticketCache;
+        this.snapshotCache = snapshotCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnStartup() {
+        if (enabled) {
+            backfill();
+        }
+    }
+
+    /**
+     * Rewrite every legacy QR code to the signed payload
+     * @return Number of tickets rewritten
+     */
+    public int backfill() {
+        int rewritten = 0;
+        UUID afterId = FIRST_ID;
+
+        while (true) {
+            UUID cursor = afterId;
+            List<Ticket> page = transactionTemplate.execute(status -> {
+                List<Ticket> tickets = ticketRepository.findLegacyQrCodePage(
+                    QRCodeServiceImpl.PAYLOAD_PREFIX, cursor, PageRequest.of(0, batchSize));
+                tickets.forEach(ticket -> ticket.setQrCode(qrCodeService.buildPayload(ticket.getId(),
+                    snapshotCache.get(ticket.getTicketTypeId()).getEventId())));
+                ticketCache.invalidate(tickets);
+                return ticketRepository.saveAll(tickets);
+            });
+            if (page == null || page.isEmpty()) {
+                break;
+            }
+            rewritten += page.size();
+            afterId = page.get(page.size() - 1).getId();
+        }
+
+        logger.info("Rewrote legacy QR codes to signed payloads for {} tickets", rewritten);
+        return rewritten;
+    }
+}
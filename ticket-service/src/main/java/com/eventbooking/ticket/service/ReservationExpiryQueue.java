@@ -0,0 +1,111 @@
+package com.eventbooking.ticket.service;
+
+import com.eventbooking.ticket.entity.TicketReservation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Redis sorted set of active reservations scored by the epoch millis of their reserved-until
+ * time. Nodes claim due reservations with an atomic pop so expirations are picked up within a
+ * poll interval and each reservation is processed by one node.
+ */
+@Component
+public class ReservationExpiryQueue {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReservationExpiryQueue.class);
+
+    private static final String EXPIRY_QUEUE_KEY = "reservations:expiry";
+
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> POP_DUE_SCRIPT = loadPopDueScript();
+
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    @Value("${ticket.reservation.expiry-queue.enabled:false}")
+    private boolean enabled;
+
+    public ReservationExpiryQueue(RedisTemplate<String, Object> redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Register a reservation to be expired at its reserved-until time
+     */
+    public void schedule(TicketReservation reservation) {
+        if (!enabled) {
+            return;
+        }
+        long expiresAt = reservation.getReservedUntil().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        try {
+            redisTemplate.opsForZSet().add(EXPIRY_QUEUE_KEY, reservation.getId().toString(), expiresAt);
+        } catch (Exception e) {
+            // The periodic database sweep still expires it, just later
+            logger.warn("Failed to queue expiry for reservation: {}", reservation.getId(), e);
+        }
+    }
+
+    /**
+     * Drop a reservation that was completed or cancelled before its hold ran out
+     */
+    public void remove(UUID reservationId) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            redisTemplate.opsForZSet().remove(EXPIRY_QUEUE_KEY, reservationId.toString());
+        } catch (Exception e) {
+            // A stale entry is harmless: expiry skips reservations that are no longer active
+            logger.warn("Failed to dequeue expiry for reservation: {}", reservationId, e);
+        }
+    }
+
+    /**
+     * Claim up to the given number of reservations whose hold has run out
+     */
+    @SuppressWarnings("unchecked")
+    public List<UUID> pollDue(int limit) {
+        List<Object> due = redisTemplate.execute(POP_DUE_SCRIPT,
+            Collections.singletonList(EXPIRY_QUEUE_KEY), System.currentTimeMillis(), limit);
+        if (due == null || due.isEmpty()) {
+            return List.of();
+        }
+        return due.stream()
+            .map(id -> UUID.fromString(id.toString()))
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Put claimed reservations back so the next poll retries them
+     */
+    public void requeue(Collection<UUID> reservationIds) {
+        long now = System.currentTimeMillis();
+        for (UUID reservationId : reservationIds) {
+            redisTemplate.opsForZSet().add(EXPIRY_QUEUE_KEY, reservationId.toString(), now);
+        }
+    }
+
+    @SuppressWarnings("rawtypes")
+    private static RedisScript<List> loadPopDueScript() {
+        DefaultRedisScript<List> script = new DefaultRedisScript<>();
+        script.setLocation(new ClassPathResource("scripts/pop_due_reservations.lua"));
+        script.setResultType(List.class);
+        return script;
+    }
+}
@@ -0,0 +1,58 @@
+package com.eventbooking.ticket.service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Outcome of expiring a batch of reservations: how many were expired, the quantity handed
+ * back to each ticket type, per ticket type the per-person allowance returned to each user,
+ * and the seats the expired reservations held
+ */
+public class ReservationExpiryResult {
+
+    private static final ReservationExpiryResult EMPTY = new ReservationExpiryResult(0, Map.of());
+
+    private final int expiredCount;
+    private final Map<UUID, Integer> releasedByTicketType;
+    private final Map<UUID, Map<UUID, Integer>> releasedByTicketTypeAndUser;
+    private final List<SeatHold> releasedSeats;
+
+    public ReservationExpiryResult(int expiredCount, Map<UUID, Integer> releasedByTicketType) {
+        this(expiredCount, releasedByTicketType, Map.of());
+    }
+
+    public ReservationExpiryResult(int expiredCount, Map<UUID, Integer> releasedByTicketType,
+                                   Map<UUID, Map<UUID, Integer>> releasedByTicketTypeAndUser) {
+        this(expiredCount, releasedByTicketType, releasedByTicketTypeAndUser, List.of());
+    }
+
+    public ReservationExpiryResult(int expiredCount, Map<UUID, Integer> releasedByTicketType,
+                                   Map<UUID, Map<UUID, Integer>> releasedByTicketTypeAndUser,
+                                   List<SeatHold> releasedSeats) {
+        this.expiredCount = expiredCount;
+        this.releasedByTicketType = releasedByTicketType;
+        this.releasedByTicketTypeAndUser = releasedByTicketTypeAndUser;
+        this.releasedSeats = releasedSeats;
+    }
+
+    public static ReservationExpiryResult empty() {
+        return EMPTY;
+    }
+
+    public int getExpiredCount() {
+        return expiredCount;
+    }
+
+    public Map<UUID, Integer> getReleasedByTicketType() {
+        return releasedByTicketType;
+    }
+
+    public Map<UUID, Map<UUID, Integer>> getReleasedByTicketTypeAndUser() {
+        return releasedByTicketTypeAndUser;
+    }
+
+    public List<SeatHold> getReleasedSeats() {
+        return releasedSeats;
+    }
+}
@@ -0,0 +1,133 @@
+package com.eventbooking.ticket.service;
+
+import com.eventbooking.ticket.entity.TicketReservation;
+import com.eventbooking.ticket.entity.TicketReservation.ReservationStatus;
+import com.eventbooking.ticket.repository.TicketReservationRepository;
+import com.eventbooking.ticket.repository.TicketTypeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Expires reservations in bulk. Each batch locks its rows, flips them to EXPIRED with one
+ * UPDATE and applies one quantity_reserved change per ticket type in a single short
+ * transaction. Stock goes back to Redis once per ticket type after the commit.
+ */
+@Service
+public class ReservationExpiryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReservationExpiryService.class);
+
+    private final TicketReservationRepository reservationRepository;
+    private final TicketTypeRepository ticketTypeRepository;
+    private final InventoryService inventoryService;
+    private final TicketCounterAggregator counterAggregator;
+    private final SeatMapService seatMapService;
+    private final TransactionTemplate transactionTemplate;
+
+    public ReservationExpiryService(TicketReservationRepository reservationRepository,
+                                    TicketTypeRepository ticketTypeRepository,
+                                    InventoryService inventoryService,
+                                    TicketCounterAggregator counterAggregator,
+                                    SeatMapService seatMapService,
+                                    PlatformTransactionManager transactionManager) {
+        this.reservationRepository = reservationRepository;
+        this.ticketTypeRepository = ticketTypeRepository;
+        this.inventoryService = inventoryService;
+        this.counterAggregator = counterAggregator;
+        this.seatMapService = seatMapService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Expire those of the given reservations that are still active and past their hold.
+     * Reservations already completed, cancelled or locked by another node are skipped.
+     */
+    public ReservationExpiryResult expireReservations(Collection<UUID> reservationIds) {
+        if (reservationIds.isEmpty()) {
+            return ReservationExpiryResult.empty();
+        }
+
+        ReservationExpiryResult result = transactionTemplate.execute(status -> {
+            List<TicketReservation> expired = reservationRepository.findExpiredByIdsForUpdate(
+                reservationIds, ReservationStatus.ACTIVE, LocalDateTime.now());
+            return expireLocked(expired);
+        });
+
+        releaseInventory(result);
+        return result;
+    }
+
+    /**
+     * Expire reservations whose rows the caller has already locked in the current transaction.
+     * The caller must hand the result to {@link #releaseInventory} once that transaction commits.
+     */
+    public ReservationExpiryResult expireLocked(List<TicketReservation> expired) {
+        if (expired.isEmpty()) {
+            return ReservationExpiryResult.empty();
+        }
+
+        List<UUID> ids = expired.stream()
+            .map(TicketReservation::getId)
+            .collect(Collectors.toList());
+        reservationRepository.updateStatus(ids, ReservationStatus.EXPIRED);
+
+        Map<UUID, Integer> releasedByTicketType = new HashMap<>();
+        Map<UUID, Map<UUID, Integer>> releasedByTicketTypeAndUser = new HashMap<>();
+        List<SeatHold> releasedSeats = new ArrayList<>();
+        for (TicketReservation reservation : expired) {
+            releasedByTicketType.merge(reservation.getTicketTypeId(), reservation.getQuantity(), Integer::sum);
+            releasedByTicketTypeAndUser.computeIfAbsent(reservation.getTicketTypeId(), id -> new HashMap<>())
+                .merge(reservation.getUserId(), reservation.getQuantity(), Integer::sum);
+            SeatHold seats = SeatHold.of(reservation.getSeatSectionId(), reservation.getId(), reservation.getSeatOffsets());
+            if (seats != null) {
+                releasedSeats.add(seats);
+            }
+        }
+
+        releasedByTicketType.forEach((ticketTypeId, quantity) -> {
+            if (counterAggregator.isEnabled()) {
+                counterAggregator.record(ticketTypeId, -quantity, 0);
+            } else {
+                ticketTypeRepository.adjustQuantityReserved(ticketTypeId, -quantity);
+            }
+        });
+
+        return new ReservationExpiryResult(expired.size(), releasedByTicketType, releasedByTicketTypeAndUser,
+            releasedSeats);
+    }
+
+    /**
+     * Return expired stock and per-person allowances to Redis, one call of each per ticket type,
+     * and free any seats the reservations held
+     */
+    public void releaseInventory(ReservationExpiryResult result) {
+        result.getReleasedByTicketType().forEach((ticketTypeId, quantity) -> {
+            try {
+                inventoryService.releaseReservation(ticketTypeId, quantity);
+                inventoryService.releaseUserAllowances(ticketTypeId,
+                    result.getReleasedByTicketTypeAndUser().getOrDefault(ticketTypeId, Map.of()));
+            } catch (Exception e) {
+                // The database is already correct; the counter is rebuilt from it on the next sync
+                logger.error("Failed to release {} expired tickets for ticket type: {}", quantity, ticketTypeId, e);
+            }
+        });
+        seatMapService.releaseSeats(result.getReleasedSeats());
+
+        if (result.getExpiredCount() > 0) {
+            logger.info("Expired {} reservations across {} ticket types",
+                       result.getExpiredCount(), result.getReleasedByTicketType().size());
+        }
+    }
+}
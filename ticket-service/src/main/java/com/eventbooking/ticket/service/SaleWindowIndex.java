@@ -0,0 +1,267 @@
+package com.eventbooking.ticket.service;
+
+import com.eventbooking.ticket.entity.TicketType;
+import com.eventbooking.ticket.repository.TicketTypeRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * In-memory index of each event's ticket types by sale window, so listing what is on sale
+ * needs no database query once an event is loaded.
+ *
+ * An event's entry keeps its ticket types ordered by sale start and end, the subset on sale
+ * and the next instant that subset changes; reads past that instant recompute the subset from
+ * memory. Creating, updating or deleting a ticket type drops the event's entry on every node
+ * after commit; a load that was running when the entry was dropped is discarded instead of
+ * cached, so it cannot bring back the rows read before the change. Entries also expire after
+ * a TTL, which bounds how stale the descriptive columns (price, sold count) can get if an
+ * invalidation is lost. Quantities come from the live inventory counters, not from the
+ * cached rows.
+ */
+@Component
+public class SaleWindowIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(SaleWindowIndex.class);
+
+    static final String INVALIDATION_CHANNEL = "ticket-types:changed";
+
+    private static final Comparator<TicketType> BY_SALE_WINDOW = Comparator
+        .comparing(TicketType::getSaleStartDate, Comparator.nullsFirst(Comparator.naturalOrder()))
+        .thenComparing(TicketType::getSaleEndDate, Comparator.nullsLast(Comparator.naturalOrder()));
+
+    private final TicketTypeRepository ticketTypeRepository;
+    private final InventoryService inventoryService;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+
+    // Access-ordered LRU of loaded events
+    private Map<UUID, EventWindows> events;
+
+    // Generation of each recently dropped event, taken from dropCount; guarded by events
+    private Map<UUID, Long> generations;
+    private long dropCount;
+    // Highest generation pruned from generations, used for events no longer in it
+    private long prunedGeneration;
+
+    @Value("${ticket.sale-window-index.enabled:false}")
+    private boolean enabled;
+
+    @Value("${ticket.sale-window-index.max-events:10000}")
+    private int maxEvents = 10000;
+
+    @Value("${ticket.sale-window-index.ttl-seconds:300}")
+    private long ttlSeconds = 300;
+
+    public SaleWindowIndex(TicketTypeRepository ticketTypeRepository,
+                           InventoryService inventoryService,
+                           RedisTemplate<String, Object> redisTemplate,
+                           RedisMessageListenerContainer listenerContainer) {
+        this.ticketTypeRepository = ticketTypeRepository;
+        this.inventoryService = inventoryService;
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+    }
+
+    @PostConstruct
+    public void init() {
+        int capacity = maxEvents;
+        events = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, EventWindows> eldest) {
+                return size() > capacity;
+            }
+        };
+        generations = new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, Long> eldest) {
+                if (size() > capacity) {
+                    prunedGeneration = Math.max(prunedGeneration, eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+
+        listenerContainer.addMessageListener(this::onInvalidation, new ChannelTopic(INVALIDATION_CHANNEL));
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Ticket types of the event that are on sale now, each paired with its live available
+     * quantity; sold-out ticket types are left out
+     */
+    public List<AvailableTicketType> findAvailable(UUID eventId) {
+        LocalDateTime now = LocalDateTime.now();
+        EventWindows windows;
+        long generation;
+        synchronized (events) {
+            windows = events.get(eventId);
+            generation = generation(eventId);
+        }
+        if (windows == null || windows.expiresAt.isBefore(now)) {
+            windows = new EventWindows(ticketTypeRepository.findByEventId(eventId), now.plusSeconds(ttlSeconds));
+            synchronized (events) {
+                // Dropped while loading, so the rows may predate the change; serve them once only
+                if (generation(eventId) == generation) {
+                    events.put(eventId, windows);
+                }
+            }
+            logger.debug("Indexed {} ticket types of event: {}", windows.ticketTypes.size(), eventId);
+        }
+
+        List<AvailableTicketType> available = new ArrayList<>();
+        for (TicketType ticketType : windows.onSale(now)) {
+            int quantity = inventoryService.getAvailableQuantity(ticketType.getId());
+            if (quantity > 0) {
+                available.add(new AvailableTicketType(ticketType, quantity));
+            }
+        }
+        return available;
+    }
+
+    /**
+     * Drop the event's entry on every node once the current transaction commits
+     */
+    public void invalidate(UUID eventId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publishInvalidation(eventId);
+                }
+            });
+        } else {
+            publishInvalidation(eventId);
+        }
+    }
+
+    private void publishInvalidation(UUID eventId) {
+        evictLocal(eventId);
+        try {
+            redisTemplate.convertAndSend(INVALIDATION_CHANNEL, eventId.toString());
+        } catch (Exception e) {
+            // Other nodes pick the change up when their entry expires
+            logger.error("Failed to publish ticket type change for event: {}", eventId, e);
+        }
+    }
+
+    private void onInvalidation(Message message, byte[] pattern) {
+        Object body = redisTemplate.getValueSerializer().deserialize(message.getBody());
+        if (body != null) {
+            evictLocal(UUID.fromString(body.toString()));
+        }
+    }
+
+    private void evictLocal(UUID eventId) {
+        synchronized (events) {
+            events.remove(eventId);
+            generations.put(eventId, ++dropCount);
+        }
+    }
+
+    private long generation(UUID eventId) {
+        return generations.getOrDefault(eventId, prunedGeneration);
+    }
+
+    /**
+     * A ticket type on sale with the quantity its inventory counters report
+     */
+    public static final class AvailableTicketType {
+        private final TicketType ticketType;
+        private final int availableQuantity;
+
+        AvailableTicketType(TicketType ticketType, int availableQuantity) {
+            this.ticketType = ticketType;
+            this.availableQuantity = availableQuantity;
+        }
+
+        public TicketType getTicketType() {
+            return ticketType;
+        }
+
+        public int getAvailableQuantity() {
+            return availableQuantity;
+        }
+    }
+
+    private static final class EventWindows {
+        private final List<TicketType> ticketTypes;
+        private final LocalDateTime expiresAt;
+
+        // Recomputed together when a read passes the boundary
+        private volatile OnSale current;
+
+        private EventWindows(List<TicketType> ticketTypes, LocalDateTime expiresAt) {
+            List<TicketType> sorted = new ArrayList<>(ticketTypes);
+            sorted.sort(BY_SALE_WINDOW);
+            this.ticketTypes = List.copyOf(sorted);
+            this.expiresAt = expiresAt;
+        }
+
+        private List<TicketType> onSale(LocalDateTime now) {
+            OnSale snapshot = current;
+            if (snapshot == null || (snapshot.nextBoundary != null && !now.isBefore(snapshot.nextBoundary))) {
+                snapshot = OnSale.at(ticketTypes, now);
+                current = snapshot;
+            }
+            return snapshot.ticketTypes;
+        }
+    }
+
+    private static final class OnSale {
+        private final List<TicketType> ticketTypes;
+        // First sale start or end after the snapshot time; null when nothing changes any more
+        private final LocalDateTime nextBoundary;
+
+        private OnSale(List<TicketType> ticketTypes, LocalDateTime nextBoundary) {
+            this.ticketTypes = ticketTypes;
+            this.nextBoundary = nextBoundary;
+        }
+
+        private static OnSale at(List<TicketType> ticketTypes, LocalDateTime now) {
+            List<TicketType> onSale = new ArrayList<>();
+            LocalDateTime nextBoundary = null;
+            for (TicketType ticketType : ticketTypes) {
+                LocalDateTime start = ticketType.getSaleStartDate();
+                LocalDateTime end = ticketType.getSaleEndDate();
+                if (start != null && start.isAfter(now)) {
+                    // Sorted by start, so every later ticket type also starts after now
+                    nextBoundary = earliest(nextBoundary, start);
+                    break;
+                }
+                if (end == null || end.isAfter(now)) {
+                    onSale.add(ticketType);
+                    nextBoundary = earliest(nextBoundary, end);
+                }
+            }
+            return new OnSale(List.copyOf(onSale), nextBoundary);
+        }
+
+        private static LocalDateTime earliest(LocalDateTime current, LocalDateTime candidate) {
+            if (candidate == null) {
+                return current;
+            }
+            return current == null || candidate.isBefore(current) ? candidate : current;
+        }
+    }
+}
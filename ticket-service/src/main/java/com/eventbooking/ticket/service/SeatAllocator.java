@@ -0,0 +1,114 @@
+package com.eventbooking.ticket.service;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Seat selection over a section's availability bitmap (a set bit is a taken seat).
+ * Rows are preferred front to back and, within a row, seats nearest the centre.
+ * Block searches walk free runs with nextClearBit/nextSetBit, so their cost grows with the
+ * number of gaps in a row rather than its number of seats.
+ */
+final class SeatAllocator {
+
+    private SeatAllocator() {
+    }
+
+    /**
+     * Adjacent seats in a single row, in the best row that has room, as centred as the free
+     * seats allow
+     * @return Seat offsets in ascending order, or null if no row has that many adjacent free seats
+     */
+    static int[] findContiguous(SeatLayout layout, BitSet taken, int quantity) {
+        for (int row = 0; row < layout.getRowCount(); row++) {
+            int start = layout.rowStart(row);
+            int end = start + layout.rowLength(row);
+            // Doubled so centres of even and odd runs compare without fractions
+            int doubledCentre = start + end;
+
+            int bestStart = -1;
+            int bestDistance = Integer.MAX_VALUE;
+            int runStart = taken.nextClearBit(start);
+            while (runStart + quantity <= end) {
+                int runEnd = taken.nextSetBit(runStart);
+                if (runEnd < 0 || runEnd > end) {
+                    runEnd = end;
+                }
+                if (runEnd - runStart >= quantity) {
+                    int windowStart = Math.max(runStart, Math.min(runEnd - quantity, (doubledCentre - quantity) / 2));
+                    int distance = Math.abs(2 * windowStart + quantity - doubledCentre);
+                    if (distance < bestDistance) {
+                        bestStart = windowStart;
+                        bestDistance = distance;
+                    }
+                }
+                runStart = taken.nextClearBit(runEnd);
+            }
+
+            if (bestStart >= 0) {
+                int[] seats = new int[quantity];
+                for (int i = 0; i < quantity; i++) {
+                    seats[i] = bestStart + i;
+                }
+                return seats;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Adjacent seats when possible, otherwise the individually best free seats
+     * @return Seat offsets in ascending order, or null if fewer seats than requested are free
+     */
+    static int[] findBestAvailable(SeatLayout layout, BitSet taken, int quantity) {
+        int[] contiguous = findContiguous(layout, taken, quantity);
+        if (contiguous != null) {
+            return contiguous;
+        }
+
+        List<Integer> chosen = new ArrayList<>(quantity);
+        for (int row = 0; row < layout.getRowCount() && chosen.size() < quantity; row++) {
+            int start = layout.rowStart(row);
+            int end = start + layout.rowLength(row);
+            int doubledCentre = start + end;
+
+            List<Integer> free = new ArrayList<>();
+            for (int seat = taken.nextClearBit(start); seat < end; seat = taken.nextClearBit(seat + 1)) {
+                free.add(seat);
+            }
+            free.sort(Comparator.comparingInt(seat -> Math.abs(2 * seat + 1 - doubledCentre)));
+            for (int i = 0; i < free.size() && chosen.size() < quantity; i++) {
+                chosen.add(free.get(i));
+            }
+        }
+
+        if (chosen.size() < quantity) {
+            return null;
+        }
+        return chosen.stream().mapToInt(Integer::intValue).sorted().toArray();
+    }
+
+    /**
+     * Decode a Redis bitmap, whose bit 0 is the most significant bit of the first byte
+     */
+    static BitSet fromRedisBitmap(byte[] bitmap) {
+        BitSet taken = new BitSet(bitmap != null ? bitmap.length * 8 : 0);
+        if (bitmap == null) {
+            return taken;
+        }
+        for (int i = 0; i < bitmap.length; i++) {
+            int value = bitmap[i] & 0xFF;
+            if (value == 0) {
+                continue;
+            }
+            for (int bit = 0; bit < 8; bit++) {
+                if ((value & (0x80 >>> bit)) != 0) {
+                    taken.set(i * 8 + bit);
+                }
+            }
+        }
+        return taken;
+    }
+}
@@ -0,0 +1,58 @@
+package com.eventbooking.ticket.service;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Seats of one section held for a reservation
+ */
+public final class SeatHold {
+
+    private final UUID sectionId;
+    private final UUID reservationId;
+    private final int[] offsets;
+
+    public SeatHold(UUID sectionId, UUID reservationId, int[] offsets) {
+        this.sectionId = sectionId;
+        this.reservationId = reservationId;
+        this.offsets = offsets.clone();
+    }
+
+    /**
+     * Parse the seat columns of a reservation
+     * @return The hold, or null if the reservation has no seats
+     */
+    public static SeatHold of(UUID sectionId, UUID reservationId, String offsets) {
+        if (sectionId == null || offsets == null || offsets.isEmpty()) {
+            return null;
+        }
+        int[] parsed = Arrays.stream(offsets.split(",")).mapToInt(Integer::parseInt).toArray();
+        return new SeatHold(sectionId, reservationId, parsed);
+    }
+
+    public UUID getSectionId() {
+        return sectionId;
+    }
+
+    public UUID getReservationId() {
+        return reservationId;
+    }
+
+    public int[] getOffsets() {
+        return offsets.clone();
+    }
+
+    /**
+     * Offsets in the comma-separated form stored on the reservation
+     */
+    public String formatOffsets() {
+        StringBuilder formatted = new StringBuilder();
+        for (int offset : offsets) {
+            if (formatted.length() > 0) {
+                formatted.append(',');
+            }
+            formatted.append(offset);
+        }
+        return formatted.toString();
+    }
+}
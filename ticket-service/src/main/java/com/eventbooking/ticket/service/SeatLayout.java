@@ -0,0 +1,76 @@
+package com.eventbooking.ticket.service;
+
+import com.eventbooking.ticket.entity.SeatSection;
+
+import java.util.Arrays;
+
+/**
+ * Row structure of a seat section. Seats are numbered by offset, row after row starting with
+ * the front row, which is the addressing used by the section's availability bitmap.
+ */
+public final class SeatLayout {
+
+    private final String[] rowLabels;
+    private final int[] rowStarts;
+    private final int capacity;
+
+    private SeatLayout(String[] rowLabels, int[] rowLengths) {
+        if (rowLabels.length != rowLengths.length || rowLengths.length == 0) {
+            throw new IllegalArgumentException("Every row needs a label and a length");
+        }
+        this.rowLabels = rowLabels;
+        this.rowStarts = new int[rowLengths.length + 1];
+        for (int row = 0; row < rowLengths.length; row++) {
+            if (rowLengths[row] <= 0) {
+                throw new IllegalArgumentException("Row " + rowLabels[row] + " must have at least one seat");
+            }
+            rowStarts[row + 1] = rowStarts[row] + rowLengths[row];
+        }
+        this.capacity = rowStarts[rowLengths.length];
+    }
+
+    public static SeatLayout of(String[] rowLabels, int[] rowLengths) {
+        return new SeatLayout(rowLabels.clone(), rowLengths.clone());
+    }
+
+    public static SeatLayout of(SeatSection section) {
+        String[] labels = section.getRowLabels().split(",");
+        int[] lengths = Arrays.stream(section.getRowLengths().split(","))
+            .mapToInt(length -> Integer.parseInt(length.trim()))
+            .toArray();
+        return new SeatLayout(labels, lengths);
+    }
+
+    public int getRowCount() {
+        return rowLabels.length;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int rowStart(int row) {
+        return rowStarts[row];
+    }
+
+    public int rowLength(int row) {
+        return rowStarts[row + 1] - rowStarts[row];
+    }
+
+    public int rowOf(int offset) {
+        if (offset < 0 || offset >= capacity) {
+            throw new IllegalArgumentException("Seat offset out of range: " + offset);
+        }
+        int index = Arrays.binarySearch(rowStarts, offset);
+        // An exact hit is the first seat of that row; otherwise the row starting just before
+        return index >= 0 ? index : -index - 2;
+    }
+
+    /**
+     * Human-readable seat, e.g. "K-14" for the fourteenth seat of row K
+     */
+    public String label(int offset) {
+        int row = rowOf(offset);
+        return rowLabels[row].trim() + "-" + (offset - rowStarts[row] + 1);
+    }
+}
@@ -0,0 +1,332 @@
+package com.eventbooking.ticket.service;
+
+import com.eventbooking.common.client.EventServiceClient;
+import com.eventbooking.common.exception.UnauthorizedException;
+import com.eventbooking.ticket.dto.CreateSeatSectionRequest;
+import com.eventbooking.ticket.dto.SeatHoldDto;
+import com.eventbooking.ticket.dto.SeatSectionDto;
+import com.eventbooking.ticket.entity.SeatSection;
+import com.eventbooking.ticket.entity.TicketReservation;
+import com.eventbooking.ticket.entity.TicketReservation.ReservationStatus;
+import com.eventbooking.ticket.entity.TicketType;
+import com.eventbooking.ticket.exception.InsufficientInventoryException;
+import com.eventbooking.ticket.exception.InvalidReservationException;
+import com.eventbooking.ticket.exception.TicketTypeNotFoundException;
+import com.eventbooking.ticket.repository.SeatSectionRepository;
+import com.eventbooking.ticket.repository.TicketReservationRepository;
+import com.eventbooking.ticket.repository.TicketTypeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.GenericToStringSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Reserved seating on top of ticket-type inventory.
+ *
+ * A reservation first takes its quantity from the ticket type's counters as usual and then
+ * picks seats here. Each section keeps a Redis bitmap (one bit per seat, 10 KB for 80k seats)
+ * plus a hash of which reservation holds each taken seat. Seats are chosen in memory from a
+ * snapshot of the bitmap and claimed with a script that only succeeds if all of them are still
+ * free, retrying on a fresh snapshot when another node got there first.
+ */
+@Service
+public class SeatMapService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SeatMapService.class);
+
+    private static final String KEY_PREFIX = "seatmap:";
+    private static final int MAX_CLAIM_ATTEMPTS = 8;
+
+    private static final RedisScript<Long> CLAIM_SCRIPT = loadScript("scripts/claim_seats.lua");
+    private static final RedisScript<Long> RELEASE_SCRIPT = loadScript("scripts/release_seats.lua");
+    private static final RedisSerializer<Long> LONG_SERIALIZER = new GenericToStringSerializer<>(Long.class);
+
+    public enum SelectionMode {
+        // Adjacent seats if any row has them, otherwise the best seats one by one
+        BEST_AVAILABLE,
+        // Adjacent seats in one row or nothing
+        CONTIGUOUS
+    }
+
+    private final SeatSectionRepository seatSectionRepository;
+    private final TicketTypeRepository ticketTypeRepository;
+    private final TicketReservationRepository reservationRepository;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final EventServiceClient eventServiceClient;
+
+    public SeatMapService(SeatSectionRepository seatSectionRepository,
+                          TicketTypeRepository ticketTypeRepository,
+                          TicketReservationRepository reservationRepository,
+                          RedisTemplate<String, Object> redisTemplate,
+                          EventServiceClient eventServiceClient) {
+        this.seatSectionRepository = seatSectionRepository;
+        this.ticketTypeRepository = ticketTypeRepository;
+        this.reservationRepository = reservationRepository;
+        this.redisTemplate = redisTemplate;
+        this.eventServiceClient = eventServiceClient;
+    }
+
+    @Transactional
+    public SeatSectionDto createSection(CreateSeatSectionRequest request, UUID organizerId) {
+        TicketType ticketType = ticketTypeRepository.findById(request.getTicketTypeId())
+            .orElseThrow(() -> new TicketTypeNotFoundException(request.getTicketTypeId()));
+
+        // Sections permanently decide how the ticket type's stock is seated
+        if (!eventServiceClient.validateOrganizer(ticketType.getEventId(), organizerId)) {
+            throw new UnauthorizedException("User is not the organizer of event: " + ticketType.getEventId());
+        }
+
+        if (request.getRowLabels().size() != request.getRowLengths().size()) {
+            throw new InvalidReservationException("Every row needs a label and a length");
+        }
+        if (request.getRowLabels().stream().anyMatch(label -> label == null || label.isBlank() || label.contains(","))) {
+            throw new InvalidReservationException("Row labels must be non-empty and must not contain commas");
+        }
+        if (request.getRowLengths().stream().anyMatch(length -> length == null || length <= 0)) {
+            throw new InvalidReservationException("Every row must have at least one seat");
+        }
+
+        SeatSection section = new SeatSection();
+        section.setEventId(ticketType.getEventId());
+        section.setTicketTypeId(ticketType.getId());
+        section.setVenueZone(ticketType.getVenueZone());
+        section.setName(request.getName());
+        section.setRowLabels(String.join(",", request.getRowLabels()));
+        section.setRowLengths(request.getRowLengths().stream().map(String::valueOf).collect(Collectors.joining(",")));
+        section.setCapacity(SeatLayout.of(section).getCapacity());
+        section.setSortOrder(request.getSortOrder() != null ? request.getSortOrder() : 0);
+
+        // Seats beyond the ticket type's stock could never be sold
+        int seated = seatSectionRepository.findByTicketTypeIdOrderBySortOrderAsc(ticketType.getId()).stream()
+            .mapToInt(SeatSection::getCapacity)
+            .sum();
+        if (seated + section.getCapacity() > ticketType.getQuantityAvailable()) {
+            throw new InvalidReservationException("Seat sections would exceed the ticket type's quantity of "
+                + ticketType.getQuantityAvailable());
+        }
+
+        SeatSection saved = seatSectionRepository.save(section);
+        logger.info("Created seat section {} with {} seats for ticket type: {}",
+                   saved.getName(), saved.getCapacity(), ticketType.getId());
+        return toDto(saved, null);
+    }
+
+    /**
+     * Every section of an event with its current availability, read in one Redis round trip
+     */
+    @Transactional(readOnly = true)
+    public List<SeatSectionDto> getSeatMap(UUID eventId) {
+        List<SeatSection> sections = seatSectionRepository.findByEventIdOrderBySortOrderAsc(eventId);
+        if (sections.isEmpty()) {
+            return List.of();
+        }
+
+        List<Object> bitmaps = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (SeatSection section : sections) {
+                connection.stringCommands().get(rawKey(getBitmapKey(section.getId())));
+            }
+            return null;
+        }, RedisSerializer.byteArray());
+
+        List<SeatSectionDto> seatMap = new ArrayList<>(sections.size());
+        for (int i = 0; i < sections.size(); i++) {
+            seatMap.add(toDto(sections.get(i), (byte[]) bitmaps.get(i)));
+        }
+        return seatMap;
+    }
+
+    /**
+     * Seat an active reservation of a ticket type with reserved seating. Seating the same
+     * reservation again returns the seats it already holds; the reservation row is locked so
+     * concurrent requests for it are seated one after the other instead of both claiming seats.
+     */
+    @Transactional
+    public SeatHoldDto holdSeats(UUID reservationId, UUID userId, SelectionMode mode) {
+        TicketReservation reservation = reservationRepository.findByIdWithLock(reservationId)
+            .orElseThrow(() -> new InvalidReservationException("Reservation not found"));
+        if (!reservation.getUserId().equals(userId)) {
+            throw new InvalidReservationException("Not authorized to seat this reservation");
+        }
+        if (reservation.getStatus() != ReservationStatus.ACTIVE) {
+            throw new InvalidReservationException("Reservation is not active");
+        }
+
+        SeatHold existing = SeatHold.of(reservation.getSeatSectionId(), reservationId, reservation.getSeatOffsets());
+        if (existing != null) {
+            SeatSection section = seatSectionRepository.findById(existing.getSectionId())
+                .orElseThrow(() -> new InvalidReservationException("Seat section not found"));
+            return toHoldDto(section, existing);
+        }
+
+        List<SeatSection> sections = seatSectionRepository.findByTicketTypeIdOrderBySortOrderAsc(
+            reservation.getTicketTypeId());
+        if (sections.isEmpty()) {
+            throw new InvalidReservationException("Ticket type has no reserved seating");
+        }
+
+        int quantity = reservation.getQuantity();
+        for (SeatSection section : sections) {
+            SeatHold hold = claimInSection(section, reservationId, quantity, mode);
+            if (hold != null) {
+                reservation.setSeatSectionId(section.getId());
+                reservation.setSeatOffsets(hold.formatOffsets());
+                reservationRepository.save(reservation);
+                releaseOnRollback(hold);
+
+                logger.info("Seated reservation: {} in section: {} ({} seats)",
+                           reservationId, section.getName(), quantity);
+                return toHoldDto(section, hold);
+            }
+        }
+
+        throw new InsufficientInventoryException(String.format("No %s%d seats available",
+            mode == SelectionMode.CONTIGUOUS ? "block of " : "", quantity));
+    }
+
+    /**
+     * Free the seats of a cancelled reservation, if it had any
+     */
+    public void releaseSeats(TicketReservation reservation) {
+        SeatHold hold = SeatHold.of(reservation.getSeatSectionId(), reservation.getId(), reservation.getSeatOffsets());
+        if (hold != null) {
+            releaseSeats(List.of(hold));
+        }
+    }
+
+    /**
+     * Free held seats. Safe to repeat: seats no longer held by the same reservation are left alone.
+     */
+    public void releaseSeats(Collection<SeatHold> holds) {
+        for (SeatHold hold : holds) {
+            try {
+                Long released = redisTemplate.execute(RELEASE_SCRIPT, RedisSerializer.string(), LONG_SERIALIZER,
+                    List.of(getBitmapKey(hold.getSectionId()), getHoldersKey(hold.getSectionId())),
+                    scriptArgs(hold.getReservationId(), hold.getOffsets()));
+                logger.debug("Released {} seats of reservation: {}", released, hold.getReservationId());
+            } catch (Exception e) {
+                logger.error("Failed to release seats of reservation: {}", hold.getReservationId(), e);
+            }
+        }
+    }
+
+    private SeatHold claimInSection(SeatSection section, UUID reservationId, int quantity, SelectionMode mode) {
+        SeatLayout layout = SeatLayout.of(section);
+        List<String> keys = List.of(getBitmapKey(section.getId()), getHoldersKey(section.getId()));
+
+        for (int attempt = 0; attempt < MAX_CLAIM_ATTEMPTS; attempt++) {
+            BitSet taken = SeatAllocator.fromRedisBitmap(readBitmap(section.getId()));
+            int[] seats = mode == SelectionMode.CONTIGUOUS
+                ? SeatAllocator.findContiguous(layout, taken, quantity)
+                : SeatAllocator.findBestAvailable(layout, taken, quantity);
+            if (seats == null) {
+                return null;
+            }
+
+            Long claimed = redisTemplate.execute(CLAIM_SCRIPT, RedisSerializer.string(), LONG_SERIALIZER,
+                keys, scriptArgs(reservationId, seats));
+            if (claimed != null && claimed == 1) {
+                return new SeatHold(section.getId(), reservationId, seats);
+            }
+            // Another reservation took one of the seats since the snapshot; choose again
+        }
+
+        logger.warn("Gave up seating reservation: {} in contended section: {}", reservationId, section.getId());
+        return null;
+    }
+
+    private void releaseOnRollback(SeatHold hold) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    releaseSeats(List.of(hold));
+                }
+            }
+        });
+    }
+
+    private byte[] readBitmap(UUID sectionId) {
+        return redisTemplate.execute((RedisConnection connection) ->
+            connection.stringCommands().get(rawKey(getBitmapKey(sectionId))), true);
+    }
+
+    private SeatSectionDto toDto(SeatSection section, byte[] bitmap) {
+        SeatSectionDto dto = new SeatSectionDto();
+        dto.setId(section.getId());
+        dto.setTicketTypeId(section.getTicketTypeId());
+        dto.setVenueZone(section.getVenueZone());
+        dto.setName(section.getName());
+        dto.setRowLabels(Arrays.asList(section.getRowLabels().split(",")));
+        dto.setRowLengths(Arrays.stream(section.getRowLengths().split(","))
+            .map(Integer::valueOf)
+            .collect(Collectors.toList()));
+        dto.setCapacity(section.getCapacity());
+
+        byte[] taken = bitmap != null ? bitmap : new byte[0];
+        dto.setAvailable(section.getCapacity() - SeatAllocator.fromRedisBitmap(taken).cardinality());
+        dto.setAvailability(Base64.getEncoder().encodeToString(taken));
+        return dto;
+    }
+
+    private static SeatHoldDto toHoldDto(SeatSection section, SeatHold hold) {
+        SeatLayout layout = SeatLayout.of(section);
+        SeatHoldDto dto = new SeatHoldDto();
+        dto.setReservationId(hold.getReservationId());
+        dto.setSectionId(section.getId());
+        dto.setSectionName(section.getName());
+        dto.setSeats(Arrays.stream(hold.getOffsets()).mapToObj(layout::label).collect(Collectors.toList()));
+        return dto;
+    }
+
+    private static Object[] scriptArgs(UUID reservationId, int[] offsets) {
+        Object[] args = new Object[offsets.length + 1];
+        args[0] = reservationId.toString();
+        for (int i = 0; i < offsets.length; i++) {
+            args[i + 1] = String.valueOf(offsets[i]);
+        }
+        return args;
+    }
+
+    private static byte[] rawKey(String key) {
+        return key.getBytes(StandardCharsets.UTF_8);
+    }
+
+    // Hash tag keeps a section's bitmap and holders in one Redis Cluster slot for the scripts
+    private static String getBitmapKey(UUID sectionId) {
+        return KEY_PREFIX + "{" + sectionId + "}";
+    }
+
+    private static String getHoldersKey(UUID sectionId) {
+        return getBitmapKey(sectionId) + ":holders";
+    }
+
+    private static RedisScript<Long> loadScript(String location) {
+        DefaultRedisScript<Long> script = new DefaultRedisScript<>();
+        script.setLocation(new ClassPathResource(location));
+        script.setResultType(Long.class);
+        return script;
+    }
+}
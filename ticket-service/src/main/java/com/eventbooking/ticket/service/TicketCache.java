@@ -0,0 +1,264 @@
+package com.eventbooking.ticket.service;
+
+import com.eventbooking.common.config.MonitoringConfig;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.eventbooking.ticket.entity.Ticket;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Two-tier read-through cache for ticket lookups: a small in-process Caffeine cache in front
+ * of the Redis "tickets" cache, in front of Postgres. Reads of the local tier take no lock, so
+ * concurrent lookups do not serialize on it.
+ *
+ * Writers invalidate after their transaction commits: the Redis entries are deleted and the
+ * keys are published so every node drops its local copy. A read that was in flight when its
+ * key was invalidated serves its value once but takes it back out of both tiers, so a value
+ * loaded before the change is not cached after it. Local entries also expire after a short
+ * TTL, which bounds staleness if an invalidation message is lost.
+ */
+@Component
+public class TicketCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(TicketCache.class);
+
+    static final String CACHE_NAME = "tickets";
+    static final String INVALIDATION_CHANNEL = "ticket-cache:invalidate";
+
+    // Key prefix RedisCacheManager gives the entries of the tickets cache
+    private static final String REDIS_KEY_PREFIX = CACHE_NAME + "::";
+    private static final String KEY_SEPARATOR = ",";
+
+    // How long an invalidation is remembered; far longer than any read takes
+    private static final Duration INVALIDATION_MEMORY = Duration.ofMinutes(1);
+
+    private final CacheManager cacheManager;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final MonitoringConfig.CustomMetrics customMetrics;
+
+    private Cache redisCache;
+
+    // Size-bounded local entries keyed like the Redis cache
+    private com.github.benmanes.caffeine.cache.Cache<String, Object> nearCache;
+
+    // Generation of each recently invalidated key, taken from generation
+    private com.github.benmanes.caffeine.cache.Cache<String, Long> invalidatedAt;
+    private final AtomicLong generation = new AtomicLong();
+
+    @Value("${ticket.cache.enabled:false}")
+    private boolean enabled;
+
+    @Value("${ticket.cache.near-size:10000}")
+    private int nearSize = 10000;
+
+    @Value("${ticket.cache.near-ttl-ms:30000}")
+    private long nearTtlMillis = 30000;
+
+    public TicketCache(CacheManager cacheManager,
+                       RedisTemplate<String, Object> redisTemplate,
+                       RedisMessageListenerContainer listenerContainer,
+                       MonitoringConfig.CustomMetrics customMetrics) {
+        this.cacheManager = cacheManager;
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.customMetrics = customMetrics;
+    }
+
+    @PostConstruct
+    public void init() {
+        redisCache = cacheManager.getCache(CACHE_NAME);
+
+        nearCache = Caffeine.newBuilder()
+            .maximumSize(nearSize)
+            .expireAfterWrite(Duration.ofMillis(nearTtlMillis))
+            .build();
+        invalidatedAt = Caffeine.newBuilder()
+            .expireAfterWrite(INVALIDATION_MEMORY)
+            .build();
+
+        listenerContainer.addMessageListener(this::onInvalidation, new ChannelTopic(INVALIDATION_CHANNEL));
+    }
+
+    public static String idKey(UUID ticketId) {
+        return "id:" + ticketId;
+    }
+
+    public static String numberKey(String ticketNumber) {
+        return "number:" + ticketNumber;
+    }
+
+    public static String orderKey(UUID orderId) {
+        return "order:" + orderId;
+    }
+
+    /**
+     * Cached value for the key, falling back to Redis and then to the loader.
+     * Loader exceptions propagate and nothing is cached for them.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String key, Supplier<T> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+
+        Object near = nearCache.getIfPresent(key);
+        if (near != null) {
+            customMetrics.recordCacheHit("tickets.near", true);
+            return (T) near;
+        }
+        customMetrics.recordCacheHit("tickets.near", false);
+
+        long started = generation.get();
+        T value = readRedis(key);
+        customMetrics.recordCacheHit("tickets.redis", value != null);
+        boolean loaded = value == null;
+        if (loaded) {
+            value = loader.get();
+            if (value == null) {
+                return null;
+            }
+        }
+        if (invalidatedSince(key, started)) {
+            // The value may predate the change that invalidated the key; serve it once only
+            return value;
+        }
+        if (loaded) {
+            writeRedis(key, value);
+        }
+        nearCache.put(key, value);
+
+        // Checked after the writes: an invalidation marks the key before it clears the tiers,
+        // so either it clears what was written here or this sees the mark and does so itself
+        if (invalidatedSince(key, started)) {
+            nearCache.invalidate(key);
+            if (loaded) {
+                evictRedis(key);
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Drop every cached view of the tickets once the current transaction commits
+     */
+    public void invalidate(Collection<Ticket> tickets) {
+        if (tickets.isEmpty()) {
+            return;
+        }
+
+        List<String> keys = new ArrayList<>(tickets.size() * 3);
+        for (Ticket ticket : tickets) {
+            keys.add(idKey(ticket.getId()));
+            keys.add(numberKey(ticket.getTicketNumber()));
+            keys.add(orderKey(ticket.getOrderId()));
+        }
+
+        // Runs even while caching is disabled here, so nodes that have it enabled never serve stale tickets
+        runAfterCommit(() -> evict(keys));
+    }
+
+    public void invalidate(Ticket ticket) {
+        invalidate(List.of(ticket));
+    }
+
+    private void evict(List<String> keys) {
+        markInvalidated(keys);
+        try {
+            List<String> redisKeys = new ArrayList<>(keys.size());
+            for (String key : keys) {
+                redisKeys.add(REDIS_KEY_PREFIX + key);
+            }
+            redisTemplate.delete(redisKeys);
+            redisTemplate.convertAndSend(INVALIDATION_CHANNEL, String.join(KEY_SEPARATOR, keys));
+        } catch (Exception e) {
+            // The local TTL still bounds how long other nodes can serve the old value
+            logger.error("Failed to invalidate cached tickets: {}", keys, e);
+        }
+        evictLocal(keys);
+    }
+
+    private void onInvalidation(Message message, byte[] pattern) {
+        Object body = redisTemplate.getValueSerializer().deserialize(message.getBody());
+        if (body != null) {
+            evictLocal(List.of(body.toString().split(KEY_SEPARATOR)));
+        }
+    }
+
+    private void evictLocal(List<String> keys) {
+        markInvalidated(keys);
+        nearCache.invalidateAll(keys);
+    }
+
+    private void markInvalidated(List<String> keys) {
+        long invalidated = generation.incrementAndGet();
+        for (String key : keys) {
+            invalidatedAt.put(key, invalidated);
+        }
+    }
+
+    private boolean invalidatedSince(String key, long started) {
+        Long invalidated = invalidatedAt.getIfPresent(key);
+        return invalidated != null && invalidated > started;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T readRedis(String key) {
+        try {
+            Cache.ValueWrapper cached = redisCache.get(key);
+            return cached != null ? (T) cached.get() : null;
+        } catch (Exception e) {
+            // A Redis outage degrades to database reads, it does not fail the lookup
+            logger.warn("Failed to read ticket cache entry: {}", key, e);
+            return null;
+        }
+    }
+
+    private void writeRedis(String key, Object value) {
+        try {
+            redisCache.put(key, value);
+        } catch (Exception e) {
+            logger.warn("Failed to write ticket cache entry: {}", key, e);
+        }
+    }
+
+    private void evictRedis(String key) {
+        try {
+            redisCache.evict(key);
+        } catch (Exception e) {
+            logger.warn("Failed to evict ticket cache entry: {}", key, e);
+        }
+    }
+
+    private static void runAfterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,283 @@
+package com.eventbooking.ticket.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Write-behind aggregator for the quantity_reserved / quantity_sold columns of ticket_types.
+ * Reserve, cancel and expiry record deltas in memory; a scheduled flush applies all pending
+ * deltas in one JDBC batch so the hot ticket type row is written once per interval instead of
+ * once per request.
+ *
+ * Deltas are only recorded once the transaction that made the change commits, so a rolled back
+ * reservation never reaches the counters.
+ *
+ * Deltas that have not been flushed are lost if the node dies. quantity_reserved can then be
+ * repaired from the ACTIVE rows in ticket_reservations, which are written synchronously. Other
+ * nodes' unflushed deltas are not in the table yet, so the repair is opt-in and meant for a
+ * single node, e.g. after the whole cluster was restarted.
+ */
+@Component
+public class TicketCounterAggregator {
+
+    private static final Logger logger = LoggerFactory.getLogger(TicketCounterAggregator.class);
+
+    private static final int STRIPES = 16;
+
+    private static final String FLUSH_SQL =
+        "UPDATE ticket_types SET quantity_reserved = quantity_reserved + ?, " +
+        "quantity_sold = quantity_sold + ?, updated_at = CURRENT_TIMESTAMP WHERE id = ?";
+
+    private static final String DRIFT_SQL =
+        "SELECT t.id, t.quantity_reserved, COALESCE(SUM(r.quantity), 0) AS active_quantity " +
+        "FROM ticket_types t LEFT JOIN ticket_reservations r " +
+        "ON r.ticket_type_id = t.id AND r.status = 'ACTIVE' " +
+        "GROUP BY t.id, t.quantity_reserved " +
+        "HAVING t.quantity_reserved <> COALESCE(SUM(r.quantity), 0)";
+
+    // Only applies if no flush moved the counter since it was read
+    private static final String REPAIR_SQL =
+        "UPDATE ticket_types SET quantity_reserved = ?, updated_at = CURRENT_TIMESTAMP " +
+        "WHERE id = ? AND quantity_reserved = ?";
+
+    private static final String REPLAY_LOCK_SQL = "SELECT pg_try_advisory_xact_lock(?)";
+
+    // Arbitrary key of the advisory lock that keeps two nodes from repairing at once
+    private static final long REPLAY_LOCK_KEY = 0x7469636b65747331L;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<UUID, PendingDeltas> pending = new ConcurrentHashMap<>();
+
+    private final Timer flushLagTimer;
+    private final Timer flushDurationTimer;
+    private final DistributionSummary flushBatchSize;
+
+    @Value("${ticket.counters.write-behind.enabled:false}")
+    private boolean enabled;
+
+    @Value("${ticket.counters.write-behind.replay-on-startup:false}")
+    private boolean replayOnStartup;
+
+    public TicketCounterAggregator(JdbcTemplate jdbcTemplate,
+                                   PlatformTransactionManager transactionManager,
+                                   MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.flushLagTimer = Timer.builder("ticket.counters.flush.lag")
+            .description("Age of the oldest pending counter delta when it was flushed")
+            .register(meterRegistry);
+        this.flushDurationTimer = Timer.builder("ticket.counters.flush.duration")
+            .register(meterRegistry);
+        this.flushBatchSize = DistributionSummary.builder("ticket.counters.flush.batch.size")
+            .register(meterRegistry);
+        Gauge.builder("ticket.counters.pending.types", pending, Map::size)
+            .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Record a change to the reserved and sold counts of a ticket type. Inside a transaction the
+     * change is only recorded once it commits.
+     */
+    public void record(UUID ticketTypeId, int reservedDelta, int soldDelta) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            add(ticketTypeId, reservedDelta, soldDelta);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                add(ticketTypeId, reservedDelta, soldDelta);
+            }
+        });
+    }
+
+    private void add(UUID ticketTypeId, int reservedDelta, int soldDelta) {
+        // Added inside compute so the flush cannot remove the entry between lookup and add
+        pending.compute(ticketTypeId, (id, deltas) -> {
+            PendingDeltas target = deltas != null ? deltas : new PendingDeltas();
+            target.add(reservedDelta, soldDelta);
+            return target;
+        });
+    }
+
+    /**
+     * Apply all pending deltas in a single batched UPDATE
+     */
+    @Scheduled(fixedDelayString = "${ticket.counters.write-behind.flush-interval-ms:500}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        long oldestPendingAt = Long.MAX_VALUE;
+        List<UUID> ticketTypeIds = new ArrayList<>();
+        List<Object[]> batch = new ArrayList<>();
+
+        for (Map.Entry<UUID, PendingDeltas> entry : pending.entrySet()) {
+            PendingDeltas deltas = entry.getValue();
+            long firstRecordedAt = deltas.firstRecordedAt.getAndSet(0);
+            long reserved = deltas.drainReserved();
+            long sold = deltas.drainSold();
+
+            // Drop the drained entry unless a delta arrived meanwhile, so idle ticket types do
+            // not stay in the map
+            pending.computeIfPresent(entry.getKey(), (id, current) -> current.isEmpty() ? null : current);
+
+            if (reserved == 0 && sold == 0) {
+                continue;
+            }
+            if (firstRecordedAt > 0) {
+                oldestPendingAt = Math.min(oldestPendingAt, firstRecordedAt);
+            }
+            ticketTypeIds.add(entry.getKey());
+            batch.add(new Object[]{reserved, sold, entry.getKey()});
+        }
+
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(FLUSH_SQL, batch));
+
+            flushDurationTimer.record(Duration.ofNanos(System.nanoTime() - start));
+            flushBatchSize.record(batch.size());
+            if (oldestPendingAt != Long.MAX_VALUE) {
+                flushLagTimer.record(Duration.ofMillis(now - oldestPendingAt));
+            }
+            logger.debug("Flushed counter deltas for {} ticket types", batch.size());
+
+        } catch (DataAccessException e) {
+            // Put the deltas back so the next flush retries them
+            for (int i = 0; i < batch.size(); i++) {
+                Object[] args = batch.get(i);
+                add(ticketTypeIds.get(i), (int) (long) args[0], (int) (long) args[1]);
+            }
+            logger.error("Failed to flush counter deltas for {} ticket types, will retry", batch.size(), e);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void replayOnStartup() {
+        if (enabled && replayOnStartup) {
+            replayFromReservations();
+        }
+    }
+
+    /**
+     * Repair quantity_reserved from the reservation table, since deltas that were pending when a
+     * previous process stopped were never written. Each drifted ticket type is corrected with a
+     * compare-and-set, and an advisory lock makes a second node skip the repair instead of
+     * running it concurrently.
+     * @return The number of ticket types corrected, or -1 if another node holds the lock
+     */
+    public int replayFromReservations() {
+        Integer repaired = transactionTemplate.execute(status -> {
+            Boolean locked = jdbcTemplate.queryForObject(REPLAY_LOCK_SQL, Boolean.class, REPLAY_LOCK_KEY);
+            if (!Boolean.TRUE.equals(locked)) {
+                return -1;
+            }
+
+            List<Object[]> repairs = jdbcTemplate.query(DRIFT_SQL, (rs, rowNum) -> new Object[]{
+                rs.getLong("active_quantity"), rs.getObject("id", UUID.class), rs.getLong("quantity_reserved")});
+            if (repairs.isEmpty()) {
+                return 0;
+            }
+            int corrected = 0;
+            for (int count : jdbcTemplate.batchUpdate(REPAIR_SQL, repairs)) {
+                // A counter moved by a concurrent flush is left for the next repair
+                if (count != 0) {
+                    corrected++;
+                }
+            }
+            return corrected;
+        });
+
+        if (repaired == null || repaired < 0) {
+            logger.info("Skipped rebuilding quantity_reserved, another node is already running it");
+            return -1;
+        }
+        logger.info("Rebuilt quantity_reserved from active reservations for {} ticket types", repaired);
+        return repaired;
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private static final class PendingDeltas {
+        private final AtomicLongArray reserved = new AtomicLongArray(STRIPES);
+        private final AtomicLongArray sold = new AtomicLongArray(STRIPES);
+        private final AtomicLong firstRecordedAt = new AtomicLong();
+
+        void add(int reservedDelta, int soldDelta) {
+            // Stripe by thread so concurrent requests on one hot ticket type do not share a cell
+            int stripe = (int) (Thread.currentThread().getId() & (STRIPES - 1));
+            if (reservedDelta != 0) {
+                reserved.addAndGet(stripe, reservedDelta);
+            }
+            if (soldDelta != 0) {
+                sold.addAndGet(stripe, soldDelta);
+            }
+            firstRecordedAt.compareAndSet(0, System.currentTimeMillis());
+        }
+
+        long drainReserved() {
+            return drain(reserved);
+        }
+
+        long drainSold() {
+            return drain(sold);
+        }
+
+        boolean isEmpty() {
+            for (int i = 0; i < STRIPES; i++) {
+                if (reserved.get(i) != 0 || sold.get(i) != 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static long drain(AtomicLongArray cells) {
+            long total = 0;
+            for (int i = 0; i < cells.length(); i++) {
+                total += cells.getAndSet(i, 0);
+            }
+            return total;
+        }
+    }
+}
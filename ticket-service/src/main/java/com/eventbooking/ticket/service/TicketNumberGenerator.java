@@ -0,0 +1,201 @@
+package com.eventbooking.ticket.service;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Snowflake-style ticket numbers: 41 bits of milliseconds since {@link #EPOCH_MILLIS}, 10 bits
+ * of node id and a 12 bit per-millisecond sequence, rendered as 13 base-36 characters after the
+ * human-readable TKT-{event} prefix. Two nodes never share a node id and one node never repeats
+ * a (millisecond, sequence) pair, so numbers are unique by construction and need no database check.
+ *
+ * Without a configured node id, each instance leases a free one through a Redis key that expires
+ * unless renewed. A lease lost after a Redis flush is claimed back on the next renewal, and one
+ * taken over by another instance makes this instance lease a new id. Numbers are refused while
+ * the lease has not been renewed in time, so an instance cut off from Redis stops rather than
+ * risking an id another instance may have taken.
+ */
+@Component
+public class TicketNumberGenerator {
+
+    private static final Logger logger = LoggerFactory.getLogger(TicketNumberGenerator.class);
+
+    // 2024-01-01T00:00:00Z; 41 bits of milliseconds from here last until 2093
+    static final long EPOCH_MILLIS = 1704067200000L;
+
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    private static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final int ENCODED_LENGTH = 13;
+    private static final long MAX_CLOCK_DRIFT_MILLIS = 5000;
+
+    private static final String NODE_LEASE_KEY_PREFIX = "ticket-number:node:";
+
+    private static final RedisScript<Long> RENEW_LEASE_SCRIPT = loadScript("scripts/renew_node_lease.lua");
+
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    // Identifies this instance's leases
+    private final String leaseToken = UUID.randomUUID().toString();
+
+    /**
+     * Fixed node id for this instance; when negative one is leased from Redis
+     */
+    @Value("${ticket.ticket-number.node-id:-1}")
+    private int configuredNodeId = -1;
+
+    // Renewed well within this by renewLease
+    @Value("${ticket.ticket-number.lease-seconds:30}")
+    private long leaseSeconds = 30;
+
+    private volatile long nodeId;
+    private long lastMillis = -1;
+    private long sequence;
+    // Wall clock millis after which the leased node id may belong to another instance
+    private long leaseExpiresAt = Long.MAX_VALUE;
+
+    public TicketNumberGenerator(RedisTemplate<String, Object> redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    @PostConstruct
+    public void init() {
+        if (configuredNodeId >= 0) {
+            if (configuredNodeId > MAX_NODE_ID) {
+                throw new IllegalStateException("Ticket number node id must be between 0 and " + MAX_NODE_ID);
+            }
+            nodeId = configuredNodeId;
+        } else {
+            leaseNodeId();
+        }
+        logger.info("Ticket number generator using node id: {}", nodeId);
+    }
+
+    /**
+     * Extend the node id lease, or lease a new id if another instance took this one over
+     */
+    @Scheduled(fixedDelayString = "${ticket.ticket-number.lease-renew-interval-ms:10000}")
+    public void renewLease() {
+        if (configuredNodeId >= 0) {
+            return;
+        }
+        long renewedAt = currentMillis();
+        try {
+            Long held = redisTemplate.execute(RENEW_LEASE_SCRIPT,
+                Collections.singletonList(getLeaseKey(nodeId)), leaseToken, leaseSeconds);
+            if (held != null && held == 1) {
+                synchronized (this) {
+                    leaseExpiresAt = renewedAt + TimeUnit.SECONDS.toMillis(leaseSeconds);
+                }
+            } else {
+                logger.warn("Ticket number node id {} was taken over by another instance", nodeId);
+                leaseNodeId();
+                logger.info("Ticket number generator using node id: {}", nodeId);
+            }
+        } catch (Exception e) {
+            // Numbers are refused once the current lease runs out
+            logger.error("Failed to renew ticket number node id lease: {}", nodeId, e);
+        }
+    }
+
+    private synchronized void leaseNodeId() {
+        // The old id may already be in use elsewhere, so stop issuing until a new one is leased
+        leaseExpiresAt = Long.MIN_VALUE;
+        // Random start so instances starting together rarely contend for the same slot
+        long start = ThreadLocalRandom.current().nextLong(MAX_NODE_ID + 1);
+        for (long offset = 0; offset <= MAX_NODE_ID; offset++) {
+            long candidate = (start + offset) & MAX_NODE_ID;
+            long leasedAt = currentMillis();
+            if (Boolean.TRUE.equals(redisTemplate.opsForValue()
+                    .setIfAbsent(getLeaseKey(candidate), leaseToken, leaseSeconds, TimeUnit.SECONDS))) {
+                nodeId = candidate;
+                leaseExpiresAt = leasedAt + TimeUnit.SECONDS.toMillis(leaseSeconds);
+                return;
+            }
+        }
+        throw new IllegalStateException("No free ticket number node id among " + (MAX_NODE_ID + 1));
+    }
+
+    /**
+     * Next ticket number for an event, e.g. TKT-1A2B3C4D-0K3F9Z2M1Q0AB
+     */
+    public String nextTicketNumber(UUID eventId) {
+        String eventPrefix = eventId.toString().substring(0, 8).toUpperCase();
+        return "TKT-" + eventPrefix + "-" + encode(nextId());
+    }
+
+    synchronized long nextId() {
+        long now = currentMillis();
+        if (now >= leaseExpiresAt) {
+            throw new IllegalStateException("Ticket number node id lease expired: " + nodeId);
+        }
+
+        if (now < lastMillis) {
+            // The clock stepped back; wait it out rather than risk reusing a timestamp
+            if (lastMillis - now > MAX_CLOCK_DRIFT_MILLIS) {
+                throw new IllegalStateException("Clock moved backwards by " + (lastMillis - now) + " ms");
+            }
+            now = waitUntilAfter(lastMillis - 1);
+        }
+
+        if (now == lastMillis) {
+            sequence = (sequence + 1) & SEQUENCE_MASK;
+            if (sequence == 0) {
+                // 4096 numbers used up in this millisecond
+                now = waitUntilAfter(lastMillis);
+            }
+        } else {
+            sequence = 0;
+        }
+        lastMillis = now;
+
+        return ((now - EPOCH_MILLIS) << (NODE_BITS + SEQUENCE_BITS)) | (nodeId << SEQUENCE_BITS) | sequence;
+    }
+
+    long currentMillis() {
+        return System.currentTimeMillis();
+    }
+
+    private long waitUntilAfter(long millis) {
+        long now = currentMillis();
+        while (now <= millis) {
+            Thread.onSpinWait();
+            now = currentMillis();
+        }
+        return now;
+    }
+
+    private static String getLeaseKey(long nodeId) {
+        return NODE_LEASE_KEY_PREFIX + nodeId;
+    }
+
+    private static RedisScript<Long> loadScript(String location) {
+        DefaultRedisScript<Long> script = new DefaultRedisScript<>();
+        script.setLocation(new ClassPathResource(location));
+        script.setResultType(Long.class);
+        return script;
+    }
+
+    private static String encode(long id) {
+        StringBuilder encoded = new StringBuilder(Long.toString(id, 36).toUpperCase());
+        // Fixed width keeps numbers the same length and sortable as text
+        while (encoded.length() < ENCODED_LENGTH) {
+            encoded.insert(0, '0');
+        }
+        return encoded.toString();
+    }
+}
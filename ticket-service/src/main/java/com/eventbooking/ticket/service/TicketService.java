@@ -5,6 +5,7 @@ import com.eventbooking.ticket.dto.TicketDto;
 
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 public interface TicketService {
     
@@ -22,6 +23,13 @@ public interface TicketService {
      */
     TicketDto getTicketById(UUID ticketId);
     
+    /**
+     * Get the QR code image of a ticket, rendered off the request thread
+     * @param ticketId The ticket ID
+     * @return Handle completing with the PNG bytes
+     */
+    CompletableFuture<byte[]> getTicketQRCodeImage(UUID ticketId);
+    
     /**
      * Get a ticket by its ticket number
      * @param ticketNumber The ticket number
@@ -14,35 +14,39 @@ import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 @Service
 public class TicketServiceImpl implements TicketService {
     
     private static final Logger logger = LoggerFactory.getLogger(TicketServiceImpl.class);
-    private static final DateTimeFormatter TICKET_NUMBER_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
     
     private final TicketRepository ticketRepository;
     private final TicketTypeRepository ticketTypeRepository;
     private final TicketMapper ticketMapper;
     private final QRCodeService qrCodeService;
     private final TicketEventPublisher eventPublisher;
+    private final TicketNumberGenerator ticketNumberGenerator;
+    private final TicketCache ticketCache;
     
     public TicketServiceImpl(TicketRepository ticketRepository,
                             TicketTypeRepository ticketTypeRepository,
                             TicketMapper ticketMapper,
                             QRCodeService qrCodeService,
-                            TicketEventPublisher eventPublisher) {
+                            TicketEventPublisher eventPublisher,
+                            TicketNumberGenerator ticketNumberGenerator,
+                            TicketCache ticketCache) {
         this.ticketRepository = ticketRepository;
         this.ticketTypeRepository = ticketTypeRepository;
         this.ticketMapper = ticketMapper;
         this.qrCodeService = qrCodeService;
         this.eventPublisher = eventPublisher;
+        this.ticketNumberGenerator = ticketNumberGenerator;
+        this.ticketCache = ticketCache;
     }
 
     @Override
@@ -55,38 +59,38 @@ public class TicketServiceImpl implements TicketService {
                 .orElseThrow(() -> new TicketTypeNotFoundException(
                         "Ticket type not found: " + request.getTicketTypeId()));
         
-        List<TicketDto> generatedTickets = new ArrayList<>();
+        // Ids, numbers and QR payloads are all built in memory first
+        List<Ticket> tickets = new ArrayList<>(request.getQuantity());
         
         for (int i = 0; i < request.getQuantity(); i++) {
+            // Unique by construction, so no existence check against the database
+            String ticketNumber = ticketNumberGenerator.nextTicketNumber(ticketType.getEventId());
             Ticket ticket = new Ticket();
+            ticket.setId(UUID.randomUUID());
             ticket.setTicketTypeId(request.getTicketTypeId());
             ticket.setOrderId(request.getOrderId());
             ticket.setHolderName(request.getHolderName());
             ticket.setStatus(Ticket.TicketStatus.ACTIVE);
-            
-            // Generate unique ticket number
-            String ticketNumber = generateUniqueTicketNumber(ticketType.getEventId());
             ticket.setTicketNumber(ticketNumber);
-            
-            // Save ticket first to get the ID
-            ticket = ticketRepository.save(ticket);
-            
-            // Generate QR code with ticket ID and number
-            String qrCode = qrCodeService.generateQRCode(
-                    ticket.getId().toString(), 
-                    ticket.getTicketNumber());
-            ticket.setQrCode(qrCode);
-            
-            // Update ticket with QR code
-            ticket = ticketRepository.save(ticket);
-            
-            generatedTickets.add(ticketMapper.toDto(ticket));
-            logger.debug("Generated ticket: {}", ticket.getTicketNumber());
+            // Only the compact payload is stored; the image is rendered outside the transaction
+            ticket.setQrCode(qrCodeService.buildPayload(ticket.getId(), ticketType.getEventId()));
+            tickets.add(ticket);
         }
         
+        // Every ticket is new with an assigned id, so the whole order goes out as one batched INSERT
+        List<TicketDto> generatedTickets = ticketRepository.saveAll(tickets).stream()
+                .map(ticketMapper::toDto)
+                .collect(Collectors.toList());
+        
+        // An order fetched while it had other tickets must not keep serving the old list
+        ticketCache.invalidate(tickets);
+        
         logger.info("Successfully generated {} tickets for order: {}", 
                 generatedTickets.size(), request.getOrderId());
         
+        // Warm the image cache in the background; a rejected render is simply done on first fetch
+        tickets.forEach(ticket -> qrCodeService.renderQRCode(ticket.getQrCode()));
+        
         // Publish tickets generated event
         // Note: userId and holderEmail would need to be passed in the request in a real implementation
         eventPublisher.publishTicketsGenerated(
@@ -105,31 +109,49 @@ public class TicketServiceImpl implements TicketService {
     public TicketDto getTicketById(UUID ticketId) {
         logger.debug("Retrieving ticket by ID: {}", ticketId);
         
+        return ticketCache.get(TicketCache.idKey(ticketId), () -> {
+            Ticket ticket = ticketRepository.findById(ticketId)
+                    .orElseThrow(() -> new TicketNotFoundException("Ticket not found: " + ticketId));
+            return ticketMapper.toDto(ticket);
+        });
+    }
+    
+    @Override
+    public CompletableFuture<byte[]> getTicketQRCodeImage(UUID ticketId) {
         Ticket ticket = ticketRepository.findById(ticketId)
                 .orElseThrow(() -> new TicketNotFoundException("Ticket not found: " + ticketId));
         
-        return ticketMapper.toDto(ticket);
+        return qrCodeService.renderQRCode(ticket.getQrCode());
     }
     
     @Override
     public TicketDto getTicketByNumber(String ticketNumber) {
         logger.debug("Retrieving ticket by number: {}", ticketNumber);
         
-        Ticket ticket = ticketRepository.findByTicketNumber(ticketNumber)
-                .orElseThrow(() -> new TicketNotFoundException("Ticket not found: " + ticketNumber));
-        
-        return ticketMapper.toDto(ticket);
+        return ticketCache.get(TicketCache.numberKey(ticketNumber), () -> {
+            Ticket ticket = ticketRepository.findByTicketNumber(ticketNumber)
+                    .orElseThrow(() -> new TicketNotFoundException("Ticket not found: " + ticketNumber));
+            return ticketMapper.toDto(ticket);
+        });
     }
     
     @Override
     public List<TicketDto> getTicketsByOrderId(UUID orderId) {
         logger.debug("Retrieving tickets for order: {}", orderId);
         
-        List<Ticket> tickets = ticketRepository.findByOrderId(orderId);
+        List<TicketDto> tickets = ticketCache.get(TicketCache.orderKey(orderId), () -> {
+            List<Ticket> orderTickets = ticketRepository.findByOrderId(orderId);
+            
+            // An empty result is not cached; the tickets may not have been generated yet
+            if (orderTickets.isEmpty()) {
+                return null;
+            }
+            return orderTickets.stream()
+                    .map(ticketMapper::toDto)
+                    .collect(Collectors.toList());
+        });
         
-        return tickets.stream()
-                .map(ticketMapper::toDto)
-                .collect(Collectors.toList());
+        return tickets != null ? tickets : new ArrayList<>();
     }
     
     @Override
@@ -158,6 +180,7 @@ public class TicketServiceImpl implements TicketService {
         
         ticket.setStatus(Ticket.TicketStatus.CANCELLED);
         ticketRepository.save(ticket);
+        ticketCache.invalidate(ticket);
         
         // Publish ticket cancelled event
         eventPublisher.publishTicketCancelled(ticketId, ticket.getOrderId(), null);
@@ -169,11 +192,13 @@ public class TicketServiceImpl implements TicketService {
     public TicketDto validateTicket(String qrCode) {
         logger.debug("Validating ticket with QR code");
         
-        if (!qrCodeService.validateQRCode(qrCode)) {
+        // Forged or damaged codes are rejected here without a database round trip
+        UUID ticketId = qrCodeService.resolveTicketId(qrCode);
+        if (ticketId == null) {
             throw new TicketNotFoundException("Invalid QR code format");
         }
         
-        Ticket ticket = ticketRepository.findByQrCode(qrCode)
+        Ticket ticket = ticketRepository.findById(ticketId)
                 .orElseThrow(() -> new TicketNotFoundException("Ticket not found for QR code"));
         
         if (ticket.getStatus() != Ticket.TicketStatus.ACTIVE) {
@@ -182,36 +207,4 @@ public class TicketServiceImpl implements TicketService {
         
         return ticketMapper.toDto(ticket);
     }
-
-    /**
-     * Generate a unique ticket number
-     * Format: EVT-{eventId-first8}-{timestamp}-{random4}
-     */
-    private String generateUniqueTicketNumber(UUID eventId) {
-        String eventPrefix = eventId.toString().substring(0, 8).toUpperCase();
-        String timestamp = LocalDateTime.now().format(TICKET_NUMBER_FORMATTER);
-        String random = String.format("%04d", (int) (Math.random() * 10000));
-        
-        String ticketNumber;
-        int attempts = 0;
-        int maxAttempts = 10;
-        
-        do {
-            ticketNumber = String.format("TKT-%s-%s-%s", eventPrefix, timestamp, random);
-            attempts++;
-            
-            if (attempts >= maxAttempts) {
-                // Add additional randomness if we've tried too many times
-                random = UUID.randomUUID().toString().substring(0, 8).toUpperCase();
-                ticketNumber = String.format("TKT-%s-%s-%s", eventPrefix, timestamp, random);
-            }
-            
-        } while (ticketRepository.existsByTicketNumber(ticketNumber) && attempts < maxAttempts * 2);
-        
-        if (ticketRepository.existsByTicketNumber(ticketNumber)) {
-            throw new RuntimeException("Failed to generate unique ticket number after multiple attempts");
-        }
-        
-        return ticketNumber;
-    }
 }
@@ -1,6 +1,7 @@
 package com.eventbooking.ticket.service;
 
 import com.eventbooking.ticket.dto.CreateTicketTypeRequest;
+import com.eventbooking.ticket.dto.ReserveCartRequest;
 import com.eventbooking.ticket.dto.ReserveTicketsRequest;
 import com.eventbooking.ticket.dto.ReservationDto;
 import com.eventbooking.ticket.dto.TicketTypeDto;
@@ -46,6 +47,11 @@ public interface TicketTypeService {
      */
     ReservationDto reserveTickets(ReserveTicketsRequest request, UUID userId);
     
+    /**
+     * Reserve several ticket types for a user, all or nothing
+     */
+    List<ReservationDto> reserveCart(ReserveCartRequest request, UUID userId);
+    
     /**
      * Cancel a reservation
      */
@@ -15,10 +15,16 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -32,20 +38,49 @@ public class TicketTypeServiceImpl implements TicketTypeService {
     private final TicketReservationRepository reservationRepository;
     private final TicketTypeMapper ticketTypeMapper;
     private final InventoryService inventoryService;
+    private final TicketTypeSnapshotCache snapshotCache;
+    private final TicketCounterAggregator counterAggregator;
+    private final ReservationExpiryQueue expiryQueue;
+    private final ExpiredReservationSweeper expiredReservationSweeper;
+    private final WaitingRoomService waitingRoomService;
+    private final SeatMapService seatMapService;
+    private final SaleWindowIndex saleWindowIndex;
     
     @Value("${ticket.reservation.timeout-minutes:15}")
     private int reservationTimeoutMinutes;
     
+    /**
+     * When enabled, reservations validate against a cached ticket type snapshot and update
+     * quantity_reserved with an atomic UPDATE instead of holding a row lock. Redis remains
+     * the arbiter of stock in both modes.
+     */
+    @Value("${ticket.reservation.lock-free:false}")
+    private boolean lockFreeReservations;
+    
     @Autowired
     public TicketTypeServiceImpl(
             TicketTypeRepository ticketTypeRepository,
             TicketReservationRepository reservationRepository,
             TicketTypeMapper ticketTypeMapper,
-            InventoryService inventoryService) {
+            InventoryService inventoryService,
+            TicketTypeSnapshotCache snapshotCache,
+            TicketCounterAggregator counterAggregator,
+            ReservationExpiryQueue expiryQueue,
+            ExpiredReservationSweeper expiredReservationSweeper,
+            WaitingRoomService waitingRoomService,
+            SeatMapService seatMapService,
+            SaleWindowIndex saleWindowIndex) {
         this.ticketTypeRepository = ticketTypeRepository;
         this.reservationRepository = reservationRepository;
         this.ticketTypeMapper = ticketTypeMapper;
         this.inventoryService = inventoryService;
+        this.snapshotCache = snapshotCache;
+        this.counterAggregator = counterAggregator;
+        this.expiryQueue = expiryQueue;
+        this.expiredReservationSweeper = expiredReservationSweeper;
+        this.waitingRoomService = waitingRoomService;
+        this.seatMapService = seatMapService;
+        this.saleWindowIndex = saleWindowIndex;
     }
     
     @Override
@@ -70,11 +105,15 @@ public class TicketTypeServiceImpl implements TicketTypeService {
         ticketType.setSaleEndDate(request.getSaleEndDate());
         ticketType.setPerPersonLimit(request.getPerPersonLimit());
         ticketType.setVenueZone(request.getVenueZone());
+        if (request.getInventoryShards() != null) {
+            ticketType.setInventoryShards(request.getInventoryShards());
+        }
         
         TicketType savedTicketType = ticketTypeRepository.save(ticketType);
         
         // Initialize inventory in Redis
         inventoryService.syncInventoryFromDatabase(savedTicketType.getId());
+        saleWindowIndex.invalidate(savedTicketType.getEventId());
         
         logger.info("Created ticket type: {} for event: {}", savedTicketType.getId(), request.getEventId());
         
@@ -100,8 +139,19 @@ public class TicketTypeServiceImpl implements TicketTypeService {
     }
     
     @Override
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public List<TicketTypeDto> getAvailableTicketTypesByEventId(UUID eventId) {
+        // Served from memory and the counters; SUPPORTS keeps an index hit off the connection pool
+        if (saleWindowIndex.isEnabled()) {
+            return saleWindowIndex.findAvailable(eventId).stream()
+                .map(available -> {
+                    TicketTypeDto dto = ticketTypeMapper.toDto(available.getTicketType());
+                    dto.setAvailableQuantity(available.getAvailableQuantity());
+                    return dto;
+                })
+                .collect(Collectors.toList());
+        }
+        
         List<TicketType> ticketTypes = ticketTypeRepository.findAvailableTicketTypesByEventId(eventId);
         return ticketTypes.stream()
             .filter(tt -> tt.getAvailableQuantity() > 0)
@@ -116,6 +166,8 @@ public class TicketTypeServiceImpl implements TicketTypeService {
         TicketType ticketType = ticketTypeRepository.findById(ticketTypeId)
             .orElseThrow(() -> new TicketTypeNotFoundException(ticketTypeId));
         
+        int previousQuantity = ticketType.getQuantityAvailable();
+        
         // Update fields if provided
         if (request.getName() != null) {
             ticketType.setName(request.getName());
@@ -148,9 +200,14 @@ public class TicketTypeServiceImpl implements TicketTypeService {
         }
         
         TicketType savedTicketType = ticketTypeRepository.save(ticketType);
+        snapshotCache.evict(ticketTypeId);
         
-        // Sync inventory to Redis
+        // Live counters move by the difference only; the sync then fills in any missing ones
+        if (savedTicketType.isOnSale()) {
+            inventoryService.adjustInventory(ticketTypeId, savedTicketType.getQuantityAvailable() - previousQuantity);
+        }
         inventoryService.syncInventoryFromDatabase(savedTicketType.getId());
+        saleWindowIndex.invalidate(savedTicketType.getEventId());
         
         logger.info("Updated ticket type: {}", ticketTypeId);
         
@@ -170,13 +227,22 @@ public class TicketTypeServiceImpl implements TicketTypeService {
         }
         
         ticketTypeRepository.delete(ticketType);
+        snapshotCache.evict(ticketTypeId);
         inventoryService.clearInventoryCache(ticketTypeId);
+        saleWindowIndex.invalidate(ticketType.getEventId());
         
         logger.info("Deleted ticket type: {}", ticketTypeId);
     }
     
     @Override
     public ReservationDto reserveTickets(ReserveTicketsRequest request, UUID userId) {
+        // Checked before any lock or Redis call so queued users cost nothing downstream
+        verifyAdmission(List.of(request.getTicketTypeId()), userId, request.getAdmissionToken());
+        
+        if (lockFreeReservations) {
+            return reserveTicketsLockFree(request, userId);
+        }
+        
         UUID ticketTypeId = request.getTicketTypeId();
         Integer quantity = request.getQuantity();
         
@@ -184,39 +250,23 @@ public class TicketTypeServiceImpl implements TicketTypeService {
         TicketType ticketType = ticketTypeRepository.findByIdWithLock(ticketTypeId)
             .orElseThrow(() -> new TicketTypeNotFoundException(ticketTypeId));
         
-        // Validate ticket type is on sale
-        if (!ticketType.isOnSale()) {
-            throw new InvalidReservationException("Tickets are not currently on sale");
-        }
-        
-        // Validate quantity against per-person limit
-        if (quantity > ticketType.getPerPersonLimit()) {
-            throw new InvalidReservationException(
-                "Quantity exceeds per-person limit of " + ticketType.getPerPersonLimit());
-        }
+        validateReservation(ticketType.isOnSale(), ticketType.getPerPersonLimit(), quantity);
         
-        // Try to reserve in Redis (atomic operation)
-        boolean reserved = inventoryService.reserveTickets(ticketTypeId, quantity);
-        
-        if (!reserved) {
-            Integer available = inventoryService.getAvailableQuantity(ticketTypeId);
-            throw new InsufficientInventoryException(quantity, available);
-        }
+        // Try to reserve in Redis (atomic operation, including the user's per-person allowance)
+        InventoryReservationResult result = inventoryService.reserveTickets(
+            ticketTypeId, userId, quantity, ticketType.getPerPersonLimit());
+        ensureReserved(result, quantity, ticketType.getPerPersonLimit());
         
         try {
-            // Create reservation record
-            TicketReservation reservation = new TicketReservation();
-            reservation.setUserId(userId);
-            reservation.setTicketTypeId(ticketTypeId);
-            reservation.setQuantity(quantity);
-            reservation.setReservedUntil(LocalDateTime.now().plusMinutes(reservationTimeoutMinutes));
-            reservation.setStatus(ReservationStatus.ACTIVE);
-            
-            TicketReservation savedReservation = reservationRepository.save(reservation);
+            TicketReservation savedReservation = createReservation(userId, ticketTypeId, quantity);
             
             // Update ticket type reserved count
-            ticketType.setQuantityReserved(ticketType.getQuantityReserved() + quantity);
-            ticketTypeRepository.save(ticketType);
+            if (counterAggregator.isEnabled()) {
+                counterAggregator.record(ticketTypeId, quantity, 0);
+            } else {
+                ticketType.setQuantityReserved(ticketType.getQuantityReserved() + quantity);
+                ticketTypeRepository.save(ticketType);
+            }
             
             logger.info("Reserved {} tickets for user: {} on ticket type: {}", 
                        quantity, userId, ticketTypeId);
@@ -225,14 +275,108 @@ public class TicketTypeServiceImpl implements TicketTypeService {
             
         } catch (Exception e) {
             // Rollback Redis reservation on failure
-            inventoryService.releaseReservation(ticketTypeId, quantity);
+            inventoryService.releaseReservation(ticketTypeId, userId, quantity);
+            throw e;
+        }
+    }
+    
+    /**
+     * Reserve without locking the ticket type row. Sale window and per-person checks read a
+     * cached snapshot and the reserved count is bumped with a single atomic UPDATE.
+     */
+    private ReservationDto reserveTicketsLockFree(ReserveTicketsRequest request, UUID userId) {
+        UUID ticketTypeId = request.getTicketTypeId();
+        Integer quantity = request.getQuantity();
+        
+        TicketTypeSnapshot snapshot = snapshotCache.get(ticketTypeId);
+        validateReservation(snapshot.isOnSale(), snapshot.getPerPersonLimit(), quantity);
+        
+        InventoryReservationResult result = inventoryService.reserveTickets(
+            ticketTypeId, userId, quantity, snapshot.getPerPersonLimit());
+        ensureReserved(result, quantity, snapshot.getPerPersonLimit());
+        
+        try {
+            TicketReservation savedReservation = createReservation(userId, ticketTypeId, quantity);
+            adjustReservedCount(ticketTypeId, quantity);
+            
+            logger.info("Reserved {} tickets for user: {} on ticket type: {} (lock-free)", 
+                       quantity, userId, ticketTypeId);
+            
+            return toReservationDto(savedReservation);
+            
+        } catch (Exception e) {
+            inventoryService.releaseReservation(ticketTypeId, userId, quantity);
+            throw e;
+        }
+    }
+    
+    @Override
+    public List<ReservationDto> reserveCart(ReserveCartRequest request, UUID userId) {
+        // Merge repeated ticket types so each is reserved once
+        Map<UUID, Integer> quantities = new LinkedHashMap<>();
+        for (ReserveTicketsRequest item : request.getItems()) {
+            quantities.merge(item.getTicketTypeId(), item.getQuantity(), Integer::sum);
+        }
+        verifyAdmission(quantities.keySet(), userId, request.getAdmissionToken());
+        Map<UUID, Integer> perPersonLimits = new HashMap<>();
+        
+        if (lockFreeReservations) {
+            quantities.forEach((ticketTypeId, quantity) -> {
+                TicketTypeSnapshot snapshot = snapshotCache.get(ticketTypeId);
+                validateReservation(snapshot.isOnSale(), snapshot.getPerPersonLimit(), quantity);
+                perPersonLimits.put(ticketTypeId, snapshot.getPerPersonLimit());
+            });
+        } else {
+            List<TicketType> ticketTypes = ticketTypeRepository.findAllByIdWithLock(quantities.keySet());
+            if (ticketTypes.size() != quantities.size()) {
+                UUID missingId = quantities.keySet().stream()
+                    .filter(id -> ticketTypes.stream().noneMatch(tt -> tt.getId().equals(id)))
+                    .findFirst()
+                    .orElseThrow();
+                throw new TicketTypeNotFoundException(missingId);
+            }
+            for (TicketType ticketType : ticketTypes) {
+                validateReservation(ticketType.isOnSale(), ticketType.getPerPersonLimit(),
+                    quantities.get(ticketType.getId()));
+                perPersonLimits.put(ticketType.getId(), ticketType.getPerPersonLimit());
+            }
+        }
+        
+        // One Redis script for the whole cart
+        CartReservationResult result = inventoryService.reserveCart(userId, quantities, perPersonLimits);
+        
+        if (result.isLimitExceeded()) {
+            throw perPersonLimitExceeded(perPersonLimits.get(result.getShortTicketTypeId()), result.getAlreadyHeld());
+        }
+        if (!result.isReserved()) {
+            throw new InsufficientInventoryException(
+                quantities.get(result.getShortTicketTypeId()), result.getAvailable());
+        }
+        
+        try {
+            List<ReservationDto> reservations = new ArrayList<>();
+            quantities.forEach((ticketTypeId, quantity) -> {
+                TicketReservation savedReservation = createReservation(userId, ticketTypeId, quantity);
+                adjustReservedCount(ticketTypeId, quantity);
+                reservations.add(toReservationDto(savedReservation));
+            });
+            
+            logger.info("Reserved cart of {} ticket types for user: {}", quantities.size(), userId);
+            
+            return reservations;
+            
+        } catch (Exception e) {
+            // Rollback every Redis reservation in the cart on failure
+            quantities.forEach((ticketTypeId, quantity) ->
+                inventoryService.releaseReservation(ticketTypeId, userId, quantity));
             throw e;
         }
     }
     
     @Override
     public void cancelReservation(UUID reservationId, UUID userId) {
-        TicketReservation reservation = reservationRepository.findById(reservationId)
+        // Locked so a concurrent expiry or seat hold finishes first and is seen here
+        TicketReservation reservation = reservationRepository.findByIdWithLock(reservationId)
             .orElseThrow(() -> new InvalidReservationException("Reservation not found"));
         
         // Validate user owns the reservation
@@ -246,17 +390,17 @@ public class TicketTypeServiceImpl implements TicketTypeService {
         }
         
         // Release inventory
-        inventoryService.releaseReservation(reservation.getTicketTypeId(), reservation.getQuantity());
+        inventoryService.releaseReservation(
+            reservation.getTicketTypeId(), reservation.getUserId(), reservation.getQuantity());
         
         // Update reservation status
         reservation.setStatus(ReservationStatus.CANCELLED);
         reservationRepository.save(reservation);
+        expiryQueue.remove(reservationId);
+        seatMapService.releaseSeats(reservation);
         
         // Update ticket type reserved count
-        TicketType ticketType = ticketTypeRepository.findById(reservation.getTicketTypeId())
-            .orElseThrow(() -> new TicketTypeNotFoundException(reservation.getTicketTypeId()));
-        ticketType.setQuantityReserved(ticketType.getQuantityReserved() - reservation.getQuantity());
-        ticketTypeRepository.save(ticketType);
+        adjustReservedCount(reservation.getTicketTypeId(), -reservation.getQuantity());
         
         logger.info("Cancelled reservation: {} for user: {}", reservationId, userId);
     }
@@ -273,40 +417,83 @@ public class TicketTypeServiceImpl implements TicketTypeService {
     }
     
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void cleanupExpiredReservations() {
-        List<TicketReservation> expiredReservations = reservationRepository
-            .findExpiredReservations(ReservationStatus.ACTIVE, LocalDateTime.now());
-        
-        for (TicketReservation reservation : expiredReservations) {
-            try {
-                // Release inventory
-                inventoryService.releaseReservation(
-                    reservation.getTicketTypeId(), 
-                    reservation.getQuantity()
-                );
-                
-                // Update reservation status
-                reservation.setStatus(ReservationStatus.EXPIRED);
-                reservationRepository.save(reservation);
-                
-                // Update ticket type reserved count
-                TicketType ticketType = ticketTypeRepository.findById(reservation.getTicketTypeId())
-                    .orElse(null);
-                if (ticketType != null) {
-                    ticketType.setQuantityReserved(
-                        ticketType.getQuantityReserved() - reservation.getQuantity()
-                    );
-                    ticketTypeRepository.save(ticketType);
-                }
-                
-                logger.info("Cleaned up expired reservation: {}", reservation.getId());
-                
-            } catch (Exception e) {
-                logger.error("Error cleaning up reservation: {}", reservation.getId(), e);
-            }
+        // Each page commits in its own transaction inside the sweeper
+        int expired = expiredReservationSweeper.sweep();
+        
+        logger.info("Cleaned up {} expired reservations", expired);
+    }
+    
+    /**
+     * Apply a change to quantity_reserved: buffered by the write-behind aggregator when enabled,
+     * an atomic UPDATE in lock-free mode, otherwise a read-modify-write of the entity.
+     */
+    private void adjustReservedCount(UUID ticketTypeId, int delta) {
+        if (counterAggregator.isEnabled()) {
+            counterAggregator.record(ticketTypeId, delta, 0);
+        } else if (lockFreeReservations) {
+            ticketTypeRepository.adjustQuantityReserved(ticketTypeId, delta);
+        } else {
+            ticketTypeRepository.findById(ticketTypeId).ifPresent(ticketType -> {
+                ticketType.setQuantityReserved(ticketType.getQuantityReserved() + delta);
+                ticketTypeRepository.save(ticketType);
+            });
+        }
+    }
+    
+    /**
+     * Require a waiting room admission for every event the ticket types belong to.
+     * The event of a ticket type never changes, so the cached snapshot is enough.
+     */
+    private void verifyAdmission(Collection<UUID> ticketTypeIds, UUID userId, String admissionToken) {
+        if (!waitingRoomService.isEnabled()) {
+            return;
+        }
+        ticketTypeIds.stream()
+            .map(ticketTypeId -> snapshotCache.get(ticketTypeId).getEventId())
+            .distinct()
+            .forEach(eventId -> waitingRoomService.verifyAdmission(eventId, userId, admissionToken));
+    }
+    
+    private void validateReservation(boolean onSale, Integer perPersonLimit, Integer quantity) {
+        // Validate ticket type is on sale
+        if (!onSale) {
+            throw new InvalidReservationException("Tickets are not currently on sale");
         }
         
-        logger.info("Cleaned up {} expired reservations", expiredReservations.size());
+        // Validate quantity against per-person limit
+        if (quantity > perPersonLimit) {
+            throw new InvalidReservationException(
+                "Quantity exceeds per-person limit of " + perPersonLimit);
+        }
+    }
+    
+    private void ensureReserved(InventoryReservationResult result, Integer quantity, Integer perPersonLimit) {
+        if (result.isLimitExceeded()) {
+            throw perPersonLimitExceeded(perPersonLimit, result.getAlreadyHeld());
+        }
+        if (!result.isReserved()) {
+            throw new InsufficientInventoryException(quantity, result.getRemaining());
+        }
+    }
+    
+    private InvalidReservationException perPersonLimitExceeded(Integer perPersonLimit, int alreadyHeld) {
+        return new InvalidReservationException(
+            "Quantity exceeds per-person limit of " + perPersonLimit + " (already holding " + alreadyHeld + ")");
+    }
+    
+    private TicketReservation createReservation(UUID userId, UUID ticketTypeId, Integer quantity) {
+        TicketReservation reservation = new TicketReservation();
+        reservation.setUserId(userId);
+        reservation.setTicketTypeId(ticketTypeId);
+        reservation.setQuantity(quantity);
+        reservation.setReservedUntil(LocalDateTime.now().plusMinutes(reservationTimeoutMinutes));
+        reservation.setStatus(ReservationStatus.ACTIVE);
+        
+        TicketReservation savedReservation = reservationRepository.save(reservation);
+        expiryQueue.schedule(savedReservation);
+        return savedReservation;
     }
     
     private ReservationDto toReservationDto(TicketReservation reservation) {
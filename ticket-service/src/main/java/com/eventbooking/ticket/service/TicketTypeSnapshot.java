@@ -0,0 +1,58 @@
+package com.eventbooking.ticket.service;
+
+import com.eventbooking.ticket.entity.TicketType;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Immutable copy of the ticket type fields needed to validate a reservation.
+ * Shared between request threads without holding a database row or entity.
+ */
+public final class TicketTypeSnapshot {
+
+    private final UUID id;
+    private final UUID eventId;
+    private final LocalDateTime saleStartDate;
+    private final LocalDateTime saleEndDate;
+    private final Integer perPersonLimit;
+
+    private TicketTypeSnapshot(TicketType ticketType) {
+        this.id = ticketType.getId();
+        this.eventId = ticketType.getEventId();
+        this.saleStartDate = ticketType.getSaleStartDate();
+        this.saleEndDate = ticketType.getSaleEndDate();
+        this.perPersonLimit = ticketType.getPerPersonLimit();
+    }
+
+    public static TicketTypeSnapshot of(TicketType ticketType) {
+        return new TicketTypeSnapshot(ticketType);
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public UUID getEventId() {
+        return eventId;
+    }
+
+    public LocalDateTime getSaleStartDate() {
+        return saleStartDate;
+    }
+
+    public LocalDateTime getSaleEndDate() {
+        return saleEndDate;
+    }
+
+    public Integer getPerPersonLimit() {
+        return perPersonLimit;
+    }
+
+    public boolean isOnSale() {
+        LocalDateTime now = LocalDateTime.now();
+        boolean afterStart = saleStartDate == null || now.isAfter(saleStartDate) || now.isEqual(saleStartDate);
+        boolean beforeEnd = saleEndDate == null || now.isBefore(saleEndDate);
+        return afterStart && beforeEnd;
+    }
+}
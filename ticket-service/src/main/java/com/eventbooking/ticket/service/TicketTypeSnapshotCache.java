@@ -0,0 +1,69 @@
+package com.eventbooking.ticket.service;
+
+import com.eventbooking.ticket.entity.TicketType;
+import com.eventbooking.ticket.exception.TicketTypeNotFoundException;
+import com.eventbooking.ticket.repository.TicketTypeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Short-lived in-process cache of ticket type snapshots used by the lock-free reservation path.
+ * Entries are refreshed after the configured TTL and evicted locally when a ticket type changes.
+ */
+@Component
+public class TicketTypeSnapshotCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(TicketTypeSnapshotCache.class);
+
+    private final TicketTypeRepository ticketTypeRepository;
+    private final Map<UUID, CachedSnapshot> snapshots = new ConcurrentHashMap<>();
+
+    @Value("${ticket.reservation.snapshot-ttl-seconds:5}")
+    private long snapshotTtlSeconds;
+
+    public TicketTypeSnapshotCache(TicketTypeRepository ticketTypeRepository) {
+        this.ticketTypeRepository = ticketTypeRepository;
+    }
+
+    /**
+     * Get a snapshot of the ticket type, loading it from the database when absent or stale
+     */
+    public TicketTypeSnapshot get(UUID ticketTypeId) {
+        long now = System.currentTimeMillis();
+        CachedSnapshot cached = snapshots.get(ticketTypeId);
+        if (cached != null && cached.expiresAt > now) {
+            return cached.snapshot;
+        }
+
+        TicketType ticketType = ticketTypeRepository.findById(ticketTypeId)
+            .orElseThrow(() -> new TicketTypeNotFoundException(ticketTypeId));
+        TicketTypeSnapshot snapshot = TicketTypeSnapshot.of(ticketType);
+        snapshots.put(ticketTypeId, new CachedSnapshot(snapshot, now + snapshotTtlSeconds * 1000));
+
+        logger.debug("Loaded ticket type snapshot: {}", ticketTypeId);
+        return snapshot;
+    }
+
+    /**
+     * Drop the cached snapshot so the next read reloads it
+     */
+    public void evict(UUID ticketTypeId) {
+        snapshots.remove(ticketTypeId);
+    }
+
+    private static final class CachedSnapshot {
+        private final TicketTypeSnapshot snapshot;
+        private final long expiresAt;
+
+        private CachedSnapshot(TicketTypeSnapshot snapshot, long expiresAt) {
+            this.snapshot = snapshot;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
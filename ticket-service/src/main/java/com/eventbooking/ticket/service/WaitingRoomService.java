@@ -0,0 +1,291 @@
+package com.eventbooking.ticket.service;
+
+import com.eventbooking.common.client.EventServiceClient;
+import com.eventbooking.common.exception.UnauthorizedException;
+import com.eventbooking.ticket.dto.WaitingRoomStatusDto;
+import com.eventbooking.ticket.dto.WaitingRoomStatusDto.State;
+import com.eventbooking.ticket.exception.AdmissionRequiredException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Virtual waiting room placed in front of reservations for hot events.
+ *
+ * Users join a Redis sorted set per event and are admitted in join order at the event's
+ * configured rate. An admitted user receives a short-lived HMAC-signed token that reservation
+ * requests carry; verifying it needs no Redis round trip, so rejected traffic never reaches
+ * the inventory counters or the database. Only the event's organizer may open or close its room.
+ */
+@Service
+public class WaitingRoomService {
+
+    private static final Logger logger = LoggerFactory.getLogger(WaitingRoomService.class);
+
+    private static final String KEY_PREFIX = "waiting-room:";
+    private static final String ROOMS_KEY = KEY_PREFIX + "rooms";
+    private static final String RATE_FIELD = "rate";
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    private static final RedisScript<Long> ADMIT_SCRIPT = loadAdmitScript();
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final EventServiceClient eventServiceClient;
+
+    // Open rooms as of the last tick, so verification does not ask Redis on every request
+    private volatile Set<UUID> openRooms = Set.of();
+
+    private final ThreadLocal<Mac> mac = ThreadLocal.withInitial(this::newMac);
+
+    @Value("${ticket.waiting-room.enabled:false}")
+    private boolean enabled;
+
+    @Value("${ticket.waiting-room.admission-ttl-seconds:300}")
+    private long admissionTtlSeconds = 300;
+
+    @Value("${ticket.waiting-room.token-secret:defaultWaitingRoomSecret1234567890}")
+    private String tokenSecret = "defaultWaitingRoomSecret1234567890";
+
+    public WaitingRoomService(RedisTemplate<String, Object> redisTemplate,
+                              EventServiceClient eventServiceClient) {
+        this.redisTemplate = redisTemplate;
+        this.eventServiceClient = eventServiceClient;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Open (or re-rate) the waiting room of an event
+     * @throws UnauthorizedException if the user is not the event's organizer
+     */
+    public void openRoom(UUID eventId, int admitPerSecond, UUID organizerId) {
+        requireOrganizer(eventId, organizerId);
+
+        redisTemplate.opsForHash().put(getRoomKey(eventId), RATE_FIELD, admitPerSecond);
+        redisTemplate.opsForSet().add(ROOMS_KEY, eventId.toString());
+        refreshOpenRooms();
+        logger.info("Opened waiting room for event: {} admitting {} users per second", eventId, admitPerSecond);
+    }
+
+    /**
+     * Close the waiting room; reservations for the event no longer need a token
+     * @throws UnauthorizedException if the user is not the event's organizer
+     */
+    public void closeRoom(UUID eventId, UUID organizerId) {
+        // Closing lets the whole queue straight through, so only the organizer may do it
+        requireOrganizer(eventId, organizerId);
+
+        redisTemplate.opsForSet().remove(ROOMS_KEY, eventId.toString());
+        redisTemplate.delete(List.of(getRoomKey(eventId), getQueueKey(eventId), getAdmittedKey(eventId),
+            getSequenceKey(eventId)));
+        refreshOpenRooms();
+        logger.info("Closed waiting room for event: {}", eventId);
+    }
+
+    private void requireOrganizer(UUID eventId, UUID organizerId) {
+        if (!eventServiceClient.validateOrganizer(eventId, organizerId)) {
+            throw new UnauthorizedException("User is not the organizer of event: " + eventId);
+        }
+    }
+
+    /**
+     * Put the user in the queue unless they are already queued or admitted
+     */
+    public WaitingRoomStatusDto join(UUID eventId, UUID userId) {
+        if (!isRoomOpen(eventId)) {
+            return status(eventId, State.CLOSED);
+        }
+
+        String member = userId.toString();
+        if (redisTemplate.opsForZSet().score(getAdmittedKey(eventId), member) == null) {
+            // A shared sequence keeps join order fair across nodes whose clocks differ
+            Long sequence = redisTemplate.opsForValue().increment(getSequenceKey(eventId));
+            redisTemplate.opsForZSet().addIfAbsent(getQueueKey(eventId), member, sequence);
+        }
+        return getStatus(eventId, userId);
+    }
+
+    /**
+     * Queue position and estimated wait, or an admission token once the user is admitted
+     */
+    public WaitingRoomStatusDto getStatus(UUID eventId, UUID userId) {
+        if (!isRoomOpen(eventId)) {
+            return status(eventId, State.CLOSED);
+        }
+
+        String member = userId.toString();
+        Double admittedAt = redisTemplate.opsForZSet().score(getAdmittedKey(eventId), member);
+        if (admittedAt != null) {
+            long expiresAt = admittedAt.longValue() / 1000 + admissionTtlSeconds;
+            WaitingRoomStatusDto status = status(eventId, State.ADMITTED);
+            status.setAdmissionToken(issueToken(eventId, userId, expiresAt));
+            status.setAdmissionExpiresAt(LocalDateTime.ofInstant(Instant.ofEpochSecond(expiresAt),
+                ZoneId.systemDefault()));
+            return status;
+        }
+
+        Long rank = redisTemplate.opsForZSet().rank(getQueueKey(eventId), member);
+        if (rank == null) {
+            return status(eventId, State.NOT_QUEUED);
+        }
+
+        long position = rank + 1;
+        Object rate = redisTemplate.opsForHash().get(getRoomKey(eventId), RATE_FIELD);
+        int admitPerSecond = rate != null ? Math.max(((Number) rate).intValue(), 1) : 1;
+
+        WaitingRoomStatusDto status = status(eventId, State.WAITING);
+        status.setPosition(position);
+        status.setEstimatedWaitSeconds((position + admitPerSecond - 1) / admitPerSecond);
+        return status;
+    }
+
+    /**
+     * Reject the request unless the event has no open waiting room or the token admits this user.
+     * Only checks the signature and expiry; no Redis call is made.
+     */
+    public void verifyAdmission(UUID eventId, UUID userId, String token) {
+        if (!enabled || !openRooms.contains(eventId)) {
+            return;
+        }
+        if (!isValidToken(eventId, userId, token)) {
+            throw new AdmissionRequiredException(eventId);
+        }
+    }
+
+    /**
+     * Admit the next users of every open room. Each node runs this; the admission script
+     * meters the rate in Redis so extra nodes do not admit faster.
+     */
+    @Scheduled(fixedDelayString = "${ticket.waiting-room.admit-interval-ms:1000}")
+    public void admit() {
+        if (!enabled) {
+            return;
+        }
+
+        refreshOpenRooms();
+        long now = System.currentTimeMillis();
+        for (UUID eventId : openRooms) {
+            try {
+                Long admitted = redisTemplate.execute(ADMIT_SCRIPT,
+                    List.of(getRoomKey(eventId), getQueueKey(eventId), getAdmittedKey(eventId)),
+                    now, admissionTtlSeconds * 1000);
+                if (admitted != null && admitted > 0) {
+                    logger.debug("Admitted {} users to event: {}", admitted, eventId);
+                }
+            } catch (Exception e) {
+                logger.error("Failed to admit users for event: {}", eventId, e);
+            }
+        }
+    }
+
+    boolean isValidToken(UUID eventId, UUID userId, String token) {
+        if (token == null) {
+            return false;
+        }
+        int separator = token.indexOf('.');
+        if (separator <= 0) {
+            return false;
+        }
+
+        long expiresAt;
+        try {
+            expiresAt = Long.parseLong(token.substring(0, separator));
+        } catch (NumberFormatException e) {
+            return false;
+        }
+        if (expiresAt < Instant.now().getEpochSecond()) {
+            return false;
+        }
+
+        byte[] expected = sign(eventId, userId, expiresAt).getBytes(StandardCharsets.US_ASCII);
+        byte[] actual = token.substring(separator + 1).getBytes(StandardCharsets.US_ASCII);
+        return MessageDigest.isEqual(expected, actual);
+    }
+
+    String issueToken(UUID eventId, UUID userId, long expiresAtEpochSecond) {
+        return expiresAtEpochSecond + "." + sign(eventId, userId, expiresAtEpochSecond);
+    }
+
+    private String sign(UUID eventId, UUID userId, long expiresAt) {
+        byte[] payload = (eventId + ":" + userId + ":" + expiresAt).getBytes(StandardCharsets.UTF_8);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(mac.get().doFinal(payload));
+    }
+
+    private Mac newMac() {
+        try {
+            Mac instance = Mac.getInstance(HMAC_ALGORITHM);
+            instance.init(new SecretKeySpec(tokenSecret.getBytes(StandardCharsets.UTF_8), HMAC_ALGORITHM));
+            return instance;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot initialise waiting room token signing", e);
+        }
+    }
+
+    private boolean isRoomOpen(UUID eventId) {
+        return enabled && Boolean.TRUE.equals(redisTemplate.opsForSet().isMember(ROOMS_KEY, eventId.toString()));
+    }
+
+    private void refreshOpenRooms() {
+        Set<Object> members = redisTemplate.opsForSet().members(ROOMS_KEY);
+        Set<UUID> rooms = new HashSet<>();
+        if (members != null) {
+            for (Object member : members) {
+                rooms.add(UUID.fromString(member.toString()));
+            }
+        }
+        openRooms = Set.copyOf(rooms);
+    }
+
+    private static WaitingRoomStatusDto status(UUID eventId, State state) {
+        WaitingRoomStatusDto status = new WaitingRoomStatusDto();
+        status.setEventId(eventId);
+        status.setState(state);
+        return status;
+    }
+
+    // Hash tag keeps a room's keys in one Redis Cluster slot for the admission script
+    private String getRoomKey(UUID eventId) {
+        return KEY_PREFIX + "{" + eventId + "}";
+    }
+
+    private String getQueueKey(UUID eventId) {
+        return getRoomKey(eventId) + ":queue";
+    }
+
+    private String getAdmittedKey(UUID eventId) {
+        return getRoomKey(eventId) + ":admitted";
+    }
+
+    private String getSequenceKey(UUID eventId) {
+        return getRoomKey(eventId) + ":seq";
+    }
+
+    private static RedisScript<Long> loadAdmitScript() {
+        DefaultRedisScript<Long> script = new DefaultRedisScript<>();
+        script.setLocation(new ClassPathResource("scripts/admit_waiting_room.lua"));
+        script.setResultType(Long.class);
+        return script;
+    }
+}
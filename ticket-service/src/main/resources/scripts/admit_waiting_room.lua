@@ -0,0 +1,32 @@
+-- Admit the next users of a waiting room at the room's configured rate.
+-- Admission credit accrues at rate per second and is capped at one second's worth, so every
+-- node can call this on its own tick without the rate multiplying across nodes.
+-- KEYS[1]: room hash (rate, credit, last)
+-- KEYS[2]: queue sorted set, scored by join sequence
+-- KEYS[3]: admitted sorted set, scored by admission time
+-- ARGV[1]: current epoch millis
+-- ARGV[2]: how long an admission stays valid, in millis
+-- Returns the number of users admitted, or -1 when the room is closed
+local rate = tonumber(redis.call('HGET', KEYS[1], 'rate'))
+if not rate then
+    return -1
+end
+
+local now = tonumber(ARGV[1])
+local last = tonumber(redis.call('HGET', KEYS[1], 'last') or now)
+local credit = tonumber(redis.call('HGET', KEYS[1], 'credit') or 0)
+credit = math.min(credit + math.max(now - last, 0) * rate / 1000, rate)
+
+local admitted = 0
+local batch = math.floor(credit)
+if batch > 0 then
+    local popped = redis.call('ZPOPMIN', KEYS[2], batch)
+    for i = 1, #popped, 2 do
+        redis.call('ZADD', KEYS[3], now, popped[i])
+        admitted = admitted + 1
+    end
+end
+
+redis.call('HSET', KEYS[1], 'credit', tostring(credit - admitted), 'last', tostring(now))
+redis.call('ZREMRANGEBYSCORE', KEYS[3], '-inf', now - tonumber(ARGV[2]))
+return admitted
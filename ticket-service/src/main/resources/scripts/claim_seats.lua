@@ -0,0 +1,17 @@
+-- Hold a set of seats in a section, all or nothing.
+-- KEYS[1]: seat bitmap of the section (bit set = seat taken)
+-- KEYS[2]: hash of seat offset -> holding reservation id
+-- ARGV[1]: reservation id
+-- ARGV[2..n]: seat offsets
+-- Returns 1 when every seat was free and is now held, 0 when any was taken (nothing changes)
+for i = 2, #ARGV do
+    if redis.call('GETBIT', KEYS[1], ARGV[i]) == 1 then
+        return 0
+    end
+end
+
+for i = 2, #ARGV do
+    redis.call('SETBIT', KEYS[1], ARGV[i], 1)
+    redis.call('HSET', KEYS[2], ARGV[i], ARGV[1])
+end
+return 1
@@ -0,0 +1,16 @@
+-- Count tickets against a user's per-person limit without touching stock.
+-- Used where stock is taken separately (node-local leases, multi-shard gathers).
+-- KEYS[1]: per-user held counter key
+-- ARGV[1]: quantity to claim
+-- ARGV[2]: per-person limit
+-- ARGV[3]: counter TTL in seconds
+-- Returns {1, held} when claimed, or {0, held} when the limit would be exceeded
+local held = tonumber(redis.call('GET', KEYS[1]) or '0')
+local requested = tonumber(ARGV[1])
+if held + requested > tonumber(ARGV[2]) then
+    return {0, held}
+end
+
+held = redis.call('INCRBY', KEYS[1], requested)
+redis.call('EXPIRE', KEYS[1], tonumber(ARGV[3]))
+return {1, held}
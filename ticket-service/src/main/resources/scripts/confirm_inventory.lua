@@ -0,0 +1,16 @@
+-- Record a confirmed purchase against the sold counter and report remaining stock.
+-- Tickets were already taken from the inventory counter when they were reserved.
+-- KEYS[1]: inventory counter key
+-- KEYS[2]: sold counter key
+-- ARGV[1]: quantity purchased
+-- ARGV[2]: sold counter TTL in seconds
+-- Returns {sold, remaining}; remaining is -1 when the inventory counter is missing
+local sold = redis.call('INCRBY', KEYS[2], tonumber(ARGV[1]))
+redis.call('EXPIRE', KEYS[2], tonumber(ARGV[2]))
+
+local remaining = redis.call('GET', KEYS[1])
+if not remaining then
+    return {sold, -1}
+end
+
+return {sold, tonumber(remaining)}
@@ -0,0 +1,34 @@
+-- Recreate missing inventory counters during a live sale without disturbing the surviving ones.
+-- Surviving counters may be ahead of the database, so the missing counters share only what the
+-- database total leaves after them, split evenly with the remainder on the lowest shards.
+-- KEYS: every counter of the ticket type, shard 0 first
+-- ARGV[1]: available quantity according to the database
+-- ARGV[2]: counter TTL in seconds
+-- Returns the number of counters created
+local missing = {}
+local surviving = 0
+for _, key in ipairs(KEYS) do
+    local current = redis.call('GET', key)
+    if current then
+        surviving = surviving + tonumber(current)
+    else
+        table.insert(missing, key)
+    end
+end
+
+if #missing == 0 then
+    return 0
+end
+
+local remaining = math.max(tonumber(ARGV[1]) - surviving, 0)
+local share = math.floor(remaining / #missing)
+local extra = remaining % #missing
+for i, key in ipairs(missing) do
+    local portion = share
+    if i <= extra then
+        portion = portion + 1
+    end
+    redis.call('SET', key, portion, 'EX', tonumber(ARGV[2]))
+end
+
+return #missing
@@ -0,0 +1,16 @@
+-- Take a block of up to the requested size from an inventory counter for a node-local lease.
+-- KEYS[1]: inventory counter key
+-- ARGV[1]: requested block size
+-- Returns {taken, remaining}, or {-1, 0} when the counter is missing
+local current = redis.call('GET', KEYS[1])
+if not current then
+    return {-1, 0}
+end
+
+current = tonumber(current)
+local taken = math.min(current, tonumber(ARGV[1]))
+if taken > 0 then
+    redis.call('DECRBY', KEYS[1], taken)
+end
+
+return {taken, current - taken}
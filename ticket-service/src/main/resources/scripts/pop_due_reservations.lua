@@ -0,0 +1,12 @@
+-- Atomically claim reservations whose hold has run out from the expiry queue.
+-- Claimed members are removed so each reservation is handed to exactly one node.
+-- KEYS[1]: expiry sorted set, scored by reserved-until epoch millis
+-- ARGV[1]: current epoch millis
+-- ARGV[2]: maximum number of reservations to claim
+-- Returns the claimed reservation ids
+local due = redis.call('ZRANGEBYSCORE', KEYS[1], '-inf', ARGV[1], 'LIMIT', 0, tonumber(ARGV[2]))
+if #due > 0 then
+    redis.call('ZREM', KEYS[1], unpack(due))
+end
+
+return due
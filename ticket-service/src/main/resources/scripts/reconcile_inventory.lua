@@ -0,0 +1,40 @@
+-- Correct inventory drift only if no reservation touched the counters since they were read.
+-- Every counter must still hold the value the reconciler observed; otherwise nothing is written
+-- and the drift is re-evaluated on the next pass.
+-- KEYS: every counter of the ticket type, shard 0 first
+-- ARGV[1]: delta to apply to the total (negative removes stock)
+-- ARGV[2]: counter TTL in seconds
+-- ARGV[3..]: observed value of each counter, in KEYS order
+-- Returns 1 when the delta was applied, 0 when a counter moved, -1 when a counter is missing
+for i, key in ipairs(KEYS) do
+    local current = redis.call('GET', key)
+    if not current then
+        return -1
+    end
+    if tonumber(current) ~= tonumber(ARGV[i + 2]) then
+        return 0
+    end
+end
+
+local delta = tonumber(ARGV[1])
+if delta > 0 then
+    redis.call('INCRBY', KEYS[1], delta)
+else
+    -- Remove stock shard by shard without taking any counter below zero
+    local needed = -delta
+    for i, key in ipairs(KEYS) do
+        if needed == 0 then
+            break
+        end
+        local taken = math.min(tonumber(ARGV[i + 2]), needed)
+        if taken > 0 then
+            redis.call('DECRBY', key, taken)
+            needed = needed - taken
+        end
+    end
+end
+
+for _, key in ipairs(KEYS) do
+    redis.call('EXPIRE', key, tonumber(ARGV[2]))
+end
+return 1
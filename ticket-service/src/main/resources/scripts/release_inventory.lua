@@ -0,0 +1,19 @@
+-- Return reserved tickets to an inventory counter and, optionally, to the user's allowance.
+-- The counter is only incremented when it exists; a missing counter is rebuilt
+-- from the database on the next read, which already accounts for the release.
+-- KEYS[1]: inventory counter key
+-- KEYS[2]: (optional) per-user held counter key
+-- ARGV[1]: quantity to release
+-- Returns the new counter value, or -1 when the counter is missing
+local quantity = tonumber(ARGV[1])
+if KEYS[2] then
+    if redis.call('DECRBY', KEYS[2], quantity) <= 0 then
+        redis.call('DEL', KEYS[2])
+    end
+end
+
+if redis.call('EXISTS', KEYS[1]) == 0 then
+    return -1
+end
+
+return redis.call('INCRBY', KEYS[1], quantity)
@@ -0,0 +1,17 @@
+-- Free the seats a reservation holds in a section.
+-- A seat is only freed while the given reservation still holds it, so releasing twice,
+-- or after the seat was resold, leaves the current holder untouched.
+-- KEYS[1]: seat bitmap of the section
+-- KEYS[2]: hash of seat offset -> holding reservation id
+-- ARGV[1]: reservation id
+-- ARGV[2..n]: seat offsets
+-- Returns the number of seats freed
+local released = 0
+for i = 2, #ARGV do
+    if redis.call('HGET', KEYS[2], ARGV[i]) == ARGV[1] then
+        redis.call('SETBIT', KEYS[1], ARGV[i], 0)
+        redis.call('HDEL', KEYS[2], ARGV[i])
+        released = released + 1
+    end
+end
+return released
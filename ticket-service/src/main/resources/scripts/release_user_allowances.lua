@@ -0,0 +1,11 @@
+-- Give back per-person allowance for many users of one ticket type in one call.
+-- KEYS: per-user held counter keys
+-- ARGV: quantity to give back for each key, in the same order
+-- Returns the number of counters updated
+for i, key in ipairs(KEYS) do
+    if redis.call('DECRBY', key, tonumber(ARGV[i])) <= 0 then
+        redis.call('DEL', key)
+    end
+end
+
+return #KEYS
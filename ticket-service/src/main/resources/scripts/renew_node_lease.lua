@@ -0,0 +1,14 @@
+-- Extend a ticket number node id lease held by this instance.
+-- A lease that vanished, e.g. after a Redis flush, is claimed back; one held by another
+-- instance is left untouched.
+-- KEYS[1]: lease key of the node id
+-- ARGV[1]: token of this instance
+-- ARGV[2]: lease TTL in seconds
+-- Returns 1 when the lease is held by this instance, 0 when another instance holds it
+local holder = redis.call('GET', KEYS[1])
+if holder and holder ~= ARGV[1] then
+    return 0
+end
+
+redis.call('SET', KEYS[1], ARGV[1], 'EX', tonumber(ARGV[2]))
+return 1
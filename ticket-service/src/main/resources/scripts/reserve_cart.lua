@@ -0,0 +1,64 @@
+-- Atomically reserve several ticket types at once: either every item is reserved or none is.
+-- Each item owns its per-user held counter key followed by one or more counter keys
+-- (several for sharded ticket types, preferred shard first).
+-- KEYS: for each item, the user key then its counter keys
+-- ARGV: for each item, the number of counter keys, the quantity to reserve, the per-person
+--       limit (-1 for none) and the user counter TTL in seconds
+-- Returns {1} when reserved, {0, item, available} when an item is short,
+-- {-1, item} when one of its counters is missing, or {-2, item, held} when an item would
+-- exceed the per-person limit (items are 1-based)
+local items = {}
+local keyIndex = 1
+local item = 0
+for i = 1, #ARGV, 4 do
+    item = item + 1
+    local keyCount = tonumber(ARGV[i])
+    local requested = tonumber(ARGV[i + 1])
+    local limit = tonumber(ARGV[i + 2])
+    local userKey = KEYS[keyIndex]
+    local firstCounter = keyIndex + 1
+    local values = {}
+    local available = 0
+
+    for k = 0, keyCount - 1 do
+        local current = redis.call('GET', KEYS[firstCounter + k])
+        if not current then
+            return {-1, item}
+        end
+        values[k + 1] = tonumber(current)
+        available = available + values[k + 1]
+    end
+
+    if limit >= 0 then
+        local held = tonumber(redis.call('GET', userKey) or '0')
+        if held + requested > limit then
+            return {-2, item, held}
+        end
+    end
+
+    if available < requested then
+        return {0, item, available}
+    end
+
+    items[item] = {userKey = userKey, first = firstCounter, values = values,
+                   requested = requested, ttl = tonumber(ARGV[i + 3])}
+    keyIndex = firstCounter + keyCount
+end
+
+for _, entry in ipairs(items) do
+    local needed = entry.requested
+    for k, current in ipairs(entry.values) do
+        if needed == 0 then
+            break
+        end
+        local taken = math.min(current, needed)
+        if taken > 0 then
+            redis.call('DECRBY', KEYS[entry.first + k - 1], taken)
+            needed = needed - taken
+        end
+    end
+    redis.call('INCRBY', entry.userKey, entry.requested)
+    redis.call('EXPIRE', entry.userKey, entry.ttl)
+end
+
+return {1}
@@ -0,0 +1,33 @@
+-- Atomically reserve tickets from an inventory counter, optionally enforcing a per-person limit.
+-- KEYS[1]: inventory counter key
+-- KEYS[2]: (optional) per-user held counter key
+-- ARGV[1]: quantity to reserve
+-- ARGV[2]: (with KEYS[2]) per-person limit
+-- ARGV[3]: (with KEYS[2]) per-user counter TTL in seconds
+-- Returns {status, value}: status 1 = reserved (value = remaining), 0 = insufficient (value = available),
+-- -1 = counter missing, -2 = per-person limit exceeded (value = tickets already held)
+local current = redis.call('GET', KEYS[1])
+if not current then
+    return {-1, 0}
+end
+
+local requested = tonumber(ARGV[1])
+local held = 0
+if KEYS[2] then
+    held = tonumber(redis.call('GET', KEYS[2]) or '0')
+    if held + requested > tonumber(ARGV[2]) then
+        return {-2, held}
+    end
+end
+
+current = tonumber(current)
+if current < requested then
+    return {0, current}
+end
+
+if KEYS[2] then
+    redis.call('INCRBY', KEYS[2], requested)
+    redis.call('EXPIRE', KEYS[2], tonumber(ARGV[3]))
+end
+
+return {1, redis.call('DECRBY', KEYS[1], requested)}
@@ -0,0 +1,16 @@
+-- Take up to the requested number of tickets from an inventory counter.
+-- Used to gather a request across several shards when no single shard can cover it.
+-- KEYS[1]: inventory counter key
+-- ARGV[1]: maximum quantity to take
+-- Returns {quantity taken, quantity left}, or {-1, 0} when the counter is missing
+local current = redis.call('GET', KEYS[1])
+if not current then
+    return {-1, 0}
+end
+
+local taken = math.min(tonumber(current), tonumber(ARGV[1]))
+if taken > 0 then
+    redis.call('DECRBY', KEYS[1], taken)
+end
+
+return {taken, tonumber(current) - taken}
@@ -0,0 +1,99 @@
+package com.eventbooking.ticket.benchmark;
+
+import com.eventbooking.ticket.config.RedisConfig;
+import com.eventbooking.ticket.repository.TicketTypeRepository;
+import com.eventbooking.ticket.service.AvailabilityChangeTracker;
+import com.eventbooking.ticket.service.InventoryLeaseManager;
+import com.eventbooking.ticket.service.InventoryReservationResult;
+import com.eventbooking.ticket.service.InventoryServiceImpl;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares reserving straight against the Redis counter with reserving from a node-local lease.
+ * Needs a running Redis; point it elsewhere with -Dredis.host / -Dredis.port.
+ *
+ * Run from the ticket-service module after test-compile:
+ * java -cp target/test-classes:target/classes:$(dependency classpath) \
+ *     com.eventbooking.ticket.benchmark.InventoryReservationBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+public class InventoryReservationBenchmark {
+
+    private static final int STOCK = 100_000_000;
+
+    @Param({"direct", "leased"})
+    private String mode;
+
+    private LettuceConnectionFactory connectionFactory;
+    private RedisTemplate<String, Object> redisTemplate;
+    private InventoryLeaseManager leaseManager;
+    private InventoryServiceImpl inventoryService;
+    private UUID ticketTypeId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        RedisStandaloneConfiguration configuration = new RedisStandaloneConfiguration(
+            System.getProperty("redis.host", "localhost"),
+            Integer.getInteger("redis.port", 6379));
+        connectionFactory = new LettuceConnectionFactory(configuration);
+        connectionFactory.afterPropertiesSet();
+        redisTemplate = new RedisConfig().redisTemplate(connectionFactory);
+
+        leaseManager = new InventoryLeaseManager();
+        ReflectionTestUtils.setField(leaseManager, "enabled", "leased".equals(mode));
+        // A disabled tracker, so availability broadcasts stay out of the measurement
+        inventoryService = new InventoryServiceImpl(redisTemplate,
+            Mockito.mock(TicketTypeRepository.class), leaseManager, new AvailabilityChangeTracker());
+
+        ticketTypeId = UUID.randomUUID();
+        redisTemplate.opsForValue().set("inventory:{" + ticketTypeId + "}", STOCK, 1, TimeUnit.HOURS);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        leaseManager.returnAllLeases();
+        redisTemplate.delete("inventory:{" + ticketTypeId + "}");
+        connectionFactory.destroy();
+    }
+
+    @Benchmark
+    public InventoryReservationResult reserveOne() {
+        return inventoryService.reserveTickets(ticketTypeId, null, 1, null);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(InventoryReservationBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
@@ -0,0 +1,141 @@
+package com.eventbooking.ticket.service;
+
+import com.eventbooking.ticket.entity.TicketType;
+import com.eventbooking.ticket.repository.TicketTypeRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AvailabilityStreamServiceTest {
+
+    @Mock
+    private AvailabilityChangeTracker changeTracker;
+
+    @Mock
+    private InventoryService inventoryService;
+
+    @Mock
+    private TicketTypeRepository ticketTypeRepository;
+
+    @Mock
+    private TicketTypeSnapshotCache snapshotCache;
+
+    @Mock
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Mock
+    private RedisMessageListenerContainer listenerContainer;
+
+    @InjectMocks
+    private AvailabilityStreamService availabilityStreamService;
+
+    private UUID eventId;
+    private UUID ticketTypeId;
+
+    @BeforeEach
+    void setUp() {
+        availabilityStreamService.init();
+        eventId = UUID.randomUUID();
+        ticketTypeId = UUID.randomUUID();
+    }
+
+    @AfterEach
+    void tearDown() {
+        availabilityStreamService.shutdown();
+    }
+
+    @Test
+    void broadcast_ShouldPublishLocalChangesAsOneMessage() {
+        UUID other = UUID.randomUUID();
+        when(changeTracker.isEnabled()).thenReturn(true);
+        when(changeTracker.drain()).thenReturn(new LinkedHashSet<>(List.of(ticketTypeId, other)));
+
+        availabilityStreamService.broadcast();
+
+        verify(redisTemplate).convertAndSend(AvailabilityStreamService.CHANGE_CHANNEL, ticketTypeId + "," + other);
+    }
+
+    @Test
+    void broadcast_WithoutListeners_ShouldNotReadCounters() {
+        when(changeTracker.isEnabled()).thenReturn(true);
+        when(changeTracker.drain()).thenReturn(Set.of());
+        availabilityStreamService.queueChanges(List.of(ticketTypeId));
+
+        availabilityStreamService.broadcast();
+
+        verifyNoInteractions(inventoryService, snapshotCache);
+        verify(redisTemplate, never()).convertAndSend(anyString(), any());
+    }
+
+    @Test
+    void broadcast_ShouldReadEachChangedCounterOnceForAllListeners() {
+        when(changeTracker.isEnabled()).thenReturn(true);
+        when(changeTracker.drain()).thenReturn(Set.of());
+        when(ticketTypeRepository.findAvailableTicketTypesByEventId(eventId)).thenReturn(List.of(ticketType()));
+        when(inventoryService.getAvailableQuantity(ticketTypeId)).thenReturn(100, 97);
+        when(snapshotCache.get(ticketTypeId)).thenReturn(TicketTypeSnapshot.of(ticketType()));
+
+        availabilityStreamService.subscribe(eventId);
+        availabilityStreamService.subscribe(eventId);
+        availabilityStreamService.queueChanges(List.of(ticketTypeId));
+        availabilityStreamService.queueChanges(List.of(ticketTypeId));
+        availabilityStreamService.broadcast();
+
+        // One read for the first listener's snapshot, one for the coalesced change
+        verify(ticketTypeRepository, times(1)).findAvailableTicketTypesByEventId(eventId);
+        verify(inventoryService, times(2)).getAvailableQuantity(ticketTypeId);
+    }
+
+    @Test
+    void broadcast_ShouldIgnoreChangesToOtherEvents() {
+        TicketType otherEventType = ticketType();
+        otherEventType.setEventId(UUID.randomUUID());
+        when(changeTracker.isEnabled()).thenReturn(true);
+        when(changeTracker.drain()).thenReturn(Set.of());
+        when(ticketTypeRepository.findAvailableTicketTypesByEventId(eventId)).thenReturn(List.of());
+        when(snapshotCache.get(ticketTypeId)).thenReturn(TicketTypeSnapshot.of(otherEventType));
+
+        availabilityStreamService.subscribe(eventId);
+        availabilityStreamService.queueChanges(List.of(ticketTypeId));
+        availabilityStreamService.broadcast();
+
+        verifyNoInteractions(inventoryService);
+    }
+
+    @Test
+    void subscribe_WhenDisabled_ShouldSendSnapshotAndComplete() {
+        when(changeTracker.isEnabled()).thenReturn(false);
+        when(ticketTypeRepository.findAvailableTicketTypesByEventId(eventId)).thenReturn(List.of(ticketType()));
+        when(inventoryService.getAvailableQuantity(ticketTypeId)).thenReturn(100);
+
+        assertNotNull(availabilityStreamService.subscribe(eventId));
+
+        availabilityStreamService.queueChanges(List.of(ticketTypeId));
+        availabilityStreamService.broadcast();
+        verify(inventoryService, times(1)).getAvailableQuantity(ticketTypeId);
+        verifyNoInteractions(snapshotCache);
+    }
+
+    private TicketType ticketType() {
+        TicketType ticketType = new TicketType();
+        ticketType.setId(ticketTypeId);
+        ticketType.setEventId(eventId);
+        return ticketType;
+    }
+}
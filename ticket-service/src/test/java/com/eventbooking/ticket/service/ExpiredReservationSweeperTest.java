@@ -0,0 +1,122 @@
+package com.eventbooking.ticket.service;
+
+import com.eventbooking.ticket.entity.TicketReservation;
+import com.eventbooking.ticket.entity.TicketReservation.ReservationStatus;
+import com.eventbooking.ticket.repository.TicketReservationRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ExpiredReservationSweeperTest {
+
+    @Mock
+    private TicketReservationRepository reservationRepository;
+
+    @Mock
+    private ReservationExpiryService expiryService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ExpiredReservationSweeper sweeper;
+    private UUID ticketTypeId;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        sweeper = new ExpiredReservationSweeper(reservationRepository, expiryService, transactionManager, meterRegistry);
+        ReflectionTestUtils.setField(sweeper, "batchSize", 2);
+        ticketTypeId = UUID.randomUUID();
+    }
+
+    @Test
+    void sweep_ShouldPageWithKeysetCursorAndCommitEachBatch() {
+        TicketReservation first = reservation(1);
+        TicketReservation second = reservation(2);
+        TicketReservation third = reservation(3);
+        ReservationExpiryResult fullPage = new ReservationExpiryResult(2, Map.of(ticketTypeId, 2));
+        ReservationExpiryResult lastPage = new ReservationExpiryResult(1, Map.of(ticketTypeId, 1));
+
+        when(reservationRepository.findExpiredPage(eq(ReservationStatus.ACTIVE), any(LocalDateTime.class),
+                any(Pageable.class)))
+            .thenReturn(List.of(first, second));
+        when(reservationRepository.findExpiredPageAfter(eq(ReservationStatus.ACTIVE), any(LocalDateTime.class),
+                eq(second.getReservedUntil()), eq(second.getId()), any(Pageable.class)))
+            .thenReturn(List.of(third));
+        when(reservationRepository.findExpiredPageAfter(eq(ReservationStatus.ACTIVE), any(LocalDateTime.class),
+                eq(third.getReservedUntil()), eq(third.getId()), any(Pageable.class)))
+            .thenReturn(List.of());
+        when(expiryService.expireLocked(List.of(first, second))).thenReturn(fullPage);
+        when(expiryService.expireLocked(List.of(third))).thenReturn(lastPage);
+
+        int expired = sweeper.sweep();
+
+        assertEquals(3, expired);
+        verify(expiryService).releaseInventory(fullPage);
+        verify(expiryService).releaseInventory(lastPage);
+        verify(transactionManager, times(3)).commit(any());
+        assertEquals(3.0, meterRegistry.counter("ticket.reservations.sweep.expired").count());
+        assertEquals(2.0, meterRegistry.counter("ticket.reservations.sweep.batches").count());
+    }
+
+    @Test
+    void sweep_AfterShortPage_ShouldKeepGoingUntilEmptyPage() {
+        // The first page is short because another transaction held the second row's lock
+        TicketReservation first = reservation(1);
+        TicketReservation second = reservation(2);
+        ReservationExpiryResult firstPage = new ReservationExpiryResult(1, Map.of(ticketTypeId, 1));
+        ReservationExpiryResult secondPage = new ReservationExpiryResult(1, Map.of(ticketTypeId, 1));
+
+        when(reservationRepository.findExpiredPage(eq(ReservationStatus.ACTIVE), any(LocalDateTime.class),
+                any(Pageable.class)))
+            .thenReturn(List.of(first));
+        when(reservationRepository.findExpiredPageAfter(eq(ReservationStatus.ACTIVE), any(LocalDateTime.class),
+                eq(first.getReservedUntil()), eq(first.getId()), any(Pageable.class)))
+            .thenReturn(List.of(second));
+        when(reservationRepository.findExpiredPageAfter(eq(ReservationStatus.ACTIVE), any(LocalDateTime.class),
+                eq(second.getReservedUntil()), eq(second.getId()), any(Pageable.class)))
+            .thenReturn(List.of());
+        when(expiryService.expireLocked(List.of(first))).thenReturn(firstPage);
+        when(expiryService.expireLocked(List.of(second))).thenReturn(secondPage);
+
+        assertEquals(2, sweeper.sweep());
+        verify(expiryService).releaseInventory(secondPage);
+    }
+
+    @Test
+    void sweep_WithNothingExpired_ShouldStopAfterFirstPage() {
+        when(reservationRepository.findExpiredPage(eq(ReservationStatus.ACTIVE), any(LocalDateTime.class),
+                any(Pageable.class)))
+            .thenReturn(List.of());
+
+        assertEquals(0, sweeper.sweep());
+        verify(expiryService, never()).releaseInventory(any());
+    }
+
+    private TicketReservation reservation(int minutesAgo) {
+        TicketReservation reservation = new TicketReservation();
+        reservation.setId(UUID.randomUUID());
+        reservation.setTicketTypeId(ticketTypeId);
+        reservation.setQuantity(1);
+        reservation.setReservedUntil(LocalDateTime.now().minusMinutes(10 - minutesAgo));
+        reservation.setStatus(ReservationStatus.ACTIVE);
+        return reservation;
+    }
+}
@@ -0,0 +1,313 @@
+package com.eventbooking.ticket.service;
+
+import com.eventbooking.common.client.EventServiceClient;
+import com.eventbooking.common.exception.UnauthorizedException;
+import com.eventbooking.ticket.dto.CheckInBatchRequest;
+import com.eventbooking.ticket.dto.CheckInResultDto;
+import com.eventbooking.ticket.dto.CheckInResultDto.Outcome;
+import com.eventbooking.ticket.dto.CheckInScanRequest;
+import com.eventbooking.ticket.dto.CheckInSyncDto;
+import com.eventbooking.ticket.dto.ValidationBundleDto;
+import com.eventbooking.ticket.entity.Ticket;
+import com.eventbooking.ticket.entity.Ticket.TicketStatus;
+import com.eventbooking.ticket.entity.TicketType;
+import com.eventbooking.ticket.repository.TicketRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class GateScanningServiceTest {
+
+    @Mock
+    private TicketRepository ticketRepository;
+
+    @Mock
+    private TicketTypeSnapshotCache snapshotCache;
+
+    @Mock
+    private QRCodeService qrCodeService;
+
+    @Mock
+    private TicketCache ticketCache;
+
+    @Mock
+    private EventServiceClient eventServiceClient;
+
+    private SimpleMeterRegistry meterRegistry;
+    private GateScanningService gateScanningService;
+    private UUID eventId;
+    private UUID organizerId;
+    private UUID ticketTypeId;
+    private Ticket ticket;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        gateScanningService = new GateScanningService(ticketRepository, snapshotCache, qrCodeService, ticketCache,
+            meterRegistry, eventServiceClient);
+
+        eventId = UUID.randomUUID();
+        organizerId = UUID.randomUUID();
+        ticketTypeId = UUID.randomUUID();
+        lenient().when(eventServiceClient.validateOrganizer(eventId, organizerId)).thenReturn(true);
+
+        ticket = new Ticket();
+        ticket.setId(UUID.randomUUID());
+        ticket.setTicketTypeId(ticketTypeId);
+        ticket.setStatus(TicketStatus.ACTIVE);
+    }
+
+    // ========== Check-in Tests ==========
+
+    @Test
+    void checkIn_WithActiveTicket_ShouldMarkUsedAndAdmit() {
+        CheckInScanRequest scan = stubScan("TK1.valid", LocalDateTime.now().minusSeconds(5));
+
+        List<CheckInResultDto> results = gateScanningService.checkIn(batch("gate-1", scan), organizerId);
+
+        assertEquals(Outcome.ADMITTED, results.get(0).getOutcome());
+        assertEquals(TicketStatus.USED, ticket.getStatus());
+        assertEquals("gate-1", ticket.getCheckedInBy());
+        assertEquals(scan.getScannedAt(), ticket.getCheckedInAt());
+        assertEquals(scan.getScanId(), ticket.getCheckInScanId());
+        assertNotNull(ticket.getCheckInRecordedAt());
+        verify(ticketRepository).saveAll(anyCollection());
+        verify(ticketCache).invalidate(Set.of(ticket));
+    }
+
+    @Test
+    void checkIn_WithResubmittedScan_ShouldAdmitAgainWithoutWriting() {
+        CheckInScanRequest scan = stubScan("TK1.valid", LocalDateTime.now().minusSeconds(5));
+        markUsed("gate-1", scan.getScanId(), scan.getScannedAt());
+
+        List<CheckInResultDto> results = gateScanningService.checkIn(batch("gate-1", scan), organizerId);
+
+        assertEquals(Outcome.ADMITTED, results.get(0).getOutcome());
+        verify(ticketRepository, never()).saveAll(anyCollection());
+    }
+
+    @Test
+    void checkIn_WithLaterScanOfUsedTicket_ShouldReportDuplicate() {
+        LocalDateTime firstEntry = LocalDateTime.now().minusMinutes(10);
+        markUsed("gate-1", UUID.randomUUID(), firstEntry);
+        CheckInScanRequest scan = stubScan("TK1.valid", LocalDateTime.now());
+
+        List<CheckInResultDto> results = gateScanningService.checkIn(batch("gate-2", scan), organizerId);
+
+        CheckInResultDto result = results.get(0);
+        assertEquals(Outcome.DUPLICATE, result.getOutcome());
+        assertEquals("gate-1", result.getCheckedInBy());
+        assertEquals(firstEntry, result.getCheckedInAt());
+        verify(ticketRepository, never()).saveAll(anyCollection());
+    }
+
+    @Test
+    void checkIn_WithEarlierOfflineScan_ShouldBecomeCheckInOfRecord() {
+        markUsed("gate-1", UUID.randomUUID(), LocalDateTime.now().minusMinutes(5));
+        LocalDateTime offlineEntry = LocalDateTime.now().minusMinutes(20);
+        CheckInScanRequest scan = stubScan("TK1.valid", offlineEntry);
+
+        List<CheckInResultDto> results = gateScanningService.checkIn(batch("gate-2", scan), organizerId);
+
+        assertEquals(Outcome.ADMITTED, results.get(0).getOutcome());
+        assertEquals("gate-2", ticket.getCheckedInBy());
+        assertEquals(offlineEntry, ticket.getCheckedInAt());
+        verify(ticketRepository).saveAll(anyCollection());
+    }
+
+    @Test
+    void checkIn_WithSameTicketTwiceInBatch_ShouldAdmitEarliestScanOnly() {
+        LocalDateTime now = LocalDateTime.now();
+        CheckInScanRequest later = stubScan("TK1.valid", now);
+        CheckInScanRequest earlier = scan("TK1.valid", now.minusSeconds(30));
+
+        List<CheckInResultDto> results = gateScanningService.checkIn(batch("gate-1", later, earlier), organizerId);
+
+        // Results follow the request order, not the scan order
+        assertEquals(Outcome.DUPLICATE, results.get(0).getOutcome());
+        assertEquals(Outcome.ADMITTED, results.get(1).getOutcome());
+        assertEquals(earlier.getScanId(), ticket.getCheckInScanId());
+        assertEquals(1.0, meterRegistry.get("ticket.scanning.check-ins").tag("outcome", "DUPLICATE").counter().count());
+    }
+
+    @Test
+    void checkIn_WithForgedCode_ShouldRejectWithoutDatabaseAccess() {
+        CheckInScanRequest scan = scan("TK1.forged", LocalDateTime.now());
+        when(qrCodeService.resolveTicketId("TK1.forged")).thenReturn(null);
+
+        List<CheckInResultDto> results = gateScanningService.checkIn(batch("gate-1", scan), organizerId);
+
+        assertEquals(Outcome.INVALID, results.get(0).getOutcome());
+        verifyNoInteractions(ticketRepository);
+    }
+
+    @Test
+    void checkIn_WithTicketForAnotherEvent_ShouldReject() {
+        CheckInScanRequest scan = scan("TK1.valid", LocalDateTime.now());
+        when(qrCodeService.resolveTicketId("TK1.valid")).thenReturn(ticket.getId());
+        when(ticketRepository.findAllByIdWithLock(anyCollection())).thenReturn(List.of(ticket));
+        when(snapshotCache.get(ticketTypeId)).thenReturn(snapshotForEvent(UUID.randomUUID()));
+
+        List<CheckInResultDto> results = gateScanningService.checkIn(batch("gate-1", scan), organizerId);
+
+        assertEquals(Outcome.INVALID, results.get(0).getOutcome());
+        assertEquals(TicketStatus.ACTIVE, ticket.getStatus());
+    }
+
+    @Test
+    void checkIn_WithCancelledTicket_ShouldReject() {
+        ticket.setStatus(TicketStatus.CANCELLED);
+        CheckInScanRequest scan = stubScan("TK1.valid", LocalDateTime.now());
+
+        List<CheckInResultDto> results = gateScanningService.checkIn(batch("gate-1", scan), organizerId);
+
+        assertEquals(Outcome.INVALID, results.get(0).getOutcome());
+        assertNull(results.get(0).getCheckedInBy());
+    }
+
+    // ========== Bundle and Sync Tests ==========
+
+    @Test
+    void exportBundle_ShouldContainSortedTicketIdsAndSigningKey() {
+        UUID low = new UUID(0x0000000000000001L, 0L);
+        UUID high = new UUID(0xF000000000000000L, 0L);
+        UUID used = new UUID(0x7000000000000000L, 0L);
+        when(ticketRepository.findIdsByEventIdAndStatus(eventId, TicketStatus.ACTIVE)).thenReturn(List.of(high, low));
+        when(ticketRepository.findIdsByEventIdAndStatus(eventId, TicketStatus.USED)).thenReturn(List.of(used));
+        when(qrCodeService.getEventSigningKey(eventId)).thenReturn(new byte[] {1, 2, 3});
+
+        ValidationBundleDto bundle = gateScanningService.exportBundle(eventId, organizerId);
+
+        assertEquals(3, bundle.getTicketCount());
+        // Unsigned order: the high bit makes the last id the largest, not negative
+        assertEquals(List.of(low, used, high), decodeIds(bundle.getTicketIds()));
+        assertEquals(List.of(used), decodeIds(bundle.getUsedTicketIds()));
+        assertEquals("AQID", bundle.getSigningKey());
+        assertNotNull(bundle.getSyncCursor());
+    }
+
+    @Test
+    void exportBundle_ForUserWhoIsNotTheOrganizer_ShouldBeRejected() {
+        UUID userId = UUID.randomUUID();
+        when(eventServiceClient.validateOrganizer(eventId, userId)).thenReturn(false);
+
+        assertThrows(UnauthorizedException.class, () -> gateScanningService.exportBundle(eventId, userId));
+        verifyNoInteractions(ticketRepository, qrCodeService);
+    }
+
+    @Test
+    void checkIn_ForUserWhoIsNotTheOrganizer_ShouldBeRejected() {
+        UUID userId = UUID.randomUUID();
+        when(eventServiceClient.validateOrganizer(eventId, userId)).thenReturn(false);
+        CheckInScanRequest scan = scan("TK1.valid", LocalDateTime.now());
+
+        assertThrows(UnauthorizedException.class, () -> gateScanningService.checkIn(batch("gate-1", scan), userId));
+        verifyNoInteractions(ticketRepository, qrCodeService);
+    }
+
+    @Test
+    void syncCheckIns_ForUserWhoIsNotTheOrganizer_ShouldBeRejected() {
+        UUID userId = UUID.randomUUID();
+        when(eventServiceClient.validateOrganizer(eventId, userId)).thenReturn(false);
+
+        assertThrows(UnauthorizedException.class, () -> gateScanningService.syncCheckIns(eventId, null, 10, userId));
+        verifyNoInteractions(ticketRepository);
+    }
+
+    @Test
+    void syncCheckIns_WithMoreThanOnePage_ShouldReturnCursorOfLastCheckIn() {
+        Ticket first = checkedInTicket(LocalDateTime.of(2025, 6, 1, 20, 0, 0));
+        Ticket second = checkedInTicket(LocalDateTime.of(2025, 6, 1, 20, 0, 1));
+        Ticket third = checkedInTicket(LocalDateTime.of(2025, 6, 1, 20, 0, 2));
+        when(ticketRepository.findCheckInPageAfter(eq(eventId), any(), any(), any(), any()))
+            .thenReturn(List.of(first, second, third));
+
+        CheckInSyncDto sync = gateScanningService.syncCheckIns(eventId, null, 2, organizerId);
+
+        assertTrue(sync.isHasMore());
+        assertEquals(2, sync.getCheckIns().size());
+        ArgumentCaptor<Pageable> page = ArgumentCaptor.forClass(Pageable.class);
+        verify(ticketRepository).findCheckInPageAfter(eq(eventId), any(), any(), any(), page.capture());
+        assertEquals(3, page.getValue().getPageSize());
+
+        // The next page resumes right after the second check-in
+        gateScanningService.syncCheckIns(eventId, sync.getNextCursor(), 2, organizerId);
+        verify(ticketRepository).findCheckInPageAfter(eq(eventId), eq(second.getCheckInRecordedAt()),
+            eq(second.getId()), any(), any());
+    }
+
+    private CheckInScanRequest stubScan(String qrCode, LocalDateTime scannedAt) {
+        when(qrCodeService.resolveTicketId(qrCode)).thenReturn(ticket.getId());
+        when(ticketRepository.findAllByIdWithLock(anyCollection())).thenReturn(List.of(ticket));
+        when(snapshotCache.get(ticketTypeId)).thenReturn(snapshotForEvent(eventId));
+        return scan(qrCode, scannedAt);
+    }
+
+    private CheckInScanRequest scan(String qrCode, LocalDateTime scannedAt) {
+        CheckInScanRequest scan = new CheckInScanRequest();
+        scan.setScanId(UUID.randomUUID());
+        scan.setQrCode(qrCode);
+        scan.setScannedAt(scannedAt);
+        return scan;
+    }
+
+    private CheckInBatchRequest batch(String scannerId, CheckInScanRequest... scans) {
+        CheckInBatchRequest request = new CheckInBatchRequest();
+        request.setEventId(eventId);
+        request.setScannerId(scannerId);
+        request.setScans(List.of(scans));
+        return request;
+    }
+
+    private void markUsed(String scannerId, UUID scanId, LocalDateTime checkedInAt) {
+        ticket.setStatus(TicketStatus.USED);
+        ticket.setCheckedInBy(scannerId);
+        ticket.setCheckInScanId(scanId);
+        ticket.setCheckedInAt(checkedInAt);
+        ticket.setCheckInRecordedAt(checkedInAt);
+    }
+
+    private Ticket checkedInTicket(LocalDateTime recordedAt) {
+        Ticket checkedIn = new Ticket();
+        checkedIn.setId(UUID.randomUUID());
+        checkedIn.setStatus(TicketStatus.USED);
+        checkedIn.setCheckedInBy("gate-1");
+        checkedIn.setCheckedInAt(recordedAt);
+        checkedIn.setCheckInRecordedAt(recordedAt);
+        return checkedIn;
+    }
+
+    private TicketTypeSnapshot snapshotForEvent(UUID snapshotEventId) {
+        TicketType ticketType = new TicketType();
+        ticketType.setId(ticketTypeId);
+        ticketType.setEventId(snapshotEventId);
+        return TicketTypeSnapshot.of(ticketType);
+    }
+
+    private static List<UUID> decodeIds(String encoded) {
+        ByteBuffer buffer = ByteBuffer.wrap(Base64.getDecoder().decode(encoded));
+        List<UUID> ids = new ArrayList<>();
+        while (buffer.hasRemaining()) {
+            ids.add(new UUID(buffer.getLong(), buffer.getLong()));
+        }
+        return ids;
+    }
+}
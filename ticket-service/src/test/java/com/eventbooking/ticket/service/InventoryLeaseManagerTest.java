@@ -0,0 +1,123 @@
+package com.eventbooking.ticket.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InventoryLeaseManagerTest {
+
+    private InventoryLeaseManager leaseManager;
+    private FakeLeaseSource source;
+    private UUID ticketTypeId;
+
+    @BeforeEach
+    void setUp() {
+        leaseManager = new InventoryLeaseManager();
+        ReflectionTestUtils.setField(leaseManager, "blockSize", 10);
+        ReflectionTestUtils.setField(leaseManager, "lowStockDivisor", 4);
+        source = new FakeLeaseSource(100);
+        ticketTypeId = UUID.randomUUID();
+    }
+
+    @Test
+    void reserve_ShouldTakeOneBlockAndServeLaterRequestsLocally() {
+        InventoryReservationResult first = leaseManager.reserve(ticketTypeId, 2, source);
+        InventoryReservationResult second = leaseManager.reserve(ticketTypeId, 3, source);
+
+        assertTrue(first.isReserved());
+        assertEquals(8, first.getRemaining());
+        assertTrue(second.isReserved());
+        assertEquals(5, second.getRemaining());
+        assertEquals(1, source.takes);
+        assertEquals(90, source.stock);
+    }
+
+    @Test
+    void reserve_WithLowSharedStock_ShouldShrinkBlocksAndThenDecline() {
+        source.stock = 24;
+
+        // First block is full size, leaving 14 in shared stock and 2 in the lease
+        leaseManager.reserve(ticketTypeId, 8, source);
+        leaseManager.reserve(ticketTypeId, 2, source);
+        // Next block is 14 / 4 = 3, which still covers a request of 2
+        InventoryReservationResult shrunk = leaseManager.reserve(ticketTypeId, 2, source);
+        assertTrue(shrunk.isReserved());
+        assertEquals(11, source.stock);
+
+        // Lease has 1 left and the next block (11 / 4 = 2) would not cover more than the request
+        InventoryReservationResult declined = leaseManager.reserve(ticketTypeId, 2, source);
+
+        assertNull(declined);
+        assertEquals(12, source.stock);
+        assertEquals(0, leaseManager.getLeasedQuantity(ticketTypeId));
+    }
+
+    @Test
+    void reserve_WithMissingCounter_ShouldDecline() {
+        source.missing = true;
+
+        assertNull(leaseManager.reserve(ticketTypeId, 1, source));
+    }
+
+    @Test
+    void expireLeases_ShouldReturnUnusedCapacity() {
+        ReflectionTestUtils.setField(leaseManager, "leaseTtlSeconds", 0L);
+        leaseManager.reserve(ticketTypeId, 4, source);
+
+        leaseManager.expireLeases();
+
+        assertEquals(96, source.stock);
+        assertEquals(0, leaseManager.getLeasedQuantity(ticketTypeId));
+    }
+
+    @Test
+    void returnAllLeases_ShouldGiveBackEveryLease() {
+        UUID otherTicketTypeId = UUID.randomUUID();
+        leaseManager.reserve(ticketTypeId, 1, source);
+        leaseManager.reserve(otherTicketTypeId, 1, source);
+
+        leaseManager.returnAllLeases();
+
+        assertEquals(98, source.stock);
+    }
+
+    @Test
+    void discard_ShouldDropLeaseWithoutReturningIt() {
+        leaseManager.reserve(ticketTypeId, 1, source);
+
+        leaseManager.discard(ticketTypeId);
+        leaseManager.returnAllLeases();
+
+        assertEquals(90, source.stock);
+    }
+
+    private static final class FakeLeaseSource implements InventoryLeaseManager.LeaseSource {
+        private int stock;
+        private int takes;
+        private boolean missing;
+
+        private FakeLeaseSource(int stock) {
+            this.stock = stock;
+        }
+
+        @Override
+        public InventoryLeaseManager.LeaseGrant take(UUID ticketTypeId, int maxQuantity) {
+            if (missing) {
+                return null;
+            }
+            takes++;
+            int taken = Math.min(stock, maxQuantity);
+            stock -= taken;
+            return new InventoryLeaseManager.LeaseGrant(taken, stock);
+        }
+
+        @Override
+        public void giveBack(UUID ticketTypeId, int quantity) {
+            stock += quantity;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.eventbooking.ticket.service;
+
+import com.eventbooking.ticket.entity.TicketReservation.ReservationStatus;
+import com.eventbooking.ticket.entity.TicketType;
+import com.eventbooking.ticket.repository.TicketReservationRepository;
+import com.eventbooking.ticket.repository.TicketTypeRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InventoryReconcilerTest {
+
+    @Mock
+    private TicketTypeRepository ticketTypeRepository;
+
+    @Mock
+    private TicketReservationRepository reservationRepository;
+
+    @Mock
+    private InventoryService inventoryService;
+
+    @Mock
+    private InventoryLeaseManager leaseManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private InventoryReconciler reconciler;
+    private UUID ticketTypeId;
+    private TicketType ticketType;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        reconciler = new InventoryReconciler(ticketTypeRepository, reservationRepository, inventoryService,
+            leaseManager, meterRegistry);
+
+        ticketTypeId = UUID.randomUUID();
+        ticketType = new TicketType();
+        ticketType.setId(ticketTypeId);
+        ticketType.setQuantityAvailable(100);
+        ticketType.setQuantitySold(20);
+
+        when(ticketTypeRepository.findTicketTypesOnSale()).thenReturn(List.of(ticketType));
+    }
+
+    @Test
+    void reconcile_WithCountersMatchingDatabase_ShouldNotCorrect() {
+        stubState(List.of(40, 30), 10);
+
+        assertEquals(0, reconciler.reconcile());
+
+        verify(inventoryService, never()).compareAndAdjustInventory(any(), any(), anyInt());
+        assertEquals(0, meterRegistry.get("ticket.inventory.drift").summary().count());
+    }
+
+    @Test
+    void reconcile_WithDriftSeenOnce_ShouldWaitForConfirmation() {
+        stubState(List.of(45, 30), 10);
+
+        assertEquals(0, reconciler.reconcile());
+
+        verify(inventoryService, never()).compareAndAdjustInventory(any(), any(), anyInt());
+        assertEquals(1.0, meterRegistry.get("ticket.inventory.drift.types").gauge().value());
+    }
+
+    @Test
+    void reconcile_WithConfirmedDrift_ShouldCompareAndAdjust() {
+        InventorySnapshot snapshot = stubState(List.of(45, 30), 10);
+        when(inventoryService.compareAndAdjustInventory(ticketTypeId, snapshot, -5)).thenReturn(true);
+
+        reconciler.reconcile();
+        int corrected = reconciler.reconcile();
+
+        assertEquals(1, corrected);
+        assertEquals(1.0, meterRegistry.get("ticket.inventory.reconciliation.corrections")
+            .tag("direction", "down").counter().count());
+    }
+
+    @Test
+    void reconcile_WithCountersMovingBetweenPasses_ShouldRestartConfirmation() {
+        when(leaseManager.getLeasedQuantity(ticketTypeId)).thenReturn(0);
+        when(reservationRepository.sumQuantityByTicketTypeIdAndStatus(ticketTypeId, ReservationStatus.ACTIVE))
+            .thenReturn(10);
+        when(inventoryService.snapshotInventory(ticketTypeId))
+            .thenReturn(new InventorySnapshot(List.of(45, 30)), new InventorySnapshot(List.of(44, 30)));
+
+        reconciler.reconcile();
+        reconciler.reconcile();
+
+        verify(inventoryService, never()).compareAndAdjustInventory(any(), any(), anyInt());
+    }
+
+    @Test
+    void reconcile_WithMissingStockWhileLeasing_ShouldNotAddStockBack() {
+        stubState(List.of(30, 30), 10);
+        when(leaseManager.isEnabled()).thenReturn(true);
+
+        reconciler.reconcile();
+        reconciler.reconcile();
+
+        verify(inventoryService, never()).compareAndAdjustInventory(any(), any(), anyInt());
+        assertEquals(1.0, meterRegistry.get("ticket.inventory.reconciliation.skipped").counter().count());
+    }
+
+    @Test
+    void reconcile_WithMissingCounter_ShouldRestoreFromDatabase() {
+        when(inventoryService.snapshotInventory(ticketTypeId)).thenReturn(null);
+
+        reconciler.reconcile();
+
+        verify(inventoryService).syncInventoryFromDatabase(ticketTypeId);
+        verifyNoInteractions(reservationRepository);
+    }
+
+    private InventorySnapshot stubState(List<Integer> counters, int held) {
+        InventorySnapshot snapshot = new InventorySnapshot(counters);
+        when(inventoryService.snapshotInventory(ticketTypeId)).thenReturn(snapshot);
+        when(leaseManager.getLeasedQuantity(ticketTypeId)).thenReturn(0);
+        when(reservationRepository.sumQuantityByTicketTypeIdAndStatus(ticketTypeId, ReservationStatus.ACTIVE))
+            .thenReturn(held);
+        return snapshot;
+    }
+}
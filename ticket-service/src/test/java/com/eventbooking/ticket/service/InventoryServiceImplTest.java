@@ -11,8 +11,15 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
@@ -33,6 +40,12 @@ class InventoryServiceImplTest {
     @Mock
     private ValueOperations<String, Object> valueOperations;
 
+    @Mock
+    private InventoryLeaseManager leaseManager;
+
+    @Mock
+    private AvailabilityChangeTracker changeTracker;
+
     @InjectMocks
     private InventoryServiceImpl inventoryService;
 
@@ -43,7 +56,7 @@ class InventoryServiceImplTest {
     @BeforeEach
     void setUp() {
         ticketTypeId = UUID.randomUUID();
-        inventoryKey = "inventory:" + ticketTypeId.toString();
+        inventoryKey = "inventory:{" + ticketTypeId + "}";
 
         testTicketType = new TicketType();
         testTicketType.setId(ticketTypeId);
@@ -53,6 +66,8 @@ class InventoryServiceImplTest {
         testTicketType.setQuantityAvailable(100);
         testTicketType.setQuantitySold(20);
         testTicketType.setQuantityReserved(10);
+        // Not on sale yet, so a sync writes the counters outright
+        testTicketType.setSaleStartDate(LocalDateTime.now().plusDays(1));
     }
 
     // ========== Get Available Quantity Tests ==========
@@ -73,6 +88,7 @@ class InventoryServiceImplTest {
     void getAvailableQuantity_WithCacheMiss_ShouldSyncFromDatabase() {
         when(redisTemplate.opsForValue()).thenReturn(valueOperations);
         when(valueOperations.get(inventoryKey)).thenReturn(null, 70);
+        when(valueOperations.get(inventoryKey + ":shards")).thenReturn(null);
         when(ticketTypeRepository.findById(ticketTypeId)).thenReturn(Optional.of(testTicketType));
 
         Integer result = inventoryService.getAvailableQuantity(ticketTypeId);
@@ -85,58 +101,284 @@ class InventoryServiceImplTest {
     // ========== Reserve Tickets Tests ==========
 
     @Test
-    void reserveTickets_WithSufficientInventory_ShouldReturnTrue() {
+    void reserveTickets_WithSufficientInventory_ShouldReturnReservedWithRemaining() {
+        when(redisTemplate.execute(any(RedisScript.class), eq(List.of(inventoryKey)), eq(5)))
+            .thenReturn(List.of(1L, 65L));
+
+        InventoryReservationResult result = inventoryService.reserveTickets(ticketTypeId, null, 5, null);
+
+        assertTrue(result.isReserved());
+        assertEquals(65, result.getRemaining());
+        verify(redisTemplate, times(1)).execute(any(RedisScript.class), anyList(), any());
+        verify(changeTracker).markChanged(ticketTypeId);
+        verify(redisTemplate, never()).opsForValue();
+    }
+
+    @Test
+    void reserveTickets_WithInsufficientInventory_ShouldReturnRemainingWithoutCompensation() {
+        when(redisTemplate.execute(any(RedisScript.class), eq(List.of(inventoryKey)), eq(10)))
+            .thenReturn(List.of(0L, 5L));
+
+        InventoryReservationResult result = inventoryService.reserveTickets(ticketTypeId, null, 10, null);
+
+        assertFalse(result.isReserved());
+        assertEquals(5, result.getRemaining());
+        verify(redisTemplate, times(1)).execute(any(RedisScript.class), anyList(), any());
+        verify(changeTracker, never()).markChanged(any(UUID.class));
+        verify(redisTemplate, never()).opsForValue();
+    }
+
+    @Test
+    void reserveTickets_WithMissingCounter_ShouldSyncAndRetry() {
         when(redisTemplate.opsForValue()).thenReturn(valueOperations);
-        when(valueOperations.decrement(inventoryKey, 5)).thenReturn(65L);
+        when(ticketTypeRepository.findById(ticketTypeId)).thenReturn(Optional.of(testTicketType));
+        when(redisTemplate.execute(any(RedisScript.class), eq(List.of(inventoryKey)), eq(5)))
+            .thenReturn(List.of(-1L, 0L), List.of(1L, 65L));
+
+        InventoryReservationResult result = inventoryService.reserveTickets(ticketTypeId, null, 5, null);
+
+        assertTrue(result.isReserved());
+        assertEquals(65, result.getRemaining());
+        verify(valueOperations).set(eq(inventoryKey), eq(70), eq(24L), eq(TimeUnit.HOURS));
+    }
+
+    @Test
+    void reserveTickets_WithShardedCounter_ShouldFallBackToSiblingShard() {
+        testTicketType.setInventoryShards(4);
+        UUID userId = UUID.randomUUID();
+        int preferred = Math.floorMod(userId.hashCode(), 4);
+        int sibling = (preferred + 1) % 4;
+        List<Object> counts = new ArrayList<>(List.of(0, 0, 0, 0));
+        counts.set(sibling, 6);
+
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(ticketTypeRepository.findById(ticketTypeId)).thenReturn(Optional.of(testTicketType));
+        inventoryService.syncInventoryFromDatabase(ticketTypeId);
+
+        when(redisTemplate.execute(any(RedisScript.class), eq(List.of(inventoryKey + ":" + preferred)), eq(5)))
+            .thenReturn(List.of(0L, 0L));
+        when(valueOperations.multiGet(List.of(inventoryKey + ":0", inventoryKey + ":1",
+                inventoryKey + ":2", inventoryKey + ":3")))
+            .thenReturn(counts);
+        when(redisTemplate.execute(any(RedisScript.class), eq(List.of(inventoryKey + ":" + sibling)), eq(5)))
+            .thenReturn(List.of(1L, 1L));
 
-        boolean result = inventoryService.reserveTickets(ticketTypeId, 5);
+        InventoryReservationResult result = inventoryService.reserveTickets(ticketTypeId, userId, 5, null);
 
-        assertTrue(result);
-        verify(valueOperations).decrement(inventoryKey, 5);
-        verify(valueOperations, never()).increment(any(), anyInt());
+        assertTrue(result.isReserved());
+        assertEquals(1, result.getRemaining());
     }
 
     @Test
-    void reserveTickets_WithInsufficientInventory_ShouldRollbackAndReturnFalse() {
+    void reserveTickets_GatheredAcrossShards_ShouldReportStockLeftOnShards() {
+        testTicketType.setInventoryShards(2);
+        UUID userId = UUID.randomUUID();
+        int preferred = Math.floorMod(userId.hashCode(), 2);
+        int sibling = (preferred + 1) % 2;
+
         when(redisTemplate.opsForValue()).thenReturn(valueOperations);
-        when(valueOperations.decrement(inventoryKey, 10)).thenReturn(-5L);
+        when(ticketTypeRepository.findById(ticketTypeId)).thenReturn(Optional.of(testTicketType));
+        inventoryService.syncInventoryFromDatabase(ticketTypeId);
+
+        // Reserve on the preferred shard falls short, then the gather takes all it has
+        when(redisTemplate.execute(any(RedisScript.class), eq(List.of(inventoryKey + ":" + preferred)), eq(5)))
+            .thenReturn(List.of(0L, 3L), List.of(3L, 0L));
+        when(valueOperations.multiGet(List.of(inventoryKey + ":0", inventoryKey + ":1")))
+            .thenReturn(List.<Object>of(3, 3));
+        when(redisTemplate.execute(any(RedisScript.class), eq(List.of(inventoryKey + ":" + sibling)), eq(2)))
+            .thenReturn(List.of(2L, 1L));
 
-        boolean result = inventoryService.reserveTickets(ticketTypeId, 10);
+        InventoryReservationResult result = inventoryService.reserveTickets(ticketTypeId, userId, 5, null);
 
-        assertFalse(result);
-        verify(valueOperations).decrement(inventoryKey, 10);
-        verify(valueOperations).increment(inventoryKey, 10);
+        assertTrue(result.isReserved());
+        assertEquals(1, result.getRemaining());
     }
 
     @Test
-    void reserveTickets_WithNullValue_ShouldReturnFalse() {
+    void reserveTickets_WithShardedCounterAndLowTotal_ShouldFailWithoutTryingSiblings() {
+        testTicketType.setInventoryShards(2);
+        UUID userId = UUID.randomUUID();
+        int preferred = Math.floorMod(userId.hashCode(), 2);
+
         when(redisTemplate.opsForValue()).thenReturn(valueOperations);
-        when(valueOperations.decrement(inventoryKey, 5)).thenReturn(null);
+        when(ticketTypeRepository.findById(ticketTypeId)).thenReturn(Optional.of(testTicketType));
+        inventoryService.syncInventoryFromDatabase(ticketTypeId);
+
+        when(redisTemplate.execute(any(RedisScript.class), eq(List.of(inventoryKey + ":" + preferred)), eq(5)))
+            .thenReturn(List.of(0L, 1L));
+        when(valueOperations.multiGet(List.of(inventoryKey + ":0", inventoryKey + ":1")))
+            .thenReturn(List.<Object>of(1, 2));
+
+        InventoryReservationResult result = inventoryService.reserveTickets(ticketTypeId, userId, 5, null);
+
+        assertFalse(result.isReserved());
+        assertEquals(3, result.getRemaining());
+        verify(redisTemplate, times(1)).execute(any(RedisScript.class), anyList(), any());
+    }
+
+    @Test
+    void reserveTickets_WithLeasingEnabled_ShouldServeFromLeaseWithoutRedis() {
+        when(leaseManager.isEnabled()).thenReturn(true);
+        when(leaseManager.reserve(eq(ticketTypeId), eq(5), any())).thenReturn(InventoryReservationResult.reserved(40));
+
+        InventoryReservationResult result = inventoryService.reserveTickets(ticketTypeId, null, 5, null);
+
+        assertTrue(result.isReserved());
+        assertEquals(40, result.getRemaining());
+        verifyNoInteractions(redisTemplate);
+    }
+
+    @Test
+    void reserveTickets_WithLeaseDeclined_ShouldReserveDirectly() {
+        when(leaseManager.isEnabled()).thenReturn(true);
+        when(leaseManager.reserve(eq(ticketTypeId), eq(5), any())).thenReturn(null);
+        when(redisTemplate.execute(any(RedisScript.class), eq(List.of(inventoryKey)), eq(5)))
+            .thenReturn(List.of(1L, 3L));
+
+        InventoryReservationResult result = inventoryService.reserveTickets(ticketTypeId, null, 5, null);
+
+        assertTrue(result.isReserved());
+        assertEquals(3, result.getRemaining());
+        verify(leaseManager).recordRemaining(ticketTypeId, 3);
+    }
+
+    @Test
+    void reserveTickets_WithLeasingAndPerPersonLimit_ShouldReserveInOneRedisCall() {
+        UUID userId = UUID.randomUUID();
+        String userKey = inventoryKey + ":user:" + userId;
+        when(leaseManager.isEnabled()).thenReturn(true);
+        when(redisTemplate.execute(any(RedisScript.class), eq(List.of(inventoryKey, userKey)),
+                eq(2), eq(4), eq(86400L)))
+            .thenReturn(List.of(1L, 30L));
+
+        InventoryReservationResult result = inventoryService.reserveTickets(ticketTypeId, userId, 2, 4);
+
+        assertTrue(result.isReserved());
+        verify(leaseManager, never()).reserve(any(), anyInt(), any());
+    }
+
+    // ========== Cart Reservation Tests ==========
+
+    @Test
+    void reserveCart_ShouldReserveAllItemsInOneScript() {
+        UUID userId = UUID.randomUUID();
+        UUID vipTicketTypeId = UUID.randomUUID();
+        String vipKey = "inventory:{" + vipTicketTypeId + "}";
+        Map<UUID, Integer> quantities = new LinkedHashMap<>();
+        quantities.put(ticketTypeId, 2);
+        quantities.put(vipTicketTypeId, 1);
+
+        when(redisTemplate.execute(any(RedisScript.class),
+                eq(List.of(inventoryKey + ":user:" + userId, inventoryKey, vipKey + ":user:" + userId, vipKey)),
+                eq(1), eq(2), eq(10L), eq(86400L), eq(1), eq(1), eq(-1L), eq(86400L)))
+            .thenReturn(List.of(1L));
+
+        CartReservationResult result = inventoryService.reserveCart(userId, quantities, Map.of(ticketTypeId, 10));
+
+        assertTrue(result.isReserved());
+    }
+
+    @Test
+    void reserveCart_WithShortItem_ShouldReportIt() {
+        UUID vipTicketTypeId = UUID.randomUUID();
+        Map<UUID, Integer> quantities = new LinkedHashMap<>();
+        quantities.put(ticketTypeId, 2);
+        quantities.put(vipTicketTypeId, 3);
+
+        when(redisTemplate.execute(any(RedisScript.class), anyList(),
+                eq(1), eq(2), eq(-1L), eq(86400L), eq(1), eq(3), eq(-1L), eq(86400L)))
+            .thenReturn(List.of(0L, 2L, 1L));
+
+        CartReservationResult result = inventoryService.reserveCart(UUID.randomUUID(), quantities, Map.of());
+
+        assertFalse(result.isReserved());
+        assertFalse(result.isLimitExceeded());
+        assertEquals(vipTicketTypeId, result.getShortTicketTypeId());
+        assertEquals(1, result.getAvailable());
+    }
+
+    @Test
+    void reserveCart_OnRedisCluster_ShouldReserveItemByItemAndRollBack() {
+        ReflectionTestUtils.setField(inventoryService, "redisCluster", true);
+        UUID userId = UUID.randomUUID();
+        UUID vipTicketTypeId = UUID.randomUUID();
+        String vipKey = "inventory:{" + vipTicketTypeId + "}";
+        String userKey = inventoryKey + ":user:" + userId;
+        Map<UUID, Integer> quantities = new LinkedHashMap<>();
+        quantities.put(ticketTypeId, 2);
+        quantities.put(vipTicketTypeId, 3);
+
+        when(redisTemplate.execute(any(RedisScript.class), eq(List.of(inventoryKey, userKey)),
+                eq(2), eq(4), eq(86400L)))
+            .thenReturn(List.of(1L, 8L));
+        when(redisTemplate.execute(any(RedisScript.class), eq(List.of(vipKey)), eq(3)))
+            .thenReturn(List.of(0L, 1L));
+        when(redisTemplate.execute(any(RedisScript.class), eq(List.of(inventoryKey, userKey)), eq(2)))
+            .thenReturn(10L);
+
+        CartReservationResult result = inventoryService.reserveCart(userId, quantities, Map.of(ticketTypeId, 4));
+
+        assertFalse(result.isReserved());
+        assertEquals(vipTicketTypeId, result.getShortTicketTypeId());
+        assertEquals(1, result.getAvailable());
+        // The first item's stock and allowance are given back
+        verify(redisTemplate).execute(any(RedisScript.class), eq(List.of(inventoryKey, userKey)), eq(2));
+    }
+
+    // ========== Per-Person Limit Tests ==========
+
+    @Test
+    void reserveTickets_WithPerPersonLimit_ShouldCountUserInSameScript() {
+        UUID userId = UUID.randomUUID();
+        String userKey = inventoryKey + ":user:" + userId;
+        when(redisTemplate.execute(any(RedisScript.class), eq(List.of(inventoryKey, userKey)),
+                eq(3), eq(4), eq(86400L)))
+            .thenReturn(List.of(-2L, 2L));
+
+        InventoryReservationResult result = inventoryService.reserveTickets(ticketTypeId, userId, 3, 4);
+
+        assertFalse(result.isReserved());
+        assertTrue(result.isLimitExceeded());
+        assertEquals(2, result.getAlreadyHeld());
+    }
+
+    @Test
+    void releaseReservation_WithUser_ShouldReturnAllowanceWithStock() {
+        UUID userId = UUID.randomUUID();
+        String userKey = inventoryKey + ":user:" + userId;
+        when(redisTemplate.execute(any(RedisScript.class), eq(List.of(inventoryKey, userKey)), eq(2)))
+            .thenReturn(12L);
 
-        boolean result = inventoryService.reserveTickets(ticketTypeId, 5);
+        inventoryService.releaseReservation(ticketTypeId, userId, 2);
 
-        assertFalse(result);
-        verify(valueOperations).decrement(inventoryKey, 5);
+        verify(redisTemplate).execute(any(RedisScript.class), eq(List.of(inventoryKey, userKey)), eq(2));
     }
 
     // ========== Release Reservation Tests ==========
 
     @Test
-    void releaseReservation_ShouldIncrementInventory() {
-        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+    void releaseReservation_ShouldIncrementInventoryAtomically() {
+        when(redisTemplate.execute(any(RedisScript.class), eq(List.of(inventoryKey)), eq(5)))
+            .thenReturn(75L);
         
         inventoryService.releaseReservation(ticketTypeId, 5);
 
-        verify(valueOperations).increment(inventoryKey, 5);
+        verify(redisTemplate).execute(any(RedisScript.class), eq(List.of(inventoryKey)), eq(5));
+        verify(redisTemplate, never()).opsForValue();
     }
 
     // ========== Confirm Purchase Tests ==========
 
     @Test
-    void confirmPurchase_ShouldLogPurchase() {
+    void confirmPurchase_ShouldRecordSoldCount() {
+        when(redisTemplate.execute(any(RedisScript.class),
+                eq(List.of(inventoryKey, inventoryKey + ":sold")), eq(3), eq(86400L)))
+            .thenReturn(List.of(3L, 67L));
+
         inventoryService.confirmPurchase(ticketTypeId, 3);
 
-        // This method primarily logs, so we just verify it doesn't throw
+        verify(redisTemplate).execute(any(RedisScript.class),
+            eq(List.of(inventoryKey, inventoryKey + ":sold")), eq(3), eq(86400L));
         verifyNoInteractions(valueOperations);
     }
 
@@ -153,6 +395,54 @@ class InventoryServiceImplTest {
         verify(valueOperations).set(eq(inventoryKey), eq(70), eq(24L), eq(TimeUnit.HOURS));
     }
 
+    @Test
+    void syncInventoryFromDatabase_WithShards_ShouldSplitStockEvenly() {
+        testTicketType.setInventoryShards(4);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(ticketTypeRepository.findById(ticketTypeId)).thenReturn(Optional.of(testTicketType));
+
+        inventoryService.syncInventoryFromDatabase(ticketTypeId);
+
+        verify(valueOperations).set(eq(inventoryKey + ":0"), eq(18), eq(24L), eq(TimeUnit.HOURS));
+        verify(valueOperations).set(eq(inventoryKey + ":1"), eq(18), eq(24L), eq(TimeUnit.HOURS));
+        verify(valueOperations).set(eq(inventoryKey + ":2"), eq(17), eq(24L), eq(TimeUnit.HOURS));
+        verify(valueOperations).set(eq(inventoryKey + ":3"), eq(17), eq(24L), eq(TimeUnit.HOURS));
+        verify(valueOperations).set(eq(inventoryKey + ":shards"), eq(4), eq(24L), eq(TimeUnit.HOURS));
+    }
+
+    @Test
+    void syncInventoryFromDatabase_DuringSale_ShouldOnlyCreateMissingCounters() {
+        testTicketType.setSaleStartDate(LocalDateTime.now().minusHours(1));
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(ticketTypeRepository.findById(ticketTypeId)).thenReturn(Optional.of(testTicketType));
+        when(redisTemplate.execute(any(RedisScript.class), eq(List.of(inventoryKey)), eq(70), eq(86400L)))
+            .thenReturn(0L);
+
+        inventoryService.syncInventoryFromDatabase(ticketTypeId);
+
+        verify(valueOperations, never()).set(eq(inventoryKey), any(), anyLong(), any(TimeUnit.class));
+        verify(leaseManager, never()).discard(ticketTypeId);
+    }
+
+    @Test
+    void syncInventoryFromDatabase_DuringSaleWithShards_ShouldFillMissingShardsTogether() {
+        testTicketType.setInventoryShards(4);
+        testTicketType.setSaleStartDate(LocalDateTime.now().minusHours(1));
+        List<String> shardKeys = List.of(inventoryKey + ":0", inventoryKey + ":1",
+            inventoryKey + ":2", inventoryKey + ":3");
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(ticketTypeRepository.findById(ticketTypeId)).thenReturn(Optional.of(testTicketType));
+        when(redisTemplate.execute(any(RedisScript.class), eq(shardKeys), eq(70), eq(86400L))).thenReturn(1L);
+
+        inventoryService.syncInventoryFromDatabase(ticketTypeId);
+
+        for (String shardKey : shardKeys) {
+            verify(valueOperations, never()).set(eq(shardKey), any(), anyLong(), any(TimeUnit.class));
+        }
+        verify(valueOperations).set(eq(inventoryKey + ":shards"), eq(4), eq(24L), eq(TimeUnit.HOURS));
+        verify(leaseManager).discard(ticketTypeId);
+    }
+
     @Test
     void syncInventoryFromDatabase_WithInvalidTicketType_ShouldThrowException() {
         when(ticketTypeRepository.findById(ticketTypeId)).thenReturn(Optional.empty());
@@ -162,12 +452,39 @@ class InventoryServiceImplTest {
         );
     }
 
+    // ========== Reconciliation Tests ==========
+
+    @Test
+    void snapshotInventory_ShouldReadEveryShard() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get(inventoryKey + ":shards")).thenReturn(2);
+        when(valueOperations.multiGet(List.of(inventoryKey + ":0", inventoryKey + ":1")))
+            .thenReturn(List.<Object>of(4, 6));
+
+        InventorySnapshot snapshot = inventoryService.snapshotInventory(ticketTypeId);
+
+        assertEquals(List.of(4, 6), snapshot.getCounters());
+        assertEquals(10, snapshot.getTotal());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void compareAndAdjustInventory_ShouldPassObservedValuesToScript() {
+        when(redisTemplate.execute(any(RedisScript.class), eq(List.of(inventoryKey)), eq(-3), eq(86400L), eq(12)))
+            .thenReturn(1L);
+
+        boolean applied = inventoryService.compareAndAdjustInventory(ticketTypeId,
+            new InventorySnapshot(List.of(12)), -3);
+
+        assertTrue(applied);
+    }
+
     // ========== Clear Cache Tests ==========
 
     @Test
-    void clearInventoryCache_ShouldDeleteKey() {
+    void clearInventoryCache_ShouldDeleteCounterAndMetadataKeys() {
         inventoryService.clearInventoryCache(ticketTypeId);
 
-        verify(redisTemplate).delete(inventoryKey);
+        verify(redisTemplate).delete(List.of(inventoryKey, inventoryKey + ":shards", inventoryKey + ":sold"));
     }
 }
@@ -1,17 +1,39 @@
 package com.eventbooking.ticket.service;
 
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class QRCodeServiceImplTest {
 
+    private static final UUID TICKET_ID = UUID.fromString("123e4567-e89b-12d3-a456-426614174000");
+    private static final UUID EVENT_ID = UUID.fromString("0b7e3a52-9a1c-4d6e-8f21-5c3d2e1f0a9b");
+
     private QRCodeServiceImpl qrCodeService;
 
     @BeforeEach
     void setUp() {
         qrCodeService = new QRCodeServiceImpl();
+        qrCodeService.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        qrCodeService.shutdown();
     }
 
     // ========== QR Code Generation Tests ==========
@@ -21,7 +43,7 @@ class QRCodeServiceImplTest {
         String ticketId = "123e4567-e89b-12d3-a456-426614174000";
         String ticketNumber = "TKT-12345678-20240115120000-1234";
 
-        String result = qrCodeService.generateQRCode(ticketId, ticketNumber);
+        String result = qrCodeService.generateQRCode(ticketId, EVENT_ID, ticketNumber);
 
         assertNotNull(result);
         assertFalse(result.isEmpty());
@@ -37,8 +59,8 @@ class QRCodeServiceImplTest {
         String ticketId2 = "987e6543-e21b-98d7-a654-426614174999";
         String ticketNumber2 = "TKT-87654321-20240115120000-5678";
 
-        String qrCode1 = qrCodeService.generateQRCode(ticketId1, ticketNumber1);
-        String qrCode2 = qrCodeService.generateQRCode(ticketId2, ticketNumber2);
+        String qrCode1 = qrCodeService.generateQRCode(ticketId1, EVENT_ID, ticketNumber1);
+        String qrCode2 = qrCodeService.generateQRCode(ticketId2, EVENT_ID, ticketNumber2);
 
         assertNotEquals(qrCode1, qrCode2);
     }
@@ -48,21 +70,124 @@ class QRCodeServiceImplTest {
         String ticketId = "123e4567-e89b-12d3-a456-426614174000";
         String ticketNumber = "TKT-12345678-20240115120000-1234";
 
-        String qrCode1 = qrCodeService.generateQRCode(ticketId, ticketNumber);
-        String qrCode2 = qrCodeService.generateQRCode(ticketId, ticketNumber);
+        String qrCode1 = qrCodeService.generateQRCode(ticketId, EVENT_ID, ticketNumber);
+        String qrCode2 = qrCodeService.generateQRCode(ticketId, EVENT_ID, ticketNumber);
 
         assertEquals(qrCode1, qrCode2);
     }
 
+    // ========== Async Rendering Tests ==========
+
+    @Test
+    void renderQRCode_ShouldCompleteWithPngImage() {
+        String payload = qrCodeService.buildPayload(TICKET_ID, EVENT_ID);
+
+        byte[] image = qrCodeService.renderQRCode(payload).join();
+
+        // PNG signature
+        assertEquals((byte) 0x89, image[0]);
+        assertEquals('P', image[1]);
+        assertEquals('N', image[2]);
+        assertEquals('G', image[3]);
+    }
+
+    @Test
+    void renderQRCode_WithSamePayload_ShouldReuseCachedRender() {
+        String payload = qrCodeService.buildPayload(TICKET_ID, EVENT_ID);
+
+        CompletableFuture<byte[]> first = qrCodeService.renderQRCode(payload);
+        CompletableFuture<byte[]> second = qrCodeService.renderQRCode(payload);
+
+        assertSame(first, second);
+    }
+
+    // ========== Signed Payload Tests ==========
+
+    @Test
+    void buildPayload_ShouldBeCompactAndFixedSize() {
+        String payload = qrCodeService.buildPayload(TICKET_ID, EVENT_ID);
+        String other = qrCodeService.buildPayload(UUID.randomUUID(), EVENT_ID);
+
+        assertTrue(payload.startsWith("TK2."));
+        assertEquals(63, payload.length());
+        assertEquals(payload.length(), other.length());
+        assertTrue(qrCodeService.validateQRCode(payload));
+    }
+
+    @Test
+    void resolveTicketId_WithSignedPayload_ShouldReturnTicketId() {
+        String payload = qrCodeService.buildPayload(TICKET_ID, EVENT_ID);
+
+        assertEquals(TICKET_ID, qrCodeService.resolveTicketId(payload));
+    }
+
+    @Test
+    void resolveTicketId_WithTamperedPayload_ShouldReturnNull() {
+        String payload = qrCodeService.buildPayload(TICKET_ID, EVENT_ID);
+        // Flip a character inside the signature; the final one also carries padding bits
+        int index = payload.length() - 4;
+        char replacement = payload.charAt(index) == 'A' ? 'B' : 'A';
+        String tampered = payload.substring(0, index) + replacement + payload.substring(index + 1);
+
+        assertNull(qrCodeService.resolveTicketId(tampered));
+    }
+
+    @Test
+    void resolveTicketId_WithPayloadSignedByAnotherSecret_ShouldReturnNull() {
+        QRCodeServiceImpl otherService = new QRCodeServiceImpl();
+        ReflectionTestUtils.setField(otherService, "signingSecret", "someOtherSigningSecret1234567890");
+
+        String forged = otherService.buildPayload(TICKET_ID, EVENT_ID);
+
+        assertNull(qrCodeService.resolveTicketId(forged));
+    }
+
+    @Test
+    void eventSigningKey_ShouldVerifyOwnEventsPayloadsOnly() throws Exception {
+        UUID otherEventId = UUID.randomUUID();
+        byte[] decoded = Base64.getUrlDecoder().decode(qrCodeService.buildPayload(TICKET_ID, EVENT_ID).substring(4));
+        byte[] signed = Arrays.copyOfRange(decoded, 0, 32);
+        byte[] signature = Arrays.copyOfRange(decoded, 32, decoded.length);
+
+        // What an offline scanner does with the key from its bundle
+        assertArrayEquals(signature, hmac(qrCodeService.getEventSigningKey(EVENT_ID), signed));
+        assertFalse(Arrays.equals(signature, hmac(qrCodeService.getEventSigningKey(otherEventId), signed)));
+        assertFalse(Arrays.equals(qrCodeService.getEventSigningKey(EVENT_ID),
+            qrCodeService.getEventSigningKey(otherEventId)));
+    }
+
+    @Test
+    void resolveTicketId_WithPayloadMovedToAnotherEvent_ShouldReturnNull() {
+        byte[] decoded = Base64.getUrlDecoder().decode(qrCodeService.buildPayload(TICKET_ID, EVENT_ID).substring(4));
+        // Swap in another event id while keeping the signature made with this event's key
+        ByteBuffer.wrap(decoded).putLong(16, 42L);
+        String moved = "TK2." + Base64.getUrlEncoder().withoutPadding().encodeToString(decoded);
+
+        assertNull(qrCodeService.resolveTicketId(moved));
+    }
+
+    @Test
+    void resolveTicketId_WithLegacySignedPayload_ShouldReturnTicketId() throws Exception {
+        byte[] idBytes = ByteBuffer.allocate(16)
+            .putLong(TICKET_ID.getMostSignificantBits())
+            .putLong(TICKET_ID.getLeastSignificantBits())
+            .array();
+        byte[] signature = hmac("defaultQrSigningSecret1234567890".getBytes(StandardCharsets.UTF_8), idBytes);
+        String legacy = "TK1." + Base64.getUrlEncoder().withoutPadding().encodeToString(
+            ByteBuffer.allocate(28).put(idBytes).put(signature).array());
+
+        assertEquals(TICKET_ID, qrCodeService.resolveTicketId(legacy));
+    }
+
     // ========== QR Code Validation Tests ==========
 
     @Test
-    void validateQRCode_WithValidFormat_ShouldReturnTrue() {
-        String validQRCode = "TICKET:123e4567-e89b-12d3-a456-426614174000:TKT-12345678-20240115120000-1234";
+    void validateQRCode_WithUnsignedLegacyFormat_ShouldReturnFalse() {
+        String legacyQRCode = "TICKET:123e4567-e89b-12d3-a456-426614174000:TKT-12345678-20240115120000-1234";
 
-        boolean result = qrCodeService.validateQRCode(validQRCode);
+        boolean result = qrCodeService.validateQRCode(legacyQRCode);
 
-        assertTrue(result);
+        assertFalse(result);
     }
 
     @Test
@@ -96,4 +221,10 @@ class QRCodeServiceImplTest {
 
         assertFalse(result);
     }
+
+    private static byte[] hmac(byte[] key, byte[] data) throws Exception {
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(key, "HmacSHA256"));
+        return Arrays.copyOf(mac.doFinal(data), 12);
+    }
 }
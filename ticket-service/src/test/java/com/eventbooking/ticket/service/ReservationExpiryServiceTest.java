@@ -0,0 +1,145 @@
+package com.eventbooking.ticket.service;
+
+import com.eventbooking.ticket.entity.TicketReservation;
+import com.eventbooking.ticket.entity.TicketReservation.ReservationStatus;
+import com.eventbooking.ticket.repository.TicketReservationRepository;
+import com.eventbooking.ticket.repository.TicketTypeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReservationExpiryServiceTest {
+
+    @Mock
+    private TicketReservationRepository reservationRepository;
+
+    @Mock
+    private TicketTypeRepository ticketTypeRepository;
+
+    @Mock
+    private InventoryService inventoryService;
+
+    @Mock
+    private TicketCounterAggregator counterAggregator;
+
+    @Mock
+    private SeatMapService seatMapService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ReservationExpiryService expiryService;
+    private UUID gaTicketTypeId;
+    private UUID vipTicketTypeId;
+    private UUID userId;
+
+    @BeforeEach
+    void setUp() {
+        expiryService = new ReservationExpiryService(reservationRepository, ticketTypeRepository,
+            inventoryService, counterAggregator, seatMapService, transactionManager);
+        gaTicketTypeId = UUID.randomUUID();
+        vipTicketTypeId = UUID.randomUUID();
+        userId = UUID.randomUUID();
+    }
+
+    @Test
+    void expireReservations_ShouldBulkUpdateAndReleaseOncePerTicketType() {
+        TicketReservation first = reservation(gaTicketTypeId, 2);
+        TicketReservation second = reservation(gaTicketTypeId, 3);
+        TicketReservation third = reservation(vipTicketTypeId, 1);
+        List<UUID> ids = List.of(first.getId(), second.getId(), third.getId());
+
+        when(reservationRepository.findExpiredByIdsForUpdate(eq(ids), eq(ReservationStatus.ACTIVE),
+                any(LocalDateTime.class)))
+            .thenReturn(List.of(first, second, third));
+
+        ReservationExpiryResult result = expiryService.expireReservations(ids);
+
+        assertEquals(3, result.getExpiredCount());
+        verify(reservationRepository).updateStatus(ids, ReservationStatus.EXPIRED);
+        verify(ticketTypeRepository).adjustQuantityReserved(gaTicketTypeId, -5);
+        verify(ticketTypeRepository).adjustQuantityReserved(vipTicketTypeId, -1);
+        verify(inventoryService).releaseReservation(gaTicketTypeId, 5);
+        verify(inventoryService).releaseReservation(vipTicketTypeId, 1);
+        verify(inventoryService).releaseUserAllowances(gaTicketTypeId, Map.of(userId, 5));
+        verify(inventoryService).releaseUserAllowances(vipTicketTypeId, Map.of(userId, 1));
+    }
+
+    @Test
+    void expireReservations_WithWriteBehindCounters_ShouldRecordDeltas() {
+        TicketReservation reservation = reservation(gaTicketTypeId, 4);
+        List<UUID> ids = List.of(reservation.getId());
+
+        when(counterAggregator.isEnabled()).thenReturn(true);
+        when(reservationRepository.findExpiredByIdsForUpdate(eq(ids), eq(ReservationStatus.ACTIVE),
+                any(LocalDateTime.class)))
+            .thenReturn(List.of(reservation));
+
+        expiryService.expireReservations(ids);
+
+        verify(counterAggregator).record(gaTicketTypeId, -4, 0);
+        verify(ticketTypeRepository, never()).adjustQuantityReserved(any(), anyInt());
+    }
+
+    @Test
+    void expireReservations_WithSeatedReservation_ShouldReleaseItsSeats() {
+        TicketReservation seated = reservation(gaTicketTypeId, 2);
+        UUID sectionId = UUID.randomUUID();
+        seated.setSeatSectionId(sectionId);
+        seated.setSeatOffsets("14,15");
+        TicketReservation unseated = reservation(gaTicketTypeId, 1);
+        List<UUID> ids = List.of(seated.getId(), unseated.getId());
+
+        when(reservationRepository.findExpiredByIdsForUpdate(eq(ids), eq(ReservationStatus.ACTIVE),
+                any(LocalDateTime.class)))
+            .thenReturn(List.of(seated, unseated));
+
+        ReservationExpiryResult result = expiryService.expireReservations(ids);
+
+        assertEquals(1, result.getReleasedSeats().size());
+        SeatHold hold = result.getReleasedSeats().get(0);
+        assertEquals(sectionId, hold.getSectionId());
+        assertEquals(seated.getId(), hold.getReservationId());
+        assertArrayEquals(new int[]{14, 15}, hold.getOffsets());
+        verify(seatMapService).releaseSeats(result.getReleasedSeats());
+    }
+
+    @Test
+    void expireReservations_WithNothingStillActive_ShouldNotTouchInventory() {
+        List<UUID> ids = List.of(UUID.randomUUID());
+
+        when(reservationRepository.findExpiredByIdsForUpdate(eq(ids), eq(ReservationStatus.ACTIVE),
+                any(LocalDateTime.class)))
+            .thenReturn(List.of());
+
+        ReservationExpiryResult result = expiryService.expireReservations(ids);
+
+        assertEquals(0, result.getExpiredCount());
+        verify(reservationRepository, never()).updateStatus(any(), any());
+        verifyNoInteractions(inventoryService);
+    }
+
+    private TicketReservation reservation(UUID ticketTypeId, int quantity) {
+        TicketReservation reservation = new TicketReservation();
+        reservation.setId(UUID.randomUUID());
+        reservation.setUserId(userId);
+        reservation.setTicketTypeId(ticketTypeId);
+        reservation.setQuantity(quantity);
+        reservation.setReservedUntil(LocalDateTime.now().minusMinutes(1));
+        reservation.setStatus(ReservationStatus.ACTIVE);
+        return reservation;
+    }
+}
@@ -0,0 +1,131 @@
+package com.eventbooking.ticket.service;
+
+import com.eventbooking.ticket.entity.TicketType;
+import com.eventbooking.ticket.repository.TicketTypeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SaleWindowIndexTest {
+
+    @Mock
+    private TicketTypeRepository ticketTypeRepository;
+
+    @Mock
+    private InventoryService inventoryService;
+
+    @Mock
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Mock
+    private RedisMessageListenerContainer listenerContainer;
+
+    @InjectMocks
+    private SaleWindowIndex saleWindowIndex;
+
+    private UUID eventId;
+
+    @BeforeEach
+    void setUp() {
+        saleWindowIndex.init();
+        eventId = UUID.randomUUID();
+    }
+
+    @Test
+    void findAvailable_ShouldQueryOnceAndKeepOnlyTypesOnSaleWithStock() {
+        LocalDateTime now = LocalDateTime.now();
+        TicketType onSale = ticketType(now.minusDays(1), now.plusDays(1));
+        TicketType soldOut = ticketType(now.minusDays(1), null);
+        TicketType upcoming = ticketType(now.plusDays(1), now.plusDays(2));
+        TicketType ended = ticketType(now.minusDays(2), now.minusDays(1));
+        when(ticketTypeRepository.findByEventId(eventId)).thenReturn(List.of(upcoming, soldOut, ended, onSale));
+        when(inventoryService.getAvailableQuantity(onSale.getId())).thenReturn(12, 11);
+        when(inventoryService.getAvailableQuantity(soldOut.getId())).thenReturn(0);
+
+        List<SaleWindowIndex.AvailableTicketType> first = saleWindowIndex.findAvailable(eventId);
+        List<SaleWindowIndex.AvailableTicketType> second = saleWindowIndex.findAvailable(eventId);
+
+        assertEquals(List.of(onSale.getId()), ids(first));
+        assertEquals(12, first.get(0).getAvailableQuantity());
+        assertEquals(11, second.get(0).getAvailableQuantity());
+        verify(ticketTypeRepository, times(1)).findByEventId(eventId);
+        verify(inventoryService, never()).getAvailableQuantity(upcoming.getId());
+        verify(inventoryService, never()).getAvailableQuantity(ended.getId());
+    }
+
+    @Test
+    void findAvailable_AfterSaleEnds_ShouldDropTypeWithoutQuery() throws InterruptedException {
+        LocalDateTime now = LocalDateTime.now();
+        TicketType closing = ticketType(now.minusDays(1), now.plusNanos(150_000_000));
+        TicketType open = ticketType(null, null);
+        when(ticketTypeRepository.findByEventId(eventId)).thenReturn(List.of(closing, open));
+        when(inventoryService.getAvailableQuantity(any())).thenReturn(5);
+
+        assertEquals(2, saleWindowIndex.findAvailable(eventId).size());
+        Thread.sleep(200);
+
+        assertEquals(List.of(open.getId()), ids(saleWindowIndex.findAvailable(eventId)));
+        verify(ticketTypeRepository, times(1)).findByEventId(eventId);
+    }
+
+    @Test
+    void invalidate_ShouldPublishAndReloadOnNextRead() {
+        TicketType open = ticketType(null, null);
+        when(ticketTypeRepository.findByEventId(eventId)).thenReturn(List.of(open));
+        when(inventoryService.getAvailableQuantity(open.getId())).thenReturn(5);
+
+        saleWindowIndex.findAvailable(eventId);
+        saleWindowIndex.invalidate(eventId);
+        saleWindowIndex.findAvailable(eventId);
+
+        verify(redisTemplate).convertAndSend(SaleWindowIndex.INVALIDATION_CHANNEL, eventId.toString());
+        verify(ticketTypeRepository, times(2)).findByEventId(eventId);
+    }
+
+    @Test
+    void findAvailable_InvalidatedWhileLoading_ShouldNotCacheLoadedRows() {
+        TicketType open = ticketType(null, null);
+        when(ticketTypeRepository.findByEventId(eventId))
+            .thenAnswer(invocation -> {
+                saleWindowIndex.invalidate(eventId);
+                return List.of(open);
+            })
+            .thenReturn(List.of(open));
+        when(inventoryService.getAvailableQuantity(open.getId())).thenReturn(5);
+
+        assertEquals(1, saleWindowIndex.findAvailable(eventId).size());
+        saleWindowIndex.findAvailable(eventId);
+        saleWindowIndex.findAvailable(eventId);
+
+        verify(ticketTypeRepository, times(2)).findByEventId(eventId);
+    }
+
+    private TicketType ticketType(LocalDateTime saleStart, LocalDateTime saleEnd) {
+        TicketType ticketType = new TicketType();
+        ticketType.setId(UUID.randomUUID());
+        ticketType.setEventId(eventId);
+        ticketType.setSaleStartDate(saleStart);
+        ticketType.setSaleEndDate(saleEnd);
+        return ticketType;
+    }
+
+    private static List<UUID> ids(List<SaleWindowIndex.AvailableTicketType> available) {
+        return available.stream()
+            .map(entry -> entry.getTicketType().getId())
+            .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,213 @@
+package com.eventbooking.ticket.service;
+
+import com.eventbooking.common.client.EventServiceClient;
+import com.eventbooking.common.exception.UnauthorizedException;
+import com.eventbooking.ticket.dto.CreateSeatSectionRequest;
+import com.eventbooking.ticket.dto.SeatHoldDto;
+import com.eventbooking.ticket.entity.SeatSection;
+import com.eventbooking.ticket.entity.TicketReservation;
+import com.eventbooking.ticket.entity.TicketReservation.ReservationStatus;
+import com.eventbooking.ticket.entity.TicketType;
+import com.eventbooking.ticket.exception.InsufficientInventoryException;
+import com.eventbooking.ticket.exception.InvalidReservationException;
+import com.eventbooking.ticket.repository.SeatSectionRepository;
+import com.eventbooking.ticket.repository.TicketReservationRepository;
+import com.eventbooking.ticket.repository.TicketTypeRepository;
+import com.eventbooking.ticket.service.SeatMapService.SelectionMode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SeatMapServiceTest {
+
+    @Mock
+    private SeatSectionRepository seatSectionRepository;
+
+    @Mock
+    private TicketTypeRepository ticketTypeRepository;
+
+    @Mock
+    private TicketReservationRepository reservationRepository;
+
+    @Mock
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Mock
+    private EventServiceClient eventServiceClient;
+
+    @InjectMocks
+    private SeatMapService seatMapService;
+
+    private UUID ticketTypeId;
+    private UUID userId;
+    private SeatSection section;
+    private TicketReservation reservation;
+    private List<String> sectionKeys;
+
+    @BeforeEach
+    void setUp() {
+        ticketTypeId = UUID.randomUUID();
+        userId = UUID.randomUUID();
+
+        section = new SeatSection();
+        section.setId(UUID.randomUUID());
+        section.setTicketTypeId(ticketTypeId);
+        section.setName("Stalls");
+        section.setRowLabels("A,B");
+        section.setRowLengths("10,10");
+        section.setCapacity(20);
+        sectionKeys = List.of("seatmap:{" + section.getId() + "}", "seatmap:{" + section.getId() + "}:holders");
+
+        reservation = new TicketReservation();
+        reservation.setId(UUID.randomUUID());
+        reservation.setUserId(userId);
+        reservation.setTicketTypeId(ticketTypeId);
+        reservation.setQuantity(2);
+        reservation.setStatus(ReservationStatus.ACTIVE);
+    }
+
+    @Test
+    void holdSeats_WithEmptySection_ShouldClaimCentreOfFrontRow() {
+        when(reservationRepository.findByIdWithLock(reservation.getId())).thenReturn(Optional.of(reservation));
+        when(seatSectionRepository.findByTicketTypeIdOrderBySortOrderAsc(ticketTypeId)).thenReturn(List.of(section));
+        doReturn(new byte[0]).when(redisTemplate).execute(any(RedisCallback.class), eq(true));
+        when(redisTemplate.execute(any(RedisScript.class), any(RedisSerializer.class), any(RedisSerializer.class),
+                eq(sectionKeys), eq(reservation.getId().toString()), eq("4"), eq("5")))
+            .thenReturn(1L);
+
+        SeatHoldDto hold = seatMapService.holdSeats(reservation.getId(), userId, SelectionMode.BEST_AVAILABLE);
+
+        assertEquals(List.of("A-5", "A-6"), hold.getSeats());
+        assertEquals(section.getId(), reservation.getSeatSectionId());
+        assertEquals("4,5", reservation.getSeatOffsets());
+        verify(reservationRepository).save(reservation);
+    }
+
+    @Test
+    void holdSeats_WhenSeatsTakenConcurrently_ShouldChooseAgain() {
+        when(reservationRepository.findByIdWithLock(reservation.getId())).thenReturn(Optional.of(reservation));
+        when(seatSectionRepository.findByTicketTypeIdOrderBySortOrderAsc(ticketTypeId)).thenReturn(List.of(section));
+        // The second snapshot shows A-5 and A-6 taken by the reservation that won the race
+        doReturn(new byte[0], new byte[]{0x0C}).when(redisTemplate).execute(any(RedisCallback.class), eq(true));
+        when(redisTemplate.execute(any(RedisScript.class), any(RedisSerializer.class), any(RedisSerializer.class),
+                eq(sectionKeys), eq(reservation.getId().toString()), eq("4"), eq("5")))
+            .thenReturn(0L);
+        when(redisTemplate.execute(any(RedisScript.class), any(RedisSerializer.class), any(RedisSerializer.class),
+                eq(sectionKeys), eq(reservation.getId().toString()), eq("2"), eq("3")))
+            .thenReturn(1L);
+
+        SeatHoldDto hold = seatMapService.holdSeats(reservation.getId(), userId, SelectionMode.CONTIGUOUS);
+
+        assertEquals(List.of("A-3", "A-4"), hold.getSeats());
+        assertEquals("2,3", reservation.getSeatOffsets());
+    }
+
+    @Test
+    void holdSeats_WithNoAdjacentSeats_ShouldRejectContiguousRequest() {
+        // Every other seat is taken in both rows
+        byte[] checkerboard = {(byte) 0xAA, (byte) 0xAA, (byte) 0xAA};
+        when(reservationRepository.findByIdWithLock(reservation.getId())).thenReturn(Optional.of(reservation));
+        when(seatSectionRepository.findByTicketTypeIdOrderBySortOrderAsc(ticketTypeId)).thenReturn(List.of(section));
+        doReturn(checkerboard).when(redisTemplate).execute(any(RedisCallback.class), eq(true));
+
+        assertThrows(InsufficientInventoryException.class, () ->
+            seatMapService.holdSeats(reservation.getId(), userId, SelectionMode.CONTIGUOUS)
+        );
+        verify(reservationRepository, never()).save(any());
+    }
+
+    @Test
+    void holdSeats_WhenAlreadySeated_ShouldReturnExistingSeats() {
+        reservation.setSeatSectionId(section.getId());
+        reservation.setSeatOffsets("10,11");
+        when(reservationRepository.findByIdWithLock(reservation.getId())).thenReturn(Optional.of(reservation));
+        when(seatSectionRepository.findById(section.getId())).thenReturn(Optional.of(section));
+
+        SeatHoldDto hold = seatMapService.holdSeats(reservation.getId(), userId, SelectionMode.BEST_AVAILABLE);
+
+        assertEquals(List.of("B-1", "B-2"), hold.getSeats());
+        verifyNoInteractions(redisTemplate);
+    }
+
+    @Test
+    void holdSeats_ForAnotherUsersReservation_ShouldThrowException() {
+        when(reservationRepository.findByIdWithLock(reservation.getId())).thenReturn(Optional.of(reservation));
+
+        assertThrows(InvalidReservationException.class, () ->
+            seatMapService.holdSeats(reservation.getId(), UUID.randomUUID(), SelectionMode.BEST_AVAILABLE)
+        );
+    }
+
+    @Test
+    void createSection_ForUserWhoIsNotTheOrganizer_ShouldBeRejected() {
+        TicketType ticketType = new TicketType();
+        ticketType.setId(ticketTypeId);
+        ticketType.setEventId(UUID.randomUUID());
+        when(ticketTypeRepository.findById(ticketTypeId)).thenReturn(Optional.of(ticketType));
+        when(eventServiceClient.validateOrganizer(ticketType.getEventId(), userId)).thenReturn(false);
+        CreateSeatSectionRequest request = new CreateSeatSectionRequest();
+        request.setTicketTypeId(ticketTypeId);
+        request.setName("Stalls");
+        request.setRowLabels(List.of("A"));
+        request.setRowLengths(List.of(10));
+
+        assertThrows(UnauthorizedException.class, () -> seatMapService.createSection(request, userId));
+        verifyNoInteractions(seatSectionRepository);
+    }
+
+    @Test
+    void releaseSeats_ShouldFreeOnlyThisReservationsSeats() {
+        reservation.setSeatSectionId(section.getId());
+        reservation.setSeatOffsets("14,15");
+
+        seatMapService.releaseSeats(reservation);
+
+        verify(redisTemplate).execute(any(RedisScript.class), any(RedisSerializer.class), any(RedisSerializer.class),
+            eq(sectionKeys), eq(reservation.getId().toString()), eq("14"), eq("15"));
+    }
+
+    @Test
+    void releaseSeats_WithUnseatedReservation_ShouldDoNothing() {
+        seatMapService.releaseSeats(reservation);
+
+        verifyNoInteractions(redisTemplate);
+    }
+
+    @Test
+    void findBestAvailable_WithoutAdjacentSeats_ShouldPickBestSingleSeats() {
+        SeatLayout layout = SeatLayout.of(new String[]{"A", "B"}, new int[]{5, 5});
+        BitSet taken = new BitSet();
+        taken.set(1);
+        taken.set(3);
+        taken.set(5, 10);
+
+        assertNull(SeatAllocator.findContiguous(layout, taken, 2));
+        assertArrayEquals(new int[]{0, 2}, SeatAllocator.findBestAvailable(layout, taken, 2));
+    }
+
+    @Test
+    void fromRedisBitmap_ShouldReadMostSignificantBitFirst() {
+        BitSet taken = SeatAllocator.fromRedisBitmap(new byte[]{(byte) 0x80, 0x01});
+
+        assertTrue(taken.get(0));
+        assertTrue(taken.get(15));
+        assertEquals(2, taken.cardinality());
+    }
+}
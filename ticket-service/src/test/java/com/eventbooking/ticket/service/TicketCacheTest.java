@@ -0,0 +1,205 @@
+package com.eventbooking.ticket.service;
+
+import com.eventbooking.common.config.MonitoringConfig;
+import com.eventbooking.ticket.dto.TicketDto;
+import com.eventbooking.ticket.entity.Ticket;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.listener.Topic;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TicketCacheTest {
+
+    @Mock
+    private CacheManager cacheManager;
+
+    @Mock
+    private Cache redisCache;
+
+    @Mock
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Mock
+    private RedisMessageListenerContainer listenerContainer;
+
+    private SimpleMeterRegistry meterRegistry;
+    private TicketCache ticketCache;
+    private MessageListener invalidationListener;
+    private UUID ticketId;
+    private TicketDto ticketDto;
+    private String key;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        when(cacheManager.getCache("tickets")).thenReturn(redisCache);
+
+        ticketCache = new TicketCache(cacheManager, redisTemplate, listenerContainer,
+            new MonitoringConfig.CustomMetrics(meterRegistry));
+        ReflectionTestUtils.setField(ticketCache, "enabled", true);
+        ticketCache.init();
+
+        ArgumentCaptor<MessageListener> listener = ArgumentCaptor.forClass(MessageListener.class);
+        verify(listenerContainer).addMessageListener(listener.capture(), any(Topic.class));
+        invalidationListener = listener.getValue();
+
+        ticketId = UUID.randomUUID();
+        ticketDto = new TicketDto();
+        ticketDto.setId(ticketId);
+        key = TicketCache.idKey(ticketId);
+    }
+
+    @Test
+    void get_OnFullMiss_ShouldLoadAndWriteBothTiers() {
+        when(redisCache.get(key)).thenReturn(null);
+
+        TicketDto first = ticketCache.get(key, () -> ticketDto);
+        TicketDto second = ticketCache.get(key, () -> fail("Should be served from the near cache"));
+
+        assertSame(ticketDto, first);
+        assertSame(ticketDto, second);
+        verify(redisCache).put(key, ticketDto);
+        verify(redisCache, times(1)).get(key);
+        assertEquals(1.0, hits("tickets.near", true));
+        assertEquals(1.0, hits("tickets.redis", false));
+    }
+
+    @Test
+    void get_OnRedisHit_ShouldNotCallLoader() {
+        when(redisCache.get(key)).thenReturn(new SimpleValueWrapper(ticketDto));
+
+        TicketDto result = ticketCache.get(key, () -> fail("Should be served from Redis"));
+
+        assertSame(ticketDto, result);
+        verify(redisCache, never()).put(any(), any());
+        assertEquals(1.0, hits("tickets.redis", true));
+    }
+
+    @Test
+    void get_WhenRedisFails_ShouldFallBackToLoader() {
+        when(redisCache.get(key)).thenThrow(new IllegalStateException("Redis down"));
+
+        assertSame(ticketDto, ticketCache.get(key, () -> ticketDto));
+    }
+
+    @Test
+    void get_WhenLoaderReturnsNull_ShouldCacheNothing() {
+        when(redisCache.get(key)).thenReturn(null);
+
+        assertNull(ticketCache.get(key, () -> null));
+
+        verify(redisCache, never()).put(any(), any());
+    }
+
+    @Test
+    void get_WhenDisabled_ShouldAlwaysLoad() {
+        ReflectionTestUtils.setField(ticketCache, "enabled", false);
+
+        assertSame(ticketDto, ticketCache.get(key, () -> ticketDto));
+
+        verifyNoInteractions(redisCache);
+    }
+
+    @Test
+    void get_WhenInvalidatedWhileLoading_ShouldServeButNotCacheLoadedValue() {
+        Ticket ticket = new Ticket();
+        ticket.setId(ticketId);
+        ticket.setTicketNumber("TKT-A-0000000000001");
+        ticket.setOrderId(UUID.randomUUID());
+        when(redisCache.get(key)).thenReturn(null);
+
+        // A writer commits and invalidates after the loader read the old row
+        TicketDto stale = ticketCache.get(key, () -> {
+            ticketCache.invalidate(ticket);
+            return ticketDto;
+        });
+
+        assertSame(ticketDto, stale);
+        verify(redisCache, never()).put(any(), any());
+        TicketDto reloaded = new TicketDto();
+        assertSame(reloaded, ticketCache.get(key, () -> reloaded));
+    }
+
+    @Test
+    void get_WhenInvalidatedWhileWriting_ShouldTakeWrittenValueBackOut() {
+        Ticket ticket = new Ticket();
+        ticket.setId(ticketId);
+        ticket.setTicketNumber("TKT-A-0000000000001");
+        ticket.setOrderId(UUID.randomUUID());
+        when(redisCache.get(key)).thenReturn(null);
+        doAnswer(invocation -> {
+            ticketCache.invalidate(ticket);
+            return null;
+        }).when(redisCache).put(key, ticketDto);
+
+        assertSame(ticketDto, ticketCache.get(key, () -> ticketDto));
+
+        verify(redisCache).evict(key);
+        TicketDto reloaded = new TicketDto();
+        assertSame(reloaded, ticketCache.get(key, () -> reloaded));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void invalidate_ShouldDeleteRedisEntriesAndNotifyOtherNodes() {
+        Ticket ticket = new Ticket();
+        ticket.setId(ticketId);
+        ticket.setTicketNumber("TKT-A-0000000000001");
+        ticket.setOrderId(UUID.randomUUID());
+
+        ticketCache.invalidate(ticket);
+
+        ArgumentCaptor<Collection<String>> deleted = ArgumentCaptor.forClass(Collection.class);
+        verify(redisTemplate).delete(deleted.capture());
+        assertEquals(List.of("tickets::" + key, "tickets::number:TKT-A-0000000000001",
+            "tickets::order:" + ticket.getOrderId()), deleted.getValue());
+        verify(redisTemplate).convertAndSend(eq("ticket-cache:invalidate"), contains(key));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void onInvalidation_ShouldDropNearEntry() {
+        when(redisCache.get(key)).thenReturn(null);
+        ticketCache.get(key, () -> ticketDto);
+        RedisSerializer<Object> serializer = new GenericJackson2JsonRedisSerializer();
+        when(redisTemplate.getValueSerializer()).thenReturn((RedisSerializer) serializer);
+
+        invalidationListener.onMessage(new DefaultMessage(
+            "ticket-cache:invalidate".getBytes(StandardCharsets.UTF_8), serializer.serialize(key)), null);
+
+        TicketDto reloaded = new TicketDto();
+        assertSame(reloaded, ticketCache.get(key, () -> reloaded));
+    }
+
+    private double hits(String cache, boolean hit) {
+        return meterRegistry.get("cache.access.total")
+            .tag("cache", cache)
+            .tag("hit", String.valueOf(hit))
+            .counter()
+            .count();
+    }
+}
@@ -0,0 +1,154 @@
+package com.eventbooking.ticket.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TicketCounterAggregatorTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private TicketCounterAggregator aggregator;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        aggregator = new TicketCounterAggregator(jdbcTemplate, transactionManager, meterRegistry);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_ShouldCoalesceDeltasIntoOneBatch() {
+        UUID ga = UUID.randomUUID();
+        UUID vip = UUID.randomUUID();
+
+        aggregator.record(ga, 2, 0);
+        aggregator.record(ga, 3, 0);
+        aggregator.record(ga, -1, 0);
+        aggregator.record(vip, 1, 0);
+
+        aggregator.flush();
+
+        ArgumentCaptor<List<Object[]>> batch = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), batch.capture());
+        assertEquals(2, batch.getValue().size());
+        for (Object[] args : batch.getValue()) {
+            if (args[2].equals(ga)) {
+                assertEquals(4L, args[0]);
+            } else {
+                assertEquals(vip, args[2]);
+                assertEquals(1L, args[0]);
+            }
+        }
+        assertEquals(1, meterRegistry.get("ticket.counters.flush.lag").timer().count());
+    }
+
+    @Test
+    void flush_WithNetZeroDelta_ShouldSkipUpdate() {
+        UUID ticketTypeId = UUID.randomUUID();
+        aggregator.record(ticketTypeId, 2, 0);
+        aggregator.record(ticketTypeId, -2, 0);
+
+        aggregator.flush();
+
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_WhenUpdateFails_ShouldRetryDeltasOnNextFlush() {
+        UUID ticketTypeId = UUID.randomUUID();
+        aggregator.record(ticketTypeId, 5, 0);
+
+        when(jdbcTemplate.batchUpdate(anyString(), anyList()))
+            .thenThrow(new DataAccessResourceFailureException("connection lost"))
+            .thenReturn(new int[]{1});
+
+        aggregator.flush();
+        aggregator.flush();
+
+        ArgumentCaptor<List<Object[]>> batch = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(2)).batchUpdate(anyString(), batch.capture());
+        assertEquals(5L, batch.getAllValues().get(1).get(0)[0]);
+    }
+
+    @Test
+    void record_InsideTransaction_ShouldWaitForCommit() {
+        UUID ticketTypeId = UUID.randomUUID();
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            aggregator.record(ticketTypeId, 3, 0);
+
+            aggregator.flush();
+            verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+
+            TransactionSynchronizationManager.getSynchronizations()
+                .forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        aggregator.flush();
+
+        verify(jdbcTemplate).batchUpdate(anyString(), anyList());
+    }
+
+    @Test
+    void record_WhenTransactionRollsBack_ShouldDropDelta() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            aggregator.record(UUID.randomUUID(), 3, 0);
+
+            TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        aggregator.flush();
+
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+    }
+
+    @Test
+    void flush_ShouldRemoveDrainedTicketTypes() {
+        aggregator.record(UUID.randomUUID(), 2, 0);
+        aggregator.record(UUID.randomUUID(), 1, 0);
+        assertEquals(2.0, meterRegistry.get("ticket.counters.pending.types").gauge().value());
+
+        aggregator.flush();
+
+        assertEquals(0.0, meterRegistry.get("ticket.counters.pending.types").gauge().value());
+    }
+
+    @Test
+    void replayFromReservations_WhenAnotherNodeHoldsLock_ShouldSkip() {
+        when(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class), any())).thenReturn(false);
+
+        assertEquals(-1, aggregator.replayFromReservations());
+
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+    }
+}
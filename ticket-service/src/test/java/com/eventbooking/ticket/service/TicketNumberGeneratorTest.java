@@ -0,0 +1,142 @@
+package com.eventbooking.ticket.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TicketNumberGeneratorTest {
+
+    @Mock
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Mock
+    private ValueOperations<String, Object> valueOperations;
+
+    private TicketNumberGenerator generator;
+    private UUID eventId;
+
+    @BeforeEach
+    void setUp() {
+        generator = new TicketNumberGenerator(redisTemplate);
+        eventId = UUID.fromString("1a2b3c4d-0000-0000-0000-000000000000");
+    }
+
+    @Test
+    void nextTicketNumber_ShouldKeepReadablePrefixAndFixedWidth() {
+        ReflectionTestUtils.setField(generator, "configuredNodeId", 7);
+        generator.init();
+
+        String ticketNumber = generator.nextTicketNumber(eventId);
+
+        assertTrue(ticketNumber.matches("TKT-1A2B3C4D-[0-9A-Z]{13}"), ticketNumber);
+    }
+
+    @Test
+    void nextTicketNumber_ShouldNeverRepeatWithinOneNode() {
+        ReflectionTestUtils.setField(generator, "configuredNodeId", 7);
+        generator.init();
+
+        Set<String> seen = new HashSet<>();
+        for (int i = 0; i < 100_000; i++) {
+            assertTrue(seen.add(generator.nextTicketNumber(eventId)));
+        }
+    }
+
+    @Test
+    void nextId_ShouldDifferAcrossNodesInTheSameMillisecond() {
+        TicketNumberGenerator first = fixedClockGenerator(1);
+        TicketNumberGenerator second = fixedClockGenerator(2);
+
+        assertNotEquals(first.nextId(), second.nextId());
+    }
+
+    @Test
+    void init_WithoutConfiguredNodeId_ShouldLeaseFreeNodeId() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(startsWith("ticket-number:node:"), anyString(), eq(30L), eq(TimeUnit.SECONDS)))
+            .thenReturn(false, true);
+
+        generator.init();
+
+        ArgumentCaptor<String> keys = ArgumentCaptor.forClass(String.class);
+        verify(valueOperations, times(2)).setIfAbsent(keys.capture(), anyString(), eq(30L), eq(TimeUnit.SECONDS));
+        assertEquals("ticket-number:node:" + ReflectionTestUtils.getField(generator, "nodeId"),
+            keys.getAllValues().get(1));
+    }
+
+    @Test
+    void renewLease_WhenTakenOver_ShouldLeaseNewNodeId() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(startsWith("ticket-number:node:"), anyString(), eq(30L), eq(TimeUnit.SECONDS)))
+            .thenReturn(true);
+        generator.init();
+        long leased = (long) ReflectionTestUtils.getField(generator, "nodeId");
+        when(redisTemplate.execute(any(RedisScript.class), eq(List.of("ticket-number:node:" + leased)),
+                anyString(), eq(30L)))
+            .thenReturn(0L);
+
+        generator.renewLease();
+
+        verify(valueOperations, times(2)).setIfAbsent(startsWith("ticket-number:node:"), anyString(), eq(30L),
+            eq(TimeUnit.SECONDS));
+        assertDoesNotThrow(() -> generator.nextTicketNumber(eventId));
+    }
+
+    @Test
+    void nextTicketNumber_AfterLeaseRanOut_ShouldFail() {
+        AtomicLong clock = new AtomicLong(TicketNumberGenerator.EPOCH_MILLIS + 1_000);
+        TicketNumberGenerator leased = new TicketNumberGenerator(redisTemplate) {
+            @Override
+            long currentMillis() {
+                return clock.get();
+            }
+        };
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(startsWith("ticket-number:node:"), anyString(), eq(30L), eq(TimeUnit.SECONDS)))
+            .thenReturn(true);
+        leased.init();
+        leased.nextTicketNumber(eventId);
+
+        clock.addAndGet(TimeUnit.SECONDS.toMillis(30));
+
+        assertThrows(IllegalStateException.class, () -> leased.nextTicketNumber(eventId));
+    }
+
+    @Test
+    void init_WithNodeIdOutOfRange_ShouldFail() {
+        ReflectionTestUtils.setField(generator, "configuredNodeId", 1024);
+
+        assertThrows(IllegalStateException.class, () -> generator.init());
+    }
+
+    private TicketNumberGenerator fixedClockGenerator(int nodeId) {
+        TicketNumberGenerator fixed = new TicketNumberGenerator(redisTemplate) {
+            @Override
+            long currentMillis() {
+                return EPOCH_MILLIS + 1_000;
+            }
+        };
+        ReflectionTestUtils.setField(fixed, "configuredNodeId", nodeId);
+        fixed.init();
+        return fixed;
+    }
+}
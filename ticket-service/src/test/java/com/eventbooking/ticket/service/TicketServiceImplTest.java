@@ -12,6 +12,7 @@ import com.eventbooking.ticket.repository.TicketTypeRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -21,6 +22,8 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -44,6 +47,12 @@ class TicketServiceImplTest {
     @Mock
     private TicketEventPublisher eventPublisher;
 
+    @Mock
+    private TicketNumberGenerator ticketNumberGenerator;
+
+    @Mock
+    private TicketCache ticketCache;
+
     @InjectMocks
     private TicketServiceImpl ticketService;
 
@@ -83,12 +92,17 @@ class TicketServiceImplTest {
         testTicketDto.setOrderId(orderId);
         testTicketDto.setTicketNumber("TKT-12345678-20240115120000-1234");
         testTicketDto.setStatus(Ticket.TicketStatus.ACTIVE);
+
+        // Read through to the repository as if every lookup missed the cache
+        lenient().when(ticketCache.get(anyString(), any()))
+            .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(1).get());
     }
 
     // ========== Ticket Generation Tests ==========
 
     @Test
-    void generateTickets_WithValidRequest_ShouldGenerateTickets() {
+    @SuppressWarnings("unchecked")
+    void generateTickets_WithValidRequest_ShouldInsertWholeOrderInOneSaveAll() {
         GenerateTicketsRequest request = new GenerateTicketsRequest();
         request.setTicketTypeId(ticketTypeId);
         request.setOrderId(orderId);
@@ -96,14 +110,11 @@ class TicketServiceImplTest {
         request.setHolderName("John Doe");
 
         when(ticketTypeRepository.findById(ticketTypeId)).thenReturn(Optional.of(testTicketType));
-        when(ticketRepository.save(any(Ticket.class))).thenAnswer(invocation -> {
-            Ticket ticket = invocation.getArgument(0);
-            if (ticket.getId() == null) {
-                ticket.setId(UUID.randomUUID());
-            }
-            return ticket;
-        });
-        when(qrCodeService.generateQRCode(anyString(), anyString())).thenReturn("base64qrcode");
+        when(ticketNumberGenerator.nextTicketNumber(eventId))
+            .thenReturn("TKT-A-0000000000001", "TKT-A-0000000000002", "TKT-A-0000000000003");
+        when(ticketRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(qrCodeService.buildPayload(any(UUID.class), eq(eventId)))
+            .thenAnswer(invocation -> "TK2." + invocation.getArgument(0));
         when(ticketMapper.toDto(any(Ticket.class))).thenReturn(testTicketDto);
 
         List<TicketDto> result = ticketService.generateTickets(request);
@@ -111,8 +122,21 @@ class TicketServiceImplTest {
         assertNotNull(result);
         assertEquals(3, result.size());
         verify(ticketTypeRepository).findById(ticketTypeId);
-        verify(ticketRepository, times(6)).save(any(Ticket.class)); // 2 saves per ticket (before and after QR)
-        verify(qrCodeService, times(3)).generateQRCode(anyString(), anyString());
+        verify(ticketRepository, never()).save(any(Ticket.class));
+        verify(ticketRepository, never()).existsByTicketNumber(anyString());
+        verify(qrCodeService, never()).generateQRCode(anyString(), anyString());
+
+        ArgumentCaptor<List<Ticket>> saved = ArgumentCaptor.forClass(List.class);
+        verify(ticketRepository).saveAll(saved.capture());
+        assertEquals(3, saved.getValue().size());
+        for (Ticket ticket : saved.getValue()) {
+            // Ids are assigned before the insert so the QR payload can reference them
+            assertNotNull(ticket.getId());
+            assertTrue(ticket.isNew());
+            assertEquals("TK1." + ticket.getId(), ticket.getQrCode());
+            // Images are rendered in the background, not inside the generation transaction
+            verify(qrCodeService).renderQRCode(ticket.getQrCode());
+        }
     }
 
     @Test
@@ -130,7 +154,8 @@ class TicketServiceImplTest {
     }
 
     @Test
-    void generateTickets_ShouldGenerateUniqueTicketNumbers() {
+    @SuppressWarnings("unchecked")
+    void generateTickets_ShouldUseGeneratedNumbersWithoutDatabaseChecks() {
         GenerateTicketsRequest request = new GenerateTicketsRequest();
         request.setTicketTypeId(ticketTypeId);
         request.setOrderId(orderId);
@@ -138,21 +163,20 @@ class TicketServiceImplTest {
         request.setHolderName("Jane Smith");
 
         when(ticketTypeRepository.findById(ticketTypeId)).thenReturn(Optional.of(testTicketType));
-        when(ticketRepository.existsByTicketNumber(anyString())).thenReturn(false);
-        when(ticketRepository.save(any(Ticket.class))).thenAnswer(invocation -> {
-            Ticket ticket = invocation.getArgument(0);
-            if (ticket.getId() == null) {
-                ticket.setId(UUID.randomUUID());
-            }
-            return ticket;
-        });
-        when(qrCodeService.generateQRCode(anyString(), anyString())).thenReturn("qrcode");
+        when(ticketNumberGenerator.nextTicketNumber(eventId))
+            .thenReturn("TKT-A-0000000000001", "TKT-A-0000000000002");
+        when(ticketRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(qrCodeService.buildPayload(any(UUID.class), eq(eventId))).thenReturn("TK2.1", "TK2.2");
         when(ticketMapper.toDto(any(Ticket.class))).thenReturn(testTicketDto);
 
         List<TicketDto> result = ticketService.generateTickets(request);
 
         assertEquals(2, result.size());
-        verify(ticketRepository, atLeast(2)).existsByTicketNumber(anyString());
+        ArgumentCaptor<List<Ticket>> saved = ArgumentCaptor.forClass(List.class);
+        verify(ticketRepository).saveAll(saved.capture());
+        assertEquals("TKT-A-0000000000001", saved.getValue().get(0).getTicketNumber());
+        assertEquals("TKT-A-0000000000002", saved.getValue().get(1).getTicketNumber());
+        verify(ticketRepository, never()).existsByTicketNumber(anyString());
     }
 
     // ========== Ticket Retrieval Tests ==========
@@ -169,6 +193,17 @@ class TicketServiceImplTest {
         verify(ticketRepository).findById(ticketId);
     }
 
+    @Test
+    void getTicketQRCodeImage_ShouldRenderStoredPayload() {
+        byte[] png = {1, 2, 3};
+        when(ticketRepository.findById(ticketId)).thenReturn(Optional.of(testTicket));
+        when(qrCodeService.renderQRCode(testTicket.getQrCode())).thenReturn(CompletableFuture.completedFuture(png));
+
+        CompletableFuture<byte[]> result = ticketService.getTicketQRCodeImage(ticketId);
+
+        assertArrayEquals(png, result.join());
+    }
+
     @Test
     void getTicketById_WithInvalidId_ShouldThrowException() {
         when(ticketRepository.findById(ticketId)).thenReturn(Optional.empty());
@@ -214,6 +249,16 @@ class TicketServiceImplTest {
         verify(ticketRepository).findByOrderId(orderId);
     }
 
+    @Test
+    void getTicketsByOrderId_WithoutTickets_ShouldReturnEmptyList() {
+        when(ticketRepository.findByOrderId(orderId)).thenReturn(List.of());
+
+        List<TicketDto> result = ticketService.getTicketsByOrderId(orderId);
+
+        assertNotNull(result);
+        assertTrue(result.isEmpty());
+    }
+
     // ========== Ticket Cancellation Tests ==========
 
     @Test
@@ -225,6 +270,7 @@ class TicketServiceImplTest {
 
         assertEquals(Ticket.TicketStatus.CANCELLED, testTicket.getStatus());
         verify(ticketRepository).save(testTicket);
+        verify(ticketCache).invalidate(testTicket);
     }
 
     @Test
@@ -249,37 +295,39 @@ class TicketServiceImplTest {
     // ========== QR Code Validation Tests ==========
 
     @Test
-    void validateTicket_WithValidQRCode_ShouldReturnTicket() {
-        String qrCode = "TICKET:123:TKT-12345678-20240115120000-1234";
+    void validateTicket_WithValidQRCode_ShouldLookUpTicketById() {
+        String qrCode = "TK1.signedpayload";
         
-        when(qrCodeService.validateQRCode(qrCode)).thenReturn(true);
-        when(ticketRepository.findByQrCode(qrCode)).thenReturn(Optional.of(testTicket));
+        when(qrCodeService.resolveTicketId(qrCode)).thenReturn(ticketId);
+        when(ticketRepository.findById(ticketId)).thenReturn(Optional.of(testTicket));
         when(ticketMapper.toDto(testTicket)).thenReturn(testTicketDto);
 
         TicketDto result = ticketService.validateTicket(qrCode);
 
         assertNotNull(result);
-        verify(qrCodeService).validateQRCode(qrCode);
-        verify(ticketRepository).findByQrCode(qrCode);
+        verify(qrCodeService).resolveTicketId(qrCode);
+        verify(ticketRepository, never()).findByQrCode(anyString());
     }
 
     @Test
     void validateTicket_WithInvalidQRCodeFormat_ShouldThrowException() {
         String qrCode = "INVALID-FORMAT";
         
-        when(qrCodeService.validateQRCode(qrCode)).thenReturn(false);
+        when(qrCodeService.resolveTicketId(qrCode)).thenReturn(null);
 
         assertThrows(TicketNotFoundException.class, () ->
             ticketService.validateTicket(qrCode)
         );
+        verifyNoInteractions(ticketRepository);
     }
 
     @Test
     void validateTicket_WithNonExistentQRCode_ShouldThrowException() {
-        String qrCode = "TICKET:999:TKT-NONEXISTENT";
+        String qrCode = "TK1.unknownticket";
+        UUID unknownId = UUID.randomUUID();
         
-        when(qrCodeService.validateQRCode(qrCode)).thenReturn(true);
-        when(ticketRepository.findByQrCode(qrCode)).thenReturn(Optional.empty());
+        when(qrCodeService.resolveTicketId(qrCode)).thenReturn(unknownId);
+        when(ticketRepository.findById(unknownId)).thenReturn(Optional.empty());
 
         assertThrows(TicketNotFoundException.class, () ->
             ticketService.validateTicket(qrCode)
@@ -3,6 +3,7 @@ package com.eventbooking.ticket.service;
 import com.eventbooking.ticket.dto.*;
 import com.eventbooking.ticket.entity.TicketReservation;
 import com.eventbooking.ticket.entity.TicketType;
+import com.eventbooking.ticket.exception.AdmissionRequiredException;
 import com.eventbooking.ticket.exception.InsufficientInventoryException;
 import com.eventbooking.ticket.exception.InvalidReservationException;
 import com.eventbooking.ticket.exception.TicketTypeNotFoundException;
@@ -12,14 +13,17 @@ import com.eventbooking.ticket.repository.TicketTypeRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -42,6 +46,27 @@ class TicketTypeServiceImplTest {
     @Mock
     private InventoryService inventoryService;
 
+    @Mock
+    private TicketTypeSnapshotCache snapshotCache;
+
+    @Mock
+    private TicketCounterAggregator counterAggregator;
+
+    @Mock
+    private ReservationExpiryQueue expiryQueue;
+
+    @Mock
+    private ExpiredReservationSweeper expiredReservationSweeper;
+
+    @Mock
+    private WaitingRoomService waitingRoomService;
+
+    @Mock
+    private SeatMapService seatMapService;
+
+    @Mock
+    private SaleWindowIndex saleWindowIndex;
+
     @InjectMocks
     private TicketTypeServiceImpl ticketTypeService;
 
@@ -101,6 +126,7 @@ class TicketTypeServiceImplTest {
         assertEquals(ticketTypeId, result.getId());
         verify(ticketTypeRepository).save(any(TicketType.class));
         verify(inventoryService).syncInventoryFromDatabase(ticketTypeId);
+        verify(saleWindowIndex).invalidate(eventId);
     }
 
     @Test
@@ -154,6 +180,20 @@ class TicketTypeServiceImplTest {
         verify(ticketTypeRepository).findByEventId(eventId);
     }
 
+    @Test
+    void getAvailableTicketTypesByEventId_WithIndex_ShouldUseLiveCountsWithoutQuery() {
+        when(saleWindowIndex.isEnabled()).thenReturn(true);
+        when(saleWindowIndex.findAvailable(eventId))
+            .thenReturn(List.of(new SaleWindowIndex.AvailableTicketType(testTicketType, 42)));
+        when(ticketTypeMapper.toDto(testTicketType)).thenReturn(testTicketTypeDto);
+
+        List<TicketTypeDto> result = ticketTypeService.getAvailableTicketTypesByEventId(eventId);
+
+        assertEquals(1, result.size());
+        assertEquals(42, result.get(0).getAvailableQuantity());
+        verifyNoInteractions(ticketTypeRepository);
+    }
+
     // ========== Ticket Type Update Tests ==========
 
     @Test
@@ -171,6 +211,23 @@ class TicketTypeServiceImplTest {
         assertNotNull(result);
         verify(ticketTypeRepository).save(testTicketType);
         verify(inventoryService).syncInventoryFromDatabase(ticketTypeId);
+        verify(saleWindowIndex).invalidate(eventId);
+    }
+
+    @Test
+    void updateTicketType_ChangingQuantityDuringSale_ShouldAdjustLiveCounters() {
+        UpdateTicketTypeRequest request = new UpdateTicketTypeRequest();
+        request.setQuantityAvailable(150);
+
+        when(ticketTypeRepository.findById(ticketTypeId)).thenReturn(Optional.of(testTicketType));
+        when(ticketTypeRepository.save(any(TicketType.class))).thenReturn(testTicketType);
+        when(ticketTypeMapper.toDto(testTicketType)).thenReturn(testTicketTypeDto);
+
+        ticketTypeService.updateTicketType(ticketTypeId, request, organizerId);
+
+        InOrder inOrder = inOrder(inventoryService);
+        inOrder.verify(inventoryService).adjustInventory(ticketTypeId, 50);
+        inOrder.verify(inventoryService).syncInventoryFromDatabase(ticketTypeId);
     }
 
     @Test
@@ -197,6 +254,7 @@ class TicketTypeServiceImplTest {
 
         verify(ticketTypeRepository).delete(testTicketType);
         verify(inventoryService).clearInventoryCache(ticketTypeId);
+        verify(saleWindowIndex).invalidate(eventId);
     }
 
     @Test
@@ -225,15 +283,16 @@ class TicketTypeServiceImplTest {
         reservation.setStatus(TicketReservation.ReservationStatus.ACTIVE);
 
         when(ticketTypeRepository.findByIdWithLock(ticketTypeId)).thenReturn(Optional.of(testTicketType));
-        when(inventoryService.reserveTickets(ticketTypeId, 5)).thenReturn(true);
+        when(inventoryService.reserveTickets(ticketTypeId, userId, 5, 10)).thenReturn(InventoryReservationResult.reserved(95));
         when(reservationRepository.save(any(TicketReservation.class))).thenReturn(reservation);
         when(ticketTypeRepository.save(any(TicketType.class))).thenReturn(testTicketType);
 
         ReservationDto result = ticketTypeService.reserveTickets(request, userId);
 
         assertNotNull(result);
+        verify(expiryQueue).schedule(reservation);
         assertEquals(5, result.getQuantity());
-        verify(inventoryService).reserveTickets(ticketTypeId, 5);
+        verify(inventoryService).reserveTickets(ticketTypeId, userId, 5, 10);
         verify(reservationRepository).save(any(TicketReservation.class));
     }
 
@@ -257,12 +316,13 @@ class TicketTypeServiceImplTest {
         request.setQuantity(5);
 
         when(ticketTypeRepository.findByIdWithLock(ticketTypeId)).thenReturn(Optional.of(testTicketType));
-        when(inventoryService.reserveTickets(ticketTypeId, 5)).thenReturn(false);
-        when(inventoryService.getAvailableQuantity(ticketTypeId)).thenReturn(2);
+        when(inventoryService.reserveTickets(ticketTypeId, userId, 5, 10)).thenReturn(InventoryReservationResult.insufficient(2));
 
-        assertThrows(InsufficientInventoryException.class, () ->
+        InsufficientInventoryException exception = assertThrows(InsufficientInventoryException.class, () ->
             ticketTypeService.reserveTickets(request, userId)
         );
+        assertTrue(exception.getMessage().contains("Available: 2"));
+        verify(inventoryService, never()).getAvailableQuantity(any());
     }
 
     @Test
@@ -280,6 +340,160 @@ class TicketTypeServiceImplTest {
         );
     }
 
+    @Test
+    void reserveTickets_WithoutAdmissionWhileWaitingRoomOpen_ShouldRejectBeforeLocking() {
+        ReserveTicketsRequest request = new ReserveTicketsRequest();
+        request.setTicketTypeId(ticketTypeId);
+        request.setQuantity(2);
+        request.setAdmissionToken("expired-or-forged");
+
+        when(waitingRoomService.isEnabled()).thenReturn(true);
+        when(snapshotCache.get(ticketTypeId)).thenReturn(TicketTypeSnapshot.of(testTicketType));
+        doThrow(new AdmissionRequiredException(eventId))
+            .when(waitingRoomService).verifyAdmission(eventId, userId, "expired-or-forged");
+
+        assertThrows(AdmissionRequiredException.class, () ->
+            ticketTypeService.reserveTickets(request, userId)
+        );
+        verify(ticketTypeRepository, never()).findByIdWithLock(any());
+        verifyNoInteractions(inventoryService);
+    }
+
+    @Test
+    void reserveTickets_LockFreeMode_ShouldUseSnapshotAndAtomicUpdate() {
+        ReflectionTestUtils.setField(ticketTypeService, "lockFreeReservations", true);
+
+        ReserveTicketsRequest request = new ReserveTicketsRequest();
+        request.setTicketTypeId(ticketTypeId);
+        request.setQuantity(5);
+
+        TicketReservation reservation = new TicketReservation();
+        reservation.setId(UUID.randomUUID());
+        reservation.setUserId(userId);
+        reservation.setTicketTypeId(ticketTypeId);
+        reservation.setQuantity(5);
+        reservation.setStatus(TicketReservation.ReservationStatus.ACTIVE);
+
+        when(snapshotCache.get(ticketTypeId)).thenReturn(TicketTypeSnapshot.of(testTicketType));
+        when(inventoryService.reserveTickets(ticketTypeId, userId, 5, 10)).thenReturn(InventoryReservationResult.reserved(95));
+        when(reservationRepository.save(any(TicketReservation.class))).thenReturn(reservation);
+
+        ReservationDto result = ticketTypeService.reserveTickets(request, userId);
+
+        assertNotNull(result);
+        verify(ticketTypeRepository, never()).findByIdWithLock(any());
+        verify(ticketTypeRepository, never()).save(any(TicketType.class));
+        verify(ticketTypeRepository).adjustQuantityReserved(ticketTypeId, 5);
+    }
+
+    @Test
+    void reserveTickets_LockFreeModeNotOnSale_ShouldThrowException() {
+        ReflectionTestUtils.setField(ticketTypeService, "lockFreeReservations", true);
+        testTicketType.setSaleStartDate(LocalDateTime.now().plusDays(1));
+
+        ReserveTicketsRequest request = new ReserveTicketsRequest();
+        request.setTicketTypeId(ticketTypeId);
+        request.setQuantity(5);
+
+        when(snapshotCache.get(ticketTypeId)).thenReturn(TicketTypeSnapshot.of(testTicketType));
+
+        assertThrows(InvalidReservationException.class, () ->
+            ticketTypeService.reserveTickets(request, userId)
+        );
+        verify(inventoryService, never()).reserveTickets(any(), any(), any(), any());
+    }
+
+    @Test
+    void reserveTickets_WithWriteBehindCounters_ShouldRecordDeltaInsteadOfSaving() {
+        ReserveTicketsRequest request = new ReserveTicketsRequest();
+        request.setTicketTypeId(ticketTypeId);
+        request.setQuantity(5);
+
+        TicketReservation reservation = new TicketReservation();
+        reservation.setId(UUID.randomUUID());
+        reservation.setUserId(userId);
+        reservation.setTicketTypeId(ticketTypeId);
+        reservation.setQuantity(5);
+        reservation.setStatus(TicketReservation.ReservationStatus.ACTIVE);
+
+        when(counterAggregator.isEnabled()).thenReturn(true);
+        when(ticketTypeRepository.findByIdWithLock(ticketTypeId)).thenReturn(Optional.of(testTicketType));
+        when(inventoryService.reserveTickets(ticketTypeId, userId, 5, 10)).thenReturn(InventoryReservationResult.reserved(95));
+        when(reservationRepository.save(any(TicketReservation.class))).thenReturn(reservation);
+
+        ticketTypeService.reserveTickets(request, userId);
+
+        verify(counterAggregator).record(ticketTypeId, 5, 0);
+        verify(ticketTypeRepository, never()).save(any(TicketType.class));
+    }
+
+    @Test
+    void reserveTickets_OverPerPersonLimitAcrossRequests_ShouldThrowException() {
+        ReserveTicketsRequest request = new ReserveTicketsRequest();
+        request.setTicketTypeId(ticketTypeId);
+        request.setQuantity(5);
+
+        when(ticketTypeRepository.findByIdWithLock(ticketTypeId)).thenReturn(Optional.of(testTicketType));
+        when(inventoryService.reserveTickets(ticketTypeId, userId, 5, 10))
+            .thenReturn(InventoryReservationResult.limitExceeded(8));
+
+        InvalidReservationException exception = assertThrows(InvalidReservationException.class, () ->
+            ticketTypeService.reserveTickets(request, userId)
+        );
+
+        assertTrue(exception.getMessage().contains("already holding 8"));
+        verify(reservationRepository, never()).save(any());
+    }
+
+    // ========== Cart Reservation Tests ==========
+
+    @Test
+    void reserveCart_WithAvailableItems_ShouldReserveAllInOneCall() {
+        TicketType vipTicketType = new TicketType();
+        vipTicketType.setId(UUID.randomUUID());
+        vipTicketType.setEventId(eventId);
+        vipTicketType.setQuantityAvailable(20);
+        vipTicketType.setQuantitySold(0);
+        vipTicketType.setQuantityReserved(0);
+        vipTicketType.setPerPersonLimit(4);
+
+        ReserveCartRequest request = new ReserveCartRequest();
+        request.setItems(List.of(cartItem(ticketTypeId, 2), cartItem(vipTicketType.getId(), 1)));
+
+        when(ticketTypeRepository.findAllByIdWithLock(any())).thenReturn(List.of(testTicketType, vipTicketType));
+        when(inventoryService.reserveCart(eq(userId), any(), any())).thenReturn(CartReservationResult.reserved());
+        when(reservationRepository.save(any(TicketReservation.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(ticketTypeRepository.findById(ticketTypeId)).thenReturn(Optional.of(testTicketType));
+        when(ticketTypeRepository.findById(vipTicketType.getId())).thenReturn(Optional.of(vipTicketType));
+
+        List<ReservationDto> result = ticketTypeService.reserveCart(request, userId);
+
+        assertEquals(2, result.size());
+        verify(inventoryService).reserveCart(userId, Map.of(ticketTypeId, 2, vipTicketType.getId(), 1),
+            Map.of(ticketTypeId, 10, vipTicketType.getId(), 4));
+        verify(reservationRepository, times(2)).save(any(TicketReservation.class));
+        assertEquals(2, testTicketType.getQuantityReserved());
+        assertEquals(1, vipTicketType.getQuantityReserved());
+    }
+
+    @Test
+    void reserveCart_WithShortItem_ShouldReserveNothing() {
+        ReserveCartRequest request = new ReserveCartRequest();
+        request.setItems(List.of(cartItem(ticketTypeId, 2), cartItem(ticketTypeId, 3)));
+
+        when(ticketTypeRepository.findAllByIdWithLock(any())).thenReturn(List.of(testTicketType));
+        when(inventoryService.reserveCart(eq(userId), any(), any()))
+            .thenReturn(CartReservationResult.insufficient(ticketTypeId, 4));
+
+        InsufficientInventoryException exception = assertThrows(InsufficientInventoryException.class, () ->
+            ticketTypeService.reserveCart(request, userId)
+        );
+
+        assertTrue(exception.getMessage().contains("Requested: 5"));
+        verify(reservationRepository, never()).save(any());
+        verify(inventoryService, never()).releaseReservation(any(), any(), any());
+    }
+
     // ========== Reservation Cancellation Tests ==========
 
     @Test
@@ -292,15 +506,17 @@ class TicketTypeServiceImplTest {
         reservation.setQuantity(5);
         reservation.setStatus(TicketReservation.ReservationStatus.ACTIVE);
 
-        when(reservationRepository.findById(reservationId)).thenReturn(Optional.of(reservation));
+        when(reservationRepository.findByIdWithLock(reservationId)).thenReturn(Optional.of(reservation));
         when(ticketTypeRepository.findById(ticketTypeId)).thenReturn(Optional.of(testTicketType));
         when(reservationRepository.save(any(TicketReservation.class))).thenReturn(reservation);
         when(ticketTypeRepository.save(any(TicketType.class))).thenReturn(testTicketType);
 
         ticketTypeService.cancelReservation(reservationId, userId);
 
-        verify(inventoryService).releaseReservation(ticketTypeId, 5);
+        verify(inventoryService).releaseReservation(ticketTypeId, userId, 5);
         verify(reservationRepository).save(reservation);
+        verify(expiryQueue).remove(reservationId);
+        verify(seatMapService).releaseSeats(reservation);
         assertEquals(TicketReservation.ReservationStatus.CANCELLED, reservation.getStatus());
     }
 
@@ -314,36 +530,48 @@ class TicketTypeServiceImplTest {
         reservation.setUserId(userId);
         reservation.setStatus(TicketReservation.ReservationStatus.ACTIVE);
 
-        when(reservationRepository.findById(reservationId)).thenReturn(Optional.of(reservation));
+        when(reservationRepository.findByIdWithLock(reservationId)).thenReturn(Optional.of(reservation));
 
         assertThrows(InvalidReservationException.class, () ->
             ticketTypeService.cancelReservation(reservationId, differentUserId)
         );
     }
 
+    @Test
+    void cancelReservation_AlreadyExpired_ShouldNotReleaseInventoryAgain() {
+        UUID reservationId = UUID.randomUUID();
+        TicketReservation reservation = new TicketReservation();
+        reservation.setId(reservationId);
+        reservation.setUserId(userId);
+        reservation.setTicketTypeId(ticketTypeId);
+        reservation.setQuantity(5);
+        reservation.setStatus(TicketReservation.ReservationStatus.EXPIRED);
+
+        when(reservationRepository.findByIdWithLock(reservationId)).thenReturn(Optional.of(reservation));
+
+        assertThrows(InvalidReservationException.class, () ->
+            ticketTypeService.cancelReservation(reservationId, userId)
+        );
+        verify(inventoryService, never()).releaseReservation(any(), any(), anyInt());
+        verify(reservationRepository, never()).save(any(TicketReservation.class));
+    }
+
     // ========== Expired Reservation Cleanup Tests ==========
 
     @Test
-    void cleanupExpiredReservations_ShouldProcessExpiredReservations() {
-        TicketReservation expiredReservation = new TicketReservation();
-        expiredReservation.setId(UUID.randomUUID());
-        expiredReservation.setTicketTypeId(ticketTypeId);
-        expiredReservation.setQuantity(5);
-        expiredReservation.setStatus(TicketReservation.ReservationStatus.ACTIVE);
-
-        List<TicketReservation> expiredReservations = Arrays.asList(expiredReservation);
-
-        when(reservationRepository.findExpiredReservations(
-            eq(TicketReservation.ReservationStatus.ACTIVE), any(LocalDateTime.class)))
-            .thenReturn(expiredReservations);
-        when(ticketTypeRepository.findById(ticketTypeId)).thenReturn(Optional.of(testTicketType));
-        when(reservationRepository.save(any(TicketReservation.class))).thenReturn(expiredReservation);
-        when(ticketTypeRepository.save(any(TicketType.class))).thenReturn(testTicketType);
+    void cleanupExpiredReservations_ShouldDelegateToPagedSweeper() {
+        when(expiredReservationSweeper.sweep()).thenReturn(3);
 
         ticketTypeService.cleanupExpiredReservations();
 
-        verify(inventoryService).releaseReservation(ticketTypeId, 5);
-        verify(reservationRepository).save(expiredReservation);
-        assertEquals(TicketReservation.ReservationStatus.EXPIRED, expiredReservation.getStatus());
+        verify(expiredReservationSweeper).sweep();
+        verify(reservationRepository, never()).findExpiredReservations(any(), any());
+    }
+
+    private ReserveTicketsRequest cartItem(UUID itemTicketTypeId, int quantity) {
+        ReserveTicketsRequest item = new ReserveTicketsRequest();
+        item.setTicketTypeId(itemTicketTypeId);
+        item.setQuantity(quantity);
+        return item;
     }
 }
@@ -0,0 +1,140 @@
+package com.eventbooking.ticket.service;
+
+import com.eventbooking.common.client.EventServiceClient;
+import com.eventbooking.common.exception.UnauthorizedException;
+import com.eventbooking.ticket.dto.WaitingRoomStatusDto;
+import com.eventbooking.ticket.exception.AdmissionRequiredException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SetOperations;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WaitingRoomServiceTest {
+
+    @Mock
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Mock
+    private SetOperations<String, Object> setOperations;
+
+    @Mock
+    private ZSetOperations<String, Object> zSetOperations;
+
+    @Mock
+    private HashOperations<String, Object, Object> hashOperations;
+
+    @Mock
+    private EventServiceClient eventServiceClient;
+
+    @InjectMocks
+    private WaitingRoomService waitingRoomService;
+
+    private UUID eventId;
+    private UUID userId;
+    private String roomKey;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(waitingRoomService, "enabled", true);
+        eventId = UUID.randomUUID();
+        userId = UUID.randomUUID();
+        roomKey = "waiting-room:{" + eventId + "}";
+    }
+
+    @Test
+    void verifyAdmission_WithValidToken_ShouldPass() {
+        ReflectionTestUtils.setField(waitingRoomService, "openRooms", Set.of(eventId));
+        String token = waitingRoomService.issueToken(eventId, userId, Instant.now().getEpochSecond() + 60);
+
+        assertDoesNotThrow(() -> waitingRoomService.verifyAdmission(eventId, userId, token));
+        verifyNoInteractions(redisTemplate);
+    }
+
+    @Test
+    void verifyAdmission_WithTokenForAnotherUser_ShouldReject() {
+        ReflectionTestUtils.setField(waitingRoomService, "openRooms", Set.of(eventId));
+        String token = waitingRoomService.issueToken(eventId, UUID.randomUUID(), Instant.now().getEpochSecond() + 60);
+
+        assertThrows(AdmissionRequiredException.class, () ->
+            waitingRoomService.verifyAdmission(eventId, userId, token)
+        );
+    }
+
+    @Test
+    void verifyAdmission_WithExpiredToken_ShouldReject() {
+        ReflectionTestUtils.setField(waitingRoomService, "openRooms", Set.of(eventId));
+        String token = waitingRoomService.issueToken(eventId, userId, Instant.now().getEpochSecond() - 1);
+
+        assertThrows(AdmissionRequiredException.class, () ->
+            waitingRoomService.verifyAdmission(eventId, userId, token)
+        );
+    }
+
+    @Test
+    void verifyAdmission_WithoutOpenRoom_ShouldNotRequireToken() {
+        assertDoesNotThrow(() -> waitingRoomService.verifyAdmission(eventId, userId, null));
+    }
+
+    @Test
+    void openRoom_ForUserWhoIsNotTheOrganizer_ShouldBeRejected() {
+        when(eventServiceClient.validateOrganizer(eventId, userId)).thenReturn(false);
+
+        assertThrows(UnauthorizedException.class, () -> waitingRoomService.openRoom(eventId, 1, userId));
+        verifyNoInteractions(redisTemplate);
+    }
+
+    @Test
+    void closeRoom_ForUserWhoIsNotTheOrganizer_ShouldBeRejected() {
+        when(eventServiceClient.validateOrganizer(eventId, userId)).thenReturn(false);
+
+        assertThrows(UnauthorizedException.class, () -> waitingRoomService.closeRoom(eventId, userId));
+        verifyNoInteractions(redisTemplate);
+    }
+
+    @Test
+    void getStatus_WhileQueued_ShouldReportPositionAndEstimatedWait() {
+        when(redisTemplate.opsForSet()).thenReturn(setOperations);
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        when(redisTemplate.opsForHash()).thenReturn(hashOperations);
+        when(setOperations.isMember("waiting-room:rooms", eventId.toString())).thenReturn(true);
+        when(zSetOperations.score(roomKey + ":admitted", userId.toString())).thenReturn(null);
+        when(zSetOperations.rank(roomKey + ":queue", userId.toString())).thenReturn(249L);
+        when(hashOperations.get(roomKey, "rate")).thenReturn(100);
+
+        WaitingRoomStatusDto status = waitingRoomService.getStatus(eventId, userId);
+
+        assertEquals(WaitingRoomStatusDto.State.WAITING, status.getState());
+        assertEquals(250L, status.getPosition());
+        assertEquals(3L, status.getEstimatedWaitSeconds());
+        assertNull(status.getAdmissionToken());
+    }
+
+    @Test
+    void getStatus_OnceAdmitted_ShouldIssueVerifiableToken() {
+        when(redisTemplate.opsForSet()).thenReturn(setOperations);
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        when(setOperations.isMember("waiting-room:rooms", eventId.toString())).thenReturn(true);
+        when(zSetOperations.score(roomKey + ":admitted", userId.toString()))
+            .thenReturn((double) System.currentTimeMillis());
+
+        WaitingRoomStatusDto status = waitingRoomService.getStatus(eventId, userId);
+
+        assertEquals(WaitingRoomStatusDto.State.ADMITTED, status.getState());
+        assertTrue(waitingRoomService.isValidToken(eventId, userId, status.getAdmissionToken()));
+    }
+}